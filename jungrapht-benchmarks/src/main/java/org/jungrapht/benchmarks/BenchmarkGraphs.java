@@ -0,0 +1,97 @@
+package org.jungrapht.benchmarks;
+
+import java.util.Random;
+import java.util.function.Function;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.model.Point;
+
+/**
+ * Seeded graph and location generators, so that every benchmark run measures the same input
+ *
+ * @author Tom Nelson
+ */
+public class BenchmarkGraphs {
+
+  public static final long SEED = 42;
+
+  private BenchmarkGraphs() {}
+
+  /**
+   * a connected undirected graph: a random spanning tree plus random extra edges
+   *
+   * @param vertexCount the number of vertices
+   * @param edgeFactor the number of edges per vertex
+   * @return the graph
+   */
+  public static Graph<Integer, Integer> undirected(int vertexCount, double edgeFactor) {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .allowingMultipleEdges(false)
+            .allowingSelfLoops(false)
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    addEdges(graph, vertexCount, edgeFactor, false);
+    return graph;
+  }
+
+  /**
+   * a connected directed acyclic graph, with every edge from a lower to a higher vertex
+   *
+   * @param vertexCount the number of vertices
+   * @param edgeFactor the number of edges per vertex
+   * @return the graph
+   */
+  public static Graph<Integer, Integer> directedAcyclic(int vertexCount, double edgeFactor) {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>directed()
+            .allowingMultipleEdges(false)
+            .allowingSelfLoops(false)
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    addEdges(graph, vertexCount, edgeFactor, true);
+    return graph;
+  }
+
+  private static void addEdges(
+      Graph<Integer, Integer> graph, int vertexCount, double edgeFactor, boolean acyclic) {
+    Random random = new Random(SEED);
+    for (int i = 0; i < vertexCount; i++) {
+      graph.addVertex();
+    }
+    for (int i = 1; i < vertexCount; i++) {
+      graph.addEdge(random.nextInt(i), i);
+    }
+    long extra = Math.round(vertexCount * edgeFactor) - (vertexCount - 1);
+    for (long i = 0; i < extra; i++) {
+      int a = random.nextInt(vertexCount);
+      int b = random.nextInt(vertexCount);
+      if (a == b) {
+        continue;
+      }
+      if (acyclic && a > b) {
+        int swap = a;
+        a = b;
+        b = swap;
+      }
+      if (!graph.containsEdge(a, b)) {
+        graph.addEdge(a, b);
+      }
+    }
+  }
+
+  /**
+   * @param width the width of the layout area
+   * @param height the height of the layout area
+   * @return a repeatable random location for each vertex
+   */
+  public static Function<Integer, Point> locations(int width, int height) {
+    return v -> {
+      Random random = new Random(SEED * 31 + v);
+      return Point.of(random.nextDouble() * width, random.nextDouble() * height);
+    };
+  }
+}
@@ -0,0 +1,55 @@
+package org.jungrapht.benchmarks;
+
+import java.awt.Dimension;
+import org.jgrapht.Graph;
+import org.jungrapht.visualization.VisualizationModel;
+import org.jungrapht.visualization.VisualizationServer;
+import org.jungrapht.visualization.layout.algorithms.StaticLayoutAlgorithm;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+
+/**
+ * Creates headless VisualizationServers over seeded vertex locations, with the spatial structures
+ * updated on the calling thread
+ *
+ * @author Tom Nelson
+ */
+public class BenchmarkServers {
+
+  public static final int LAYOUT_SIZE = 2000;
+  public static final int VIEW_SIZE = 1000;
+
+  private BenchmarkServers() {}
+
+  /**
+   * @param graph the graph to show
+   * @param vertexSpatialSupport the spatial structure for vertices
+   * @param edgeSpatialSupport the spatial structure for edges
+   * @return a server whose spatial structures are active and filled
+   */
+  public static VisualizationServer<Integer, Integer> create(
+      Graph<Integer, Integer> graph,
+      VisualizationModel.SpatialSupport vertexSpatialSupport,
+      VisualizationModel.SpatialSupport edgeSpatialSupport) {
+    System.setProperty("jungrapht.spatialSupportOnSwingThread", "false");
+    System.setProperty("jungrapht.vertexSpatialSupport", vertexSpatialSupport.name());
+    System.setProperty("jungrapht.edgeSpatialSupport", edgeSpatialSupport.name());
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(LAYOUT_SIZE, LAYOUT_SIZE)
+            .initializer(BenchmarkGraphs.locations(LAYOUT_SIZE, LAYOUT_SIZE))
+            .build();
+    VisualizationServer<Integer, Integer> server =
+        VisualizationServer.builder(
+                VisualizationModel.<Integer, Integer>builder(layoutModel)
+                    .layoutAlgorithm(new StaticLayoutAlgorithm<>())
+                    .build())
+            .viewSize(new Dimension(VIEW_SIZE, VIEW_SIZE))
+            .build();
+    server.getVertexSpatial().setActive(true);
+    server.getVertexSpatial().recalculate();
+    server.getEdgeSpatial().setActive(true);
+    server.getEdgeSpatial().recalculate();
+    return server;
+  }
+}
@@ -0,0 +1,85 @@
+package org.jungrapht.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.jgrapht.Graph;
+import org.jungrapht.visualization.layout.algorithms.EiglspergerLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.GEMLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.LayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End to end time of the layout algorithms that run to completion in one visit: the Sugiyama and
+ * Eiglsperger layered layouts, which run on the calling thread, and GEM.
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class EndToEndLayoutBenchmark {
+
+  public enum Algorithm {
+    SUGIYAMA(
+        () -> SugiyamaLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder().threaded(false).build()),
+    SUGIYAMA_PARALLEL_SWEEPS(
+        () ->
+            SugiyamaLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder()
+                .threaded(false)
+                .parallelSweeps(true)
+                .build()),
+    EIGLSPERGER(
+        () ->
+            EiglspergerLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder()
+                .threaded(false)
+                .build()),
+    GEM(() -> GEMLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder().threaded(false).build());
+
+    final Supplier<LayoutAlgorithm<Integer>> supplier;
+
+    Algorithm(Supplier<LayoutAlgorithm<Integer>> supplier) {
+      this.supplier = supplier;
+    }
+  }
+
+  @Param({"100", "500", "2000"})
+  public int size;
+
+  @Param public Algorithm algorithm;
+
+  Graph<Integer, Integer> graph;
+
+  @Setup(Level.Trial)
+  public void createGraph() {
+    graph = BenchmarkGraphs.directedAcyclic(size, 1.3);
+  }
+
+  @Benchmark
+  public LayoutModel<Integer> layout() {
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(1000, 1000)
+            .initializer(BenchmarkGraphs.locations(1000, 1000))
+            .createVisRunnable(false)
+            .build();
+    layoutModel.accept(algorithm.supplier.get());
+    return layoutModel;
+  }
+}
@@ -0,0 +1,117 @@
+package org.jungrapht.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.jgrapht.Graph;
+import org.jungrapht.visualization.layout.algorithms.FRLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.ForceAtlas2LayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.GEMLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.IterativeLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.KKLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.SpringLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.repulsion.BarnesHutFA2Repulsion;
+import org.jungrapht.visualization.layout.algorithms.repulsion.BarnesHutFRRepulsion;
+import org.jungrapht.visualization.layout.algorithms.repulsion.BarnesHutSpringRepulsion;
+import org.jungrapht.visualization.layout.algorithms.repulsion.StandardFA2Repulsion;
+import org.jungrapht.visualization.layout.algorithms.repulsion.StandardFRRepulsion;
+import org.jungrapht.visualization.layout.algorithms.repulsion.StandardSpringRepulsion;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of a single step of the force directed layout algorithms, with standard and Barnes-Hut
+ * repulsion. Each measurement iteration starts again from the same seeded locations.
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IterativeLayoutBenchmark {
+
+  public enum Algorithm {
+    FR(
+        () ->
+            FRLayoutAlgorithm.builder()
+                .repulsionContractBuilder(StandardFRRepulsion.builder())
+                .build()),
+    FR_BARNES_HUT(
+        () ->
+            FRLayoutAlgorithm.builder()
+                .repulsionContractBuilder(BarnesHutFRRepulsion.builder())
+                .build()),
+    SPRING(
+        () ->
+            SpringLayoutAlgorithm.builder()
+                .repulsionContractBuilder(StandardSpringRepulsion.builder())
+                .build()),
+    SPRING_BARNES_HUT(
+        () ->
+            SpringLayoutAlgorithm.builder()
+                .repulsionContractBuilder(BarnesHutSpringRepulsion.builder())
+                .build()),
+    FA2(
+        () ->
+            ForceAtlas2LayoutAlgorithm.builder()
+                .repulsionContractBuilder(StandardFA2Repulsion.builder())
+                .build()),
+    FA2_BARNES_HUT(
+        () ->
+            ForceAtlas2LayoutAlgorithm.builder()
+                .repulsionContractBuilder(BarnesHutFA2Repulsion.builder())
+                .build()),
+    KK(() -> KKLayoutAlgorithm.builder().build()),
+    GEM(() -> GEMLayoutAlgorithm.edgeAwareBuilder().build());
+
+    final Supplier<IterativeLayoutAlgorithm<?>> supplier;
+
+    Algorithm(Supplier<IterativeLayoutAlgorithm<?>> supplier) {
+      this.supplier = supplier;
+    }
+  }
+
+  @Param({"100", "1000", "5000"})
+  public int size;
+
+  @Param public Algorithm algorithm;
+
+  Graph<Integer, Integer> graph;
+  IterativeLayoutAlgorithm<Integer> layoutAlgorithm;
+
+  @Setup(Level.Trial)
+  public void createGraph() {
+    graph = BenchmarkGraphs.undirected(size, 1.5);
+  }
+
+  @Setup(Level.Iteration)
+  public void createLayout() {
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(1000, 1000)
+            .initializer(BenchmarkGraphs.locations(1000, 1000))
+            .createVisRunnable(false)
+            .build();
+    layoutAlgorithm = (IterativeLayoutAlgorithm<Integer>) algorithm.supplier.get();
+    layoutModel.accept(layoutAlgorithm);
+  }
+
+  @Benchmark
+  public void step() {
+    layoutAlgorithm.step();
+  }
+}
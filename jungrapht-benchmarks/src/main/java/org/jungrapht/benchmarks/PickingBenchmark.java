@@ -0,0 +1,84 @@
+package org.jungrapht.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jungrapht.visualization.VisualizationModel;
+import org.jungrapht.visualization.VisualizationServer;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.selection.ShapePickSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to pick a vertex or an edge at a location with ShapePickSupport, with and without the
+ * spatial structures
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PickingBenchmark {
+
+  private static final int QUERIES = 1024;
+
+  @Param({"1000", "10000", "50000"})
+  public int size;
+
+  @Param({"RTREE", "NONE"})
+  public VisualizationModel.SpatialSupport spatialSupport;
+
+  ShapePickSupport<Integer, Integer> pickSupport;
+  LayoutModel<Integer> layoutModel;
+  Point[] queries;
+  int next;
+
+  @Setup
+  public void createServer() {
+    VisualizationServer<Integer, Integer> server =
+        BenchmarkServers.create(
+            BenchmarkGraphs.undirected(size, 1.5), spatialSupport, spatialSupport);
+    pickSupport = new ShapePickSupport<>(server);
+    layoutModel = server.getVisualizationModel().getLayoutModel();
+    Random random = new Random(BenchmarkGraphs.SEED);
+    queries = new Point[QUERIES];
+    int layoutSize = BenchmarkServers.LAYOUT_SIZE;
+    for (int i = 0; i < QUERIES; i++) {
+      // half of the queries land on a vertex
+      queries[i] =
+          i % 2 == 0
+              ? layoutModel.apply(random.nextInt(size))
+              : Point.of(random.nextDouble() * layoutSize, random.nextDouble() * layoutSize);
+    }
+  }
+
+  private Point next() {
+    next = (next + 1) % QUERIES;
+    return queries[next];
+  }
+
+  @Benchmark
+  public Integer getVertex() {
+    Point p = next();
+    return pickSupport.getVertex(layoutModel, p.x, p.y);
+  }
+
+  @Benchmark
+  public Integer getEdge() {
+    Point p = next();
+    return pickSupport.getEdge(layoutModel, p.x, p.y);
+  }
+}
@@ -0,0 +1,96 @@
+package org.jungrapht.benchmarks;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.jungrapht.visualization.RenderContext;
+import org.jungrapht.visualization.VisualizationModel;
+import org.jungrapht.visualization.VisualizationServer;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.renderers.BiModalRenderer;
+import org.jungrapht.visualization.renderers.ModalRenderer;
+import org.jungrapht.visualization.transform.shape.GraphicsDecorator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to render one frame of the graph into an offscreen image with the heavyweight and the
+ * lightweight renderers
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+  @Param({"1000", "10000"})
+  public int size;
+
+  @Param({"HEAVYWEIGHT", "LIGHTWEIGHT"})
+  public String rendererMode;
+
+  @Param({"true", "false"})
+  public boolean directed;
+
+  VisualizationServer<Integer, Integer> server;
+  RenderContext<Integer, Integer> renderContext;
+  LayoutModel<Integer> layoutModel;
+  BufferedImage image;
+  Graphics2D g2d;
+
+  @Setup
+  public void createServer() {
+    server =
+        BenchmarkServers.create(
+            directed
+                ? BenchmarkGraphs.directedAcyclic(size, 1.5)
+                : BenchmarkGraphs.undirected(size, 1.5),
+            VisualizationModel.SpatialSupport.RTREE,
+            VisualizationModel.SpatialSupport.RTREE);
+    int viewSize = BenchmarkServers.VIEW_SIZE;
+    // not in a frame, so the view size is set directly
+    server.getComponent().setSize(viewSize, viewSize);
+    image = new BufferedImage(viewSize, viewSize, BufferedImage.TYPE_INT_ARGB);
+    g2d = image.createGraphics();
+    renderContext = server.getRenderContext();
+    renderContext.setupArrows(directed);
+    renderContext.setGraphicsContext(new GraphicsDecorator(g2d));
+    renderContext.setScreenDevice(server.getComponent());
+    layoutModel = server.getVisualizationModel().getLayoutModel();
+    ModalRenderer.Mode mode =
+        "LIGHTWEIGHT".equals(rendererMode)
+            ? BiModalRenderer.LIGHTWEIGHT
+            : BiModalRenderer.HEAVYWEIGHT;
+    server.getRenderer().setMode(mode);
+  }
+
+  @TearDown
+  public void dispose() {
+    g2d.dispose();
+  }
+
+  @Benchmark
+  public BufferedImage render() {
+    g2d.setColor(Color.white);
+    g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+    server
+        .getRenderer()
+        .render(renderContext, layoutModel, server.getVertexSpatial(), server.getEdgeSpatial());
+    return image;
+  }
+}
@@ -0,0 +1,100 @@
+package org.jungrapht.benchmarks;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.jgrapht.Graph;
+import org.jungrapht.visualization.VisualizationModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.spatial.Spatial;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Build, update and query times of the vertex spatial structures: SpatialRTree, SpatialGrid and
+ * SpatialQuadTree
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpatialBenchmark {
+
+  private static final int QUERIES = 1024;
+
+  @Param({"1000", "10000", "50000"})
+  public int size;
+
+  @Param({"RTREE", "GRID", "QUADTREE"})
+  public VisualizationModel.SpatialSupport structure;
+
+  Graph<Integer, Integer> graph;
+  Spatial<Integer, Integer> spatial;
+  Point[] queries;
+  Rectangle2D[] areas;
+  int next;
+
+  @Setup(Level.Trial)
+  public void createSpatial() {
+    graph = BenchmarkGraphs.undirected(size, 1.5);
+    spatial =
+        BenchmarkServers.create(graph, structure, VisualizationModel.SpatialSupport.NONE)
+            .getVertexSpatial();
+    Random random = new Random(BenchmarkGraphs.SEED);
+    queries = new Point[QUERIES];
+    areas = new Rectangle2D[QUERIES];
+    int layoutSize = BenchmarkServers.LAYOUT_SIZE;
+    for (int i = 0; i < QUERIES; i++) {
+      queries[i] = Point.of(random.nextDouble() * layoutSize, random.nextDouble() * layoutSize);
+      areas[i] = new Rectangle2D.Double(queries[i].x, queries[i].y, 200, 200);
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void restore() {
+    spatial.recalculate();
+  }
+
+  private int next() {
+    next = (next + 1) % QUERIES;
+    return next;
+  }
+
+  @Benchmark
+  public void build() {
+    spatial.recalculate();
+  }
+
+  /** move one vertex to a new location */
+  @Benchmark
+  public void update() {
+    int i = next();
+    spatial.update(i % size, queries[i]);
+  }
+
+  @Benchmark
+  public Integer closest() {
+    Point p = queries[next()];
+    return spatial.getClosestElement(p.x, p.y);
+  }
+
+  @Benchmark
+  public Set<Integer> visible() {
+    return spatial.getVisibleElements(areas[next()]);
+  }
+}
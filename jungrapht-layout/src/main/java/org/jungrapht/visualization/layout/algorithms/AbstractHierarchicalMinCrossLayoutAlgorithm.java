@@ -4,14 +4,18 @@ import static org.jungrapht.visualization.layout.util.PropertyLoader.PREFIX;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import org.jgrapht.Graph;
 import org.jgrapht.Graphs;
 import org.jgrapht.graph.builder.GraphTypeBuilder;
 import org.jungrapht.visualization.layout.algorithms.sugiyama.Layering;
+import org.jungrapht.visualization.layout.algorithms.sugiyama.RetainedLayers;
 import org.jungrapht.visualization.layout.algorithms.util.AfterRunnable;
 import org.jungrapht.visualization.layout.algorithms.util.ComponentGrouping;
 import org.jungrapht.visualization.layout.algorithms.util.EdgeArticulationFunctionSupplier;
@@ -43,7 +47,7 @@ import org.slf4j.LoggerFactory;
  * @param <E> edge type
  */
 public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
-    implements LayoutAlgorithm<V>,
+    implements IncrementalLayoutAlgorithm<V>,
         VertexBoundsFunctionConsumer<V>,
         EdgeArticulationFunctionSupplier<E>,
         Layered<V, E>,
@@ -66,6 +70,10 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
   protected static final String MINCROSS_THREADED = PREFIX + "mincross.threaded";
   protected static final String TRANSPOSE_LIMIT = PREFIX + "mincross.transposeLimit";
   protected static final String MAX_LEVEL_CROSS = PREFIX + "mincross.maxLevelCross";
+  protected static final String MINCROSS_PARALLEL_SWEEPS = PREFIX + "mincross.parallelSweeps";
+  protected static final String MINCROSS_TIME_BUDGET = PREFIX + "mincross.timeBudget";
+  protected static final String MINCROSS_PARALLEL_COORDINATE_ASSIGNMENT =
+      PREFIX + "mincross.parallelCoordinateAssignment";
 
   /**
    * a Builder to create a configured instance
@@ -103,6 +111,10 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
     protected boolean separateComponents = true;
     protected Comparator<E> edgeComparator = noopComparator;
     protected Predicate<E> favoredEdgePredicate = Layered.truePredicate;
+    protected boolean parallelCoordinateAssignment =
+        Boolean.parseBoolean(System.getProperty(MINCROSS_PARALLEL_COORDINATE_ASSIGNMENT, "false"));
+    protected long timeBudget = Long.getLong(MINCROSS_TIME_BUDGET, 0);
+    protected Runnable intermediate;
 
     /** {@inheritDoc} */
     protected B self() {
@@ -179,6 +191,38 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
       this.separateComponents = separateComponents;
       return self();
     }
+
+    /**
+     * @param parallelCoordinateAssignment if true, the four alignments of the horizontal coordinate
+     *     assignment run concurrently on the executor (or the common pool if there is no executor)
+     * @return this Builder
+     */
+    public B parallelCoordinateAssignment(boolean parallelCoordinateAssignment) {
+      this.parallelCoordinateAssignment = parallelCoordinateAssignment;
+      return self();
+    }
+
+    /**
+     * @param timeBudget if positive, the milliseconds from the start of a visit after which no more
+     *     crossing minimization sweeps are started. The best order found by then is laid out and
+     *     published as usual
+     * @return this Builder
+     */
+    public B timeBudget(long timeBudget) {
+      this.timeBudget = timeBudget;
+      return self();
+    }
+
+    /**
+     * @param intermediate if not null, the layout model is given an approximate layout, with the
+     *     rows centered, after each sweep that lowers the crossings, and then this is run. The
+     *     final layout replaces it
+     * @return this Builder
+     */
+    public B intermediate(Runnable intermediate) {
+      this.intermediate = intermediate;
+      return self();
+    }
   }
 
   protected Rectangle bounds = Rectangle.IDENTITY;
@@ -197,13 +241,30 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
   protected Executor executor;
   protected Runnable after;
   protected boolean separateComponents;
-  protected Map<E, List<Point>> edgePointMap = new HashMap<>();
+  protected Map<E, List<Point>> edgePointMap = new ConcurrentHashMap<>();
   protected AtomicInteger completionCounter = new AtomicInteger();
   protected Set<LayeredRunnable<E>> runnables = new HashSet<>();
   protected LayoutModel<V> layoutModel; // ref used to switch events back on after cancel
   protected boolean cancelled;
   protected Comparator<E> edgeComparator;
   protected Predicate<E> favoredEdgePredicate = Layered.truePredicate;
+  protected boolean parallelCoordinateAssignment;
+  /** the ranks and order of the last layout, the start of the next incremental layout */
+  protected final RetainedLayers<V, E> retainedLayers = new RetainedLayers<>();
+  /** the changed vertices of the current visit, or null if it is not incremental */
+  protected Collection<V> changedVertices;
+
+  private Collection<V> incrementalChanges;
+
+  protected long timeBudget;
+  /** the time when the current visit stops starting sweeps, or 0 if there is no time budget */
+  protected long deadline;
+
+  protected Runnable intermediate;
+  /** the component layout models of the current visit, in the order they are placed */
+  protected List<LayoutModel<V>> componentLayoutModels = Collections.emptyList();
+  /** the latest intermediate locations of each component */
+  private final Map<LayoutModel<V>, Map<V, Point>> intermediateLocations = new HashMap<>();
 
   protected AbstractHierarchicalMinCrossLayoutAlgorithm(Builder builder) {
     this(
@@ -221,6 +282,9 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
         builder.separateComponents,
         builder.favoredEdgePredicate,
         builder.after);
+    this.parallelCoordinateAssignment = builder.parallelCoordinateAssignment;
+    this.timeBudget = builder.timeBudget;
+    this.intermediate = builder.intermediate;
   }
 
   protected AbstractHierarchicalMinCrossLayoutAlgorithm(
@@ -277,9 +341,20 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
   @Override
   public void setLayering(Layering layering) {
     this.edgePointMap.clear();
+    this.retainedLayers.clear();
     this.layering = layering;
   }
 
+  @Override
+  public void setIncremental(Collection<V> changed) {
+    this.incrementalChanges = changed != null ? new HashSet<>(changed) : null;
+  }
+
+  @Override
+  public boolean isIncremental() {
+    return incrementalChanges != null;
+  }
+
   @Override
   public void setMaxLevelCrossFunction(Function<Graph<V, E>, Integer> maxLevelCrossFunction) {
     this.maxLevelCrossFunction = maxLevelCrossFunction;
@@ -326,19 +401,88 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
     return this.executor;
   }
 
+  /**
+   * @return the executor for the alignments of the horizontal coordinate assignment, or null if
+   *     they run one after another
+   */
+  protected Executor getCoordinateAssignmentExecutor() {
+    if (!parallelCoordinateAssignment) {
+      return null;
+    }
+    return executor != null ? executor : ForkJoinPool.commonPool();
+  }
+
   protected abstract LayeredRunnable<E> getRunnable(
       int componentCount, LayoutModel<V> componentLayoutModel);
 
+  /**
+   * @param componentLayoutModel the layout model of one component
+   * @return a consumer for the intermediate locations of the component, or null if intermediate
+   *     layouts are not published
+   */
+  protected Consumer<Map<V, Point>> intermediateConsumer(LayoutModel<V> componentLayoutModel) {
+    if (intermediate == null) {
+      return null;
+    }
+    return locations -> publishIntermediate(componentLayoutModel, locations);
+  }
+
+  /**
+   * place the latest intermediate locations of every component side by side in the layout model,
+   * then run the intermediate Runnable
+   */
+  protected synchronized void publishIntermediate(
+      LayoutModel<V> componentLayoutModel, Map<V, Point> locations) {
+    if (cancelled) {
+      return;
+    }
+    intermediateLocations.put(componentLayoutModel, locations);
+    int spacing = Integer.getInteger(PREFIX + "mincross.horizontalOffset", 50);
+    double offset = 0;
+    layoutModel.beginBatch();
+    try {
+      for (LayoutModel<V> component : componentLayoutModels) {
+        Map<V, Point> componentLocations = intermediateLocations.get(component);
+        if (componentLocations == null) {
+          continue;
+        }
+        double width = 0;
+        for (Map.Entry<V, Point> entry : componentLocations.entrySet()) {
+          Point p = entry.getValue();
+          layoutModel.set(entry.getKey(), p.x + offset, p.y);
+          width = Math.max(width, p.x);
+        }
+        offset += width + spacing;
+      }
+    } finally {
+      layoutModel.commitBatch();
+    }
+    intermediate.run();
+  }
+
   @Override
   public void visit(LayoutModel<V> layoutModel) {
     this.layoutModel = layoutModel;
     this.completionCounter.set(0);
     this.edgePointMap.clear();
+    this.deadline = timeBudget > 0 ? System.currentTimeMillis() + timeBudget : 0;
+    synchronized (this) {
+      this.intermediateLocations.clear();
+    }
+    // an incremental visit needs the layers of an earlier visit. Any other visit starts over
+    this.changedVertices = retainedLayers.isEmpty() ? null : incrementalChanges;
+    this.incrementalChanges = null;
+    if (changedVertices == null) {
+      retainedLayers.clear();
+    }
 
     Graph<V, E> graph = layoutModel.getGraph();
     if (graph == null || graph.vertexSet().isEmpty()) {
       return;
     }
+    if (changedVertices != null) {
+      retainedLayers.prune(graph);
+    }
     // if we were given an undirected graph, make it a directed graph
     if (graph.getType().isUndirected()) {
       Graph<V, E> digraph = GraphTypeBuilder.<V, E>directed().buildGraph();
@@ -377,6 +521,7 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
           "singleComponent model size: {}x{}", layoutModel.getWidth(), layoutModel.getHeight());
     }
 
+    this.componentLayoutModels = layoutModels;
     for (LayoutModel<V> componentLayoutModel : layoutModels) {
 
       LayeredRunnable<E> runnable = getRunnable(graphs.size(), componentLayoutModel);
@@ -469,12 +614,11 @@ public abstract class AbstractHierarchicalMinCrossLayoutAlgorithm<V, E>
     }
   }
 
-  private void appendAll(
-      LayoutModel<V> parentLayoutModel, Collection<LayoutModel<V>> childLayoutModels) {
+  private void appendAll(LayoutModel<V> parentLayoutModel, List<LayoutModel<V>> childLayoutModels) {
     log.trace("appendAll, cancelled: {}", cancelled);
     if (!cancelled) {
       log.trace("appending: {} child layout models", childLayoutModels.size());
-      childLayoutModels.forEach(parentLayoutModel::appendLayoutModel);
+      parentLayoutModel.appendLayoutModels(childLayoutModels);
     }
   }
 
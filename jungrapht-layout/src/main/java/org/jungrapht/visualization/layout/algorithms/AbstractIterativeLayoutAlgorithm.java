@@ -1,10 +1,21 @@
 package org.jungrapht.visualization.layout.algorithms;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.Executor;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
 import org.jungrapht.visualization.layout.algorithms.util.AfterRunnable;
 import org.jungrapht.visualization.layout.algorithms.util.Threaded;
 import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,6 +24,12 @@ import org.slf4j.LoggerFactory;
  * that it can be accessed by the threaded code. The layoutModel could be removed and instead passed
  * via all of the iterative methods (for example step(layoutModel) instead of step() )
  *
+ * <p>Subclasses that implement {@link IncrementalLayoutAlgorithm} get its methods from here. When
+ * the visit is incremental, the changed vertices that have no location are placed at the center of
+ * their placed neighbors, and the vertices more than {@code incrementalHops} edges from a changed
+ * vertex are locked until the algorithm is done or cancelled, so that only the neighborhood of the
+ * change is relaxed.
+ *
  * @author Tom Nelson
  */
 public abstract class AbstractIterativeLayoutAlgorithm<V> extends AbstractLayoutAlgorithm<V>
@@ -24,6 +41,7 @@ public abstract class AbstractIterativeLayoutAlgorithm<V> extends AbstractLayout
           V, T extends AbstractIterativeLayoutAlgorithm<V>, B extends Builder<V, T, B>>
       extends AbstractLayoutAlgorithm.Builder<V, T, B> implements LayoutAlgorithm.Builder<V, T, B> {
     protected Executor executor;
+    protected int incrementalHops = 2;
     protected Random random = new Random();
     protected boolean shouldPrerelax = true;
     protected int preRelaxDurationMs = 500;
@@ -60,6 +78,16 @@ public abstract class AbstractIterativeLayoutAlgorithm<V> extends AbstractLayout
       return self();
     }
 
+    /**
+     * @param incrementalHops in an incremental visit, vertices more than this many edges from a
+     *     changed vertex do not move
+     * @return this builder
+     */
+    public B incrementalHops(int incrementalHops) {
+      this.incrementalHops = incrementalHops;
+      return self();
+    }
+
     protected B self() {
       return (B) this;
     }
@@ -75,6 +103,7 @@ public abstract class AbstractIterativeLayoutAlgorithm<V> extends AbstractLayout
     this.preRelaxDurationMs = builder.preRelaxDurationMs;
     this.afterRunnable = builder.afterRunnable;
     this.threaded = builder.threaded;
+    this.incrementalHops = builder.incrementalHops;
   }
   /**
    * because the IterativeLayoutAlgorithms use multithreading to continuously update vertex
@@ -97,6 +126,20 @@ public abstract class AbstractIterativeLayoutAlgorithm<V> extends AbstractLayout
 
   protected boolean cancelled;
 
+  protected int incrementalHops;
+
+  /** the changed vertices for the next visit, or null if the next visit is not incremental */
+  private Collection<V> incrementalChanges;
+
+  /**
+   * in an incremental visit, the number of edges from each vertex within {@code incrementalHops} to
+   * the nearest changed vertex. Null when the visit is not incremental
+   */
+  protected Map<V, Integer> hopDistances;
+
+  /** the vertices that were locked by an incremental visit, to unlock when it is done */
+  private final Set<V> anchoredVertices = new HashSet<>();
+
   public void setRandomSeed(long randomSeed) {
     this.random = new Random(randomSeed);
   }
@@ -130,7 +173,139 @@ public abstract class AbstractIterativeLayoutAlgorithm<V> extends AbstractLayout
    */
   public void visit(LayoutModel<V> layoutModel) {
     log.debug("visiting " + layoutModel);
+    // a previous incremental visit may not have finished
+    releaseAnchors();
     this.layoutModel = layoutModel;
+    this.hopDistances = null;
+    if (incrementalChanges != null) {
+      Collection<V> changed = incrementalChanges;
+      incrementalChanges = null;
+      visitIncremental(layoutModel, changed);
+    }
+  }
+
+  /**
+   * @param changed the vertices that were added or changed since the last visit. The next visit is
+   *     incremental, later visits are not
+   */
+  public void setIncremental(Collection<V> changed) {
+    this.incrementalChanges = new LinkedHashSet<>(changed);
+  }
+
+  /** @return true if the current or next visit is incremental */
+  public boolean isIncremental() {
+    return incrementalChanges != null || hopDistances != null;
+  }
+
+  /**
+   * place the changed vertices that have no location, find the neighborhood of the change and lock
+   * the vertices outside of it
+   */
+  private void visitIncremental(LayoutModel<V> layoutModel, Collection<V> changed) {
+    Graph<V, ?> graph = layoutModel.getGraph();
+    Map<V, Integer> distances = new HashMap<>();
+    Deque<V> queue = new ArrayDeque<>();
+    for (V v : changed) {
+      if (graph.containsVertex(v) && distances.putIfAbsent(v, 0) == null) {
+        queue.add(v);
+      }
+    }
+    if (distances.isEmpty()) {
+      return;
+    }
+    while (!queue.isEmpty()) {
+      V v = queue.poll();
+      int distance = distances.get(v);
+      if (distance < incrementalHops) {
+        for (V neighbor : Graphs.neighborListOf(graph, v)) {
+          if (distances.putIfAbsent(neighbor, distance + 1) == null) {
+            queue.add(neighbor);
+          }
+        }
+      }
+    }
+    seed(layoutModel, distances.keySet());
+    for (V v : graph.vertexSet()) {
+      if (!distances.containsKey(v) && !layoutModel.isLocked(v)) {
+        layoutModel.lock(v, true);
+        anchoredVertices.add(v);
+      }
+    }
+    this.hopDistances = distances;
+  }
+
+  /**
+   * place each changed vertex that has no location at the center of its placed neighbors, plus a
+   * little jitter so that vertices with the same neighbors do not start at the same point
+   */
+  private void seed(LayoutModel<V> layoutModel, Set<V> changed) {
+    Graph<V, ?> graph = layoutModel.getGraph();
+    Map<V, Point> locations = layoutModel.getLocations();
+    Set<V> unplaced = new LinkedHashSet<>();
+    for (V v : changed) {
+      if (!locations.containsKey(v)) {
+        unplaced.add(v);
+      }
+    }
+    // place the vertices next to placed vertices first, so that a chain of new vertices
+    // is placed outward from the old ones
+    boolean placedOne = true;
+    while (!unplaced.isEmpty() && placedOne) {
+      placedOne = false;
+      for (V v : new LinkedHashSet<>(unplaced)) {
+        double sumx = 0;
+        double sumy = 0;
+        int count = 0;
+        for (V neighbor : Graphs.neighborListOf(graph, v)) {
+          if (neighbor != v && !unplaced.contains(neighbor)) {
+            Point p = layoutModel.apply(neighbor);
+            sumx += p.x;
+            sumy += p.y;
+            count++;
+          }
+        }
+        if (count > 0) {
+          double jitter =
+              Math.max(1, Math.min(layoutModel.getWidth(), layoutModel.getHeight()) / 100.0);
+          layoutModel.set(
+              v,
+              sumx / count + (random.nextDouble() - 0.5) * jitter,
+              sumy / count + (random.nextDouble() - 0.5) * jitter);
+          unplaced.remove(v);
+          placedOne = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * @param vertex a vertex that is not locked
+   * @return the fraction of its full step that the vertex may move. In an incremental visit, the
+   *     changed vertices move freely and each edge further out halves the step. Otherwise 1
+   */
+  protected double mobility(V vertex) {
+    if (hopDistances == null) {
+      return 1;
+    }
+    Integer distance = hopDistances.get(vertex);
+    return distance == null ? 0 : 1.0 / (1 << distance);
+  }
+
+  /** end the incremental visit, if any, and unlock the vertices that it locked */
+  protected void releaseAnchors() {
+    hopDistances = null;
+    if (layoutModel != null) {
+      for (V v : anchoredVertices) {
+        layoutModel.lock(v, false);
+      }
+    }
+    anchoredVertices.clear();
+  }
+
+  @Override
+  public void runAfter() {
+    releaseAnchors();
+    super.runAfter();
   }
 
   @Override
@@ -146,6 +321,7 @@ public abstract class AbstractIterativeLayoutAlgorithm<V> extends AbstractLayout
   @Override
   public void cancel() {
     cancelled = true;
+    releaseAnchors();
     if (layoutModel != null) {
       layoutModel.stop();
     }
@@ -100,6 +100,9 @@ public class EiglspergerLayoutAlgorithm<V, E>
         builder.separateComponents,
         builder.favoredEdgePredicate,
         builder.after);
+    this.parallelCoordinateAssignment = builder.parallelCoordinateAssignment;
+    this.timeBudget = builder.timeBudget;
+    this.intermediate = builder.intermediate;
   }
 
   protected EiglspergerLayoutAlgorithm(
@@ -148,6 +151,11 @@ public class EiglspergerLayoutAlgorithm<V, E>
         .edgeComparator(edgeComparator)
         .favoredEdgePredicate(favoredEdgePredicate)
         .multiComponent(componentCount > 1)
+        .coordinateAssignmentExecutor(getCoordinateAssignmentExecutor())
+        .retainedLayers(retainedLayers)
+        .incremental(changedVertices)
+        .deadline(deadline)
+        .intermediate(intermediateConsumer(componentLayoutModel))
         .build();
   }
 }
@@ -15,6 +15,7 @@ import org.jgrapht.Graph;
 import org.jungrapht.visualization.layout.algorithms.repulsion.BarnesHutFRRepulsion;
 import org.jungrapht.visualization.layout.algorithms.repulsion.StandardFRRepulsion;
 import org.jungrapht.visualization.layout.algorithms.util.IterativeContext;
+import org.jungrapht.visualization.layout.model.IndexedLayoutModel;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
 import org.slf4j.Logger;
@@ -39,7 +40,7 @@ import org.slf4j.LoggerFactory;
  * @author Scott White, Yan-Biao Boey, Danyel Fisher, Tom Nelson
  */
 public class FRLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
-    implements IterativeContext {
+    implements IncrementalLayoutAlgorithm<V>, IterativeContext {
 
   private static final Logger log = LoggerFactory.getLogger(FRLayoutAlgorithm.class);
 
@@ -144,13 +145,15 @@ public class FRLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     Graph<V, ?> graph = layoutModel.getGraph();
     if (graph != null && graph.vertexSet().size() > 0) {
       currentIteration = 0;
-      temperature = layoutModel.getWidth() / 10;
 
       forceConstant =
           Math.sqrt(
               (double) layoutModel.getHeight()
                   * (double) layoutModel.getWidth()
                   / graph.vertexSet().size());
+      // an incremental layout starts cool, so that the vertices near the change move about one
+      // edge length at most
+      temperature = isIncremental() ? forceConstant : layoutModel.getWidth() / 10;
 
       attractionConstant = attractionMultiplier * forceConstant;
       repulsionConstant = repulsionMultiplier * forceConstant;
@@ -218,13 +221,25 @@ public class FRLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     if (fvd == null) {
       return;
     }
-    Point xyd = layoutModel.apply(vertex);
     double deltaLength = Math.max(EPSILON, fvd.length());
 
-    double positionX = xyd.x;
-    double positionY = xyd.y;
-    double newXDisp = fvd.x / deltaLength * Math.min(deltaLength, temperature);
-    double newYDisp = fvd.y / deltaLength * Math.min(deltaLength, temperature);
+    // an IndexedLayoutModel is read and written in place, without a Point for the location
+    IndexedLayoutModel<V> indexed =
+        layoutModel instanceof IndexedLayoutModel ? (IndexedLayoutModel<V>) layoutModel : null;
+    int index = indexed != null ? indexed.indexOf(vertex) : -1;
+    double positionX;
+    double positionY;
+    if (indexed != null) {
+      positionX = indexed.getX(index);
+      positionY = indexed.getY(index);
+    } else {
+      Point xyd = layoutModel.apply(vertex);
+      positionX = xyd.x;
+      positionY = xyd.y;
+    }
+    double limit = temperature * mobility(vertex);
+    double newXDisp = fvd.x / deltaLength * Math.min(deltaLength, limit);
+    double newYDisp = fvd.y / deltaLength * Math.min(deltaLength, limit);
 
     positionX += newXDisp;
     positionY += newYDisp;
@@ -242,7 +257,11 @@ public class FRLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
       positionY = layoutModel.getWidth() - borderWidth - random.nextDouble() * borderWidth * 2.0;
     }
 
-    layoutModel.set(vertex, positionX, positionY);
+    if (indexed != null) {
+      indexed.set(index, positionX, positionY);
+    } else {
+      layoutModel.set(vertex, positionX, positionY);
+    }
   }
 
   protected void calcAttraction(Object edge) {
@@ -26,7 +26,7 @@ import org.slf4j.LoggerFactory;
  * @param <V>
  */
 public class ForceAtlas2LayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
-    implements VertexBoundsFunctionConsumer<V>, IterativeContext {
+    implements IncrementalLayoutAlgorithm<V>, VertexBoundsFunctionConsumer<V>, IterativeContext {
   private static final Logger log = LoggerFactory.getLogger(ForceAtlas2LayoutAlgorithm.class);
 
   // Initializer
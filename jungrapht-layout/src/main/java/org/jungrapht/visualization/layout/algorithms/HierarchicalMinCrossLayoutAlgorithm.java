@@ -129,6 +129,9 @@ public class HierarchicalMinCrossLayoutAlgorithm<V, E>
         builder.separateComponents,
         builder.favoredEdgePredicate,
         builder.after);
+    this.parallelCoordinateAssignment = builder.parallelCoordinateAssignment;
+    this.timeBudget = builder.timeBudget;
+    this.intermediate = builder.intermediate;
   }
 
   protected HierarchicalMinCrossLayoutAlgorithm(
@@ -182,6 +185,11 @@ public class HierarchicalMinCrossLayoutAlgorithm<V, E>
           .maxLevelCross(maxLevelCross)
           .layering(layering)
           .multiComponent(componentCount > 1)
+          .coordinateAssignmentExecutor(getCoordinateAssignmentExecutor())
+          .retainedLayers(retainedLayers)
+          .incremental(changedVertices)
+          .deadline(deadline)
+          .intermediate(intermediateConsumer(componentLayoutModel))
           .build();
     } else {
       return SugiyamaRunnable.<V, E>builder()
@@ -194,6 +202,11 @@ public class HierarchicalMinCrossLayoutAlgorithm<V, E>
           .maxLevelCross(maxLevelCross)
           .layering(layering)
           .multiComponent(componentCount > 1)
+          .coordinateAssignmentExecutor(getCoordinateAssignmentExecutor())
+          .retainedLayers(retainedLayers)
+          .incremental(changedVertices)
+          .deadline(deadline)
+          .intermediate(intermediateConsumer(componentLayoutModel))
           .build();
     }
   }
@@ -10,20 +10,17 @@
 package org.jungrapht.visualization.layout.algorithms;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
 import org.jgrapht.Graph;
 import org.jgrapht.Graphs;
 import org.jungrapht.visualization.layout.algorithms.util.IterativeContext;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
-import org.jungrapht.visualization.layout.util.RadiusVertexAccessor;
 import org.jungrapht.visualization.layout.util.RandomLocationTransformer;
-import org.jungrapht.visualization.layout.util.VertexAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +31,7 @@ import org.slf4j.LoggerFactory;
  * @author Yan Biao Boey
  */
 public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
-    implements IterativeContext {
+    implements IncrementalLayoutAlgorithm<V>, IterativeContext {
 
   private static final Logger log = LoggerFactory.getLogger(ISOMLayoutAlgorithm.class);
 
@@ -59,10 +56,6 @@ public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     super(builder);
   }
 
-  private Map<V, ISOMVertexData> isomVertexData = new ConcurrentHashMap<>();
-
-  private Function<V, ISOMVertexData> initializer = v -> new ISOMVertexData();
-
   protected int maxEpoch;
   protected int epoch;
 
@@ -74,13 +67,31 @@ public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
   protected double initialAdaption;
   protected double minAdaption;
 
-  private VertexAccessor<V> elementAccessor;
-
   protected double coolingFactor;
 
-  protected List<V> queue = new ArrayList<>();
   protected String status = null;
 
+  /** the vertices, in index order */
+  private List<V> vertices = new ArrayList<>();
+  /** the index of each vertex in {@code vertices} */
+  private Map<V, Integer> vertexIndex = new HashMap<>();
+  /** the neighbor indices of each vertex */
+  private int[][] neighbors = new int[0][];
+  /** the edge count of the graph when the index was built */
+  private int indexedEdgeCount;
+
+  /** the breadth first search distance from the winner, valid where {@code visited} is current */
+  private int[] distance = new int[0];
+  /** the search that last visited each vertex */
+  private int[] visited = new int[0];
+  /** the current search. Incrementing this un-visits every vertex */
+  private int search;
+  /** the breadth first search queue. Every vertex is enqueued at most once per search */
+  private int[] queue = new int[0];
+
+  /** finds the vertex closest to the random point of each step */
+  private PositionGrid grid;
+
   /** @return the current number of epochs and execution status, as a string. */
   public String getStatus() {
     return status;
@@ -96,13 +107,15 @@ public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     if (graph == null || graph.vertexSet().isEmpty()) {
       return;
     }
-    this.elementAccessor = new RadiusVertexAccessor<>();
     initialize();
   }
 
   public void initialize() {
-    layoutModel.setInitializer(
-        new RandomLocationTransformer<>(layoutModel.getWidth(), layoutModel.getHeight()));
+    // an incremental visit keeps the current locations
+    if (!isIncremental()) {
+      layoutModel.setInitializer(
+          new RandomLocationTransformer<>(layoutModel.getWidth(), layoutModel.getHeight()));
+    }
 
     maxEpoch = 2000;
     epoch = 1;
@@ -117,6 +130,9 @@ public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
 
     //factor = 0; //Will be set later on
     coolingFactor = 2;
+
+    vertices.clear();
+    grid = null;
   }
 
   /** Advances the current positions of the graph elements. */
@@ -135,6 +151,10 @@ public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
   }
 
   private synchronized void adjust() {
+    updateIndex();
+    if (vertices.isEmpty()) {
+      return;
+    }
     double width = layoutModel.getWidth();
     double height = layoutModel.getHeight();
     //Generate random position in graph space
@@ -142,20 +162,73 @@ public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     Point tempXYD = Point.of(10 + Math.random() * width, 10 + Math.random() * height);
 
     //Get closest vertex to random position
-    V winner = elementAccessor.getVertex(layoutModel, tempXYD.x, tempXYD.y);
-
-    while (true) {
-      try {
-        for (V vertex : layoutModel.getGraph().vertexSet()) {
-          ISOMVertexData ivd = getISOMVertexData(vertex);
-          ivd.distance = 0;
-          ivd.visited = false;
+    int winner = grid.nearest(tempXYD.x, tempXYD.y);
+
+    adjustVertex(winner, tempXYD);
+  }
+
+  /**
+   * Rebuilds the vertex index when the graph has changed, and the position grid every {@code
+   * radiusConstantTime} epochs so that it follows locations set from outside of this algorithm (for
+   * example, dragged vertices)
+   */
+  private void updateIndex() {
+    Graph<V, ?> graph = layoutModel.getGraph();
+    if (graph.vertexSet().size() != vertices.size() || graph.edgeSet().size() != indexedEdgeCount) {
+      while (true) {
+        try {
+          buildIndex(graph);
+          break;
+        } catch (ConcurrentModificationException cme) {
         }
-        break;
-      } catch (ConcurrentModificationException cme) {
       }
+      grid = null;
     }
-    adjustVertex(winner, tempXYD);
+    if (grid == null || grid.stale || epoch % radiusConstantTime == 0) {
+      buildGrid();
+    }
+  }
+
+  private void buildIndex(Graph<V, ?> graph) {
+    vertices = new ArrayList<>(graph.vertexSet());
+    vertexIndex = new HashMap<>();
+    for (int i = 0; i < vertices.size(); i++) {
+      vertexIndex.put(vertices.get(i), i);
+    }
+    neighbors = new int[vertices.size()][];
+    for (int i = 0; i < vertices.size(); i++) {
+      neighbors[i] =
+          Graphs.neighborListOf(graph, vertices.get(i))
+              .stream()
+              .mapToInt(vertexIndex::get)
+              .toArray();
+    }
+    indexedEdgeCount = graph.edgeSet().size();
+    distance = new int[vertices.size()];
+    visited = new int[vertices.size()];
+    queue = new int[vertices.size()];
+    search = 0;
+  }
+
+  private void buildGrid() {
+    int count = vertices.size();
+    double[] x = new double[count];
+    double[] y = new double[count];
+    // the bounds hold every random point as well as every vertex
+    double minX = 0;
+    double minY = 0;
+    double maxX = layoutModel.getWidth() + 10;
+    double maxY = layoutModel.getHeight() + 10;
+    for (int i = 0; i < count; i++) {
+      Point p = layoutModel.apply(vertices.get(i));
+      x[i] = p.x;
+      y[i] = p.y;
+      minX = Math.min(minX, p.x);
+      minY = Math.min(minY, p.y);
+      maxX = Math.max(maxX, p.x);
+      maxY = Math.max(maxY, p.y);
+    }
+    grid = new PositionGrid(x, y, minX, minY, maxX, maxY);
   }
 
   private synchronized void updateParameters() {
@@ -167,50 +240,46 @@ public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     }
   }
 
-  private synchronized void adjustVertex(V vertex, Point tempXYD) {
-    Graph<V, ?> graph = layoutModel.getGraph();
-    queue.clear();
-    ISOMVertexData ivd = getISOMVertexData(vertex);
-    ivd.distance = 0;
-    ivd.visited = true;
-    queue.add(vertex);
-    V current;
-
-    while (!queue.isEmpty() && !cancelled) {
-      current = queue.remove(0);
-      ISOMVertexData currData = getISOMVertexData(current);
-      Point currXYData = layoutModel.apply(current);
+  private synchronized void adjustVertex(int vertex, Point tempXYD) {
+    if (search == Integer.MAX_VALUE) {
+      Arrays.fill(visited, 0);
+      search = 0;
+    }
+    search++;
+    int head = 0;
+    int tail = 0;
+    distance[vertex] = 0;
+    visited[vertex] = search;
+    queue[tail++] = vertex;
+
+    while (head < tail && !cancelled) {
+      int current = queue[head++];
+      V currentVertex = vertices.get(current);
+      Point currXYData = layoutModel.apply(currentVertex);
 
       double dx = tempXYD.x - currXYData.x;
       double dy = tempXYD.y - currXYData.y;
-      double factor = adaption / Math.pow(2, currData.distance);
-
-      layoutModel.set(current, currXYData.x + (factor * dx), currXYData.y + (factor * dy));
-
-      if (currData.distance < radius) {
-        Collection<V> s = Graphs.neighborListOf(graph, current);
-        while (true) {
-          try {
-            for (V child : s) {
-              ISOMVertexData childData = getISOMVertexData(child);
-              if (childData != null && !childData.visited) {
-                childData.visited = true;
-                childData.distance = currData.distance + 1;
-                queue.add(child);
-              }
-            }
-            break;
-          } catch (ConcurrentModificationException cme) {
+      double factor = adaption / Math.pow(2, distance[current]);
+
+      if (!layoutModel.isLocked(currentVertex)) {
+        layoutModel.set(currentVertex, currXYData.x + (factor * dx), currXYData.y + (factor * dy));
+      }
+      // read back the location, which is unchanged if the layoutModel or the vertex is locked
+      Point moved = layoutModel.apply(currentVertex);
+      grid.move(current, moved.x, moved.y);
+
+      if (distance[current] < radius) {
+        for (int child : neighbors[current]) {
+          if (visited[child] != search) {
+            visited[child] = search;
+            distance[child] = distance[current] + 1;
+            queue[tail++] = child;
           }
         }
       }
     }
   }
 
-  private ISOMVertexData getISOMVertexData(V vertex) {
-    return isomVertexData.computeIfAbsent(vertex, initializer);
-  }
-
   /**
    * Returns <code>true</code> if the vertex positions are no longer being updated. Currently <code>
    * ISOMLayout</code> stops updating vertex positions after a certain number of iterations have
@@ -228,13 +297,153 @@ public class ISOMLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     return done;
   }
 
-  private static class ISOMVertexData {
-    int distance;
-    boolean visited;
+  /**
+   * A uniform grid of vertex locations with about one vertex per cell. Vertices are kept in a
+   * linked list per cell, so moving a vertex costs O(1) and the closest vertex to a point is found
+   * by searching outward, ring by ring, from the cell of the point.
+   */
+  static final class PositionGrid {
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    /** the first vertex of each cell, or -1 */
+    private final int[] head;
+
+    private final int[] next;
+    private final int[] previous;
+    private final int[] cell;
+    private final double[] x;
+    private final double[] y;
+    /** true when a vertex has moved outside of the bounds, so the grid must be rebuilt */
+    boolean stale;
+
+    /**
+     * @param x the x location of each vertex
+     * @param y the y location of each vertex
+     * @param minX left of the bounds, which must hold every vertex and every query point
+     * @param minY top of the bounds
+     * @param maxX right of the bounds
+     * @param maxY bottom of the bounds
+     */
+    PositionGrid(double[] x, double[] y, double minX, double minY, double maxX, double maxY) {
+      int count = x.length;
+      this.x = x;
+      this.y = y;
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+      double width = Math.max(maxX - minX, 1);
+      double height = Math.max(maxY - minY, 1);
+      this.cellSize = Math.sqrt(width * height / Math.max(count, 1));
+      this.columns = (int) (width / cellSize) + 1;
+      this.rows = (int) (height / cellSize) + 1;
+      this.head = new int[columns * rows];
+      Arrays.fill(head, -1);
+      this.next = new int[count];
+      this.previous = new int[count];
+      this.cell = new int[count];
+      for (int i = 0; i < count; i++) {
+        link(i, cellOf(x[i], y[i]));
+      }
+    }
+
+    private int column(double px) {
+      return Math.min(columns - 1, Math.max(0, (int) ((px - minX) / cellSize)));
+    }
+
+    private int row(double py) {
+      return Math.min(rows - 1, Math.max(0, (int) ((py - minY) / cellSize)));
+    }
+
+    private int cellOf(double px, double py) {
+      return row(py) * columns + column(px);
+    }
+
+    private void link(int i, int c) {
+      cell[i] = c;
+      previous[i] = -1;
+      next[i] = head[c];
+      if (head[c] >= 0) {
+        previous[head[c]] = i;
+      }
+      head[c] = i;
+    }
+
+    private void unlink(int i) {
+      int c = cell[i];
+      if (previous[i] >= 0) {
+        next[previous[i]] = next[i];
+      } else {
+        head[c] = next[i];
+      }
+      if (next[i] >= 0) {
+        previous[next[i]] = previous[i];
+      }
+    }
+
+    /**
+     * @param i the vertex index
+     * @param px the new x location
+     * @param py the new y location
+     */
+    void move(int i, double px, double py) {
+      x[i] = px;
+      y[i] = py;
+      if (px < minX || px > maxX || py < minY || py > maxY) {
+        stale = true;
+      }
+      int c = cellOf(px, py);
+      if (c != cell[i]) {
+        unlink(i);
+        link(i, c);
+      }
+    }
 
-    protected ISOMVertexData() {
-      distance = 0;
-      visited = false;
+    /**
+     * @param px the x location of the query point, within the bounds
+     * @param py the y location of the query point, within the bounds
+     * @return the index of the closest vertex, or -1 if there are none
+     */
+    int nearest(double px, double py) {
+      int cx = column(px);
+      int cy = row(py);
+      int best = -1;
+      double bestDistance = Double.POSITIVE_INFINITY;
+      int maxRing = Math.max(columns, rows);
+      for (int ring = 0; ring <= maxRing; ring++) {
+        // every vertex in this ring or beyond is at least (ring - 1) cells away
+        double bound = (ring - 1) * cellSize;
+        if (best >= 0 && bound > 0 && bestDistance <= bound * bound) {
+          break;
+        }
+        for (int j = cy - ring; j <= cy + ring; j++) {
+          if (j < 0 || j >= rows) {
+            continue;
+          }
+          boolean edgeRow = j == cy - ring || j == cy + ring;
+          int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+          for (int i = cx - ring; i <= cx + ring; i += step) {
+            if (i < 0 || i >= columns) {
+              continue;
+            }
+            for (int v = head[j * columns + i]; v >= 0; v = next[v]) {
+              double dx = x[v] - px;
+              double dy = y[v] - py;
+              double d = dx * dx + dy * dy;
+              if (d < bestDistance) {
+                bestDistance = d;
+                best = v;
+              }
+            }
+          }
+        }
+      }
+      return best;
     }
   }
 
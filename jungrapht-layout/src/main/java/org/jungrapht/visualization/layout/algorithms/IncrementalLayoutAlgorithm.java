@@ -0,0 +1,24 @@
+package org.jungrapht.visualization.layout.algorithms;
+
+import java.util.Collection;
+
+/**
+ * A LayoutAlgorithm that can update an existing layout after a small change to the graph instead of
+ * laying out the whole graph again. The vertices that were added or changed are passed to {@code
+ * setIncremental} before the next visit. The visit keeps the current positions of the other
+ * vertices and moves only the vertices near the change.
+ *
+ * @param <V> the Vertex type
+ * @author Tom Nelson
+ */
+public interface IncrementalLayoutAlgorithm<V> extends LayoutAlgorithm<V> {
+
+  /**
+   * @param changed the vertices that were added or changed since the last visit. The next visit is
+   *     incremental, later visits are not
+   */
+  void setIncremental(Collection<V> changed);
+
+  /** @return true if the current or next visit is incremental */
+  boolean isIncremental();
+}
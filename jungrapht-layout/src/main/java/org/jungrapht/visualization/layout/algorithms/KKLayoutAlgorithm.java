@@ -9,14 +9,17 @@
  */
 package org.jungrapht.visualization.layout.algorithms;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import org.jgrapht.Graph;
-import org.jgrapht.GraphPath;
-import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
-import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jungrapht.visualization.layout.algorithms.util.DistanceMatrix;
 import org.jungrapht.visualization.layout.algorithms.util.IterativeContext;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
@@ -36,7 +39,7 @@ import org.slf4j.LoggerFactory;
  * @author Tom Nelson
  */
 public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
-    implements IterativeContext {
+    implements IncrementalLayoutAlgorithm<V>, IterativeContext {
 
   private static final Logger log = LoggerFactory.getLogger(KKLayoutAlgorithm.class);
 
@@ -46,6 +49,8 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     protected int maxIterations = 2000;
     protected boolean adjustForGravity = true;
     protected boolean exchangeVertices = true;
+    protected int landmarks;
+    protected boolean parallelDistances = true;
 
     public B maxIterations(int maxIterations) {
       this.maxIterations = maxIterations;
@@ -62,6 +67,27 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
       return self();
     }
 
+    /**
+     * @param landmarks if more than 0, graph distances are measured exactly from this many landmark
+     *     vertices only, and estimated for all other pairs. Use this for graphs too large for a
+     *     full distance matrix
+     * @return this builder
+     */
+    public B landmarks(int landmarks) {
+      this.landmarks = landmarks;
+      return self();
+    }
+
+    /**
+     * @param parallelDistances if true (the default), the searches that fill the distance matrix
+     *     run concurrently
+     * @return this builder
+     */
+    public B parallelDistances(boolean parallelDistances) {
+      this.parallelDistances = parallelDistances;
+      return self();
+    }
+
     public T build() {
       return (T) new KKLayoutAlgorithm<>(this);
     }
@@ -71,6 +97,9 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     return new Builder<>();
   }
 
+  /** the landmark count used when the graph is too large for an exact distance matrix */
+  private static final int DEFAULT_LANDMARKS = 100;
+
   private double EPSILON = 0.1d;
 
   private int currentIteration;
@@ -79,7 +108,7 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
 
   private double L; // the ideal length of an edge
   private double K = 1; // arbitrary const number
-  private double[][] dm; // distance matrix
+  private double disconnectedDistance; // the largest distance used between two vertices
 
   private boolean adjustForGravity = true;
   private boolean exchangevertices = true;
@@ -87,8 +116,19 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
   private V[] vertices;
   private Point[] xydata;
 
-  /** Retrieves graph distances between vertices of the visible graph */
-  protected Map<Pair<V>, Integer> distance;
+  /** graph distances between vertices of the visible graph, by index in vertices */
+  protected DistanceMatrix distances;
+
+  /**
+   * Retrieves graph distances between vertices of the visible graph
+   *
+   * @deprecated a read-only view of {@link #distances}. Each lookup hashes both vertices, so use
+   *     the indexed {@link #distances} instead
+   */
+  @Deprecated protected Map<Pair<V>, Integer> distance;
+
+  private int landmarks;
+  private boolean parallelDistances;
 
   /**
    * The diameter of the visible graph. In other words, the maximum over all pairs of vertices of
@@ -114,6 +154,8 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     this.maxIterations = builder.maxIterations;
     this.adjustForGravity = builder.adjustForGravity;
     this.exchangevertices = builder.exchangeVertices;
+    this.landmarks = builder.landmarks;
+    this.parallelDistances = builder.parallelDistances;
   }
 
   @Override
@@ -123,25 +165,22 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     if (graph == null || graph.vertexSet().isEmpty()) {
       return;
     }
-    this.distance = getDistances(graph);
     initialize();
   }
 
-  private Map<Pair<V>, Integer> getDistances(Graph<V, ?> graph) {
-
-    DijkstraShortestPath<V, ?> dijkstra = new DijkstraShortestPath<>(graph);
-    Map<Pair<V>, Integer> distanceMap = new HashMap<>();
-    for (V vertex : graph.vertexSet()) {
-
-      ShortestPathAlgorithm.SingleSourcePaths<V, ?> distances = dijkstra.getPaths(vertex);
-      for (V n : graph.vertexSet()) {
-        GraphPath<V, ?> graphPath = distances.getPath(n);
-        if (graphPath != null && graphPath.getWeight() != 0) {
-          distanceMap.put(Pair.of(vertex, n), (int) graphPath.getWeight());
-        }
-      }
+  private DistanceMatrix getDistances(Graph<V, ?> graph) {
+    int landmarkCount = landmarks;
+    if (landmarkCount <= 0 && vertices.length > DistanceMatrix.MAX_EXACT_SIZE) {
+      log.info(
+          "{} vertices is too many for exact distances, using {} landmarks",
+          vertices.length,
+          DEFAULT_LANDMARKS);
+      landmarkCount = DEFAULT_LANDMARKS;
+    }
+    if (landmarkCount > 0) {
+      return DistanceMatrix.landmarks(graph, vertices, landmarkCount);
     }
-    return distanceMap;
+    return DistanceMatrix.exact(graph, vertices, parallelDistances);
   }
 
   /**
@@ -184,16 +223,18 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     currentIteration = 0;
     if (layoutModel != null) {
       Graph<V, ?> graph = layoutModel.getGraph();
-      // KKLayoutAlgorithm will fail if all vertices start at the same location
-      layoutModel.setInitializer(
-          new RandomLocationTransformer<>(
-              layoutModel.getWidth(), layoutModel.getHeight(), graph.vertexSet().size()));
+      // KKLayoutAlgorithm will fail if all vertices start at the same location. An incremental
+      // visit keeps the current locations
+      if (!isIncremental()) {
+        layoutModel.setInitializer(
+            new RandomLocationTransformer<>(
+                layoutModel.getWidth(), layoutModel.getHeight(), graph.vertexSet().size()));
+      }
 
       double height = layoutModel.getHeight();
       double width = layoutModel.getWidth();
 
       int n = graph.vertexSet().size();
-      dm = new double[n][n];
       vertices = (V[]) graph.vertexSet().toArray();
       xydata = new Point[n];
 
@@ -212,7 +253,9 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
         }
       }
 
-      diameter = diameter(graph, distance, true);
+      distances = getDistances(graph);
+      distance = new DistanceMap<>(vertices, distances);
+      diameter = distances.getDiameter();
       log.trace("using diameter {}", diameter);
       //      if (diameter == 0) diameter = 2;
 
@@ -220,28 +263,19 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
       L = (L0 / diameter) * length_factor; // length_factor used to be hardcoded to 0.9
       //L = 0.75 * Math.sqrt(height * width / n);
 
-      for (int i = 0; i < n - 1; i++) {
-        for (int j = i + 1; j < n; j++) {
-          Number d_ij = distance.get(Pair.of(vertices[i], vertices[j]));
-          log.trace("distance from " + i + " to " + j + " is " + d_ij);
-
-          Number d_ji = distance.get(Pair.of(vertices[j], vertices[i]));
-          log.trace("distance from " + j + " to " + i + " is " + d_ji);
-
-          double dist = diameter * disconnected_multiplier;
-          log.trace("dist:" + dist);
-          if (d_ij != null && d_ij.intValue() < Integer.MAX_VALUE) {
-            dist = Math.min(d_ij.doubleValue(), dist);
-          }
-          if (d_ji != null && d_ji.intValue() < Integer.MAX_VALUE) {
-            dist = Math.min(d_ji.doubleValue(), dist);
-          }
-          dm[i][j] = dm[j][i] = dist;
-        }
-      }
+      disconnectedDistance = diameter * disconnected_multiplier;
     }
   }
 
+  /**
+   * @return the distance to use between the vertices at i and j. Vertices that are not connected,
+   *     or are further apart than a fraction of the diameter, use that fraction of the diameter
+   */
+  private double dm(int i, int j) {
+    int d = distances.get(i, j);
+    return d == 0 ? disconnectedDistance : Math.min(d, disconnectedDistance);
+  }
+
   @Override
   public void step() {
     if (cancelled) {
@@ -320,9 +354,14 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     }
     gx /= xydata.length;
     gy /= xydata.length;
-    double diffx = width / 2 - gx;
-    double diffy = height / 2 - gy;
+    // an incremental visit does not shift the vertices away from the change
+    boolean incremental = isIncremental();
+    double diffx = incremental ? 0 : width / 2 - gx;
+    double diffy = incremental ? 0 : height / 2 - gy;
     for (int i = 0; i < xydata.length && !cancelled; i++) {
+      if (incremental && layoutModel.isLocked(vertices[i])) {
+        continue;
+      }
       xydata[i] = xydata[i].add(diffx, diffy);
       layoutModel.set(vertices[i], xydata[i]);
     }
@@ -361,7 +400,7 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     for (int i = 0; i < vertices.length; i++) {
       if (i != m) {
 
-        double dist = dm[m][i];
+        double dist = dm(m, i);
         double l_mi = L * dist;
         double k_mi = K / (dist * dist);
         double dx = xydata[m].x - xydata[i].x;
@@ -391,7 +430,7 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     double dEdym = 0;
     for (int i = 0; i < vertices.length; i++) {
       if (i != m) {
-        double dist = dm[m][i];
+        double dist = dm(m, i);
         double l_mi = L * dist;
         double k_mi = K / (dist * dist);
 
@@ -412,7 +451,7 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     double energy = 0;
     for (int i = 0; i < vertices.length - 1; i++) {
       for (int j = i + 1; j < vertices.length; j++) {
-        double dist = dm[i][j];
+        double dist = dm(i, j);
         double l_ij = L * dist;
         double k_ij = K / (dist * dist);
         double dx = xydata[i].x - xydata[j].x;
@@ -442,7 +481,7 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
           jj = p;
         }
 
-        double dist = dm[i][j];
+        double dist = dm(i, j);
         double l_ij = L * dist;
         double k_ij = K / (dist * dist);
         double dx = xydata[ii].x - xydata[jj].x;
@@ -455,29 +494,112 @@ public class KKLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
     return energy;
   }
 
-  private static <V> double diameter(Graph<V, ?> g, Map<Pair<V>, Integer> d, boolean use_max) {
-    double diameter = 0;
-    // TODO: provide an undirected version
-    for (V v : g.vertexSet()) {
-      for (V w : g.vertexSet()) {
-        if (v.equals(w)) {
-          continue; // don't include self-distances
+  /**
+   * a read-only map view of a DistanceMatrix, keyed by pairs of vertices. Pairs that are not
+   * connected, or are one vertex twice, are not in the map. Both orders of a pair map to the
+   * shorter of the two directed distances, as KK uses them. The index of the vertices is only built
+   * when the map is first used
+   */
+  private static class DistanceMap<V> extends AbstractMap<Pair<V>, Integer> {
+    private final V[] vertices;
+    private final DistanceMatrix distances;
+    private Map<V, Integer> index;
+
+    DistanceMap(V[] vertices, DistanceMatrix distances) {
+      this.vertices = vertices;
+      this.distances = distances;
+    }
+
+    @Override
+    public Integer get(Object key) {
+      if (!(key instanceof Pair)) {
+        return null;
+      }
+      if (index == null) {
+        index = new HashMap<>();
+        for (int i = 0; i < vertices.length; i++) {
+          index.put(vertices[i], i);
+        }
+      }
+      Pair<?> pair = (Pair<?>) key;
+      Integer i = index.get(pair.first);
+      Integer j = index.get(pair.second);
+      if (i == null || j == null) {
+        return null;
+      }
+      int d = distances.get(i, j);
+      return d == 0 ? null : d;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<Pair<V>, Integer>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Pair<V>, Integer>> iterator() {
+          return new Iterator<>() {
+            int i;
+            int j = -1;
+            Entry<Pair<V>, Integer> next = advance();
+
+            private Entry<Pair<V>, Integer> advance() {
+              while (i < vertices.length) {
+                if (++j == vertices.length) {
+                  i++;
+                  j = -1;
+                  continue;
+                }
+                int d = distances.get(i, j);
+                if (i != j && d != 0) {
+                  return new SimpleImmutableEntry<>(Pair.of(vertices[i], vertices[j]), d);
+                }
+              }
+              return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+              return next != null;
+            }
+
+            @Override
+            public Entry<Pair<V>, Integer> next() {
+              if (next == null) {
+                throw new NoSuchElementException();
+              }
+              Entry<Pair<V>, Integer> entry = next;
+              next = advance();
+              return entry;
+            }
+          };
         }
-        Pair<V> pair = Pair.of(v, w);
-        if (d.containsKey(pair)) {
-          int dist = d.get(pair);
-          diameter = Math.max(diameter, dist);
-
-        } else {
-          if (!use_max) {
-            return Double.POSITIVE_INFINITY;
+
+        @Override
+        public int size() {
+          int size = 0;
+          for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+              if (distances.get(i, j) != 0) {
+                size += 2;
+              }
+            }
           }
+          return size;
         }
-      }
+      };
     }
-    return diameter;
   }
 
+  /**
+   * an ordered pair of vertices
+   *
+   * @deprecated only used as the key of the deprecated {@link #distance} map
+   */
+  @Deprecated
   public static class Pair<V> {
     final V first;
     final V second;
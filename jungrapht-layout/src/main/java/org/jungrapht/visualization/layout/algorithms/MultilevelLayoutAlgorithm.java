@@ -0,0 +1,559 @@
+package org.jungrapht.visualization.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.jgrapht.Graph;
+import org.jungrapht.visualization.layout.algorithms.repulsion.BarnesHutFRRepulsion;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.quadtree.ArrayBarnesHutQuadTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A multilevel (coarsen, lay out, refine) driver for the force directed layout algorithms.
+ *
+ * <p>The graph is repeatedly coarsened by merging the pairs of a heavy edge maximal matching into
+ * single vertices, until it is small or stops shrinking. A coarse vertex keeps the mass of the
+ * vertices merged into it, and a coarse edge the summed weight of the edges merged into it. The
+ * coarsest graph is given random locations and relaxed with a force directed step that scales the
+ * repulsion by mass and the attraction by weight, so that each coarse level is laid out like the
+ * part of the original graph that it stands for. The locations are then projected down one level at
+ * a time: each vertex starts near the location of the coarse vertex it was merged into, and the
+ * level is relaxed again. Because every level starts from a good approximation, each needs only a
+ * few iterations.
+ *
+ * <p>The coarse levels are laid out when this algorithm visits the LayoutModel. The refinement of
+ * the original graph is then run by this algorithm's own {@link #step()}, so that the LayoutModel
+ * animates it like any other {@link IterativeLayoutAlgorithm}.
+ *
+ * <p>Only the original graph is refined by the supplied refinement algorithm. The coarse levels are
+ * always relaxed by the built in force directed step above, because a coarse level is not a graph
+ * that the pluggable algorithms can read: its masses and edge weights would be lost. The refinement
+ * algorithm must read its starting locations from the LayoutModel. FR, Spring and ForceAtlas2 do.
+ * KK and ISOM replace them with random locations, so they gain nothing from the coarse levels.
+ *
+ * <p>An incremental visit skips the coarse levels and passes the changed vertices to the refinement
+ * algorithm of the original graph.
+ *
+ * @param <V> the vertex type
+ * @author Tom Nelson
+ */
+public class MultilevelLayoutAlgorithm<V> extends AbstractIterativeLayoutAlgorithm<V>
+    implements IncrementalLayoutAlgorithm<V> {
+
+  private static final Logger log = LoggerFactory.getLogger(MultilevelLayoutAlgorithm.class);
+
+  public static class Builder<V, T extends MultilevelLayoutAlgorithm<V>, B extends Builder<V, T, B>>
+      extends AbstractIterativeLayoutAlgorithm.Builder<V, T, B>
+      implements LayoutAlgorithm.Builder<V, T, B> {
+    protected Supplier<? extends IterativeLayoutAlgorithm<?>> refinement =
+        () ->
+            FRLayoutAlgorithm.builder()
+                .repulsionContractBuilder(BarnesHutFRRepulsion.builder())
+                .maxIterations(100)
+                .prerelax(false)
+                .build();
+    protected int coarsestSize = 50;
+    protected int maxLevels = 40;
+    protected int levelIterations = 100;
+
+    /**
+     * @param refinement supplies the algorithm that refines the original graph from the locations
+     *     of the coarse levels
+     * @return this builder
+     */
+    public B refinement(Supplier<? extends IterativeLayoutAlgorithm<?>> refinement) {
+      this.refinement = refinement;
+      return self();
+    }
+
+    /**
+     * @param coarsestSize coarsening stops when a level has no more than this many vertices
+     * @return this builder
+     */
+    public B coarsestSize(int coarsestSize) {
+      this.coarsestSize = coarsestSize;
+      return self();
+    }
+
+    /**
+     * @param maxLevels the most coarse levels to create
+     * @return this builder
+     */
+    public B maxLevels(int maxLevels) {
+      this.maxLevels = maxLevels;
+      return self();
+    }
+
+    /**
+     * @param levelIterations the number of force directed steps to run on each coarse level
+     * @return this builder
+     */
+    public B levelIterations(int levelIterations) {
+      this.levelIterations = levelIterations;
+      return self();
+    }
+
+    public T build() {
+      return (T) new MultilevelLayoutAlgorithm<>(this);
+    }
+  }
+
+  public static <V> Builder<V, ?, ?> builder() {
+    return new Builder<>();
+  }
+
+  /** a level stops the coarsening if it keeps more than this fraction of the finer level */
+  private static final double MIN_REDUCTION = 0.95;
+
+  /** scales the natural length of the coarse levels, like the force multipliers of FR */
+  private static final double FORCE_MULTIPLIER = 0.75;
+
+  private static final double EPSILON = 0.000001D;
+
+  protected Supplier<? extends IterativeLayoutAlgorithm<?>> refinement;
+  protected int coarsestSize;
+  protected int maxLevels;
+  protected int levelIterations;
+
+  /** the number of levels of the last visit, counting the original graph */
+  protected int levelCount;
+
+  /** refines the original graph. null until the coarse levels are done */
+  protected IterativeLayoutAlgorithm<V> finest;
+
+  /** the changed vertices for the next visit, or null if the next visit is not incremental */
+  private Collection<V> incrementalChanges;
+
+  public MultilevelLayoutAlgorithm() {
+    this(MultilevelLayoutAlgorithm.builder());
+  }
+
+  protected MultilevelLayoutAlgorithm(Builder<V, ?, ?> builder) {
+    super(builder);
+    this.refinement = builder.refinement;
+    this.coarsestSize = builder.coarsestSize;
+    this.maxLevels = builder.maxLevels;
+    this.levelIterations = builder.levelIterations;
+  }
+
+  /** one level of the hierarchy, as compressed undirected adjacency arrays */
+  static class Level {
+    final int n;
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    final double[] mass;
+    /** the index of the coarse vertex that each vertex was merged into */
+    int[] parent;
+
+    double[] xs;
+    double[] ys;
+
+    Level(int n, int[] offsets, int[] targets, double[] weights, double[] mass) {
+      this.n = n;
+      this.offsets = offsets;
+      this.targets = targets;
+      this.weights = weights;
+      this.mass = mass;
+    }
+  }
+
+  @Override
+  public void visit(LayoutModel<V> layoutModel) {
+    super.visit(layoutModel);
+    cancelled = false;
+    Graph<V, ?> graph = layoutModel.getGraph();
+    if (graph == null || graph.vertexSet().isEmpty()) {
+      return;
+    }
+    if (incrementalChanges != null) {
+      // the current locations are kept, so there is nothing for the coarse levels to do
+      Collection<V> changed = incrementalChanges;
+      incrementalChanges = null;
+      finest = (IterativeLayoutAlgorithm<V>) refinement.get();
+      if (finest instanceof IncrementalLayoutAlgorithm) {
+        ((IncrementalLayoutAlgorithm<V>) finest).setIncremental(changed);
+      }
+      finest.visit(layoutModel);
+      return;
+    }
+    long start = System.currentTimeMillis();
+    V[] vertices = snapshot(graph);
+    List<Level> levels = new ArrayList<>();
+    levels.add(firstLevel(graph, vertices));
+    while (levels.size() <= maxLevels) {
+      Level fine = levels.get(levels.size() - 1);
+      if (fine.n <= coarsestSize) {
+        break;
+      }
+      Level coarse = coarsen(fine);
+      if (coarse.n > fine.n * MIN_REDUCTION) {
+        fine.parent = null;
+        break;
+      }
+      levels.add(coarse);
+    }
+    levelCount = levels.size();
+    log.debug(
+        "coarsened {} vertices to {} in {} levels",
+        vertices.length,
+        levels.get(levels.size() - 1).n,
+        levels.size() - 1);
+
+    double width = layoutModel.getWidth();
+    double height = layoutModel.getHeight();
+    Level coarsest = levels.get(levels.size() - 1);
+    coarsest.xs = new double[coarsest.n];
+    coarsest.ys = new double[coarsest.n];
+    for (int i = 0; i < coarsest.n; i++) {
+      coarsest.xs[i] = random.nextDouble() * width;
+      coarsest.ys[i] = random.nextDouble() * height;
+    }
+    for (int l = levels.size() - 1; l > 0 && !cancelled; l--) {
+      Level level = levels.get(l);
+      if (l < levels.size() - 1) {
+        project(levels.get(l + 1), level, width, height);
+      }
+      refine(level, width, height, l == levels.size() - 1);
+    }
+    Level first = levels.get(0);
+    if (levels.size() > 1) {
+      project(levels.get(1), first, width, height);
+    } else {
+      first.xs = coarsest.xs;
+      first.ys = coarsest.ys;
+    }
+    layoutModel.beginBatch();
+    try {
+      for (int i = 0; i < vertices.length; i++) {
+        layoutModel.set(vertices[i], first.xs[i], first.ys[i]);
+      }
+    } finally {
+      layoutModel.commitBatch();
+    }
+    log.debug("coarse levels took {} ms", System.currentTimeMillis() - start);
+
+    finest = (IterativeLayoutAlgorithm<V>) refinement.get();
+    finest.visit(layoutModel);
+  }
+
+  /** @return the number of levels of the last full visit, counting the original graph */
+  public int getLevelCount() {
+    return levelCount;
+  }
+
+  @Override
+  public void setIncremental(Collection<V> changed) {
+    this.incrementalChanges = new ArrayList<>(changed);
+  }
+
+  @Override
+  public boolean isIncremental() {
+    return incrementalChanges != null
+        || finest instanceof IncrementalLayoutAlgorithm
+            && ((IncrementalLayoutAlgorithm<V>) finest).isIncremental();
+  }
+
+  @Override
+  public void step() {
+    if (finest != null && !cancelled) {
+      finest.step();
+    }
+  }
+
+  @Override
+  public boolean done() {
+    boolean done = cancelled || finest == null || finest.done();
+    if (done) {
+      runAfter();
+    }
+    return done;
+  }
+
+  @Override
+  public void cancel() {
+    if (finest != null) {
+      finest.cancel();
+    }
+    super.cancel();
+  }
+
+  private V[] snapshot(Graph<V, ?> graph) {
+    while (true) {
+      try {
+        return (V[]) graph.vertexSet().toArray();
+      } catch (ConcurrentModificationException cme) {
+        // the graph changed while copying, try again
+      }
+    }
+  }
+
+  private <E> Level firstLevel(Graph<V, E> graph, V[] vertices) {
+    int n = vertices.length;
+    Map<V, Integer> index = new HashMap<>(n * 2);
+    for (int i = 0; i < n; i++) {
+      index.put(vertices[i], i);
+    }
+    int[] degree = new int[n + 1];
+    List<E> edges = new ArrayList<>(graph.edgeSet());
+    int[] from = new int[edges.size()];
+    int[] to = new int[edges.size()];
+    int m = 0;
+    for (E edge : edges) {
+      Integer s = index.get(graph.getEdgeSource(edge));
+      Integer t = index.get(graph.getEdgeTarget(edge));
+      if (s == null || t == null || s.equals(t)) {
+        continue;
+      }
+      from[m] = s;
+      to[m] = t;
+      degree[s + 1]++;
+      degree[t + 1]++;
+      m++;
+    }
+    for (int i = 0; i < n; i++) {
+      degree[i + 1] += degree[i];
+    }
+    int[] offsets = degree;
+    int[] next = Arrays.copyOf(offsets, n);
+    int[] targets = new int[2 * m];
+    double[] weights = new double[2 * m];
+    for (int e = 0; e < m; e++) {
+      targets[next[from[e]]++] = to[e];
+      targets[next[to[e]]++] = from[e];
+    }
+    Arrays.fill(weights, 1);
+    double[] mass = new double[n];
+    Arrays.fill(mass, 1);
+    return new Level(n, offsets, targets, weights, mass);
+  }
+
+  /**
+   * merge the pairs of a heavy edge matching. The weight of an edge is divided by the masses of its
+   * ends so that the merged vertices stay balanced. Vertices left without a partner, such as the
+   * leaves of a star, are paired with another unmatched vertex that shares their heaviest neighbor
+   *
+   * @param fine the level to coarsen. Its parent array is filled in
+   * @return the coarse level
+   */
+  private Level coarsen(Level fine) {
+    int n = fine.n;
+    int[] match = new int[n];
+    Arrays.fill(match, -1);
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    for (int i = n - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = order[i];
+      order[i] = order[j];
+      order[j] = swap;
+    }
+    int[] pending = new int[n];
+    Arrays.fill(pending, -1);
+    for (int v : order) {
+      if (match[v] != -1) {
+        continue;
+      }
+      int best = -1;
+      int heaviest = -1;
+      double bestScore = Double.NEGATIVE_INFINITY;
+      double heaviestWeight = Double.NEGATIVE_INFINITY;
+      for (int k = fine.offsets[v]; k < fine.offsets[v + 1]; k++) {
+        int t = fine.targets[k];
+        if (fine.weights[k] > heaviestWeight) {
+          heaviestWeight = fine.weights[k];
+          heaviest = t;
+        }
+        if (match[t] != -1) {
+          continue;
+        }
+        double score = fine.weights[k] / (fine.mass[v] * fine.mass[t]);
+        if (score > bestScore) {
+          bestScore = score;
+          best = t;
+        }
+      }
+      if (best >= 0) {
+        match[v] = best;
+        match[best] = v;
+      } else if (heaviest >= 0 && pending[heaviest] >= 0) {
+        // share a neighbor with an earlier unmatched vertex
+        int other = pending[heaviest];
+        pending[heaviest] = -1;
+        match[v] = other;
+        match[other] = v;
+      } else if (heaviest >= 0) {
+        pending[heaviest] = v;
+        match[v] = v;
+      } else {
+        match[v] = v;
+      }
+    }
+    // number the coarse vertices
+    int[] parent = new int[n];
+    Arrays.fill(parent, -1);
+    int[] first = new int[n];
+    int[] second = new int[n];
+    int c = 0;
+    for (int v = 0; v < n; v++) {
+      if (parent[v] != -1) {
+        continue;
+      }
+      first[c] = v;
+      second[c] = match[v] == v ? -1 : match[v];
+      parent[v] = c;
+      if (match[v] != v) {
+        parent[match[v]] = c;
+      }
+      c++;
+    }
+    fine.parent = parent;
+
+    // merge the adjacency of the pairs, summing the weights of parallel edges
+    double[] mass = new double[c];
+    int[] offsets = new int[c + 1];
+    int[] targets = new int[fine.targets.length];
+    double[] weights = new double[fine.targets.length];
+    int[] slot = new int[c];
+    Arrays.fill(slot, -1);
+    int size = 0;
+    for (int cv = 0; cv < c; cv++) {
+      offsets[cv] = size;
+      int rowStart = size;
+      for (int member = 0; member < 2; member++) {
+        int v = member == 0 ? first[cv] : second[cv];
+        if (v < 0) {
+          continue;
+        }
+        mass[cv] += fine.mass[v];
+        for (int k = fine.offsets[v]; k < fine.offsets[v + 1]; k++) {
+          int t = parent[fine.targets[k]];
+          if (t == cv) {
+            continue;
+          }
+          if (slot[t] >= rowStart) {
+            weights[slot[t]] += fine.weights[k];
+          } else {
+            slot[t] = size;
+            targets[size] = t;
+            weights[size] = fine.weights[k];
+            size++;
+          }
+        }
+      }
+    }
+    offsets[c] = size;
+    return new Level(c, offsets, Arrays.copyOf(targets, size), Arrays.copyOf(weights, size), mass);
+  }
+
+  /** start each vertex of the fine level near the coarse vertex it was merged into */
+  private void project(Level coarse, Level fine, double width, double height) {
+    fine.xs = new double[fine.n];
+    fine.ys = new double[fine.n];
+    double jitter = 0.1 * Math.sqrt(width * height / fine.n);
+    for (int v = 0; v < fine.n; v++) {
+      int p = fine.parent[v];
+      fine.xs[v] = coarse.xs[p] + (random.nextDouble() - 0.5) * jitter;
+      fine.ys[v] = coarse.ys[p] + (random.nextDouble() - 0.5) * jitter;
+    }
+  }
+
+  /**
+   * relax one coarse level with a force directed step that keeps the weights of the level. Each
+   * coarse vertex stands for {@code mass} vertices of the original graph, and each coarse edge for
+   * {@code weight} original edges, so the repulsion between two vertices is scaled by the product
+   * of their masses and the attraction along an edge by its weight. The natural length is the one
+   * of the original graph on every level. The repulsion is summed with a Barnes-Hut quad tree that
+   * is built straight from the location and mass arrays of the level
+   */
+  private void refine(Level level, double width, double height, boolean coarsest) {
+    int n = level.n;
+    double[] xs = level.xs;
+    double[] ys = level.ys;
+    double totalMass = 0;
+    for (int v = 0; v < n; v++) {
+      totalMass += level.mass[v];
+    }
+    double k = FORCE_MULTIPLIER * Math.sqrt(width * height / totalMass);
+    double kSquared = k * k;
+    // the coarsest level starts from random locations, the others from the projected ones
+    double temperature = coarsest ? Math.max(width, height) / 10 : 3 * k;
+    ArrayBarnesHutQuadTree<Integer> tree = ArrayBarnesHutQuadTree.<Integer>builder().build();
+    double[] dxs = new double[n];
+    double[] dys = new double[n];
+    Repulsion force = new Repulsion(kSquared);
+    for (int i = 0; i < levelIterations && !cancelled; i++) {
+      tree.rebuild(xs, ys, level.mass, n);
+      for (int v = 0; v < n; v++) {
+        double x = xs[v];
+        double y = ys[v];
+        double m = level.mass[v];
+        force.reset(x, y, m);
+        tree.applyForcesToIndex(v, x, y, force);
+        for (int e = level.offsets[v]; e < level.offsets[v + 1]; e++) {
+          int t = level.targets[e];
+          double dx = x - xs[t];
+          double dy = y - ys[t];
+          double dist = Math.max(EPSILON, Math.sqrt(dx * dx + dy * dy));
+          double f = level.weights[e] * dist * dist / k;
+          force.fx -= f * dx / dist;
+          force.fy -= f * dy / dist;
+        }
+        // a heavier vertex moves less for the same force
+        dxs[v] = force.fx / m;
+        dys[v] = force.fy / m;
+      }
+      double limit = temperature * (1 - (double) i / levelIterations);
+      for (int v = 0; v < n; v++) {
+        double length = Math.max(EPSILON, Math.sqrt(dxs[v] * dxs[v] + dys[v] * dys[v]));
+        double move = Math.min(length, limit);
+        xs[v] = Math.min(width, Math.max(0, xs[v] + dxs[v] / length * move));
+        ys[v] = Math.min(height, Math.max(0, ys[v] + dys[v] / length * move));
+      }
+    }
+  }
+
+  /**
+   * sums the repulsion on one vertex of a level, reused for every vertex so a query allocates
+   * nothing
+   */
+  private static class Repulsion implements ArrayBarnesHutQuadTree.Visitor {
+    final double kSquared;
+    double x;
+    double y;
+    double m;
+    double fx;
+    double fy;
+
+    Repulsion(double kSquared) {
+      this.kSquared = kSquared;
+    }
+
+    void reset(double x, double y, double m) {
+      this.x = x;
+      this.y = y;
+      this.m = m;
+      fx = 0;
+      fy = 0;
+    }
+
+    @Override
+    public void addForceFrom(double ox, double oy, double mass) {
+      double dx = x - ox;
+      double dy = y - oy;
+      double dist = Math.max(EPSILON, Math.sqrt(dx * dx + dy * dy));
+      double f = m * mass * kSquared / dist;
+      fx += f * dx / dist;
+      fy += f * dy / dist;
+    }
+  }
+}
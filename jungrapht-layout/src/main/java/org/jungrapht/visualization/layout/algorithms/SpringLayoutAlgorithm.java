@@ -31,7 +31,7 @@ import org.slf4j.LoggerFactory;
  * @author Tom Nelson
  */
 public class SpringLayoutAlgorithm<V, E> extends AbstractIterativeLayoutAlgorithm<V>
-    implements IterativeContext {
+    implements IncrementalLayoutAlgorithm<V>, IterativeContext {
 
   private static final Logger log = LoggerFactory.getLogger(SpringLayoutAlgorithm.class);
   protected double stretch = 0.70;
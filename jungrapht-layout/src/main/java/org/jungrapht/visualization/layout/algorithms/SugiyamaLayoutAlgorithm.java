@@ -58,12 +58,24 @@ public class SugiyamaLayoutAlgorithm<V, E> extends AbstractHierarchicalMinCrossL
       extends AbstractHierarchicalMinCrossLayoutAlgorithm.Builder<V, E, T, B>
       implements LayoutAlgorithm.Builder<V, T, B> {
     protected int transposeLimit = Integer.getInteger(TRANSPOSE_LIMIT, 6);
+    protected boolean parallelSweeps =
+        Boolean.parseBoolean(System.getProperty(MINCROSS_PARALLEL_SWEEPS, "false"));
 
     public B transposeLimit(int transposeLimit) {
       this.transposeLimit = transposeLimit;
       return self();
     }
 
+    /**
+     * @param parallelSweeps if true, each component runs independent crossing minimizations on
+     *     separate cores and keeps the ordering with the fewest crossings
+     * @return this Builder
+     */
+    public B parallelSweeps(boolean parallelSweeps) {
+      this.parallelSweeps = parallelSweeps;
+      return self();
+    }
+
     /** {@inheritDoc} */
     public T build() {
       return (T) new SugiyamaLayoutAlgorithm<>(this);
@@ -84,6 +96,7 @@ public class SugiyamaLayoutAlgorithm<V, E> extends AbstractHierarchicalMinCrossL
   }
 
   protected int transposeLimit;
+  protected boolean parallelSweeps;
 
   public SugiyamaLayoutAlgorithm() {
     this(SugiyamaLayoutAlgorithm.edgeAwareBuilder());
@@ -96,6 +109,7 @@ public class SugiyamaLayoutAlgorithm<V, E> extends AbstractHierarchicalMinCrossL
         builder.postStraighten,
         builder.transpose,
         builder.transposeLimit,
+        builder.parallelSweeps,
         builder.maxLevelCross,
         builder.maxLevelCrossFunction,
         builder.expandLayout,
@@ -106,6 +120,9 @@ public class SugiyamaLayoutAlgorithm<V, E> extends AbstractHierarchicalMinCrossL
         builder.separateComponents,
         builder.favoredEdgePredicate,
         builder.after);
+    this.parallelCoordinateAssignment = builder.parallelCoordinateAssignment;
+    this.timeBudget = builder.timeBudget;
+    this.intermediate = builder.intermediate;
   }
 
   private SugiyamaLayoutAlgorithm(
@@ -114,6 +131,7 @@ public class SugiyamaLayoutAlgorithm<V, E> extends AbstractHierarchicalMinCrossL
       boolean postStraighten,
       boolean transpose,
       int transposeLimit,
+      boolean parallelSweeps,
       int maxLevelCross,
       Function<Graph<V, E>, Integer> maxLevelCrossFunction,
       boolean expandLayout,
@@ -140,6 +158,7 @@ public class SugiyamaLayoutAlgorithm<V, E> extends AbstractHierarchicalMinCrossL
         favoredEdgePredicate,
         after);
     this.transposeLimit = transposeLimit;
+    this.parallelSweeps = parallelSweeps;
   }
 
   @Override
@@ -156,6 +175,12 @@ public class SugiyamaLayoutAlgorithm<V, E> extends AbstractHierarchicalMinCrossL
         .layering(layering)
         .edgeComparator(edgeComparator)
         .multiComponent(componentCount > 1)
+        .coordinateAssignmentExecutor(getCoordinateAssignmentExecutor())
+        .retainedLayers(retainedLayers)
+        .incremental(changedVertices)
+        .deadline(deadline)
+        .intermediate(intermediateConsumer(componentLayoutModel))
+        .parallelSweeps(parallelSweeps)
         .build();
   }
 }
@@ -13,7 +13,9 @@ import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -54,6 +56,9 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
   static {
     PropertyLoader.load();
   }
+
+  /** Property key for the most sweeps of an incremental layout */
+  static final String INCREMENTAL_SWEEPS = PREFIX + "mincross.incrementalSweeps";
   /**
    * a Builder to create a configured instance
    *
@@ -78,6 +83,12 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
     protected Function<Graph<V, E>, Collection<E>> cycleRemovalFunction =
         new GreedyFeedbackArcFunction<>();
     protected Predicate<E> favoredEdgePredicate = Layered.truePredicate;
+    protected Executor coordinateAssignmentExecutor;
+    protected RetainedLayers<V, E> retainedLayers;
+    protected Collection<V> changed;
+    protected int incrementalSweeps = Integer.getInteger(INCREMENTAL_SWEEPS, 4);
+    protected long deadline;
+    protected Consumer<Map<V, Point>> intermediate;
 
     /** {@inheritDoc} */
     @SuppressWarnings("unchecked")
@@ -140,6 +151,65 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
       return self();
     }
 
+    /**
+     * @param coordinateAssignmentExecutor if not null, the four alignments of the horizontal
+     *     coordinate assignment run concurrently on it
+     * @return this Builder
+     */
+    public B coordinateAssignmentExecutor(Executor coordinateAssignmentExecutor) {
+      this.coordinateAssignmentExecutor = coordinateAssignmentExecutor;
+      return self();
+    }
+
+    /**
+     * @param retainedLayers receives the ranks and order of this layout, and supplies those of the
+     *     last layout when this one is incremental
+     * @return this Builder
+     */
+    public B retainedLayers(RetainedLayers<V, E> retainedLayers) {
+      this.retainedLayers = retainedLayers;
+      return self();
+    }
+
+    /**
+     * @param changed if not null, start from the retained layers and sweep from the retained order
+     * @return this Builder
+     */
+    public B incremental(Collection<V> changed) {
+      this.changed = changed;
+      return self();
+    }
+
+    /**
+     * @param incrementalSweeps the most sweeps of an incremental layout
+     * @return this Builder
+     */
+    public B incrementalSweeps(int incrementalSweeps) {
+      this.incrementalSweeps = incrementalSweeps;
+      return self();
+    }
+
+    /**
+     * @param deadline if positive, the time in milliseconds, as from {@link
+     *     System#currentTimeMillis()}, after which no more crossing minimization sweeps are
+     *     started. The best order so far is then laid out as usual
+     * @return this Builder
+     */
+    public B deadline(long deadline) {
+      this.deadline = deadline;
+      return self();
+    }
+
+    /**
+     * @param intermediate if not null, receives the vertex locations of each sweep that lowers the
+     *     crossings, with the rows centered in the order of that sweep
+     * @return this Builder
+     */
+    public B intermediate(Consumer<Map<V, Point>> intermediate) {
+      this.intermediate = intermediate;
+      return self();
+    }
+
     /** {@inheritDoc} */
     public T build() {
       return (T) new EiglspergerRunnable<>(this);
@@ -178,6 +248,12 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
   protected boolean multiComponent;
   protected boolean cancelled;
   protected Predicate<E> favoredEdgePredicate;
+  protected Executor coordinateAssignmentExecutor;
+  protected RetainedLayers<V, E> retainedLayers;
+  protected Collection<V> changed;
+  protected int incrementalSweeps;
+  protected long deadline;
+  protected Consumer<Map<V, Point>> intermediate;
 
   protected EiglspergerRunnable(Builder<V, E, ?, ?> builder) {
     this(
@@ -192,6 +268,12 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
         builder.edgeComparator,
         builder.favoredEdgePredicate,
         builder.multiComponent);
+    this.coordinateAssignmentExecutor = builder.coordinateAssignmentExecutor;
+    this.retainedLayers = builder.retainedLayers;
+    this.changed = builder.changed;
+    this.incrementalSweeps = builder.incrementalSweeps;
+    this.deadline = builder.deadline;
+    this.intermediate = builder.intermediate;
   }
 
   protected EiglspergerRunnable(
@@ -248,23 +330,35 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
     long transformTime = System.currentTimeMillis();
     log.trace("transform Graph took {}", (transformTime - startTime));
 
-    Collection<LE<V, E>> feedbackArcs;
+    // an incremental layout starts from the retained ranks and order
+    RetainedLayers<V, E>.Increment increment =
+        retainedLayers != null && changed != null && !retainedLayers.isEmpty()
+            ? retainedLayers.increment()
+            : null;
+    Collection<LE<V, E>> feedbackArcs = new ArrayList<>();
+    if (increment != null) {
+      // the edges that point up the retained ranks were feedback arcs, and are reversed again
+      feedbackArcs.addAll(retainedLayers.orient(svGraph));
+    }
+    Collection<LE<V, E>> greedyFeedbackArcs;
     if (edgeComparator == Layered.noopComparator) {
       GreedyFeedbackArcFunction<LV<V>, LE<V, E>> greedyFeedbackArcFunction =
           new GreedyFeedbackArcFunction<>();
-      feedbackArcs = greedyFeedbackArcFunction.apply(svGraph);
+      greedyFeedbackArcs = greedyFeedbackArcFunction.apply(svGraph);
 
     } else {
       Comparator<LE<V, E>> svComparator =
           (e1, e2) -> edgeComparator.compare(e1.getEdge(), e2.getEdge());
       ConstructiveFeedbackArcFunction<LV<V>, LE<V, E>> constructiveFeedbackArcFunction =
           new ConstructiveFeedbackArcFunction<>(svComparator);
-      feedbackArcs = constructiveFeedbackArcFunction.apply(svGraph);
+      greedyFeedbackArcs = constructiveFeedbackArcFunction.apply(svGraph);
     }
 
+    feedbackArcs.addAll(greedyFeedbackArcs);
+
     // reverse the direction of feedback arcs so that they no longer introduce cycles in the graph
     // the feedback arcs will be processed later to draw with the correct direction and correct articulation points
-    for (LE<V, E> se : feedbackArcs) {
+    for (LE<V, E> se : greedyFeedbackArcs) {
       svGraph.removeEdge(se);
       LE<V, E> newEdge = LE.of(se.getEdge(), se.getTarget(), se.getSource());
       svGraph.addEdge(newEdge.getSource(), newEdge.getTarget(), newEdge);
@@ -279,38 +373,42 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
     Comparator<LE<V, E>> svComparator =
         (e1, e2) -> edgeComparator.compare(e1.getEdge(), e2.getEdge());
     List<List<LV<V>>> layers;
-    switch (layering) {
-      case LONGEST_PATH:
-        if (edgeComparator != Layered.noopComparator) {
-          layers = GraphLayers.longestPath(svGraph, svComparator);
-        } else {
-          layers = GraphLayers.longestPath(svGraph);
-        }
-        break;
-      case COFFMAN_GRAHAM:
-        if (edgeComparator != Layered.noopComparator) {
-          layers = GraphLayers.coffmanGraham(svGraph, neighborCache, 0, svComparator);
-        } else {
-          layers = GraphLayers.coffmanGraham(svGraph, neighborCache, 0);
-        }
-        break;
-      case NETWORK_SIMPLEX:
-        if (edgeComparator != Layered.noopComparator) {
-          layers = GraphLayers.networkSimplex(svGraph, svComparator);
-        } else {
-          layers = GraphLayers.networkSimplex(svGraph);
-        }
-        break;
-      case TOP_DOWN:
-      default:
-        if (edgeComparator != Layered.noopComparator) {
-          layers = GraphLayers.assign(svGraph, svComparator);
-        } else {
-          layers = GraphLayers.assign(svGraph);
-        }
-    }
-    if (minimizeEdgeLength) {
-      GraphLayers.minimizeEdgeLength(svGraph, layers);
+    if (increment != null) {
+      layers = increment.assignLayers(svGraph, changed);
+    } else {
+      switch (layering) {
+        case LONGEST_PATH:
+          if (edgeComparator != Layered.noopComparator) {
+            layers = GraphLayers.longestPath(svGraph, svComparator);
+          } else {
+            layers = GraphLayers.longestPath(svGraph);
+          }
+          break;
+        case COFFMAN_GRAHAM:
+          if (edgeComparator != Layered.noopComparator) {
+            layers = GraphLayers.coffmanGraham(svGraph, neighborCache, 0, svComparator);
+          } else {
+            layers = GraphLayers.coffmanGraham(svGraph, neighborCache, 0);
+          }
+          break;
+        case NETWORK_SIMPLEX:
+          if (edgeComparator != Layered.noopComparator) {
+            layers = GraphLayers.networkSimplex(svGraph, svComparator);
+          } else {
+            layers = GraphLayers.networkSimplex(svGraph);
+          }
+          break;
+        case TOP_DOWN:
+        default:
+          if (edgeComparator != Layered.noopComparator) {
+            layers = GraphLayers.assign(svGraph, svComparator);
+          } else {
+            layers = GraphLayers.assign(svGraph);
+          }
+      }
+      if (minimizeEdgeLength) {
+        GraphLayers.minimizeEdgeLength(svGraph, layers);
+      }
     }
     long assignLayersTime = System.currentTimeMillis();
     log.trace("assign layers took {} ", (assignLayersTime - cycles));
@@ -321,6 +419,9 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
     Synthetics<V, E> synthetics = new Synthetics<>(svGraph);
     List<LE<V, E>> edges = new ArrayList<>(svGraph.edgeSet());
     LV<V>[][] layersArray = synthetics.createVirtualVerticesAndEdges(edges, layers);
+    if (increment != null) {
+      increment.order(layersArray, svGraph);
+    }
 
     if (log.isTraceEnabled()) {
       GraphLayers.checkLayers(layersArray);
@@ -329,9 +430,28 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
     long syntheticsTime = System.currentTimeMillis();
     log.trace("synthetics took {}", (syntheticsTime - assignLayersTime));
 
+    // figure out the avg size of rendered vertex
+    Rectangle avgVertexBounds = maxVertexBounds(layersArray, vertexShapeFunction);
+    log.trace("avgVertexBounds: {}", avgVertexBounds);
+    int horizontalOffset =
+        (int)
+            Math.max(
+                avgVertexBounds.width,
+                Integer.getInteger(PREFIX + "mincross.horizontalOffset", 50));
+    log.trace("horizontalOffset: {}", horizontalOffset);
+    int verticalOffset =
+        (int)
+            Math.max(
+                avgVertexBounds.height, Integer.getInteger(PREFIX + "mincross.verticalOffset", 50));
+    log.trace("verticalOffset: {}", verticalOffset);
+
     if (svGraph.edgeSet().size() > 200) {
       maxLevelCross = 2;
     }
+    if (increment != null) {
+      // the sweeps start from the retained order. At least one is needed for the compaction graph
+      maxLevelCross = Math.max(1, Math.min(maxLevelCross, incrementalSweeps));
+    }
     stepsForward = new EiglspergerStepsForward<>(svGraph, neighborCache, layersArray, transpose);
     stepsBackward = new EiglspergerStepsBackward<>(svGraph, neighborCache, layersArray, transpose);
 
@@ -342,6 +462,10 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
         log.trace("interrupted in level cross, cancelled: {}", cancelled);
         return;
       }
+      if (i > 0 && pastDeadline()) {
+        log.debug("deadline passed after {} level cross sweeps", i);
+        break;
+      }
       if (i % 2 == 0) {
         int sweepCrossCount = stepsForward.sweep(layersArray);
         Graph<LV<V>, Integer> compactionGraph = stepsForward.compactionGraph;
@@ -349,6 +473,7 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
           bestCrossCount = sweepCrossCount;
           vertexMetadataMap = save(layersArray);
           bestCompactionGraph = copy(compactionGraph);
+          publishIntermediate(layersArray, horizontalOffset, verticalOffset);
         } else {
           if (log.isTraceEnabled()) {
             log.trace("best:{}", layersArray);
@@ -362,6 +487,7 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
           bestCrossCount = sweepCrossCount;
           vertexMetadataMap = save(layersArray);
           bestCompactionGraph = copy(compactionGraph);
+          publishIntermediate(layersArray, horizontalOffset, verticalOffset);
         } else {
           if (log.isTraceEnabled()) {
             log.trace("best:{}", layersArray);
@@ -376,20 +502,6 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
     Arrays.stream(layersArray)
         .forEach(layer -> Arrays.sort(layer, Comparator.comparingInt(LV::getIndex)));
 
-    // figure out the avg size of rendered vertex
-    Rectangle avgVertexBounds = maxVertexBounds(layersArray, vertexShapeFunction);
-    log.trace("avgVertexBounds: {}", avgVertexBounds);
-    int horizontalOffset =
-        (int)
-            Math.max(
-                avgVertexBounds.width,
-                Integer.getInteger(PREFIX + "mincross.horizontalOffset", 50));
-    log.trace("horizontalOffset: {}", horizontalOffset);
-    int verticalOffset =
-        (int)
-            Math.max(
-                avgVertexBounds.height, Integer.getInteger(PREFIX + "mincross.verticalOffset", 50));
-    log.trace("verticalOffset: {}", verticalOffset);
     GraphLayers.checkLayers(layersArray);
 
     // update the indices of the all layers
@@ -398,6 +510,9 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
         value[j].setIndex(j);
       }
     }
+    if (retainedLayers != null) {
+      retainedLayers.retain(layersArray, svGraph);
+    }
     if (cancelled || Thread.currentThread().isInterrupted()) {
       log.trace("interrupted before compaction, cancelled: {}", cancelled);
       return;
@@ -412,7 +527,8 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
               bestCompactionGraph,
               new HashSet<>(),
               horizontalOffset,
-              verticalOffset);
+              verticalOffset,
+              coordinateAssignmentExecutor);
       horizontalCoordinateAssignment.horizontalCoordinateAssignment();
 
       GraphLayers.checkLayers(layersArray);
@@ -549,7 +665,13 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
     List<ArticulatedEdge<V, E>> articulatedEdges = synthetics.makeArticulatedEdges();
 
     Set<E> feedbackEdges = new HashSet<>();
-    feedbackArcs.forEach(a -> feedbackEdges.add(a.getEdge()));
+    // an edge that was reversed twice points the way it did in the graph
+    feedbackArcs.forEach(
+        a -> {
+          if (!feedbackEdges.add(a.getEdge())) {
+            feedbackEdges.remove(a.getEdge());
+          }
+        });
     articulatedEdges
         .stream()
         .filter(ae -> feedbackEdges.contains(ae.getEdge()))
@@ -672,6 +794,23 @@ public class EiglspergerRunnable<V, E> implements LayeredRunnable<E> {
     return vertexMetadataMap;
   }
 
+  /** @return true if there is a deadline and it has passed */
+  protected boolean pastDeadline() {
+    return deadline > 0 && System.currentTimeMillis() > deadline;
+  }
+
+  /**
+   * pass the locations of the current order, with the rows centered, to the intermediate consumer
+   */
+  protected void publishIntermediate(
+      LV<V>[][] layersArray, int horizontalOffset, int verticalOffset) {
+    if (intermediate != null) {
+      intermediate.accept(
+          Unaligned.centeredLocations(
+              layersArray, vertexShapeFunction, horizontalOffset, verticalOffset));
+    }
+  }
+
   protected LV<V>[][] restore(LV<V>[][] layers, Map<LV<V>, VertexMetadata<V>> vertexMetadataMap) {
     for (int i = 0; i < layers.length; i++) {
       for (int j = 0; j < layers[i].length; j++) {
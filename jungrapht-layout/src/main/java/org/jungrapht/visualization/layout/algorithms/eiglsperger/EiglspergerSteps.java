@@ -17,6 +17,7 @@ import java.util.stream.IntStream;
 import org.jgrapht.Graph;
 import org.jgrapht.alg.util.NeighborCache;
 import org.jungrapht.visualization.layout.algorithms.sugiyama.AccumulatorTreeUtil;
+import org.jungrapht.visualization.layout.algorithms.sugiyama.BiLayer;
 import org.jungrapht.visualization.layout.algorithms.sugiyama.Comparators;
 import org.jungrapht.visualization.layout.algorithms.sugiyama.LE;
 import org.jungrapht.visualization.layout.algorithms.sugiyama.LV;
@@ -533,18 +534,19 @@ public class EiglspergerSteps<V, E> {
 
   private int processRanks(List<LV<V>> downstreamLayer, List<LE<V, E>> biLayerEdges) {
     int crossCount = Integer.MAX_VALUE;
-    // define a function that will get the edge weight from its target vertex
-    // in the downstream layer. If the target is a container, it's weight is
-    // the size of the container
-    Function<Integer, Integer> f =
-        i -> {
-          LE<V, E> edge = biLayerEdges.get(i);
-          LV<V> target = edge.getTarget();
-          if (target instanceof Container) {
-            return ((Container<V>) target).size();
-          }
-          return 1;
-        };
+    // the edge weight is from its target vertex in the downstream layer. If the target is a
+    // container, its weight is the size of the container
+    int[] sources = new int[biLayerEdges.size()];
+    int[] targets = new int[biLayerEdges.size()];
+    int[] weights = new int[biLayerEdges.size()];
+    for (int k = 0; k < weights.length; k++) {
+      LE<V, E> edge = biLayerEdges.get(k);
+      LV<V> target = edge.getTarget();
+      sources[k] = edge.getSource().getIndex();
+      targets[k] = target.getIndex();
+      weights[k] = target instanceof Container ? ((Container<V>) target).size() : 1;
+    }
+    BiLayer biLayer = new BiLayer(sources, targets, weights);
     if (downstreamLayer.size() < 2) {
       crossCount = 0;
     }
@@ -560,7 +562,7 @@ public class EiglspergerSteps<V, E> {
           log.trace("IS count:{}, AC count:{}", vw2, vw3);
         }
       }
-      int vw = AccumulatorTreeUtil.crossingWeight(biLayerEdges, f);
+      int vw = biLayer.crossingWeight();
       crossCount = Math.min(vw, crossCount);
       if (log.isTraceEnabled()) {
         log.trace("crossingWeight:{}", vw);
@@ -575,6 +577,7 @@ public class EiglspergerSteps<V, E> {
       // count with j and j+1 swapped
       // first swap them
       swap(downstreamLayer, j, j + 1);
+      biLayer.swapTargets(j, j + 1);
       if (log.isTraceEnabled()) {
         // runs the crossingCount (no weights) with the insertionSort method and the AccumulatorTree method
         // these values should match and should both be <= to the crossingWeight
@@ -582,17 +585,19 @@ public class EiglspergerSteps<V, E> {
         int wv3 = AccumulatorTreeUtil.crossingCount(biLayerEdges);
         log.trace("IS count:{}, AC count:{}", wv2, wv3);
       }
-      int wv = AccumulatorTreeUtil.crossingWeight(biLayerEdges, f);
+      int wv = biLayer.crossingWeight();
       crossCount = Math.min(wv, crossCount);
       if (log.isTraceEnabled()) {
         log.trace("swapped crossingWeight:{}", wv);
       }
       // put them back unswapped
       swap(downstreamLayer, j, j + 1);
+      biLayer.swapTargets(j, j + 1);
 
       if (vw > wv) {
         // if the swapped weight is lower, swap them and save off the better
         swap(downstreamLayer, j, j + 1);
+        biLayer.swapTargets(j, j + 1);
         if (wv == 0) {
           break;
         }
@@ -642,9 +647,9 @@ public class EiglspergerSteps<V, E> {
 
   private int crossingCount(List<LE<V, E>> edges) {
     edges.sort(Comparators.biLevelEdgeComparator());
-    List<Integer> targetIndices = new ArrayList<>();
-    for (LE<V, E> edge : edges) {
-      targetIndices.add(edge.getTarget().getIndex());
+    int[] targetIndices = new int[edges.size()];
+    for (int i = 0; i < targetIndices.length; i++) {
+      targetIndices[i] = edges.get(i).getTarget().getIndex();
     }
     return InsertionSortCounter.insertionSortCounter(targetIndices);
   }
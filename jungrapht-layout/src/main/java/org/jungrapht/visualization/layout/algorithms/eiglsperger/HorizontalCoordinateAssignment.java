@@ -16,6 +16,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.jgrapht.Graph;
 import org.jungrapht.visualization.layout.algorithms.sugiyama.AverageMedian;
@@ -45,7 +47,27 @@ public class HorizontalCoordinateAssignment<V, E>
       Set<LE<V, E>> markedSegments,
       int horizontalOffset,
       int verticalOffset) {
-    super(layers, svGraph, markedSegments, horizontalOffset, verticalOffset);
+    this(layers, svGraph, compactionGraph, markedSegments, horizontalOffset, verticalOffset, null);
+  }
+
+  /**
+   * @param layers the ordered layers
+   * @param svGraph the graph of layered vertices and edges
+   * @param compactionGraph the graph of segment and vertex precedence
+   * @param markedSegments edges that conflict with inner segments
+   * @param horizontalOffset horizontal space between vertices
+   * @param verticalOffset vertical space between layers
+   * @param executor if not null, the four alignments run concurrently on it
+   */
+  public HorizontalCoordinateAssignment(
+      LV<V>[][] layers,
+      Graph<LV<V>, LE<V, E>> svGraph,
+      Graph<LV<V>, Integer> compactionGraph,
+      Set<LE<V, E>> markedSegments,
+      int horizontalOffset,
+      int verticalOffset,
+      Executor executor) {
+    super(layers, svGraph, markedSegments, horizontalOffset, verticalOffset, executor);
     this.horizontalBalancing = true;
     this.compactionGraph = compactionGraph;
     isolatedCompactionGraphVertices =
@@ -58,102 +80,34 @@ public class HorizontalCoordinateAssignment<V, E>
 
   public void horizontalCoordinateAssignment() {
 
-    LeftmostUpper<V, E> upLeft =
-        new LeftmostUpper(LtoR, TtoB, layers, compactionGraph, svGraph, markedSegments);
-    upLeft.align();
-    HorizontalCompaction<V, E> upLeftCompaction =
-        new HorizontalCompaction<>(
-            LtoR,
-            TtoB,
-            svGraph,
-            compactionGraph,
-            layers,
-            upLeft.getRootMap(),
-            upLeft.getAlignMap(),
-            horizontalOffset,
-            verticalOffset);
-    upLeftCompaction.horizontalCompaction();
-    //    upLeftCompaction.checkValuesInLayersForSameX(layers);
-
-    if (log.isTraceEnabled()) {
-      log.trace("upLeft");
-      log.trace("alignMap:{}", upLeft.getAlignMap());
-      log.trace("rootMap:{}", upLeft.getRootMap());
-      log.trace("shift:{}", upLeftCompaction.getShift());
-      log.trace("sink:{}", upLeftCompaction.getSink());
-    }
-
-    RightmostUpper<V, E> upRight =
-        new RightmostUpper<>(RtoL, TtoB, layers, compactionGraph, svGraph, markedSegments);
-    upRight.align();
-    HorizontalCompaction<V, E> upRightCompaction =
-        new HorizontalCompaction<>(
-            RtoL,
-            TtoB,
-            svGraph,
-            compactionGraph,
-            layers,
-            upRight.getRootMap(),
-            upRight.getAlignMap(),
-            horizontalOffset,
-            verticalOffset);
-    upRightCompaction.horizontalCompaction();
-    upRightCompaction.checkValuesInLayersForSameX(layers);
-    if (log.isTraceEnabled()) {
-      log.trace("upRight");
-      log.trace("alignMap:{}", upRight.getAlignMap());
-      log.trace("rootMap:{}", upRight.getRootMap());
-      log.trace("shift:{}", upRightCompaction.getShift());
-      log.trace("sink:{}", upRightCompaction.getSink());
-    }
-
-    LeftmostLower<V, E> downLeft =
-        new LeftmostLower<>(LtoR, BtoT, layers, compactionGraph, svGraph, markedSegments);
-    downLeft.align();
-    HorizontalCompaction<V, E> downLeftCompaction =
-        new HorizontalCompaction<>(
-            LtoR,
-            BtoT,
-            svGraph,
-            compactionGraph,
-            layers,
-            downLeft.getRootMap(),
-            downLeft.getAlignMap(),
-            horizontalOffset,
-            verticalOffset);
-    downLeftCompaction.horizontalCompaction();
-    downLeftCompaction.checkValuesInLayersForSameX(layers);
-    if (log.isTraceEnabled()) {
-      log.trace("downLeft");
-      log.trace("alignMap:{}", downLeft.getAlignMap());
-      log.trace("rootMap:{}", downLeft.getRootMap());
-      log.trace("shift:{}", downLeftCompaction.getShift());
-      log.trace("sink:{}", downLeftCompaction.getSink());
-    }
-
-    RightmostLower<V, E> downRight =
-        new RightmostLower<>(RtoL, BtoT, layers, compactionGraph, svGraph, markedSegments);
-    downRight.align();
-    HorizontalCompaction<V, E> downRightCompaction =
-        new HorizontalCompaction<>(
-            RtoL,
-            BtoT,
-            svGraph,
-            compactionGraph,
-            layers,
-            downRight.getRootMap(),
-            downRight.getAlignMap(),
-            horizontalOffset,
-            verticalOffset);
-    downRightCompaction.horizontalCompaction();
-    downRightCompaction.checkValuesInLayersForSameX(layers);
-    if (log.isTraceEnabled()) {
-      log.trace("downRight");
-      log.trace("alignMap:{}", downRight.getAlignMap());
-      log.trace("rootMap:{}", downRight.getRootMap());
-      log.trace("shift:{}", downRightCompaction.getShift());
-      log.trace("sink:{}", downRightCompaction.getSink());
-    }
+    List<HorizontalCompaction<V, E>> compactions =
+        compute(
+            executor,
+            List.<Supplier<HorizontalCompaction<V, E>>>of(
+                () ->
+                    compaction(
+                        "upLeft",
+                        new LeftmostUpper<>(
+                            LtoR, TtoB, layers, compactionGraph, svGraph, markedSegments)),
+                () ->
+                    compaction(
+                        "upRight",
+                        new RightmostUpper<>(
+                            RtoL, TtoB, layers, compactionGraph, svGraph, markedSegments)),
+                () ->
+                    compaction(
+                        "downLeft",
+                        new LeftmostLower<>(
+                            LtoR, BtoT, layers, compactionGraph, svGraph, markedSegments)),
+                () ->
+                    compaction(
+                        "downRight",
+                        new RightmostLower<>(
+                            RtoL, BtoT, layers, compactionGraph, svGraph, markedSegments))));
+    HorizontalCompaction<V, E> upLeftCompaction = compactions.get(0);
+    HorizontalCompaction<V, E> upRightCompaction = compactions.get(1);
+    HorizontalCompaction<V, E> downLeftCompaction = compactions.get(2);
+    HorizontalCompaction<V, E> downRightCompaction = compactions.get(3);
 
     if (horizontalBalancing) {
       horizontalBalancing(
@@ -192,6 +146,31 @@ public class HorizontalCoordinateAssignment<V, E>
     }
   }
 
+  private HorizontalCompaction<V, E> compaction(String name, VerticalAlignment<V, E> alignment) {
+    alignment.align();
+    HorizontalCompaction<V, E> compaction =
+        new HorizontalCompaction<>(
+            alignment.hDirection,
+            alignment.vDirection,
+            svGraph,
+            compactionGraph,
+            layers,
+            alignment.getRootMap(),
+            alignment.getAlignMap(),
+            horizontalOffset,
+            verticalOffset);
+    compaction.horizontalCompaction();
+    if (log.isTraceEnabled()) {
+      compaction.checkValuesInLayersForSameX(layers);
+      log.trace(name);
+      log.trace("alignMap:{}", alignment.getAlignMap());
+      log.trace("rootMap:{}", alignment.getRootMap());
+      log.trace("shift:{}", compaction.getShift());
+      log.trace("sink:{}", compaction.getSink());
+    }
+    return compaction;
+  }
+
   // gather all vertical inner edges
   private Set<LE<V, E>> getInnerEdges() {
     // find all PVertices
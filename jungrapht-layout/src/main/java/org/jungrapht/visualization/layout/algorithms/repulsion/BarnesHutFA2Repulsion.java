@@ -1,7 +1,9 @@
 package org.jungrapht.visualization.layout.algorithms.repulsion;
 
+import java.util.concurrent.ForkJoinPool;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.layout.quadtree.ArrayBarnesHutQuadTree;
 import org.jungrapht.visualization.layout.quadtree.BarnesHutQuadTree;
 import org.jungrapht.visualization.layout.quadtree.ForceObject;
 import org.jungrapht.visualization.layout.quadtree.Node;
@@ -25,6 +27,10 @@ public class BarnesHutFA2Repulsion<V>
       implements BarnesHutRepulsion.Builder<
           V, BarnesHutFA2Repulsion<V>, BarnesHutFA2Repulsion.Builder<V>> {
     private double theta = Node.DEFAULT_THETA;
+    private boolean parallel;
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+    private boolean arrayBacked;
+    private int rebuildInterval = 1;
     private BarnesHutQuadTree<V> tree;
 
     public Builder<V> layoutModel(LayoutModel<V> layoutModel) {
@@ -42,6 +48,46 @@ public class BarnesHutFA2Repulsion<V>
       return this;
     }
 
+    /**
+     * @param parallel if true, the forces on the vertices are computed concurrently after the tree
+     *     is built
+     * @return this builder
+     */
+    public Builder<V> parallel(boolean parallel) {
+      this.parallel = parallel;
+      return this;
+    }
+
+    /**
+     * @param forkJoinPool the pool to use when {@code parallel} is true. The default is the common
+     *     pool
+     * @return this builder
+     */
+    public Builder<V> forkJoinPool(ForkJoinPool forkJoinPool) {
+      this.forkJoinPool = forkJoinPool;
+      return this;
+    }
+
+    /**
+     * @param arrayBacked if true, an {@link ArrayBarnesHutQuadTree} is used in place of the {@link
+     *     BarnesHutQuadTree}
+     * @return this builder
+     */
+    public Builder<V> arrayBacked(boolean arrayBacked) {
+      this.arrayBacked = arrayBacked;
+      return this;
+    }
+
+    /**
+     * @param rebuildInterval when {@code arrayBacked} is true, the tree is rebuilt every {@code
+     *     rebuildInterval} steps and refit in the steps between
+     * @return this builder
+     */
+    public Builder<V> rebuildInterval(int rebuildInterval) {
+      this.rebuildInterval = rebuildInterval;
+      return this;
+    }
+
     @Override
     public BarnesHutFA2Repulsion build() {
       return new BarnesHutFA2Repulsion<>(this);
@@ -59,53 +105,112 @@ public class BarnesHutFA2Repulsion<V>
 
   private BarnesHutQuadTree<V> tree;
 
+  /** used in place of the tree when not null */
+  private ArrayBarnesHutQuadTree<V> arrayTree;
+
+  /** computes the forces concurrently when not null */
+  private ParallelForceEvaluator<V> evaluator;
+
   protected BarnesHutFA2Repulsion(Builder<V> builder) {
     super(builder);
     this.tree = builder.tree;
+    if (builder.arrayBacked) {
+      this.arrayTree =
+          ArrayBarnesHutQuadTree.<V>builder()
+              .theta(builder.theta)
+              .rebuildInterval(builder.rebuildInterval)
+              .build();
+    }
+    if (builder.parallel) {
+      this.evaluator = new ParallelForceEvaluator<>(builder.forkJoinPool);
+    }
   }
 
   @Override
   public void step() {
-    tree.rebuild(layoutModel.getGraph().vertexSet(), nodeMasses::get, layoutModel);
+    if (arrayTree != null) {
+      arrayTree.update(layoutModel.getGraph().vertexSet(), nodeMasses::get, layoutModel);
+    } else {
+      tree.rebuild(layoutModel.getGraph().vertexSet(), nodeMasses::get, layoutModel);
+    }
   }
 
   @Override
   public void calculateRepulsion() {
+    if (evaluator != null) {
+      evaluator.evaluate(vertexSet, this::force);
+      for (int i = 0; i < evaluator.size(); i++) {
+        frVertexData.put(evaluator.vertex(i), Point.of(evaluator.fx(i), evaluator.fy(i)));
+      }
+      return;
+    }
+    double[] out = new double[2];
     for (V vertex : vertexSet) {
-      Point forcePoint = layoutModel.apply(vertex);
-      double vertexOneSize = nodeSizes.apply(vertex);
-
-      ForceObject<V> forceObject =
-          new ForceObject<V>(vertex, forcePoint, nodeMasses.get(vertex)) {
-            @Override
-            protected void addForceFrom(ForceObject other) {
-              double dx = this.p.x - other.p.x;
-              double dy = this.p.y - other.p.y;
-
-              double otherMass = other.getMass();
-
-              double dist = Math.max(epsilon, Math.sqrt((dx * dx) + (dy * dy)));
-              dist -= vertexOneSize + nodeSizes.apply(vertex);
-              double force;
-
-              if (Double.compare(dist, 0) == 0) {
-                force = 0.;
-              } else if (dist > 0) {
-                force = kr * mass * otherMass / dist / dist;
-              } else {
-                force = kr * mass * otherMass / dist;
-              }
-
-              if (Double.isNaN(force)) {
-                throw new RuntimeException(
-                    "Unexpected mathematical result in FRLayout:calcPositions [repulsion]");
-              }
-
-              f = f.add(force * dx, force * dy);
-            }
-          };
-      tree.applyForcesTo(forceObject);
-      frVertexData.put(vertex, Point.of(forceObject.f.x, forceObject.f.y));
+      out[0] = 0;
+      out[1] = 0;
+      force(vertex, out);
+      frVertexData.put(vertex, Point.of(out[0], out[1]));
+    }
+  }
+
+  /**
+   * compute the repulsion on one vertex from the tree
+   *
+   * @param vertex the vertex to compute the repulsion for
+   * @param out receives the x and y components of the repulsion
+   */
+  private void force(V vertex, double[] out) {
+    Point forcePoint = layoutModel.apply(vertex);
+    double vertexOneSize = nodeSizes.apply(vertex);
+    double vertexMass = nodeMasses.get(vertex);
+
+    if (arrayTree != null) {
+      arrayTree.applyForcesTo(
+          vertex,
+          forcePoint.x,
+          forcePoint.y,
+          (x, y, otherMass) -> {
+            double dx = forcePoint.x - x;
+            double dy = forcePoint.y - y;
+            double force = force(dx, dy, vertexMass, otherMass, vertexOneSize, vertex);
+            out[0] += force * dx;
+            out[1] += force * dy;
+          });
+      return;
+    }
+    ForceObject<V> forceObject =
+        new ForceObject<V>(vertex, forcePoint, vertexMass) {
+          @Override
+          protected void addForceFrom(ForceObject other) {
+            double dx = this.p.x - other.p.x;
+            double dy = this.p.y - other.p.y;
+            double force = force(dx, dy, mass, other.getMass(), vertexOneSize, vertex);
+            f = f.add(force * dx, force * dy);
+          }
+        };
+    tree.applyForcesTo(forceObject);
+    out[0] = forceObject.f.x;
+    out[1] = forceObject.f.y;
+  }
+
+  private double force(
+      double dx, double dy, double mass, double otherMass, double vertexOneSize, V vertex) {
+    double dist = Math.max(epsilon, Math.sqrt((dx * dx) + (dy * dy)));
+    dist -= vertexOneSize + nodeSizes.apply(vertex);
+    double force;
+
+    if (Double.compare(dist, 0) == 0) {
+      force = 0.;
+    } else if (dist > 0) {
+      force = kr * mass * otherMass / dist / dist;
+    } else {
+      force = kr * mass * otherMass / dist;
+    }
+
+    if (Double.isNaN(force)) {
+      throw new RuntimeException(
+          "Unexpected mathematical result in FRLayout:calcPositions [repulsion]");
     }
+    return force;
   }
 }
@@ -2,8 +2,10 @@ package org.jungrapht.visualization.layout.algorithms.repulsion;
 
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.layout.quadtree.ArrayBarnesHutQuadTree;
 import org.jungrapht.visualization.layout.quadtree.BarnesHutQuadTree;
 import org.jungrapht.visualization.layout.quadtree.ForceObject;
 import org.jungrapht.visualization.layout.quadtree.Node;
@@ -23,6 +25,10 @@ public class BarnesHutFRRepulsion<V>
           V, BarnesHutFRRepulsion<V>, BarnesHutFRRepulsion.Builder<V>> {
 
     private double theta = Node.DEFAULT_THETA;
+    private boolean parallel;
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+    private boolean arrayBacked;
+    private int rebuildInterval = 1;
     private BarnesHutQuadTree<V> tree;
 
     public Builder<V> layoutModel(LayoutModel<V> layoutModel) {
@@ -40,6 +46,46 @@ public class BarnesHutFRRepulsion<V>
       return this;
     }
 
+    /**
+     * @param parallel if true, the forces on the vertices are computed concurrently after the tree
+     *     is built
+     * @return this builder
+     */
+    public Builder<V> parallel(boolean parallel) {
+      this.parallel = parallel;
+      return this;
+    }
+
+    /**
+     * @param forkJoinPool the pool to use when {@code parallel} is true. The default is the common
+     *     pool
+     * @return this builder
+     */
+    public Builder<V> forkJoinPool(ForkJoinPool forkJoinPool) {
+      this.forkJoinPool = forkJoinPool;
+      return this;
+    }
+
+    /**
+     * @param arrayBacked if true, an {@link ArrayBarnesHutQuadTree} is used in place of the {@link
+     *     BarnesHutQuadTree}
+     * @return this builder
+     */
+    public Builder<V> arrayBacked(boolean arrayBacked) {
+      this.arrayBacked = arrayBacked;
+      return this;
+    }
+
+    /**
+     * @param rebuildInterval when {@code arrayBacked} is true, the tree is rebuilt every {@code
+     *     rebuildInterval} steps and refit in the steps between
+     * @return this builder
+     */
+    public Builder<V> rebuildInterval(int rebuildInterval) {
+      this.rebuildInterval = rebuildInterval;
+      return this;
+    }
+
     public Builder<V> nodeData(Map<V, Point> frVertexData) {
       this.frVertexData = frVertexData;
       return this;
@@ -64,6 +110,12 @@ public class BarnesHutFRRepulsion<V>
   //  protected double EPSILON = 0.000001D;
   private BarnesHutQuadTree<V> tree;
 
+  /** used in place of the tree when not null */
+  private ArrayBarnesHutQuadTree<V> arrayTree;
+
+  /** computes the forces concurrently when not null */
+  private ParallelForceEvaluator<V> evaluator;
+
   public static Builder builder() {
     return new Builder();
   }
@@ -76,30 +128,96 @@ public class BarnesHutFRRepulsion<V>
   protected BarnesHutFRRepulsion(Builder<V> builder) {
     super(builder);
     this.tree = builder.tree;
+    if (builder.arrayBacked) {
+      this.arrayTree =
+          ArrayBarnesHutQuadTree.<V>builder()
+              .theta(builder.theta)
+              .rebuildInterval(builder.rebuildInterval)
+              .build();
+    }
+    if (builder.parallel) {
+      this.evaluator = new ParallelForceEvaluator<>(builder.forkJoinPool);
+    }
   }
 
   public void step() {
-    tree.rebuild(vertexSet, layoutModel);
+    if (arrayTree != null) {
+      arrayTree.update(vertexSet, null, layoutModel);
+    } else {
+      tree.rebuild(vertexSet, layoutModel);
+    }
   }
 
   @Override
   public void calculateRepulsion() {
-    for (V vertex : vertexSet) {
-      Point forcePoint = layoutModel.apply(vertex);
-      ForceObject<V> nodeForceObject =
-          new ForceObject(vertex, forcePoint.x, forcePoint.y) {
-            @Override
-            protected void addForceFrom(ForceObject other) {
-              double dx = this.p.x - other.p.x;
-              double dy = this.p.y - other.p.y;
-              double dist = Math.sqrt(dx * dx + dy * dy);
-              dist = Math.max(EPSILON, dist);
-              double force = repulsionSquared / dist;
-              f = f.add(force * (dx / dist), force * (dy / dist));
+    if (evaluator != null) {
+      evaluator.evaluate(
+          vertexSet,
+          (vertex, out) -> {
+            if (!layoutModel.isLocked(vertex)) {
+              force(vertex, out);
             }
-          };
-      tree.applyForcesTo(nodeForceObject);
-      frVertexData.put(vertex, Point.of(nodeForceObject.f.x, nodeForceObject.f.y));
+          });
+      for (int i = 0; i < evaluator.size(); i++) {
+        V vertex = evaluator.vertex(i);
+        if (layoutModel.isLocked(vertex)) {
+          continue;
+        }
+        frVertexData.put(vertex, Point.of(evaluator.fx(i), evaluator.fy(i)));
+      }
+      return;
+    }
+    double[] out = new double[2];
+    for (V vertex : vertexSet) {
+      if (layoutModel.isLocked(vertex)) {
+        // a locked vertex does not move, so the force on it is not needed
+        continue;
+      }
+      out[0] = 0;
+      out[1] = 0;
+      force(vertex, out);
+      frVertexData.put(vertex, Point.of(out[0], out[1]));
+    }
+  }
+
+  /**
+   * compute the repulsion on one vertex from the tree
+   *
+   * @param vertex the vertex to compute the repulsion for
+   * @param out receives the x and y components of the repulsion
+   */
+  private void force(V vertex, double[] out) {
+    Point forcePoint = layoutModel.apply(vertex);
+    if (arrayTree != null) {
+      arrayTree.applyForcesTo(
+          vertex,
+          forcePoint.x,
+          forcePoint.y,
+          (x, y, mass) -> {
+            double dx = forcePoint.x - x;
+            double dy = forcePoint.y - y;
+            double dist = Math.sqrt(dx * dx + dy * dy);
+            dist = Math.max(EPSILON, dist);
+            double force = repulsionSquared / dist;
+            out[0] += force * (dx / dist);
+            out[1] += force * (dy / dist);
+          });
+      return;
     }
+    ForceObject<V> nodeForceObject =
+        new ForceObject(vertex, forcePoint.x, forcePoint.y) {
+          @Override
+          protected void addForceFrom(ForceObject other) {
+            double dx = this.p.x - other.p.x;
+            double dy = this.p.y - other.p.y;
+            double dist = Math.sqrt(dx * dx + dy * dy);
+            dist = Math.max(EPSILON, dist);
+            double force = repulsionSquared / dist;
+            f = f.add(force * (dx / dist), force * (dy / dist));
+          }
+        };
+    tree.applyForcesTo(nodeForceObject);
+    out[0] = nodeForceObject.f.x;
+    out[1] = nodeForceObject.f.y;
   }
 }
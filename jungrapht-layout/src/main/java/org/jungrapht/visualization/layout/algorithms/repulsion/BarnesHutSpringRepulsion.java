@@ -5,8 +5,10 @@ import static org.jungrapht.visualization.layout.algorithms.SpringLayoutAlgorith
 import java.util.ConcurrentModificationException;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.layout.quadtree.ArrayBarnesHutQuadTree;
 import org.jungrapht.visualization.layout.quadtree.BarnesHutQuadTree;
 import org.jungrapht.visualization.layout.quadtree.ForceObject;
 import org.jungrapht.visualization.layout.quadtree.Node;
@@ -28,6 +30,10 @@ public class BarnesHutSpringRepulsion<V>
           V, BarnesHutSpringRepulsion<V>, BarnesHutSpringRepulsion.Builder<V>> {
 
     private double theta = Node.DEFAULT_THETA;
+    private boolean parallel;
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+    private boolean arrayBacked;
+    private int rebuildInterval = 1;
     private BarnesHutQuadTree<V> tree = new BarnesHutQuadTree<>();
 
     public Builder<V> layoutModel(LayoutModel<V> layoutModel) {
@@ -45,6 +51,46 @@ public class BarnesHutSpringRepulsion<V>
       return this;
     }
 
+    /**
+     * @param parallel if true, the forces on the vertices are computed concurrently after the tree
+     *     is built
+     * @return this builder
+     */
+    public Builder<V> parallel(boolean parallel) {
+      this.parallel = parallel;
+      return this;
+    }
+
+    /**
+     * @param forkJoinPool the pool to use when {@code parallel} is true. The default is the common
+     *     pool
+     * @return this builder
+     */
+    public Builder<V> forkJoinPool(ForkJoinPool forkJoinPool) {
+      this.forkJoinPool = forkJoinPool;
+      return this;
+    }
+
+    /**
+     * @param arrayBacked if true, an {@link ArrayBarnesHutQuadTree} is used in place of the {@link
+     *     BarnesHutQuadTree}
+     * @return this builder
+     */
+    public Builder<V> arrayBacked(boolean arrayBacked) {
+      this.arrayBacked = arrayBacked;
+      return this;
+    }
+
+    /**
+     * @param rebuildInterval when {@code arrayBacked} is true, the tree is rebuilt every {@code
+     *     rebuildInterval} steps and refit in the steps between
+     * @return this builder
+     */
+    public Builder<V> rebuildInterval(int rebuildInterval) {
+      this.rebuildInterval = rebuildInterval;
+      return this;
+    }
+
     public Builder<V> nodeData(Map<V, SpringVertexData> springVertexData) {
       this.springVertexData = springVertexData;
       return this;
@@ -68,6 +114,12 @@ public class BarnesHutSpringRepulsion<V>
 
   protected BarnesHutQuadTree<V> tree;
 
+  /** used in place of the tree when not null */
+  private ArrayBarnesHutQuadTree<V> arrayTree;
+
+  /** computes the forces concurrently when not null */
+  private ParallelForceEvaluator<V> evaluator;
+
   public static Builder builder() {
     return new Builder();
   }
@@ -80,14 +132,49 @@ public class BarnesHutSpringRepulsion<V>
   protected BarnesHutSpringRepulsion(Builder<V> builder) {
     super(builder);
     this.tree = builder.tree;
+    if (builder.arrayBacked) {
+      this.arrayTree =
+          ArrayBarnesHutQuadTree.<V>builder()
+              .theta(builder.theta)
+              .rebuildInterval(builder.rebuildInterval)
+              .build();
+    }
+    if (builder.parallel) {
+      this.evaluator = new ParallelForceEvaluator<>(builder.forkJoinPool);
+    }
   }
 
   public void step() {
-    tree.rebuild(layoutModel.getGraph().vertexSet(), layoutModel);
+    if (arrayTree != null) {
+      arrayTree.update(layoutModel.getGraph().vertexSet(), null, layoutModel);
+    } else {
+      tree.rebuild(layoutModel.getGraph().vertexSet(), layoutModel);
+    }
   }
 
   public void calculateRepulsion() {
+    if (evaluator != null) {
+      evaluator.evaluate(
+          vertexSet,
+          (vertex, out) -> {
+            if (!layoutModel.isLocked(vertex)) {
+              force(vertex, out);
+            }
+          });
+      for (int i = 0; i < evaluator.size(); i++) {
+        V vertex = evaluator.vertex(i);
+        if (layoutModel.isLocked(vertex)) {
+          continue;
+        }
+        addRepulsion(
+            springVertexData.getOrDefault(vertex, new SpringVertexData()),
+            evaluator.fx(i),
+            evaluator.fy(i));
+      }
+      return;
+    }
     try {
+      double[] out = new double[2];
       for (V vertex : vertexSet) {
 
         if (layoutModel.isLocked(vertex)) {
@@ -95,42 +182,78 @@ public class BarnesHutSpringRepulsion<V>
         }
 
         SpringVertexData svd = springVertexData.getOrDefault(vertex, new SpringVertexData());
-        Point forcePoint = layoutModel.apply(vertex);
-        ForceObject<V> nodeForceObject =
-            new ForceObject(vertex, forcePoint.x, forcePoint.y) {
-              @Override
-              protected void addForceFrom(ForceObject other) {
-
-                if (other == null || vertex == other.getElement()) {
-                  return;
-                }
-                Point p = this.p;
-                Point p2 = other.p;
-                if (p == null || p2 == null) {
-                  return;
-                }
-                double vx = p.x - p2.x;
-                double vy = p.y - p2.y;
-                double distanceSq = p.distanceSquared(p2);
-                if (distanceSq == 0) {
-                  f = f.add(random.nextDouble(), random.nextDouble());
-                } else if (distanceSq < repulsionRangeSquared) {
-                  double factor = 1;
-                  f = f.add(factor * vx / distanceSq, factor * vy / distanceSq);
-                }
-              }
-            };
-        tree.applyForcesTo(nodeForceObject);
-        Point f = Point.of(nodeForceObject.f.x, nodeForceObject.f.y);
-        double dlen = f.x * f.x + f.y * f.y;
-        if (dlen > 0) {
-          dlen = Math.sqrt(dlen) / 2;
-          svd.repulsiondx += f.x / dlen;
-          svd.repulsiondy += f.y / dlen;
-        }
+        out[0] = 0;
+        out[1] = 0;
+        force(vertex, out);
+        addRepulsion(svd, out[0], out[1]);
       }
     } catch (ConcurrentModificationException cme) {
       calculateRepulsion();
     }
   }
+
+  private void addRepulsion(SpringVertexData svd, double fx, double fy) {
+    double dlen = fx * fx + fy * fy;
+    if (dlen > 0) {
+      dlen = Math.sqrt(dlen) / 2;
+      svd.repulsiondx += fx / dlen;
+      svd.repulsiondy += fy / dlen;
+    }
+  }
+
+  /**
+   * compute the repulsion on one vertex from the tree
+   *
+   * @param vertex the vertex to compute the repulsion for
+   * @param out receives the x and y components of the repulsion
+   */
+  private void force(V vertex, double[] out) {
+    Point forcePoint = layoutModel.apply(vertex);
+    if (arrayTree != null) {
+      arrayTree.applyForcesTo(
+          vertex,
+          forcePoint.x,
+          forcePoint.y,
+          (x, y, mass) -> {
+            double vx = forcePoint.x - x;
+            double vy = forcePoint.y - y;
+            double distanceSq = vx * vx + vy * vy;
+            if (distanceSq == 0) {
+              out[0] += random.nextDouble();
+              out[1] += random.nextDouble();
+            } else if (distanceSq < repulsionRangeSquared) {
+              out[0] += vx / distanceSq;
+              out[1] += vy / distanceSq;
+            }
+          });
+      return;
+    }
+    ForceObject<V> nodeForceObject =
+        new ForceObject(vertex, forcePoint.x, forcePoint.y) {
+          @Override
+          protected void addForceFrom(ForceObject other) {
+
+            if (other == null || vertex == other.getElement()) {
+              return;
+            }
+            Point p = this.p;
+            Point p2 = other.p;
+            if (p == null || p2 == null) {
+              return;
+            }
+            double vx = p.x - p2.x;
+            double vy = p.y - p2.y;
+            double distanceSq = p.distanceSquared(p2);
+            if (distanceSq == 0) {
+              f = f.add(random.nextDouble(), random.nextDouble());
+            } else if (distanceSq < repulsionRangeSquared) {
+              double factor = 1;
+              f = f.add(factor * vx / distanceSq, factor * vy / distanceSq);
+            }
+          }
+        };
+    tree.applyForcesTo(nodeForceObject);
+    out[0] = nodeForceObject.f.x;
+    out[1] = nodeForceObject.f.y;
+  }
 }
@@ -0,0 +1,143 @@
+package org.jungrapht.visualization.layout.algorithms.repulsion;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a force for every vertex in parallel on a {@code ForkJoinPool}. The vertices are copied
+ * to an array and split into ranges of indices. Each worker writes the force for the vertices in
+ * its range to primitive x and y buffers at the vertex index, so the workers share no mutable
+ * state. The buffers are reused from one evaluation to the next.
+ *
+ * <p>The force function must only read shared state (for example a BarnesHutQuadTree that was built
+ * before the evaluation started).
+ *
+ * @param <V> the vertex type
+ * @author Tom Nelson
+ */
+class ParallelForceEvaluator<V> {
+
+  /** computes the force on one vertex */
+  interface Force<V> {
+    /**
+     * @param vertex the vertex to compute the force for
+     * @param out receives the x component of the force at index 0 and the y component at index 1
+     */
+    void apply(V vertex, double[] out);
+  }
+
+  /** ranges smaller than this are not split further */
+  private static final int MIN_RANGE = 64;
+
+  private final ForkJoinPool pool;
+  private Object[] vertices = new Object[0];
+  private double[] fx = new double[0];
+  private double[] fy = new double[0];
+  private int size;
+
+  ParallelForceEvaluator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * compute the force for every vertex in the passed collection
+   *
+   * @param vertexSet the vertices to evaluate
+   * @param force the force function
+   */
+  void evaluate(Collection<V> vertexSet, Force<V> force) {
+    snapshot(vertexSet);
+    if (size == 0) {
+      return;
+    }
+    int threshold = Math.max(MIN_RANGE, size / (pool.getParallelism() * 4));
+    pool.invoke(new Range(0, size, threshold, force));
+  }
+
+  /** @return the number of vertices in the last evaluation */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @param index a vertex index from the last evaluation
+   * @return the vertex at that index
+   */
+  V vertex(int index) {
+    return (V) vertices[index];
+  }
+
+  /**
+   * @param index a vertex index from the last evaluation
+   * @return the x component of the force on the vertex at that index
+   */
+  double fx(int index) {
+    return fx[index];
+  }
+
+  /**
+   * @param index a vertex index from the last evaluation
+   * @return the y component of the force on the vertex at that index
+   */
+  double fy(int index) {
+    return fy[index];
+  }
+
+  private void snapshot(Collection<V> vertexSet) {
+    while (true) {
+      try {
+        int count = vertexSet.size();
+        if (vertices.length < count) {
+          vertices = new Object[count];
+          fx = new double[count];
+          fy = new double[count];
+        }
+        int i = 0;
+        for (V vertex : vertexSet) {
+          if (i == vertices.length) {
+            throw new ConcurrentModificationException();
+          }
+          vertices[i++] = vertex;
+        }
+        size = i;
+        return;
+      } catch (ConcurrentModificationException cme) {
+        // the graph changed while copying, try again
+      }
+    }
+  }
+
+  private class Range extends RecursiveAction {
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final Force<V> force;
+
+    Range(int from, int to, int threshold, Force<V> force) {
+      this.from = from;
+      this.to = to;
+      this.threshold = threshold;
+      this.force = force;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= threshold) {
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+          out[0] = 0;
+          out[1] = 0;
+          force.apply((V) vertices[i], out);
+          fx[i] = out[0];
+          fy[i] = out[1];
+        }
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new Range(from, middle, threshold, force), new Range(middle, to, threshold, force));
+      }
+    }
+  }
+}
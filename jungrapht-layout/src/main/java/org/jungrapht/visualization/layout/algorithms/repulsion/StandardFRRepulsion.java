@@ -96,6 +96,10 @@ public class StandardFRRepulsion<
   @Override
   public void calculateRepulsion() {
     for (V vertex1 : vertexSet) {
+      if (layoutModel.isLocked(vertex1)) {
+        // a locked vertex does not move, so the force on it is not needed
+        continue;
+      }
       Point fvd1 = Point.ORIGIN;
       Point p1 = layoutModel.apply(vertex1);
       try {
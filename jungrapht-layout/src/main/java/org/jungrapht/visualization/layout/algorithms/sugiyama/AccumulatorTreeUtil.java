@@ -20,8 +20,7 @@ public class AccumulatorTreeUtil {
    * @return the count of edge crossings
    */
   public static <V, E> int crossingCount(List<LE<V, E>> edges) {
-    edges.sort(Comparators.biLevelEdgeComparator());
-    return accumulatorTreeCount(edges);
+    return BiLayer.of(edges).crossingCount();
   }
 
   /**
@@ -119,8 +118,14 @@ public class AccumulatorTreeUtil {
    */
   public static <V, E> int crossingWeight(
       List<LE<V, E>> edges, Function<Integer, Integer> weightFunction) {
+    // the weight function takes the index of an edge in the sorted list
     edges.sort(Comparators.biLevelEdgeComparator());
-    return accumulatorTreeWeight(edges, weightFunction);
+    BiLayer biLayer = BiLayer.of(edges);
+    int[] weights = new int[edges.size()];
+    for (int k = 0; k < weights.length; k++) {
+      weights[k] = weightFunction.apply(k);
+    }
+    return new BiLayer(biLayer.sources, biLayer.targets, weights).crossingWeight();
   }
 
   /**
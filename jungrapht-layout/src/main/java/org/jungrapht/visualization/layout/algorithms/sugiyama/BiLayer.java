@@ -0,0 +1,216 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The edges between two adjacent ranks as int arrays: the position of each edge's source in the
+ * upper rank, the position of its target in the lower rank, and an optional weight.<br>
+ * The crossing count sorts the target positions by source position, and by target position for
+ * edges with the same source, with a two pass counting sort, and counts the inversions of the
+ * sorted targets with an accumulator tree. Nothing is boxed and no comparator is called, so the
+ * count costs O(e log n) for e edges and n target positions with only the int arrays of the
+ * bi-layer.
+ *
+ * @see "Simple and Efficient Bilayer Cross Counting. Wilhelm Barth, Petra Mutzel, Institut für
+ *     Computergraphik und Algorithmen Technische Universität Wien, Michael Jünger, Institut für
+ *     Informatik Universität zu Köln"
+ * @author Tom Nelson
+ */
+public class BiLayer {
+
+  /** the source position of each edge */
+  final int[] sources;
+  /** the target position of each edge */
+  final int[] targets;
+  /** the weight of each edge, or null if every edge counts once */
+  final int[] weights;
+
+  private int sourceCount;
+  private int targetCount;
+
+  /** the edge numbers, sorted by target position and then by source position */
+  private final int[] byTarget;
+  /** the edge numbers, sorted by source position and then by target position */
+  private final int[] bySource;
+
+  /**
+   * the edges at each target position, indexed on the first swap. The edges that were at position
+   * {@code g} when the index was built are {@code edgesByGroup[groupStart[g]]} up to {@code
+   * edgesByGroup[groupStart[g + 1]]}, and {@code groupAt[p]} is the group now at position {@code p}
+   */
+  private int[] groupAt;
+
+  private int[] groupStart;
+  private int[] edgesByGroup;
+
+  /**
+   * @param sources the source position of each edge
+   * @param targets the target position of each edge
+   * @param weights the weight of each edge, or null if every edge counts once
+   */
+  public BiLayer(int[] sources, int[] targets, int[] weights) {
+    this.sources = sources;
+    this.targets = targets;
+    this.weights = weights;
+    this.byTarget = new int[sources.length];
+    this.bySource = new int[sources.length];
+    for (int e = 0; e < sources.length; e++) {
+      sourceCount = Math.max(sourceCount, sources[e] + 1);
+      targetCount = Math.max(targetCount, targets[e] + 1);
+    }
+  }
+
+  /**
+   * @param edges the edges between two adjacent ranks
+   * @param <V> vertex type
+   * @param <E> edge type
+   * @return a BiLayer with the current source and target indices of the edges
+   */
+  public static <V, E> BiLayer of(List<LE<V, E>> edges) {
+    int[] sources = new int[edges.size()];
+    int[] targets = new int[edges.size()];
+    for (int e = 0; e < sources.length; e++) {
+      LE<V, E> edge = edges.get(e);
+      sources[e] = edge.getSource().getIndex();
+      targets[e] = edge.getTarget().getIndex();
+    }
+    return new BiLayer(sources, targets, null);
+  }
+
+  /**
+   * exchange target positions {@code i} and {@code j}, as when the vertices at those positions of
+   * the lower rank are swapped
+   *
+   * @param i a target position
+   * @param j another target position
+   */
+  public void swapTargets(int i, int j) {
+    if (groupAt == null || Math.max(i, j) >= groupAt.length) {
+      indexTargets(Math.max(i, j) + 1);
+    }
+    // only the edges at the two positions are touched
+    int gi = groupAt[i];
+    int gj = groupAt[j];
+    for (int k = groupStart[gi]; k < groupStart[gi + 1]; k++) {
+      targets[edgesByGroup[k]] = j;
+    }
+    for (int k = groupStart[gj]; k < groupStart[gj + 1]; k++) {
+      targets[edgesByGroup[k]] = i;
+    }
+    groupAt[i] = gj;
+    groupAt[j] = gi;
+    targetCount = Math.max(targetCount, Math.max(i, j) + 1);
+  }
+
+  /** group the edges by their current target position with a counting sort */
+  private void indexTargets(int positions) {
+    int n = Math.max(targetCount, positions);
+    groupAt = new int[n];
+    groupStart = new int[n + 1];
+    edgesByGroup = new int[targets.length];
+    for (int p = 0; p < n; p++) {
+      groupAt[p] = p;
+    }
+    for (int target : targets) {
+      groupStart[target + 1]++;
+    }
+    for (int p = 1; p <= n; p++) {
+      groupStart[p] += groupStart[p - 1];
+    }
+    int[] next = Arrays.copyOf(groupStart, n);
+    for (int e = 0; e < targets.length; e++) {
+      edgesByGroup[next[targets[e]]++] = e;
+    }
+  }
+
+  /** @return the number of pairs of edges that cross */
+  public int crossingCount() {
+    return count(false);
+  }
+
+  /**
+   * @return the sum, over the pairs of edges that cross, of the product of their weights. The same
+   *     as {@link #crossingCount()} if there are no weights
+   */
+  public int crossingWeight() {
+    return count(weights != null);
+  }
+
+  private int count(boolean weighted) {
+    if (targets.length < 2) {
+      return 0;
+    }
+    sortEdges();
+    int firstIndex = 1;
+    while (firstIndex < targetCount) {
+      firstIndex *= 2;
+    }
+    int[] tree = new int[2 * firstIndex - 1];
+    firstIndex -= 1;
+    int count = 0;
+    for (int e : bySource) {
+      int weight = weighted ? weights[e] : 1;
+      int index = targets[e] + firstIndex;
+      tree[index] += weight;
+      int weightSum = 0;
+      while (index > 0) {
+        if (index % 2 == 1) {
+          weightSum += tree[index + 1];
+        }
+        index = (index - 1) / 2;
+        tree[index] += weight;
+      }
+      count += weight * weightSum;
+    }
+    return count;
+  }
+
+  /** stable counting sorts by target position and then by source position */
+  private void sortEdges() {
+    int[] start = new int[Math.max(sourceCount, targetCount) + 1];
+    for (int target : targets) {
+      start[target + 1]++;
+    }
+    for (int i = 1; i <= targetCount; i++) {
+      start[i] += start[i - 1];
+    }
+    for (int e = 0; e < targets.length; e++) {
+      byTarget[start[targets[e]]++] = e;
+    }
+    Arrays.fill(start, 0);
+    for (int source : sources) {
+      start[source + 1]++;
+    }
+    for (int i = 1; i <= sourceCount; i++) {
+      start[i] += start[i - 1];
+    }
+    for (int e : byTarget) {
+      bySource[start[sources[e]]++] = e;
+    }
+  }
+
+  /**
+   * the weighted median of the sorted positions, as used by the median heuristic: the middle
+   * position for an odd count, and for an even count a value between the two middle positions that
+   * leans towards the side where the positions are closer together
+   *
+   * @param positions sorted positions
+   * @param length how many of the positions to use
+   * @return the median value, or -1 if there are no positions
+   */
+  public static double medianValue(int[] positions, int length) {
+    int m = length / 2;
+    if (length == 0) {
+      return -1;
+    } else if (length % 2 == 1) {
+      return positions[m];
+    } else if (length == 2) {
+      return (positions[0] + positions[1]) / 2;
+    } else {
+      double left = positions[m - 1] - positions[0];
+      double right = positions[length - 1] - positions[m];
+      return (positions[m - 1] * right + positions[m] * left) / (left + right);
+    }
+  }
+}
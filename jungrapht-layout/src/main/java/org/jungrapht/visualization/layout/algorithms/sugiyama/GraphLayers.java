@@ -101,13 +101,13 @@ public class GraphLayers {
    * target of each edge to a sorted collection to return. Any degree zero vertices are added at the
    * end.
    *
-   * @param graph
-   * @param edgeComparator
-   * @return
-   * @param <V>
-   * @param <E>
+   * @param graph the graph to examine
+   * @param edgeComparator orders the edges
+   * @return the vertices of the graph, ordered by the first sorted edge they are incident on
+   * @param <V> vertex type
+   * @param <E> edge type
    */
-  private static <V, E> Set<V> getVertices(Graph<V, E> graph, Comparator<E> edgeComparator) {
+  public static <V, E> Set<V> getVertices(Graph<V, E> graph, Comparator<E> edgeComparator) {
     if (edgeComparator == Layered.noopComparator) {
       return new LinkedHashSet<>(graph.vertexSet());
     } else {
@@ -1,7 +1,6 @@
 package org.jungrapht.visualization.layout.algorithms.sugiyama;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Consumer;
 import org.jungrapht.visualization.layout.model.Point;
@@ -22,10 +21,10 @@ public class HorizontalCompaction<V> {
   protected int deltaX;
   protected int deltaY;
 
-  protected Map<LV<V>, LV<V>> sink = new HashMap<>();
-  protected Map<LV<V>, Integer> shift = new HashMap<>();
-  protected Map<LV<V>, Integer> x = new HashMap<>();
-  protected Map<LV<V>, Integer> y = new HashMap<>();
+  protected Map<LV<V>, LV<V>> sink;
+  protected Map<LV<V>, Integer> shift;
+  protected Map<LV<V>, Integer> x;
+  protected Map<LV<V>, Integer> y;
 
   public HorizontalCompaction(
       LV<V>[][] layers,
@@ -38,6 +37,10 @@ public class HorizontalCompaction<V> {
     this.alignMap = alignMap;
     this.deltaX = deltaX;
     this.deltaY = deltaY;
+    this.sink = new LayeredMap<>(layers);
+    this.shift = new LayeredMap<>(layers);
+    this.x = new LayeredMap<>(layers);
+    this.y = new LayeredMap<>(layers);
     Arrays.stream(layers)
         .flatMap(Arrays::stream)
         .forEach(
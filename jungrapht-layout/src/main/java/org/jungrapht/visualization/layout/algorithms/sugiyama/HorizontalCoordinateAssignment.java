@@ -1,9 +1,15 @@
 package org.jungrapht.visualization.layout.algorithms.sugiyama;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.jgrapht.Graph;
 import org.jgrapht.alg.util.NeighborCache;
@@ -27,6 +33,7 @@ public class HorizontalCoordinateAssignment<V, E> {
   protected int horizontalOffset;
   protected int verticalOffset;
   protected boolean horizontalBalancing;
+  protected Executor executor;
 
   public HorizontalCoordinateAssignment(
       LV<V>[][] layers,
@@ -34,6 +41,25 @@ public class HorizontalCoordinateAssignment<V, E> {
       Set<LE<V, E>> markedSegments,
       int horizontalOffset,
       int verticalOffset) {
+    this(layers, svGraph, markedSegments, horizontalOffset, verticalOffset, null);
+  }
+
+  /**
+   * @param layers the ordered layers
+   * @param svGraph the graph of layered vertices and edges
+   * @param markedSegments edges that conflict with inner segments
+   * @param horizontalOffset horizontal space between vertices
+   * @param verticalOffset vertical space between layers
+   * @param executor if not null, the four alignments run concurrently on it
+   */
+  public HorizontalCoordinateAssignment(
+      LV<V>[][] layers,
+      Graph<LV<V>, LE<V, E>> svGraph,
+      Set<LE<V, E>> markedSegments,
+      int horizontalOffset,
+      int verticalOffset,
+      Executor executor) {
+    this.executor = executor;
     this.svGraph = svGraph;
     this.neighborCache = new NeighborCache<>(svGraph);
     this.markedSegments = markedSegments;
@@ -67,45 +93,26 @@ public class HorizontalCoordinateAssignment<V, E> {
     if (log.isTraceEnabled()) {
       log.trace("marked segments:{}", markedSegments);
     }
-    VerticalAlignment.LeftmostUpper<V, E> upLeft =
-        new VerticalAlignment.LeftmostUpper<>(layers, svGraph, markedSegments);
-    upLeft.align();
-    HorizontalCompaction<V> upLeftCompaction =
-        new HorizontalCompaction<>(
-            layers, upLeft.getRootMap(), upLeft.getAlignMap(), horizontalOffset, verticalOffset);
-    upLeftCompaction.horizontalCompaction();
-
-    VerticalAlignment.RightmostUpper<V, E> upRight =
-        new VerticalAlignment.RightmostUpper<>(layers, svGraph, markedSegments);
-    upRight.align();
-    HorizontalCompaction<V> upRightCompaction =
-        new HorizontalCompaction<>(
-            layers, upRight.getRootMap(), upRight.getAlignMap(), horizontalOffset, verticalOffset);
-    upRightCompaction.horizontalCompaction();
-
-    VerticalAlignment.LeftmostLower<V, E> downLeft =
-        new VerticalAlignment.LeftmostLower<>(layers, svGraph, markedSegments);
-    downLeft.align();
-    HorizontalCompaction<V> downLeftCompaction =
-        new HorizontalCompaction<>(
-            layers,
-            downLeft.getRootMap(),
-            downLeft.getAlignMap(),
-            horizontalOffset,
-            verticalOffset);
-    downLeftCompaction.horizontalCompaction();
-
-    VerticalAlignment.RightmostLower<V, E> downRight =
-        new VerticalAlignment.RightmostLower<>(layers, svGraph, markedSegments);
-    downRight.align();
-    HorizontalCompaction<V> downRightCompaction =
-        new HorizontalCompaction<>(
-            layers,
-            downRight.getRootMap(),
-            downRight.getAlignMap(),
-            horizontalOffset,
-            verticalOffset);
-    downRightCompaction.horizontalCompaction();
+    List<HorizontalCompaction<V>> compactions =
+        compute(
+            executor,
+            List.<Supplier<HorizontalCompaction<V>>>of(
+                () ->
+                    compaction(
+                        new VerticalAlignment.LeftmostUpper<>(layers, svGraph, markedSegments)),
+                () ->
+                    compaction(
+                        new VerticalAlignment.RightmostUpper<>(layers, svGraph, markedSegments)),
+                () ->
+                    compaction(
+                        new VerticalAlignment.LeftmostLower<>(layers, svGraph, markedSegments)),
+                () ->
+                    compaction(
+                        new VerticalAlignment.RightmostLower<>(layers, svGraph, markedSegments))));
+    HorizontalCompaction<V> upLeftCompaction = compactions.get(0);
+    HorizontalCompaction<V> upRightCompaction = compactions.get(1);
+    HorizontalCompaction<V> downLeftCompaction = compactions.get(2);
+    HorizontalCompaction<V> downRightCompaction = compactions.get(3);
 
     horizontalBalancing(
         upLeftCompaction, upRightCompaction, downLeftCompaction, downRightCompaction);
@@ -127,6 +134,58 @@ public class HorizontalCoordinateAssignment<V, E> {
     }
   }
 
+  private HorizontalCompaction<V> compaction(VerticalAlignment<V, E> alignment) {
+    alignment.align();
+    HorizontalCompaction<V> compaction =
+        new HorizontalCompaction<>(
+            layers,
+            alignment.getRootMap(),
+            alignment.getAlignMap(),
+            horizontalOffset,
+            verticalOffset);
+    compaction.horizontalCompaction();
+    return compaction;
+  }
+
+  /**
+   * Run the alignment and compaction passes, which share no mutable state, concurrently on the
+   * {@code executor}, or one after another if it is null. The calling thread runs any pass that the
+   * executor has not yet started, so that a busy executor (or one that is running this layout) will
+   * not deadlock.
+   *
+   * @param executor runs the passes, may be null
+   * @param passes the passes to run
+   * @param <C> the result type of a pass
+   * @return the results of the passes, in order
+   */
+  protected static <C> List<C> compute(Executor executor, List<Supplier<C>> passes) {
+    List<C> results = new ArrayList<>(passes.size());
+    if (executor == null) {
+      passes.forEach(pass -> results.add(pass.get()));
+      return results;
+    }
+    List<FutureTask<C>> tasks = new ArrayList<>(passes.size());
+    for (Supplier<C> pass : passes) {
+      tasks.add(new FutureTask<>(pass::get));
+    }
+    for (int i = 1; i < tasks.size(); i++) {
+      executor.execute(tasks.get(i));
+    }
+    for (FutureTask<C> task : tasks) {
+      // does nothing if the executor has already started the task
+      task.run();
+      try {
+        results.add(task.get());
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new CompletionException(ex);
+      } catch (ExecutionException ex) {
+        throw new CompletionException(ex.getCause());
+      }
+    }
+    return results;
+  }
+
   protected void horizontalBalancing(HorizontalCompaction<V>... compactions) {
     int leastWidthIndex = -1;
     int[] a = new int[4];
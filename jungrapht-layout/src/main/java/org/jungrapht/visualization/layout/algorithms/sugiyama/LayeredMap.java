@@ -0,0 +1,224 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Map} keyed on the {@link LV} vertices of a layered graph that stores its values in
+ * arrays indexed by rank and index, so that lookups during coordinate assignment do not hash. A key
+ * that is not found at its rank and index in the layers (for example, a segment of the Eiglsperger
+ * compaction graph) is kept in a {@link HashMap}. The rank and index of the vertices must not
+ * change while the map is in use.
+ *
+ * @param <V> vertex type
+ * @param <T> value type
+ * @author Tom Nelson
+ */
+class LayeredMap<V, T> extends AbstractMap<LV<V>, T> {
+
+  /** marks an empty slot, so that null values may be stored */
+  private static final Object ABSENT = new Object();
+
+  private final LV<V>[][] layers;
+  private final Object[][] values;
+  private final Map<LV<V>, T> others = new HashMap<>();
+  private int layeredSize;
+
+  LayeredMap(LV<V>[][] layers) {
+    this.layers = layers;
+    this.values = new Object[layers.length][];
+    for (int i = 0; i < layers.length; i++) {
+      values[i] = new Object[layers[i].length];
+      Arrays.fill(values[i], ABSENT);
+    }
+  }
+
+  /** @return the values row for the key, or null if the key is not in the layers */
+  private Object[] row(Object key) {
+    if (key instanceof LV) {
+      LV<?> v = (LV<?>) key;
+      int rank = v.getRank();
+      int index = v.getIndex();
+      if (rank >= 0
+          && rank < layers.length
+          && index >= 0
+          && index < layers[rank].length
+          && layers[rank][index] == v) {
+        return values[rank];
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public T get(Object key) {
+    Object[] row = row(key);
+    if (row == null) {
+      return others.get(key);
+    }
+    Object value = row[((LV<?>) key).getIndex()];
+    return value == ABSENT ? null : (T) value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    Object[] row = row(key);
+    if (row == null) {
+      return others.containsKey(key);
+    }
+    return row[((LV<?>) key).getIndex()] != ABSENT;
+  }
+
+  @Override
+  public T put(LV<V> key, T value) {
+    Object[] row = row(key);
+    if (row == null) {
+      return others.put(key, value);
+    }
+    int index = key.getIndex();
+    Object previous = row[index];
+    row[index] = value;
+    if (previous == ABSENT) {
+      layeredSize++;
+      return null;
+    }
+    return (T) previous;
+  }
+
+  @Override
+  public T remove(Object key) {
+    Object[] row = row(key);
+    if (row == null) {
+      return others.remove(key);
+    }
+    int index = ((LV<?>) key).getIndex();
+    Object previous = row[index];
+    row[index] = ABSENT;
+    if (previous == ABSENT) {
+      return null;
+    }
+    layeredSize--;
+    return (T) previous;
+  }
+
+  @Override
+  public int size() {
+    return layeredSize + others.size();
+  }
+
+  @Override
+  public void clear() {
+    for (Object[] row : values) {
+      Arrays.fill(row, ABSENT);
+    }
+    layeredSize = 0;
+    others.clear();
+  }
+
+  @Override
+  public Set<Entry<LV<V>, T>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<LV<V>, T>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return LayeredMap.this.size();
+      }
+    };
+  }
+
+  /** visits the layered entries in rank and index order, then the others */
+  private class EntryIterator implements Iterator<Entry<LV<V>, T>> {
+    private int rank;
+    private int index = -1;
+    private final Iterator<Entry<LV<V>, T>> othersIterator = others.entrySet().iterator();
+
+    EntryIterator() {
+      advance();
+    }
+
+    private void advance() {
+      index++;
+      while (rank < values.length) {
+        while (index < values[rank].length) {
+          if (values[rank][index] != ABSENT) {
+            return;
+          }
+          index++;
+        }
+        rank++;
+        index = 0;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return rank < values.length || othersIterator.hasNext();
+    }
+
+    @Override
+    public Entry<LV<V>, T> next() {
+      if (rank < values.length) {
+        Entry<LV<V>, T> entry = new LayeredEntry(rank, index);
+        advance();
+        return entry;
+      }
+      if (othersIterator.hasNext()) {
+        return othersIterator.next();
+      }
+      throw new NoSuchElementException();
+    }
+  }
+
+  /** an entry that writes its value through to the arrays */
+  private class LayeredEntry implements Entry<LV<V>, T> {
+    private final int rank;
+    private final int index;
+
+    LayeredEntry(int rank, int index) {
+      this.rank = rank;
+      this.index = index;
+    }
+
+    @Override
+    public LV<V> getKey() {
+      return layers[rank][index];
+    }
+
+    @Override
+    public T getValue() {
+      return (T) values[rank][index];
+    }
+
+    @Override
+    public T setValue(T value) {
+      T previous = (T) values[rank][index];
+      values[rank][index] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> e = (Entry<?, ?>) o;
+      return getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return getKey().hashCode() ^ Objects.hashCode(getValue());
+    }
+  }
+}
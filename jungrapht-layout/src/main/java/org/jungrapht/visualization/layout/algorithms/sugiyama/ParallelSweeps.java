@@ -0,0 +1,349 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import org.jgrapht.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs several independent median/transpose crossing minimizations of the same layered graph
+ * concurrently and keeps the ordering with the fewest crossings.<br>
+ * Each run (a chain) works on its own int arrays of vertex ids and positions, so the chains share
+ * nothing but the immutable adjacency. The first chain starts with a downward sweep and the second
+ * with an upward sweep, both from the incoming order. The remaining chains start from random
+ * permutations of each rank. Each chain is seeded by its number, so the result does not depend on
+ * thread scheduling.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ * @author Tom Nelson
+ */
+public class ParallelSweeps<V, E> {
+
+  private static final Logger log = LoggerFactory.getLogger(ParallelSweeps.class);
+
+  final LV<V>[] vertices;
+  /** the vertex ids of each rank, in the incoming order */
+  final int[][] ranks;
+  /** the rank of each vertex id */
+  final int[] rankOf;
+  /** the ids of the neighbors of each vertex in the rank above */
+  final int[][] upper;
+  /** the ids of the neighbors of each vertex in the rank below */
+  final int[][] lower;
+  /** the most neighbors of any vertex in the rank above or below */
+  final int maxDegree;
+
+  /**
+   * @param layers the ranks of the layered graph, each ordered by index
+   * @param svGraph the graph, whose edges join vertices in adjacent ranks
+   */
+  public ParallelSweeps(LV<V>[][] layers, Graph<LV<V>, LE<V, E>> svGraph) {
+    int count = Arrays.stream(layers).mapToInt(layer -> layer.length).sum();
+    this.vertices = new LV[count];
+    this.ranks = new int[layers.length][];
+    this.rankOf = new int[count];
+    Map<LV<V>, Integer> ids = new HashMap<>(count * 2);
+    int id = 0;
+    for (int r = 0; r < layers.length; r++) {
+      ranks[r] = new int[layers[r].length];
+      for (int j = 0; j < layers[r].length; j++) {
+        vertices[id] = layers[r][j];
+        ranks[r][j] = id;
+        rankOf[id] = r;
+        ids.put(layers[r][j], id);
+        id++;
+      }
+    }
+    int[] upperDegree = new int[count];
+    int[] lowerDegree = new int[count];
+    int[][] edges = new int[svGraph.edgeSet().size()][];
+    int m = 0;
+    for (LE<V, E> edge : svGraph.edgeSet()) {
+      Integer s = ids.get(edge.getSource());
+      Integer t = ids.get(edge.getTarget());
+      if (s == null || t == null || rankOf[t] != rankOf[s] + 1) {
+        continue;
+      }
+      edges[m++] = new int[] {s, t};
+      lowerDegree[s]++;
+      upperDegree[t]++;
+    }
+    this.upper = new int[count][];
+    this.lower = new int[count][];
+    int maxDegree = 0;
+    for (int v = 0; v < count; v++) {
+      maxDegree = Math.max(maxDegree, Math.max(upperDegree[v], lowerDegree[v]));
+      upper[v] = new int[upperDegree[v]];
+      lower[v] = new int[lowerDegree[v]];
+      upperDegree[v] = 0;
+      lowerDegree[v] = 0;
+    }
+    for (int e = 0; e < m; e++) {
+      int s = edges[e][0];
+      int t = edges[e][1];
+      lower[s][lowerDegree[s]++] = t;
+      upper[t][upperDegree[t]++] = s;
+    }
+    this.maxDegree = maxDegree;
+  }
+
+  /**
+   * run the chains concurrently and reorder the layers to the best result
+   *
+   * @param layers the ranks passed to the constructor. They are sorted into the best order found
+   *     and their index metadata is updated
+   * @param chains how many independent chains to run
+   * @param iterations the number of sweeps in each chain, alternating direction
+   * @param transpose whether to apply the transpose heuristic after each sweep
+   * @param transposeLimit the most transpose passes after each sweep
+   * @param cancelled checked between sweeps. Each chain makes at least one sweep
+   * @return the crossing count of the chosen ordering
+   */
+  public int apply(
+      LV<V>[][] layers,
+      int chains,
+      int iterations,
+      boolean transpose,
+      int transposeLimit,
+      BooleanSupplier cancelled) {
+    Chain best =
+        IntStream.range(0, chains)
+            .parallel()
+            .mapToObj(
+                seed -> {
+                  Chain chain = new Chain(seed);
+                  chain.run(iterations, transpose, transposeLimit, cancelled);
+                  return chain;
+                })
+            .min(
+                Comparator.<Chain>comparingInt(chain -> chain.bestCount)
+                    .thenComparingInt(c -> c.seed))
+            .orElseThrow();
+    log.trace(
+        "best of {} chains was chain {} with {} crossings", chains, best.seed, best.bestCount);
+    for (int r = 0; r < layers.length; r++) {
+      for (int j = 0; j < layers[r].length; j++) {
+        LV<V> v = vertices[best.best[r][j]];
+        layers[r][j] = v;
+        v.setIndex(j);
+      }
+    }
+    return best.bestCount;
+  }
+
+  /**
+   * @param order the vertex ids of each rank
+   * @return the number of crossings between all adjacent ranks
+   */
+  int crossingCount(int[][] order) {
+    int[] pos = positions(order);
+    int count = 0;
+    for (int r = 0; r < order.length - 1; r++) {
+      count += biLayerCrossingCount(order[r], order[r + 1].length, pos);
+    }
+    return count;
+  }
+
+  private int[] positions(int[][] order) {
+    int[] pos = new int[vertices.length];
+    for (int[] rank : order) {
+      for (int j = 0; j < rank.length; j++) {
+        pos[rank[j]] = j;
+      }
+    }
+    return pos;
+  }
+
+  /** Barth, Mutzel and Jünger accumulator tree count of the edges below one rank */
+  private int biLayerCrossingCount(int[] rank, int lowerSize, int[] pos) {
+    int firstIndex = 1;
+    while (firstIndex < lowerSize) {
+      firstIndex *= 2;
+    }
+    int[] tree = new int[2 * firstIndex - 1];
+    firstIndex -= 1;
+    int[] targets = new int[maxDegree];
+    int count = 0;
+    for (int v : rank) {
+      int degree = sortedPositions(lower[v], pos, targets);
+      for (int k = 0; k < degree; k++) {
+        int index = targets[k] + firstIndex;
+        tree[index]++;
+        while (index > 0) {
+          if (index % 2 == 1) {
+            count += tree[index + 1];
+          }
+          index = (index - 1) / 2;
+          tree[index]++;
+        }
+      }
+    }
+    return count;
+  }
+
+  private static int[] sortedPositions(int[] neighbors, int[] pos) {
+    int[] positions = new int[neighbors.length];
+    sortedPositions(neighbors, pos, positions);
+    return positions;
+  }
+
+  /**
+   * fill the start of the passed buffer with the sorted positions of the neighbors
+   *
+   * @return the number of neighbors
+   */
+  private static int sortedPositions(int[] neighbors, int[] pos, int[] buffer) {
+    for (int k = 0; k < neighbors.length; k++) {
+      buffer[k] = pos[neighbors[k]];
+    }
+    Arrays.sort(buffer, 0, neighbors.length);
+    return neighbors.length;
+  }
+
+  /** the same median value as the SugiyamaRunnable uses */
+  static double medianValue(int[] p) {
+    return BiLayer.medianValue(p, p.length);
+  }
+
+  /**
+   * stable merge sort of the positions by their measure, without boxing
+   *
+   * @param order the positions to sort
+   * @param measure the measure of each position
+   */
+  static void sortByMeasure(int[] order, double[] measure) {
+    int[] from = order;
+    int[] to = new int[order.length];
+    for (int width = 1; width < order.length; width *= 2) {
+      for (int lo = 0; lo < order.length; lo += 2 * width) {
+        int mid = Math.min(lo + width, order.length);
+        int hi = Math.min(lo + 2 * width, order.length);
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+          if (i < mid && (j >= hi || measure[from[i]] <= measure[from[j]])) {
+            to[k] = from[i++];
+          } else {
+            to[k] = from[j++];
+          }
+        }
+      }
+      int[] swap = from;
+      from = to;
+      to = swap;
+    }
+    if (from != order) {
+      System.arraycopy(from, 0, order, 0, order.length);
+    }
+  }
+
+  /** one independent minimization */
+  class Chain {
+    final int seed;
+    final int[][] order;
+    final int[] pos;
+    int[][] best;
+    int bestCount = Integer.MAX_VALUE;
+
+    Chain(int seed) {
+      this.seed = seed;
+      this.order = new int[ranks.length][];
+      for (int r = 0; r < ranks.length; r++) {
+        order[r] = ranks[r].clone();
+      }
+      if (seed > 1) {
+        Random random = new Random(seed);
+        for (int[] rank : order) {
+          for (int i = rank.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = rank[i];
+            rank[i] = rank[j];
+            rank[j] = swap;
+          }
+        }
+      }
+      this.pos = positions(order);
+    }
+
+    void run(int iterations, boolean transpose, int transposeLimit, BooleanSupplier cancelled) {
+      // at least one sweep, so that there is a best order even if the deadline has passed
+      for (int i = 0; i < Math.max(1, iterations); i++) {
+        if (i > 0 && cancelled.getAsBoolean()) {
+          break;
+        }
+        boolean downwards = (i + seed) % 2 == 0;
+        if (downwards) {
+          for (int r = 0; r < order.length; r++) {
+            medianSort(order[r], upper);
+          }
+          if (transpose) {
+            for (int r = 0; r < order.length; r++) {
+              transpose(order[r], upper, transposeLimit);
+            }
+          }
+        } else {
+          for (int r = order.length - 1; r >= 0; r--) {
+            medianSort(order[r], lower);
+          }
+          if (transpose) {
+            for (int r = order.length - 1; r >= 0; r--) {
+              transpose(order[r], lower, transposeLimit);
+            }
+          }
+        }
+        int count = crossingCount(order);
+        if (count < bestCount) {
+          bestCount = count;
+          best = new int[order.length][];
+          for (int r = 0; r < order.length; r++) {
+            best[r] = order[r].clone();
+          }
+        }
+      }
+      if (best == null) {
+        best = order;
+        bestCount = crossingCount(order);
+      }
+    }
+
+    /** stable sort of the rank by the median position of each vertex's neighbors */
+    private void medianSort(int[] rank, int[][] neighbors) {
+      int[] sorted = new int[rank.length];
+      double[] measure = new double[rank.length];
+      int[] positions = new int[maxDegree];
+      for (int j = 0; j < rank.length; j++) {
+        sorted[j] = j;
+        int degree = sortedPositions(neighbors[rank[j]], pos, positions);
+        measure[j] = BiLayer.medianValue(positions, degree);
+      }
+      sortByMeasure(sorted, measure);
+      int[] copy = rank.clone();
+      for (int j = 0; j < rank.length; j++) {
+        rank[j] = copy[sorted[j]];
+        pos[rank[j]] = j;
+      }
+    }
+
+    private void transpose(int[] rank, int[][] neighbors, int transposeLimit) {
+      int[][] positions = new int[rank.length][];
+      for (int j = 0; j < rank.length; j++) {
+        positions[j] = sortedPositions(neighbors[rank[j]], pos);
+      }
+      for (int pass = 0; pass <= transposeLimit; pass++) {
+        if (!Transpose.transpose(rank, positions)) {
+          break;
+        }
+      }
+      for (int j = 0; j < rank.length; j++) {
+        pos[rank[j]] = j;
+      }
+    }
+  }
+}
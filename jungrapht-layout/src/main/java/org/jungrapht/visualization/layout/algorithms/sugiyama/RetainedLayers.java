@@ -0,0 +1,373 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.traverse.TopologicalOrderIterator;
+import org.jungrapht.visualization.layout.util.synthetics.Synthetic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The ranks of the vertices of a layered layout and their order in each rank, kept so that the
+ * layout of a slightly changed graph can start from them instead of from nothing.
+ *
+ * <p>An incremental layout uses the retained layers in place of cycle removal, layering and most of
+ * the crossing minimization:
+ *
+ * <ul>
+ *   <li>{@link #orient(Graph)} reverses the edges that point up the retained ranks
+ *   <li>{@link Increment#assignLayers(Graph, Collection)} keeps the retained rank of every vertex
+ *       that an edge does not force lower, and ranks the new vertices next to their neighbors
+ *   <li>{@link Increment#order(LV[][], Graph)} keeps the retained order of each rank and inserts
+ *       the new vertices and synthetic vertices at the median of their upper neighbors
+ * </ul>
+ *
+ * The ranks that were changed are available from the {@link Increment}, so that the crossing
+ * minimization can be limited to them.
+ *
+ * <p>The vertices of separate components may be retained and laid out on different threads, each
+ * with its own {@link Increment}. So {@link #retain(LV[][], Graph)} replaces only the entries of
+ * the component that it is passed, and {@link #prune(Graph)} forgets the vertices and edges that
+ * were removed from the whole graph.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ * @author Tom Nelson
+ */
+public class RetainedLayers<V, E> {
+
+  private static final Logger log = LoggerFactory.getLogger(RetainedLayers.class);
+
+  /** the rank of each retained vertex */
+  private final Map<V, Integer> ranks = new ConcurrentHashMap<>();
+
+  /** the index of each retained vertex in its rank */
+  private final Map<V, Integer> indices = new ConcurrentHashMap<>();
+
+  /** for each edge that spans more than one rank, the index of its synthetic vertex in each rank */
+  private final Map<E, Map<Integer, Integer>> syntheticIndices = new ConcurrentHashMap<>();
+
+  /** the edges of the retained layout */
+  private final Set<E> edges = ConcurrentHashMap.newKeySet();
+
+  /** @return true if no layout has been retained */
+  public boolean isEmpty() {
+    return ranks.isEmpty();
+  }
+
+  public void clear() {
+    ranks.clear();
+    indices.clear();
+    syntheticIndices.clear();
+    edges.clear();
+  }
+
+  /**
+   * forget the vertices and edges that are no longer in the passed graph, so that a vertex or edge
+   * that is removed and later added again is treated as new. The retained entries of the other
+   * vertices and edges are replaced by the next call to retain
+   *
+   * @param graph the whole graph, with every component
+   */
+  public void prune(Graph<V, E> graph) {
+    ranks.keySet().retainAll(graph.vertexSet());
+    indices.keySet().retainAll(graph.vertexSet());
+    edges.retainAll(graph.edgeSet());
+    syntheticIndices.keySet().retainAll(graph.edgeSet());
+  }
+
+  /**
+   * save the ranks and indices of the passed layers
+   *
+   * @param layers the ordered layers of a layout
+   * @param dag the graph of the layers, with its synthetic vertices and edges
+   */
+  public void retain(LV<V>[][] layers, Graph<LV<V>, LE<V, E>> dag) {
+    for (LE<V, E> edge : dag.edgeSet()) {
+      edges.add(edge.getEdge());
+      syntheticIndices.remove(edge.getEdge());
+    }
+    for (LV<V>[] layer : layers) {
+      for (LV<V> v : layer) {
+        if (v instanceof Synthetic) {
+          E edge = edgeOf(v, dag);
+          if (edge != null) {
+            syntheticIndices
+                .computeIfAbsent(edge, e -> new HashMap<>())
+                .put(v.getRank(), v.getIndex());
+          }
+        } else {
+          ranks.put(v.getVertex(), v.getRank());
+          indices.put(v.getVertex(), v.getIndex());
+        }
+      }
+    }
+  }
+
+  /**
+   * reverse the edges of the passed graph that point from a higher retained rank to a lower one, so
+   * that the retained edges need no cycle removal
+   *
+   * @param dag the graph to orient
+   * @return the edges that were reversed, as they were before reversal
+   */
+  public List<LE<V, E>> orient(Graph<LV<V>, LE<V, E>> dag) {
+    List<LE<V, E>> reversed = new ArrayList<>();
+    for (LE<V, E> edge : dag.edgeSet()) {
+      Integer sourceRank = ranks.get(edge.getSource().getVertex());
+      Integer targetRank = ranks.get(edge.getTarget().getVertex());
+      if (sourceRank != null && targetRank != null && sourceRank > targetRank) {
+        reversed.add(edge);
+      }
+    }
+    for (LE<V, E> edge : reversed) {
+      dag.removeEdge(edge);
+      LE<V, E> newEdge = LE.of(edge.getEdge(), edge.getTarget(), edge.getSource());
+      dag.addEdge(newEdge.getSource(), newEdge.getTarget(), newEdge);
+    }
+    return reversed;
+  }
+
+  /** @return a new Increment to lay out one changed graph or component from the retained layers */
+  public Increment increment() {
+    return new Increment();
+  }
+
+  /** the state of one incremental layout of a graph or component */
+  public class Increment {
+
+    /** the vertices that were given a new rank by assignLayers */
+    private final Set<LV<V>> moved = new HashSet<>();
+
+    /** the retained rank of each rank made by assignLayers */
+    private int[] retainedRanks = new int[0];
+
+    private int touchedFrom;
+    private int touchedTo = -1;
+
+    /**
+     * rank the vertices of the passed acyclic graph. A retained vertex keeps its rank unless an
+     * edge from a vertex at the same or a lower rank pushes it down. A new vertex is ranked below
+     * its lowest predecessor or, when it has none, just above its highest successor. Ranks that are
+     * left empty are removed.
+     *
+     * @param dag the graph to rank, which must have no cycles
+     * @param changed vertices that changed in a way that the graph does not show, for example the
+     *     source or target of a removed edge. May be empty
+     * @return the layers, each in the retained order with the new vertices at the end
+     */
+    public List<List<LV<V>>> assignLayers(Graph<LV<V>, LE<V, E>> dag, Collection<V> changed) {
+      List<LV<V>> topological = new ArrayList<>(dag.vertexSet().size());
+      new TopologicalOrderIterator<>(dag).forEachRemaining(topological::add);
+
+      Map<LV<V>, Integer> rankMap = new HashMap<>();
+      Set<LV<V>> fresh = new HashSet<>();
+      for (LV<V> v : topological) {
+        Integer retained = ranks.get(v.getVertex());
+        int rank = retained != null ? retained : 0;
+        for (LV<V> predecessor : Graphs.predecessorListOf(dag, v)) {
+          rank = Math.max(rank, rankMap.get(predecessor) + 1);
+        }
+        rankMap.put(v, rank);
+        if (retained == null) {
+          fresh.add(v);
+        } else if (retained != rank) {
+          moved.add(v);
+        }
+      }
+      // a new vertex with no predecessors goes just above its highest successor
+      for (int i = topological.size() - 1; i >= 0; i--) {
+        LV<V> v = topological.get(i);
+        if (fresh.contains(v) && dag.inDegreeOf(v) == 0 && dag.outDegreeOf(v) > 0) {
+          int rank = Integer.MAX_VALUE;
+          for (LV<V> successor : Graphs.successorListOf(dag, v)) {
+            rank = Math.min(rank, rankMap.get(successor) - 1);
+          }
+          rankMap.put(v, Math.max(0, rank));
+        }
+      }
+      moved.addAll(fresh);
+
+      // the vertices whose rank or whose edges changed
+      Set<LV<V>> touched = new HashSet<>(moved);
+      Set<V> changedSet = new HashSet<>(changed);
+      for (LV<V> v : dag.vertexSet()) {
+        if (changedSet.contains(v.getVertex())) {
+          touched.add(v);
+        }
+      }
+      for (LE<V, E> edge : dag.edgeSet()) {
+        if (!edges.contains(edge.getEdge())) {
+          touched.add(edge.getSource());
+          touched.add(edge.getTarget());
+        }
+      }
+
+      // remove the empty ranks
+      int maxRank = rankMap.values().stream().mapToInt(r -> r).max().orElse(-1);
+      int[] compacted = new int[maxRank + 1];
+      Arrays.fill(compacted, -1);
+      rankMap.values().forEach(r -> compacted[r] = 0);
+      int count = 0;
+      for (int r = 0; r <= maxRank; r++) {
+        if (compacted[r] == 0) {
+          compacted[r] = count++;
+        }
+      }
+      retainedRanks = new int[count];
+      for (int r = 0; r <= maxRank; r++) {
+        if (compacted[r] >= 0) {
+          retainedRanks[compacted[r]] = r;
+        }
+      }
+
+      List<List<LV<V>>> layers = new ArrayList<>(count);
+      for (int r = 0; r < count; r++) {
+        layers.add(new ArrayList<>());
+      }
+      for (LV<V> v : topological) {
+        int rank = compacted[rankMap.get(v)];
+        v.setRank(rank);
+        layers.get(rank).add(v);
+      }
+      Comparator<LV<V>> retainedOrder =
+          Comparator.comparingInt(
+              v -> moved.contains(v) ? Integer.MAX_VALUE : indices.getOrDefault(v.getVertex(), 0));
+      for (List<LV<V>> layer : layers) {
+        layer.sort(retainedOrder);
+        for (int i = 0; i < layer.size(); i++) {
+          layer.get(i).setIndex(i);
+        }
+      }
+
+      // an edge of a touched vertex may have gained or lost synthetic vertices in every rank it spans
+      touchedFrom = Integer.MAX_VALUE;
+      touchedTo = -1;
+      for (LV<V> v : touched) {
+        touchedFrom = Math.min(touchedFrom, v.getRank());
+        touchedTo = Math.max(touchedTo, v.getRank());
+        for (LE<V, E> edge : dag.edgesOf(v)) {
+          LV<V> other = edge.getSource() == v ? edge.getTarget() : edge.getSource();
+          touchedFrom = Math.min(touchedFrom, other.getRank());
+          touchedTo = Math.max(touchedTo, other.getRank());
+        }
+      }
+      if (touchedTo < 0) {
+        touchedFrom = 0;
+      }
+      log.trace("{} touched vertices in ranks {} to {}", touched.size(), touchedFrom, touchedTo);
+      return layers;
+    }
+
+    /**
+     * order each rank of the passed layers, which include the synthetic vertices. The vertices and
+     * synthetic vertices that kept their rank keep their retained order. Each of the others is put
+     * before the first of them whose upper neighbors have a greater median index
+     *
+     * @param layers the layers made from the last call to assignLayers
+     * @param dag the graph of the layers, with its synthetic vertices and edges
+     */
+    public void order(LV<V>[][] layers, Graph<LV<V>, LE<V, E>> dag) {
+      for (int r = 0; r < layers.length; r++) {
+        LV<V>[] layer = layers[r];
+        List<LV<V>> kept = new ArrayList<>();
+        List<LV<V>> placed = new ArrayList<>();
+        Map<LV<V>, Integer> keptIndex = new HashMap<>();
+        for (LV<V> v : layer) {
+          Integer index = retainedIndex(v, r, dag);
+          if (index != null) {
+            kept.add(v);
+            keptIndex.put(v, index);
+          } else {
+            placed.add(v);
+          }
+          v.setMeasure(upperMedian(v, dag));
+        }
+        kept.sort(Comparator.comparingInt(keptIndex::get));
+        placed.sort(Comparator.comparingDouble(LV::getMeasure));
+
+        int i = 0;
+        int k = 0;
+        for (LV<V> v : placed) {
+          if (v.getMeasure() < 0) {
+            // no upper neighbors, it goes after the kept vertices
+            continue;
+          }
+          while (k < kept.size() && kept.get(k).getMeasure() <= v.getMeasure()) {
+            layer[i++] = kept.get(k++);
+          }
+          layer[i++] = v;
+        }
+        while (k < kept.size()) {
+          layer[i++] = kept.get(k++);
+        }
+        for (LV<V> v : placed) {
+          if (v.getMeasure() < 0) {
+            layer[i++] = v;
+          }
+        }
+        for (int j = 0; j < layer.length; j++) {
+          layer[j].setIndex(j);
+        }
+      }
+    }
+
+    /** @return the first rank that was changed by the last call to assignLayers */
+    public int getTouchedFrom() {
+      return touchedFrom;
+    }
+
+    /**
+     * @return the last rank that was changed by the last call to assignLayers, or -1 if none was
+     */
+    public int getTouchedTo() {
+      return touchedTo;
+    }
+
+    /** @return the retained index of v in rank r, or null if v was not retained in that rank */
+    private Integer retainedIndex(LV<V> v, int r, Graph<LV<V>, LE<V, E>> dag) {
+      if (v instanceof Synthetic) {
+        E edge = edgeOf(v, dag);
+        Map<Integer, Integer> chain = edge != null ? syntheticIndices.get(edge) : null;
+        return chain != null && r < retainedRanks.length ? chain.get(retainedRanks[r]) : null;
+      }
+      return moved.contains(v) ? null : indices.get(v.getVertex());
+    }
+
+    /** @return the median index of the predecessors of v, or -1 if it has none */
+    private double upperMedian(LV<V> v, Graph<LV<V>, LE<V, E>> dag) {
+      int[] positions =
+          dag.incomingEdgesOf(v)
+              .stream()
+              .mapToInt(e -> e.getSource().getIndex())
+              .sorted()
+              .toArray();
+      if (positions.length == 0) {
+        return -1;
+      }
+      int m = positions.length / 2;
+      return positions.length % 2 == 1 ? positions[m] : (positions[m - 1] + positions[m]) / 2.0;
+    }
+  }
+
+  /** @return the original edge that a synthetic vertex is on */
+  private E edgeOf(LV<V> v, Graph<LV<V>, LE<V, E>> dag) {
+    for (LE<V, E> edge : dag.incomingEdgesOf(v)) {
+      return edge.getEdge();
+    }
+    for (LE<V, E> edge : dag.outgoingEdgesOf(v)) {
+      return edge.getEdge();
+    }
+    return null;
+  }
+}
@@ -14,6 +14,8 @@ import java.util.List;
 import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -21,7 +23,6 @@ import org.jgrapht.Graph;
 import org.jgrapht.alg.util.NeighborCache;
 import org.jungrapht.visualization.layout.algorithms.Layered;
 import org.jungrapht.visualization.layout.algorithms.SugiyamaLayoutAlgorithm;
-import org.jungrapht.visualization.layout.algorithms.util.InsertionSortCounter;
 import org.jungrapht.visualization.layout.algorithms.util.LayeredRunnable;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
@@ -54,6 +55,10 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
   static {
     PropertyLoader.load();
   }
+
+  /** Property key for the most sweeps over the changed ranks of an incremental layout */
+  static final String INCREMENTAL_SWEEPS = PREFIX + "mincross.incrementalSweeps";
+
   /**
    * a Builder to create a configured instance
    *
@@ -81,6 +86,13 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     protected int maxLevelCross;
     protected Layering layering = Layering.TOP_DOWN;
     protected boolean multiComponent;
+    protected boolean parallelSweeps;
+    protected Executor coordinateAssignmentExecutor;
+    protected RetainedLayers<V, E> retainedLayers;
+    protected Collection<V> changed;
+    protected int incrementalSweeps = Integer.getInteger(INCREMENTAL_SWEEPS, 4);
+    protected long deadline;
+    protected Consumer<Map<V, Point>> intermediate;
 
     /** {@inheritDoc} */
     protected B self() {
@@ -168,6 +180,76 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
       return self();
     }
 
+    /**
+     * @param parallelSweeps if true, run independent crossing minimizations on separate cores and
+     *     keep the ordering with the fewest crossings
+     * @return this Builder
+     */
+    public B parallelSweeps(boolean parallelSweeps) {
+      this.parallelSweeps = parallelSweeps;
+      return self();
+    }
+
+    /**
+     * @param coordinateAssignmentExecutor if not null, the four alignments of the horizontal
+     *     coordinate assignment run concurrently on it
+     * @return this Builder
+     */
+    public B coordinateAssignmentExecutor(Executor coordinateAssignmentExecutor) {
+      this.coordinateAssignmentExecutor = coordinateAssignmentExecutor;
+      return self();
+    }
+
+    /**
+     * @param retainedLayers receives the ranks and order of this layout, and supplies those of the
+     *     last layout when this one is incremental
+     * @return this Builder
+     */
+    public B retainedLayers(RetainedLayers<V, E> retainedLayers) {
+      this.retainedLayers = retainedLayers;
+      return self();
+    }
+
+    /**
+     * @param changed if not null, start from the retained layers and reorder only the ranks of the
+     *     changed vertices and of the vertices and edges that are not retained
+     * @return this Builder
+     */
+    public B incremental(Collection<V> changed) {
+      this.changed = changed;
+      return self();
+    }
+
+    /**
+     * @param incrementalSweeps the most sweeps over the changed ranks of an incremental layout
+     * @return this Builder
+     */
+    public B incrementalSweeps(int incrementalSweeps) {
+      this.incrementalSweeps = incrementalSweeps;
+      return self();
+    }
+
+    /**
+     * @param deadline if positive, the time in milliseconds, as from {@link
+     *     System#currentTimeMillis()}, after which no more crossing minimization sweeps are
+     *     started. The best order so far is then laid out as usual
+     * @return this Builder
+     */
+    public B deadline(long deadline) {
+      this.deadline = deadline;
+      return self();
+    }
+
+    /**
+     * @param intermediate if not null, receives the vertex locations of each sweep that lowers the
+     *     crossings, with the rows centered in the order of that sweep
+     * @return this Builder
+     */
+    public B intermediate(Consumer<Map<V, Point>> intermediate) {
+      this.intermediate = intermediate;
+      return self();
+    }
+
     /** {@inheritDoc} */
     public T build() {
       return (T) new SugiyamaRunnable<>(this);
@@ -202,7 +284,14 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
   protected Map<LV<V>, VertexMetadata<V>> vertexMetadataMap = new HashMap<>();
   protected Map<E, List<Point>> edgePointMap = new HashMap<>();
   protected boolean multiComponent;
+  protected boolean parallelSweeps;
+  protected Executor coordinateAssignmentExecutor;
   protected boolean cancelled;
+  protected RetainedLayers<V, E> retainedLayers;
+  protected Collection<V> changed;
+  protected int incrementalSweeps;
+  protected long deadline;
+  protected Consumer<Map<V, Point>> intermediate;
 
   protected SugiyamaRunnable(Builder<V, E, ?, ?> builder) {
     this(
@@ -218,7 +307,14 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
         builder.transposeLimit,
         builder.maxLevelCross,
         builder.layering,
-        builder.multiComponent);
+        builder.multiComponent,
+        builder.parallelSweeps);
+    this.coordinateAssignmentExecutor = builder.coordinateAssignmentExecutor;
+    this.retainedLayers = builder.retainedLayers;
+    this.changed = builder.changed;
+    this.incrementalSweeps = builder.incrementalSweeps;
+    this.deadline = builder.deadline;
+    this.intermediate = builder.intermediate;
   }
 
   private SugiyamaRunnable(
@@ -234,7 +330,8 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
       int transposeLimit,
       int maxLevelCross,
       Layering layering,
-      boolean multiComponent) {
+      boolean multiComponent,
+      boolean parallelSweeps) {
     this.layoutModel = layoutModel;
     this.vertexShapeFunction = vertexShapeFunction;
     this.vertexComparator = vertexComparator;
@@ -251,6 +348,7 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     }
     this.layering = layering;
     this.multiComponent = multiComponent;
+    this.parallelSweeps = parallelSweeps;
   }
 
   @Override
@@ -278,12 +376,23 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     long transformTime = System.currentTimeMillis();
     log.trace("transform Graph took {}", (transformTime - startTime));
 
+    // an incremental layout starts from the retained ranks and order
+    RetainedLayers<V, E>.Increment increment =
+        retainedLayers != null && changed != null && !retainedLayers.isEmpty()
+            ? retainedLayers.increment()
+            : null;
+    Collection<LE<V, E>> feedbackArcs = new ArrayList<>();
+    if (increment != null) {
+      // the edges that point up the retained ranks were feedback arcs, and are reversed again
+      feedbackArcs.addAll(retainedLayers.orient(svGraph));
+    }
     GreedyCycleRemoval<LV<V>, LE<V, E>> greedyCycleRemoval = new GreedyCycleRemoval(svGraph);
-    Collection<LE<V, E>> feedbackArcs = greedyCycleRemoval.getFeedbackArcs();
+    Collection<LE<V, E>> greedyFeedbackArcs = greedyCycleRemoval.getFeedbackArcs();
+    feedbackArcs.addAll(greedyFeedbackArcs);
 
     // reverse the direction of feedback arcs so that they no longer introduce cycles in the graph
     // the feedback arcs will be processed later to draw with the correct direction and correct articulation points
-    for (LE<V, E> se : feedbackArcs) {
+    for (LE<V, E> se : greedyFeedbackArcs) {
       svGraph.removeEdge(se);
       LE<V, E> newEdge = LE.of(se.getEdge(), se.getTarget(), se.getSource());
       svGraph.addEdge(newEdge.getSource(), newEdge.getTarget(), newEdge);
@@ -299,35 +408,39 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     List<List<LV<V>>> layers;
     Comparator<LE<V, E>> svComparator =
         (e1, e2) -> edgeComparator.compare(e1.getEdge(), e2.getEdge());
-    switch (layering) {
-      case NETWORK_SIMPLEX:
-        if (edgeComparator != Layered.noopComparator) {
-          layers = GraphLayers.networkSimplex(svGraph, svComparator);
-        } else {
-          layers = GraphLayers.networkSimplex(svGraph);
-        }
-        break;
-      case LONGEST_PATH:
-        if (edgeComparator != Layered.noopComparator) {
-          layers = GraphLayers.longestPath(svGraph, svComparator);
-        } else {
-          layers = GraphLayers.longestPath(svGraph);
-        }
-        break;
-      case COFFMAN_GRAHAM:
-        if (edgeComparator != Layered.noopComparator) {
-          layers = GraphLayers.coffmanGraham(svGraph, 10, svComparator);
-        } else {
-          layers = GraphLayers.coffmanGraham(svGraph, 10);
-        }
-        break;
-      case TOP_DOWN:
-      default:
-        if (edgeComparator != Layered.noopComparator) {
-          layers = GraphLayers.assign(svGraph, svComparator);
-        } else {
-          layers = GraphLayers.assign(svGraph);
-        }
+    if (increment != null) {
+      layers = increment.assignLayers(svGraph, changed);
+    } else {
+      switch (layering) {
+        case NETWORK_SIMPLEX:
+          if (edgeComparator != Layered.noopComparator) {
+            layers = GraphLayers.networkSimplex(svGraph, svComparator);
+          } else {
+            layers = GraphLayers.networkSimplex(svGraph);
+          }
+          break;
+        case LONGEST_PATH:
+          if (edgeComparator != Layered.noopComparator) {
+            layers = GraphLayers.longestPath(svGraph, svComparator);
+          } else {
+            layers = GraphLayers.longestPath(svGraph);
+          }
+          break;
+        case COFFMAN_GRAHAM:
+          if (edgeComparator != Layered.noopComparator) {
+            layers = GraphLayers.coffmanGraham(svGraph, 10, svComparator);
+          } else {
+            layers = GraphLayers.coffmanGraham(svGraph, 10);
+          }
+          break;
+        case TOP_DOWN:
+        default:
+          if (edgeComparator != Layered.noopComparator) {
+            layers = GraphLayers.assign(svGraph, svComparator);
+          } else {
+            layers = GraphLayers.assign(svGraph);
+          }
+      }
     }
     long assignLayersTime = System.currentTimeMillis();
     log.trace("assign layers took {} ", (assignLayersTime - cycles));
@@ -337,6 +450,9 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     Synthetics<V, E> synthetics = new Synthetics<>(svGraph);
     List<LE<V, E>> edges = new ArrayList<>(svGraph.edgeSet());
     LV<V>[][] layersArray = synthetics.createVirtualVerticesAndEdges(edges, layers);
+    if (increment != null) {
+      increment.order(layersArray, svGraph);
+    }
     GraphLayers.checkLayers(layersArray);
 
     //  save off a map of edge lists keyed on the target vertex rank
@@ -369,53 +485,104 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     long syntheticsTime = System.currentTimeMillis();
     log.trace("synthetics took {}", (syntheticsTime - assignLayersTime));
 
-    VertexMetadata<V>[][] vertexMetadata = null;
-    LV<V>[][] best = null;
+    // figure out the avg size of rendered vertex
+    Rectangle avgVertexBounds = avgVertexBounds(layersArray, vertexShapeFunction);
+
+    int horizontalOffset =
+        (int)
+            Math.max(
+                avgVertexBounds.width,
+                Integer.getInteger(PREFIX + "mincross.horizontalOffset", 50));
+    int verticalOffset =
+        (int)
+            Math.max(
+                avgVertexBounds.height, Integer.getInteger(PREFIX + "mincross.verticalOffset", 50));
 
-    int lowestCrossCount = Integer.MAX_VALUE;
-    // order the ranks
-    for (int i = 0; i < maxLevelCross; i++) {
+    if (increment != null) {
+      incrementalSweeps(
+          layersArray,
+          increment.getTouchedFrom(),
+          increment.getTouchedTo(),
+          edgesKeyedOnTarget,
+          edgesKeyedOnSource,
+          horizontalOffset,
+          verticalOffset);
       if (cancelled || Thread.currentThread().isInterrupted()) {
         log.debug("interrupted in level cross, cancelled: {}", cancelled);
         return;
       }
-      if (i % 2 == 0) {
-        medianDownwards(layersArray, svGraph);
-        if (transpose) transposeDownwards(layersArray, edgesKeyedOnTarget);
-      } else {
-        medianUpwards(layersArray, svGraph);
-        if (transpose) transposeUpwards(layersArray, edgesKeyedOnSource);
+    } else if (parallelSweeps) {
+      // independent minimizations on separate cores, keeping the fewest crossings
+      int chains = Math.max(2, Runtime.getRuntime().availableProcessors());
+      // the chains test for cancel on pool threads, so check the interrupt of this thread
+      Thread caller = Thread.currentThread();
+      int lowestCrossCount =
+          new ParallelSweeps<>(layersArray, svGraph)
+              .apply(
+                  layersArray,
+                  chains,
+                  maxLevelCross,
+                  transpose,
+                  transposeLimit,
+                  () -> cancelled || caller.isInterrupted() || pastDeadline());
+      log.trace("lowest cross count of {} parallel sweeps: {}", chains, lowestCrossCount);
+      if (cancelled || Thread.currentThread().isInterrupted()) {
+        log.debug("interrupted in level cross, cancelled: {}", cancelled);
+        return;
       }
-      AllLevelCross<V, E> allLevelCross = new AllLevelCross<>(svGraph, layersArray);
-      int allLevelCrossCount = allLevelCross.allLevelCross();
-      log.trace(" cross count: {}", allLevelCrossCount);
-      GraphLayers.checkLayers(layersArray);
-      if (allLevelCrossCount < lowestCrossCount) {
-        GraphLayers.checkLayers(layersArray);
-        best = copy(layersArray);
-        vertexMetadataMap = save(layersArray);
+    } else {
+      VertexMetadata<V>[][] vertexMetadata = null;
+      LV<V>[][] best = null;
+
+      int lowestCrossCount = Integer.MAX_VALUE;
+      // order the ranks
+      for (int i = 0; i < maxLevelCross; i++) {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+          log.debug("interrupted in level cross, cancelled: {}", cancelled);
+          return;
+        }
+        if (i > 0 && pastDeadline()) {
+          log.debug("deadline passed after {} level cross sweeps", i);
+          break;
+        }
+        if (i % 2 == 0) {
+          medianDownwards(layersArray, svGraph);
+          if (transpose) transposeDownwards(layersArray, edgesKeyedOnTarget);
+        } else {
+          medianUpwards(layersArray, svGraph);
+          if (transpose) transposeUpwards(layersArray, edgesKeyedOnSource);
+        }
+        int allLevelCrossCount = crossCount(edgesKeyedOnTarget, 0, layersArray.length - 1);
+        log.trace(" cross count: {}", allLevelCrossCount);
         GraphLayers.checkLayers(layersArray);
-        lowestCrossCount = allLevelCrossCount;
+        if (allLevelCrossCount < lowestCrossCount) {
+          GraphLayers.checkLayers(layersArray);
+          best = copy(layersArray);
+          vertexMetadataMap = save(layersArray);
+          GraphLayers.checkLayers(layersArray);
+          lowestCrossCount = allLevelCrossCount;
+          publishIntermediate(layersArray, horizontalOffset, verticalOffset);
+        }
       }
-    }
-    log.trace("lowest cross count: {}", lowestCrossCount);
+      log.trace("lowest cross count: {}", lowestCrossCount);
 
-    restore(layersArray, vertexMetadataMap);
+      restore(layersArray, vertexMetadataMap);
 
-    Arrays.stream(layersArray)
-        .forEach(layer -> Arrays.sort(layer, Comparator.comparingInt(LV::getIndex)));
-    // compare best and layersArray
-    if (log.isTraceEnabled()) {
-      log.trace("best:{}", best);
-      log.trace("layersArray:{}", layersArray);
-    }
+      Arrays.stream(layersArray)
+          .forEach(layer -> Arrays.sort(layer, Comparator.comparingInt(LV::getIndex)));
+      // compare best and layersArray
+      if (log.isTraceEnabled()) {
+        log.trace("best:{}", best);
+        log.trace("layersArray:{}", layersArray);
+      }
 
-    for (int i = 0; i < best.length; i++) {
-      LV<V>[] layer = best[i];
-      for (int j = 0; j < layer.length; j++) {
-        LV<V> v = layer[j];
-        if (v.getVertex() != layersArray[i][j].getVertex()) {
-          log.error("not equal");
+      for (int i = 0; i < best.length; i++) {
+        LV<V>[] layer = best[i];
+        for (int j = 0; j < layer.length; j++) {
+          LV<V> v = layer[j];
+          if (v.getVertex() != layersArray[i][j].getVertex()) {
+            log.error("not equal");
+          }
         }
       }
     }
@@ -424,21 +591,12 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     long crossCountTests = System.currentTimeMillis();
     log.trace("cross counts took {}", (crossCountTests - syntheticsTime));
     GraphLayers.checkLayers(layersArray);
+    if (retainedLayers != null) {
+      retainedLayers.retain(layersArray, svGraph);
+    }
 
     // done optimizing for edge crossing
 
-    // figure out the avg size of rendered vertex
-    Rectangle avgVertexBounds = avgVertexBounds(layersArray, vertexShapeFunction);
-
-    int horizontalOffset =
-        (int)
-            Math.max(
-                avgVertexBounds.width,
-                Integer.getInteger(PREFIX + "mincross.horizontalOffset", 50));
-    int verticalOffset =
-        (int)
-            Math.max(
-                avgVertexBounds.height, Integer.getInteger(PREFIX + "mincross.verticalOffset", 50));
     GraphLayers.checkLayers(layersArray);
 
     if (cancelled || Thread.currentThread().isInterrupted()) {
@@ -448,7 +606,12 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     if (straightenEdges) {
       HorizontalCoordinateAssignment<V, E> horizontalCoordinateAssignment =
           new HorizontalCoordinateAssignment<>(
-              layersArray, svGraph, new HashSet<>(), horizontalOffset, verticalOffset);
+              layersArray,
+              svGraph,
+              new HashSet<>(),
+              horizontalOffset,
+              verticalOffset,
+              coordinateAssignmentExecutor);
       horizontalCoordinateAssignment.horizontalCoordinateAssignment();
 
       GraphLayers.checkLayers(layersArray);
@@ -566,7 +729,13 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     List<ArticulatedEdge<V, E>> articulatedEdges = synthetics.makeArticulatedEdges();
 
     Set<E> feedbackEdges = new HashSet<>();
-    feedbackArcs.forEach(a -> feedbackEdges.add(a.getEdge()));
+    // an edge that was reversed twice points the way it did in the graph
+    feedbackArcs.forEach(
+        a -> {
+          if (!feedbackEdges.add(a.getEdge())) {
+            feedbackEdges.remove(a.getEdge());
+          }
+        });
     articulatedEdges
         .stream()
         .filter(ae -> feedbackEdges.contains(ae.edge))
@@ -603,52 +772,93 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     svGraph.vertexSet().forEach(v -> layoutModel.set(v.getVertex(), v.getPoint()));
   }
 
+  /**
+   * sweep the ranks from {@code from} to {@code to}, which an incremental layering changed, a few
+   * times. The order of the other ranks is not changed, and the order of the swept ranks is kept
+   * only if it has fewer crossings than the order that the sweeps started from
+   */
+  protected void incrementalSweeps(
+      LV<V>[][] layersArray,
+      int from,
+      int to,
+      Map<Integer, List<LE<V, E>>> edgesKeyedOnTarget,
+      Map<Integer, List<LE<V, E>>> edgesKeyedOnSource,
+      int horizontalOffset,
+      int verticalOffset) {
+    if (to < from) {
+      return;
+    }
+    LV<V>[][] swept = Arrays.copyOfRange(layersArray, from, to + 1);
+    int lowestCrossCount = crossCount(edgesKeyedOnTarget, from, to + 1);
+    Map<LV<V>, VertexMetadata<V>> best = save(swept);
+    for (int i = 0; i < Math.min(maxLevelCross, incrementalSweeps) && lowestCrossCount > 0; i++) {
+      if (cancelled || Thread.currentThread().isInterrupted() || pastDeadline()) {
+        break;
+      }
+      if (i % 2 == 0) {
+        medianDownwards(layersArray, svGraph, from, to);
+        if (transpose) transposeDownwards(layersArray, edgesKeyedOnTarget, from, to);
+      } else {
+        medianUpwards(layersArray, svGraph, from, to);
+        if (transpose) transposeUpwards(layersArray, edgesKeyedOnSource, from, to);
+      }
+      int crossCount = crossCount(edgesKeyedOnTarget, from, to + 1);
+      if (crossCount < lowestCrossCount) {
+        lowestCrossCount = crossCount;
+        best = save(swept);
+        publishIntermediate(layersArray, horizontalOffset, verticalOffset);
+      }
+    }
+    log.trace("lowest cross count of ranks {} to {}: {}", from, to, lowestCrossCount);
+    restore(swept, best);
+    Arrays.stream(swept)
+        .forEach(layer -> Arrays.sort(layer, Comparator.comparingInt(LV::getIndex)));
+  }
+
+  /** @return true if there is a deadline and it has passed */
+  protected boolean pastDeadline() {
+    return deadline > 0 && System.currentTimeMillis() > deadline;
+  }
+
+  /**
+   * pass the locations of the current order, with the rows centered, to the intermediate consumer
+   */
+  protected void publishIntermediate(
+      LV<V>[][] layersArray, int horizontalOffset, int verticalOffset) {
+    if (intermediate != null) {
+      intermediate.accept(
+          Unaligned.centeredLocations(
+              layersArray, vertexShapeFunction, horizontalOffset, verticalOffset));
+    }
+  }
+
+  /** @return the crossings of the edges that end in the ranks from {@code from} to {@code to} */
+  private int crossCount(Map<Integer, List<LE<V, E>>> edgesKeyedOnTarget, int from, int to) {
+    int count = 0;
+    for (int r = from; r <= to; r++) {
+      count +=
+          AccumulatorTreeUtil.crossingCount(
+              edgesKeyedOnTarget.getOrDefault(r, Collections.emptyList()));
+    }
+    return count;
+  }
+
   protected void transposeDownwards(LV<V>[][] ranks, Map<Integer, List<LE<V, E>>> reducedEdgeMap) {
+    transposeDownwards(ranks, reducedEdgeMap, 0, ranks.length - 1);
+  }
+
+  /** transpose the ranks from {@code from} to {@code to}, inclusive, top to bottom */
+  protected void transposeDownwards(
+      LV<V>[][] ranks, Map<Integer, List<LE<V, E>>> reducedEdgeMap, int from, int to) {
     GraphLayers.checkLayers(ranks);
 
     boolean improved = true;
     int sanityCheck = 0;
     while (improved) {
       improved = false;
-      for (int i = 0; i < ranks.length; i++) {
-        LV<V>[] rank = ranks[i];
-        for (int j = 0; j < rank.length - 1; j++) {
-          List<LE<V, E>> biLayerEdges = reducedEdgeMap.getOrDefault(i, Collections.emptyList());
-
-          int vw = AccumulatorTreeUtil.crossingCount(biLayerEdges);
-          if (log.isTraceEnabled()) {
-            // make sure the accumulator tree count matches the insertion sort count
-            int vw2 = crossingCount(biLayerEdges);
-            if (vw != vw2) {
-              log.error("{} != {}", vw, vw2);
-            }
-            int vw3 = AccumulatorTreeUtil.crossingWeight(biLayerEdges, idx -> 1);
-            if (vw != vw3) {
-              log.error("{} != {}", vw, vw3);
-            }
-          }
-          if (vw == 0) {
-            break; // perfect!
-          }
-          // count with j and j+1 swapped
-          swap(rank, j, j + 1);
-          int wv = AccumulatorTreeUtil.crossingCount(biLayerEdges);
-          if (log.isTraceEnabled()) {
-            int wv2 = crossingCount(biLayerEdges);
-            if (wv != wv2) {
-              log.error("{} != {}", wv, wv2);
-            }
-            int wv3 = AccumulatorTreeUtil.crossingWeight(biLayerEdges, idx -> 1);
-            if (wv != wv3) {
-              log.error("{} != {}", wv, wv3);
-            }
-          }
-          swap(rank, j, j + 1);
-          if (vw > wv) {
-            improved = true;
-            swap(rank, j, j + 1);
-          }
-        }
+      for (int i = from; i <= to; i++) {
+        List<LE<V, E>> biLayerEdges = reducedEdgeMap.getOrDefault(i, Collections.emptyList());
+        improved |= transpose(ranks[i], biLayerEdges, true);
       }
       sanityCheck++;
       if (sanityCheck > transposeLimit) {
@@ -659,6 +869,12 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
   }
 
   protected void transposeUpwards(LV<V>[][] ranks, Map<Integer, List<LE<V, E>>> reducedEdgeMap) {
+    transposeUpwards(ranks, reducedEdgeMap, 0, ranks.length - 1);
+  }
+
+  /** transpose the ranks from {@code to} to {@code from}, inclusive, bottom to top */
+  protected void transposeUpwards(
+      LV<V>[][] ranks, Map<Integer, List<LE<V, E>>> reducedEdgeMap, int from, int to) {
     GraphLayers.checkLayers(ranks);
 
     boolean improved = true;
@@ -666,45 +882,9 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     int sanityCheck = 0;
     while (improved) {
       improved = false;
-      for (int i = ranks.length - 1; i >= 0; i--) {
-        LV<V>[] rank = ranks[i];
-        for (int j = 0; j < rank.length - 1; j++) {
-          List<LE<V, E>> biLayerEdges = reducedEdgeMap.getOrDefault(i, Collections.emptyList());
-
-          int vw = AccumulatorTreeUtil.crossingCount(biLayerEdges);
-          if (log.isTraceEnabled()) {
-            // make sure the accumulator tree count matches the insertion sort count
-            int vw2 = crossingCount(biLayerEdges);
-            if (vw != vw2) {
-              log.error("{} != {}", vw, vw2);
-            }
-            int vw3 = AccumulatorTreeUtil.crossingWeight(biLayerEdges, idx -> 1);
-            if (vw != vw3) {
-              log.error("{} != {}", vw, vw3);
-            }
-          }
-          if (vw == 0) {
-            break; // no crossings. done with these two ranks!
-          }
-          // count with j and j+1 swapped
-          swap(rank, j, j + 1); // swap for comparison
-          int wv = AccumulatorTreeUtil.crossingCount(biLayerEdges);
-          if (log.isTraceEnabled()) {
-            int wv2 = crossingCount(biLayerEdges);
-            if (wv != wv2) {
-              log.error("{} != {}", wv, wv2);
-            }
-            int wv3 = AccumulatorTreeUtil.crossingWeight(biLayerEdges, idx -> 1);
-            if (wv != wv3) {
-              log.error("{} != {}", wv, wv3);
-            }
-          }
-          swap(rank, j, j + 1); // swap back
-          if (vw > wv) {
-            improved = true;
-            swap(rank, j, j + 1); // sawp to improved order
-          }
-        }
+      for (int i = to; i >= from; i--) {
+        List<LE<V, E>> biLayerEdges = reducedEdgeMap.getOrDefault(i, Collections.emptyList());
+        improved |= transpose(ranks[i], biLayerEdges, false);
       }
       sanityCheck++;
       if (sanityCheck > sanityLimit) {
@@ -714,6 +894,25 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     GraphLayers.checkLayers(ranks);
   }
 
+  /**
+   * swap adjacent vertices of the rank where that lowers the crossings of the bi-layer edges
+   *
+   * @return true if any swap was made
+   */
+  private boolean transpose(LV<V>[] rank, List<LE<V, E>> biLayerEdges, boolean rankIsTarget) {
+    if (log.isTraceEnabled()) {
+      // make sure the incremental swaps never add crossings
+      int before = AccumulatorTreeUtil.crossingCount(biLayerEdges);
+      boolean improved = Transpose.transpose(rank, biLayerEdges, rankIsTarget);
+      int after = AccumulatorTreeUtil.crossingCount(biLayerEdges);
+      if (after > before) {
+        log.error("{} > {}", after, before);
+      }
+      return improved;
+    }
+    return Transpose.transpose(rank, biLayerEdges, rankIsTarget);
+  }
+
   public Map<E, List<Point>> getEdgePointMap() {
     return edgePointMap;
   }
@@ -726,28 +925,6 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
     array[j].setIndex(j);
   }
 
-  Comparator<LE<V, E>> biLevelEdgeComparator = Comparators.biLevelEdgeComparator();
-
-  private int crossingCount(List<LE<V, E>> edges) {
-    edges.sort(biLevelEdgeComparator);
-    List<Integer> targetIndices = new ArrayList<>();
-    for (LE<V, E> edge : edges) {
-      targetIndices.add(edge.getTarget().getIndex());
-    }
-    return InsertionSortCounter.insertionSortCounter(targetIndices);
-  }
-
-  private int crossingCountSwapped(int i, int j, LV<V>[] layer, List<LE<V, E>> edges) {
-    swap(layer, i, j);
-    edges.sort(biLevelEdgeComparator);
-    List<Integer> targetIndices = new ArrayList<>();
-    for (LE<V, E> edge : edges) {
-      targetIndices.add(edge.getTarget().getIndex());
-    }
-    swap(layer, i, j);
-    return InsertionSortCounter.insertionSortCounter(targetIndices);
-  }
-
   Function<LV<V>, int[]> upperNeighborIndicesMethod = this::upperNeighborIndices;
   Function<LV<V>, int[]> lowerNeighborIndicesMethod = this::lowerNeighborIndices;
 
@@ -776,8 +953,14 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
   }
 
   protected void medianDownwards(LV<V>[][] layers, Graph<LV<V>, LE<V, E>> svGraph) {
+    medianDownwards(layers, svGraph, 0, layers.length - 1);
+  }
+
+  /** sort the ranks from {@code from} to {@code to}, inclusive, top to bottom */
+  protected void medianDownwards(
+      LV<V>[][] layers, Graph<LV<V>, LE<V, E>> svGraph, int from, int to) {
 
-    for (int r = 0; r < layers.length; r++) {
+    for (int r = from; r <= to; r++) {
       for (LV<V> v : layers[r]) {
         double median = medianValue(v, upperNeighborIndicesMethod, svGraph);
         v.setMeasure(median);
@@ -788,8 +971,13 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
   }
 
   protected void medianUpwards(LV<V>[][] layers, Graph<LV<V>, LE<V, E>> svGraph) {
+    medianUpwards(layers, svGraph, 0, layers.length - 1);
+  }
 
-    for (int r = layers.length - 1; r >= 0; r--) {
+  /** sort the ranks from {@code to} to {@code from}, inclusive, bottom to top */
+  protected void medianUpwards(LV<V>[][] layers, Graph<LV<V>, LE<V, E>> svGraph, int from, int to) {
+
+    for (int r = to; r >= from; r--) {
       for (LV<V> v : layers[r]) {
         double median = medianValue(v, lowerNeighborIndicesMethod, svGraph);
         v.setMeasure(median);
@@ -800,7 +988,7 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
   }
 
   void medianSortAndFixMetadata(LV<V>[] layer) {
-    Arrays.sort(layer, Comparator.comparing(LV::getMeasure));
+    Arrays.sort(layer, Comparator.comparingDouble(LV::getMeasure));
     // fix up the metadata!
     fixMetadata(layer);
   }
@@ -812,11 +1000,21 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
   }
 
   int[] upperNeighborIndices(LV<V> vertex) {
-    return neighborCache.predecessorsOf(vertex).stream().mapToInt(LV::getIndex).sorted().toArray();
+    return sortedIndices(neighborCache.predecessorsOf(vertex));
   }
 
   int[] lowerNeighborIndices(LV<V> vertex) {
-    return neighborCache.successorsOf(vertex).stream().mapToInt(LV::getIndex).sorted().toArray();
+    return sortedIndices(neighborCache.successorsOf(vertex));
+  }
+
+  private static <V> int[] sortedIndices(Set<LV<V>> neighbors) {
+    int[] indices = new int[neighbors.size()];
+    int i = 0;
+    for (LV<V> neighbor : neighbors) {
+      indices[i++] = neighbor.getIndex();
+    }
+    Arrays.sort(indices);
+    return indices;
   }
 
   int[] adjPosition(
@@ -828,33 +1026,11 @@ public class SugiyamaRunnable<V, E> implements LayeredRunnable<E> {
       LV<V> v, Function<LV<V>, int[]> neighborFunction, Graph<LV<V>, LE<V, E>> svGraph) {
     // get the positions of adjacent vertices in adj_rank
     int[] P = adjPosition(v, neighborFunction, svGraph);
-    int m = P.length / 2;
-    if (P.length == 0) {
-      return -1;
-    } else if (P.length % 2 == 1) {
-      return P[m];
-    } else if (P.length == 2) {
-      return (P[0] + P[1]) / 2;
-    } else {
-      double left = P[m - 1] - P[0];
-      double right = P[P.length - 1] - P[m];
-      return (P[m - 1] * right + P[m] * left) / (left + right);
-    }
+    return BiLayer.medianValue(P, P.length);
   }
 
   double medianValue(int[] P) {
-    int m = P.length / 2;
-    if (P.length == 0) {
-      return -1;
-    } else if (P.length % 2 == 1) {
-      return P[m];
-    } else if (P.length == 2) {
-      return (P[0] + P[1]) / 2;
-    } else {
-      double left = P[m - 1] - P[0];
-      double right = P[P.length - 1] - P[m];
-      return (P[m - 1] * right + P[m] * left) / (left + right);
-    }
+    return BiLayer.medianValue(P, P.length);
   }
 
   protected LV<V>[][] copy(LV<V>[][] in) {
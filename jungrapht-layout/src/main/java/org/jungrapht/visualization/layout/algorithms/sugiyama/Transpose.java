@@ -0,0 +1,124 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transpose heuristic for one rank of a layered graph. Adjacent vertices are swapped when that
+ * lowers the crossings between the rank and one neighboring rank.<br>
+ * Instead of recounting all crossings of the bi-layer for every candidate swap, the sorted
+ * positions of the neighbors of each vertex are collected once. The crossings between the edges of
+ * two adjacent vertices u and v, in either order, are then counted by merging their neighbor
+ * position lists, so each swap decision costs only the degrees of the two vertices.
+ *
+ * @author Tom Nelson
+ */
+public class Transpose {
+
+  private Transpose() {}
+
+  /**
+   * make one pass of adjacent swaps over the rank
+   *
+   * @param rank the vertices to reorder. The index metadata is updated to match
+   * @param edges the edges between the rank and the neighboring rank
+   * @param rankIsTarget true if the rank holds the targets of the edges, false if it holds the
+   *     sources
+   * @param <V> vertex type
+   * @param <E> edge type
+   * @return true if any swap lowered the crossings
+   */
+  public static <V, E> boolean transpose(LV<V>[] rank, List<LE<V, E>> edges, boolean rankIsTarget) {
+    if (rank.length < 2 || edges.isEmpty()) {
+      return false;
+    }
+    int[][] neighbors = neighborPositions(rank.length, edges, rankIsTarget);
+    int[] order = new int[rank.length];
+    for (int j = 0; j < order.length; j++) {
+      order[j] = j;
+    }
+    if (!transpose(order, neighbors)) {
+      return false;
+    }
+    LV<V>[] copy = rank.clone();
+    for (int j = 0; j < rank.length; j++) {
+      rank[j] = copy[order[j]];
+      rank[j].setIndex(j);
+    }
+    return true;
+  }
+
+  /**
+   * make one pass of adjacent swaps over a rank of vertex ids
+   *
+   * @param rank the vertex ids to reorder
+   * @param neighbors for each position in the rank, the sorted positions of the neighbors in the
+   *     neighboring rank. Swapped along with the rank
+   * @return true if any swap lowered the crossings
+   */
+  static boolean transpose(int[] rank, int[][] neighbors) {
+    boolean improved = false;
+    for (int j = 0; j < rank.length - 1; j++) {
+      int[] left = neighbors[j];
+      int[] right = neighbors[j + 1];
+      if (left.length == 0 || right.length == 0) {
+        continue;
+      }
+      if (crossings(left, right) > crossings(right, left)) {
+        int swap = rank[j];
+        rank[j] = rank[j + 1];
+        rank[j + 1] = swap;
+        neighbors[j] = right;
+        neighbors[j + 1] = left;
+        improved = true;
+      }
+    }
+    return improved;
+  }
+
+  /**
+   * count the crossings between the edges of two vertices when the vertex with the left neighbor
+   * positions is placed just before the vertex with the right neighbor positions
+   *
+   * @param left sorted neighbor positions of the first vertex
+   * @param right sorted neighbor positions of the second vertex
+   * @return the number of pairs where the left neighbor lies after the right neighbor
+   */
+  static int crossings(int[] left, int[] right) {
+    int count = 0;
+    int k = 0;
+    for (int a : left) {
+      while (k < right.length && right[k] < a) {
+        k++;
+      }
+      count += k;
+    }
+    return count;
+  }
+
+  /**
+   * @return for each position in the rank, the sorted positions of its neighbors in the other rank
+   */
+  private static <V, E> int[][] neighborPositions(
+      int size, List<LE<V, E>> edges, boolean rankIsTarget) {
+    int[] degree = new int[size];
+    for (LE<V, E> edge : edges) {
+      degree[(rankIsTarget ? edge.getTarget() : edge.getSource()).getIndex()]++;
+    }
+    int[][] neighbors = new int[size][];
+    for (int i = 0; i < size; i++) {
+      neighbors[i] = new int[degree[i]];
+      degree[i] = 0;
+    }
+    for (LE<V, E> edge : edges) {
+      LV<V> vertex = rankIsTarget ? edge.getTarget() : edge.getSource();
+      LV<V> neighbor = rankIsTarget ? edge.getSource() : edge.getTarget();
+      int i = vertex.getIndex();
+      neighbors[i][degree[i]++] = neighbor.getIndex();
+    }
+    for (int[] positions : neighbors) {
+      Arrays.sort(positions);
+    }
+    return neighbors;
+  }
+}
@@ -1,11 +1,15 @@
 package org.jungrapht.visualization.layout.algorithms.sugiyama;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import org.jungrapht.visualization.layout.model.Point;
 import org.jungrapht.visualization.layout.model.Rectangle;
+import org.jungrapht.visualization.layout.util.synthetics.Synthetic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +23,19 @@ public class Unaligned {
       Function<V, Rectangle> vertexShapeFunction,
       int horizontalOffset,
       int verticalOffset) {
+    centerPoints(layers, vertexShapeFunction, horizontalOffset, verticalOffset, LV::setPoint);
+  }
+
+  /**
+   * center the rows, passing each vertex and its centered point to {@code pointConsumer} instead of
+   * setting the point of the vertex
+   */
+  private static <V> void centerPoints(
+      LV<V>[][] layers,
+      Function<V, Rectangle> vertexShapeFunction,
+      int horizontalOffset,
+      int verticalOffset,
+      BiConsumer<LV<V>, Point> pointConsumer) {
 
     Map<Integer, Integer> rowWidthMap = new HashMap<>();
     Map<Integer, Integer> rowMaxHeightMap = new HashMap<>();
@@ -27,7 +44,7 @@ public class Unaligned {
       int width = horizontalOffset;
       int maxHeight = 0;
       for (LV<V> sugiyamaVertex : layer) {
-        if (!(sugiyamaVertex instanceof SyntheticLV)) {
+        if (!(sugiyamaVertex instanceof Synthetic)) {
           Rectangle bounds = vertexShapeFunction.apply(sugiyamaVertex.getVertex());
           width += bounds.width + horizontalOffset;
           maxHeight = Math.max(maxHeight, (int) bounds.height);
@@ -58,14 +75,14 @@ public class Unaligned {
 
       for (LV<V> sugiyamaVertex : layer) {
         int vertexWidth = 0;
-        if (!(sugiyamaVertex instanceof SyntheticLV)) {
+        if (!(sugiyamaVertex instanceof Synthetic)) {
           vertexWidth = (int) vertexShapeFunction.apply(sugiyamaVertex.getVertex()).width;
         }
 
         x += previousVertexWidth / 2 + vertexWidth / 2 + horizontalOffset;
 
         log.trace("layerIndex {} y is {}", layerIndex, y);
-        sugiyamaVertex.setPoint(Point.of(x, y));
+        pointConsumer.accept(sugiyamaVertex, Point.of(x, y));
         previousVertexWidth = vertexWidth;
       }
       x = horizontalOffset;
@@ -74,6 +91,41 @@ public class Unaligned {
     }
   }
 
+  /**
+   * center copies of the rows, each in the order of the index metadata of its vertices. The points
+   * of the vertices in the layers are not changed
+   *
+   * @param layers the layers to center. The order of the rows is not changed
+   * @param vertexShapeFunction the shape of each vertex
+   * @param horizontalOffset space between vertices in a row
+   * @param verticalOffset space between rows
+   * @param <V> vertex type
+   * @return the location of each vertex that is not synthetic
+   */
+  public static <V> Map<V, Point> centeredLocations(
+      LV<V>[][] layers,
+      Function<V, Rectangle> vertexShapeFunction,
+      int horizontalOffset,
+      int verticalOffset) {
+    LV<V>[][] ordered = new LV[layers.length][];
+    for (int i = 0; i < layers.length; i++) {
+      ordered[i] = layers[i].clone();
+      Arrays.sort(ordered[i], Comparator.comparingInt(LV::getIndex));
+    }
+    Map<V, Point> locations = new HashMap<>();
+    centerPoints(
+        ordered,
+        vertexShapeFunction,
+        horizontalOffset,
+        verticalOffset,
+        (v, p) -> {
+          if (!(v instanceof Synthetic)) {
+            locations.put(v.getVertex(), p);
+          }
+        });
+    return locations;
+  }
+
   public static <V> void setPoints(
       LV<V>[][] layers,
       Function<V, Rectangle> vertexShapeFunction,
@@ -125,7 +177,7 @@ public class Unaligned {
       int width = horizontalOffset;
       int maxHeight = 0;
       for (LV<V> sugiyamaVertex : layer) {
-        if (!(sugiyamaVertex instanceof SyntheticLV)) {
+        if (!(sugiyamaVertex instanceof Synthetic)) {
           Rectangle bounds = vertexShapeFunction.apply(sugiyamaVertex.getVertex());
           width += bounds.width + horizontalOffset;
           maxHeight = Math.max(maxHeight, (int) bounds.height);
@@ -156,7 +208,7 @@ public class Unaligned {
 
       for (LV<V> sugiyamaVertex : layer) {
         int vertexWidth = 0;
-        if (!(sugiyamaVertex instanceof SyntheticLV)) {
+        if (!(sugiyamaVertex instanceof Synthetic)) {
           vertexWidth = (int) vertexShapeFunction.apply(sugiyamaVertex.getVertex()).width;
         }
 
@@ -2,7 +2,6 @@ package org.jungrapht.visualization.layout.algorithms.sugiyama;
 
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -22,8 +21,8 @@ public abstract class VerticalAlignment<V, E> {
 
   private static final Logger log = LoggerFactory.getLogger(VerticalAlignment.class);
 
-  protected Map<LV<V>, LV<V>> rootMap = new HashMap<>();
-  protected Map<LV<V>, LV<V>> alignMap = new HashMap<>();
+  protected Map<LV<V>, LV<V>> rootMap;
+  protected Map<LV<V>, LV<V>> alignMap;
   protected LV<V>[][] layers;
   protected Graph<LV<V>, LE<V, E>> svGraph;
   protected Set<LE<V, E>> markedSegments;
@@ -45,6 +44,8 @@ public abstract class VerticalAlignment<V, E> {
     this.svGraph = svGraph;
     this.neighborCache = new NeighborCache<>(svGraph);
     this.markedSegments = markedSegments;
+    this.rootMap = new LayeredMap<>(layers);
+    this.alignMap = new LayeredMap<>(layers);
     // initialize root and align
     Arrays.stream(layers)
         .flatMap(Arrays::stream)
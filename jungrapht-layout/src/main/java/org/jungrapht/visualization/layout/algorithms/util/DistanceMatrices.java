@@ -0,0 +1,439 @@
+package org.jungrapht.visualization.layout.algorithms.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import org.jgrapht.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link DistanceMatrix} implementations and the index-based shortest path searches they share
+ *
+ * @author Tom Nelson
+ */
+final class DistanceMatrices {
+
+  private static final Logger log = LoggerFactory.getLogger(DistanceMatrices.class);
+
+  private DistanceMatrices() {}
+
+  /** the graph as compressed adjacency arrays over vertex indices */
+  static final class Adjacency {
+    final int n;
+    final boolean weighted;
+    final boolean directed;
+    // outgoing (or all, for undirected graphs) neighbors of i are at offsets[i]..offsets[i+1]
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    // incoming neighbors, only for directed graphs
+    final int[] inOffsets;
+    final int[] sources;
+    final double[] inWeights;
+
+    /**
+     * @param graph the graph
+     * @param vertices the vertices in index order
+     * @param directed if false, edge directions are ignored
+     */
+    <V, E> Adjacency(Graph<V, E> graph, V[] vertices, boolean directed) {
+      this.n = vertices.length;
+      this.weighted = graph.getType().isWeighted();
+      this.directed = directed && graph.getType().isDirected();
+      Map<V, Integer> index = new HashMap<>();
+      for (int i = 0; i < n; i++) {
+        index.put(vertices[i], i);
+      }
+      int edgeCount = graph.edgeSet().size();
+      int[] from = new int[edgeCount];
+      int[] to = new int[edgeCount];
+      double[] w = new double[edgeCount];
+      int m = 0;
+      for (E edge : graph.edgeSet()) {
+        Integer s = index.get(graph.getEdgeSource(edge));
+        Integer t = index.get(graph.getEdgeTarget(edge));
+        if (s == null || t == null || s.equals(t)) {
+          continue;
+        }
+        from[m] = s;
+        to[m] = t;
+        w[m] = weighted ? graph.getEdgeWeight(edge) : 1;
+        m++;
+      }
+      if (this.directed) {
+        offsets = new int[n + 1];
+        targets = new int[m];
+        weights = new double[m];
+        fill(from, to, w, m, false, offsets, targets, weights);
+        inOffsets = new int[n + 1];
+        sources = new int[m];
+        inWeights = new double[m];
+        fill(to, from, w, m, false, inOffsets, sources, inWeights);
+      } else {
+        offsets = new int[n + 1];
+        targets = new int[2 * m];
+        weights = new double[2 * m];
+        fill(from, to, w, m, true, offsets, targets, weights);
+        inOffsets = offsets;
+        sources = targets;
+        inWeights = weights;
+      }
+    }
+
+    private void fill(
+        int[] from,
+        int[] to,
+        double[] w,
+        int m,
+        boolean both,
+        int[] offsets,
+        int[] targets,
+        double[] weights) {
+      for (int e = 0; e < m; e++) {
+        offsets[from[e] + 1]++;
+        if (both) {
+          offsets[to[e] + 1]++;
+        }
+      }
+      for (int i = 0; i < n; i++) {
+        offsets[i + 1] += offsets[i];
+      }
+      int[] next = Arrays.copyOf(offsets, n);
+      for (int e = 0; e < m; e++) {
+        int k = next[from[e]]++;
+        targets[k] = to[e];
+        weights[k] = w[e];
+        if (both) {
+          k = next[to[e]]++;
+          targets[k] = from[e];
+          weights[k] = w[e];
+        }
+      }
+    }
+  }
+
+  /**
+   * single source shortest path lengths over an {@link Adjacency}. Each instance holds the scratch
+   * arrays for one thread
+   */
+  static final class Search {
+    private final Adjacency adjacency;
+    private final int[] queue;
+    private final double[] distance;
+    private final int[] heap;
+    private final int[] heapPosition;
+
+    Search(Adjacency adjacency) {
+      this.adjacency = adjacency;
+      this.queue = new int[adjacency.n];
+      this.distance = adjacency.weighted ? new double[adjacency.n] : null;
+      this.heap = adjacency.weighted ? new int[adjacency.n] : null;
+      this.heapPosition = adjacency.weighted ? new int[adjacency.n] : null;
+    }
+
+    /**
+     * @param source the index of the source vertex
+     * @param incoming if true, follow edges backwards
+     * @param out receives the path length to each vertex, 0 for the source and for unreachable
+     *     vertices
+     */
+    void run(int source, boolean incoming, int[] out) {
+      int[] offsets = incoming ? adjacency.inOffsets : adjacency.offsets;
+      int[] targets = incoming ? adjacency.sources : adjacency.targets;
+      Arrays.fill(out, 0);
+      if (adjacency.weighted) {
+        dijkstra(source, offsets, targets, incoming ? adjacency.inWeights : adjacency.weights, out);
+        return;
+      }
+      // breadth first search. out doubles as the visited marker: the source is marked with -1
+      out[source] = -1;
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = source;
+      while (head < tail) {
+        int v = queue[head++];
+        int d = v == source ? 1 : out[v] + 1;
+        for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+          int t = targets[k];
+          if (out[t] == 0) {
+            out[t] = d;
+            queue[tail++] = t;
+          }
+        }
+      }
+      out[source] = 0;
+    }
+
+    private void dijkstra(int source, int[] offsets, int[] targets, double[] weights, int[] out) {
+      Arrays.fill(distance, Double.POSITIVE_INFINITY);
+      Arrays.fill(heapPosition, -1);
+      int size = 0;
+      distance[source] = 0;
+      heap[size] = source;
+      heapPosition[source] = size++;
+      while (size > 0) {
+        int v = heap[0];
+        heapPosition[v] = -2; // settled
+        int last = heap[--size];
+        if (size > 0) {
+          heap[0] = last;
+          heapPosition[last] = 0;
+          siftDown(0, size);
+        }
+        for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+          int t = targets[k];
+          if (heapPosition[t] == -2) {
+            continue;
+          }
+          double d = distance[v] + weights[k];
+          if (d < distance[t]) {
+            distance[t] = d;
+            if (heapPosition[t] == -1) {
+              heap[size] = t;
+              heapPosition[t] = size++;
+            }
+            siftUp(heapPosition[t]);
+          }
+        }
+      }
+      for (int i = 0; i < out.length; i++) {
+        double d = distance[i];
+        out[i] = i == source || d == Double.POSITIVE_INFINITY ? 0 : (int) d;
+      }
+    }
+
+    private void siftUp(int position) {
+      int v = heap[position];
+      while (position > 0) {
+        int parent = (position - 1) >>> 1;
+        int p = heap[parent];
+        if (distance[p] <= distance[v]) {
+          break;
+        }
+        heap[position] = p;
+        heapPosition[p] = position;
+        position = parent;
+      }
+      heap[position] = v;
+      heapPosition[v] = position;
+    }
+
+    private void siftDown(int position, int size) {
+      int v = heap[position];
+      while (true) {
+        int child = 2 * position + 1;
+        if (child >= size) {
+          break;
+        }
+        if (child + 1 < size && distance[heap[child + 1]] < distance[heap[child]]) {
+          child++;
+        }
+        int c = heap[child];
+        if (distance[v] <= distance[c]) {
+          break;
+        }
+        heap[position] = c;
+        heapPosition[c] = position;
+        position = child;
+      }
+      heap[position] = v;
+      heapPosition[v] = position;
+    }
+  }
+
+  /**
+   * run {@code task} for every source index in {@code [0, count)}, handing each task a Search and
+   * two result rows that it may reuse
+   */
+  static void forEachSource(Adjacency adjacency, int count, boolean parallel, SourceTask task) {
+    int chunks = parallel ? Math.min(count, ForkJoinPool.getCommonPoolParallelism() * 4) : 1;
+    int chunkSize = chunks == 0 ? 0 : (count + chunks - 1) / chunks;
+    IntStream stream = IntStream.range(0, chunks);
+    (parallel ? stream.parallel() : stream)
+        .forEach(
+            chunk -> {
+              Search search = new Search(adjacency);
+              int[] out = new int[adjacency.n];
+              int[] in = adjacency.directed ? new int[adjacency.n] : null;
+              for (int s = chunk * chunkSize; s < Math.min(count, (chunk + 1) * chunkSize); s++) {
+                task.run(search, s, out, in);
+              }
+            });
+  }
+
+  /** the work for one source */
+  @FunctionalInterface
+  interface SourceTask {
+    /**
+     * @param search the search to use
+     * @param source the source index
+     * @param out scratch for outgoing path lengths
+     * @param in scratch for incoming path lengths, null for undirected graphs
+     */
+    void run(Search search, int source, int[] out, int[] in);
+  }
+
+  /** every distance, stored once for each unordered pair */
+  static final class Exact implements DistanceMatrix {
+    private final int n;
+    private final char[] shortDistances;
+    private final int[] distances;
+    private final int diameter;
+
+    Exact(Adjacency adjacency, boolean parallel) {
+      this.n = adjacency.n;
+      long cells = (long) n * (n - 1) / 2;
+      // an unweighted path is shorter than the vertex count, so it fits in a char
+      boolean compact = !adjacency.weighted;
+      this.shortDistances = compact ? new char[(int) cells] : null;
+      this.distances = compact ? null : new int[(int) cells];
+      int[] maxima = new int[n];
+      forEachSource(
+          adjacency,
+          n,
+          parallel,
+          (search, i, out, in) -> {
+            search.run(i, false, out);
+            if (in != null) {
+              search.run(i, true, in);
+            }
+            int max = 0;
+            for (int j = 0; j < n; j++) {
+              max = Math.max(max, out[j]);
+            }
+            maxima[i] = max;
+            // each source writes only its own row of the upper triangle
+            int base = index(i, i + 1) - i - 1;
+            for (int j = i + 1; j < n; j++) {
+              int d = out[j];
+              if (in != null && in[j] != 0 && (d == 0 || in[j] < d)) {
+                d = in[j];
+              }
+              if (compact) {
+                shortDistances[base + j] = (char) d;
+              } else {
+                distances[base + j] = d;
+              }
+            }
+          });
+      this.diameter = Arrays.stream(maxima).max().orElse(0);
+      log.trace("exact distances for {} vertices, diameter {}", n, diameter);
+    }
+
+    /** the offset of the pair {@code i < j} in the upper triangle, stored row by row */
+    private int index(int i, int j) {
+      return (int) ((long) i * (2L * n - i - 1) / 2) + (j - i - 1);
+    }
+
+    @Override
+    public int size() {
+      return n;
+    }
+
+    @Override
+    public int get(int i, int j) {
+      if (i == j) {
+        return 0;
+      }
+      int k = i < j ? index(i, j) : index(j, i);
+      return shortDistances != null ? shortDistances[k] : distances[k];
+    }
+
+    @Override
+    public int getDiameter() {
+      return diameter;
+    }
+  }
+
+  /**
+   * exact distances from a few landmarks. The distance between two other vertices is estimated as
+   * the shortest route through one of the landmarks
+   */
+  static final class Landmarks implements DistanceMatrix {
+    private final int n;
+    private final int[][] rows;
+    private final int[] landmarkIndex;
+    private final int diameter;
+
+    Landmarks(Adjacency adjacency, int count) {
+      this.n = adjacency.n;
+      this.landmarkIndex = new int[n];
+      Arrays.fill(landmarkIndex, -1);
+      this.rows = new int[count][];
+      // pick the landmarks one at a time: each new landmark is the vertex farthest from the
+      // landmarks already chosen, and a vertex in an unreached component is farthest of all
+      Search search = new Search(adjacency);
+      int[] nearest = new int[n];
+      Arrays.fill(nearest, Integer.MAX_VALUE);
+      int next = 0;
+      int chosen = 0;
+      for (; chosen < count && next >= 0; chosen++) {
+        int[] row = new int[n];
+        search.run(next, false, row);
+        rows[chosen] = row;
+        landmarkIndex[next] = chosen;
+        nearest[next] = 0;
+        int farthest = -1;
+        int farthestDistance = 0;
+        for (int v = 0; v < n; v++) {
+          if (landmarkIndex[v] >= 0) {
+            continue;
+          }
+          int d = row[v] == 0 ? Integer.MAX_VALUE : row[v];
+          nearest[v] = Math.min(nearest[v], d);
+          if (farthest < 0 || nearest[v] > farthestDistance) {
+            farthest = v;
+            farthestDistance = nearest[v];
+          }
+        }
+        next = farthest;
+      }
+      int max = 0;
+      for (int l = 0; l < chosen; l++) {
+        for (int d : rows[l]) {
+          max = Math.max(max, d);
+        }
+      }
+      this.diameter = max;
+      log.trace("{} landmarks for {} vertices, diameter at least {}", chosen, n, diameter);
+    }
+
+    @Override
+    public int size() {
+      return n;
+    }
+
+    @Override
+    public int get(int i, int j) {
+      if (i == j) {
+        return 0;
+      }
+      if (landmarkIndex[i] >= 0) {
+        return rows[landmarkIndex[i]][j];
+      }
+      if (landmarkIndex[j] >= 0) {
+        return rows[landmarkIndex[j]][i];
+      }
+      int best = 0;
+      for (int[] row : rows) {
+        if (row == null) {
+          break;
+        }
+        int a = row[i];
+        int b = row[j];
+        if (a != 0 && b != 0 && (best == 0 || a + b < best)) {
+          best = a + b;
+        }
+      }
+      return best;
+    }
+
+    @Override
+    public int getDiameter() {
+      return diameter;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package org.jungrapht.visualization.layout.algorithms.util;
+
+import org.jgrapht.Graph;
+
+/**
+ * Graph-theoretic distances between the vertices of a graph, addressed by vertex index. The
+ * distance between two vertices is the shorter of the two directed shortest path lengths between
+ * them. Path lengths are hop counts for unweighted graphs and truncated sums of edge weights for
+ * weighted graphs. A distance of 0 means that there is no path in either direction.
+ *
+ * <ul>
+ *   <li>{@link #exact} stores every distance once, in a triangular array of {@code char} for
+ *       unweighted graphs or {@code int} for weighted graphs. A breadth first search (or a Dijkstra
+ *       search for weighted graphs) is run from every vertex, optionally in parallel
+ *   <li>{@link #landmarks} runs searches from a few well-spread landmark vertices only and
+ *       estimates every other distance as the shortest route through a landmark, for graphs that
+ *       are too large for the exact matrix
+ * </ul>
+ *
+ * @author Tom Nelson
+ */
+public interface DistanceMatrix {
+
+  /** the largest vertex count for which an exact matrix can be indexed by an int */
+  int MAX_EXACT_SIZE = 65535;
+
+  /** @return the number of vertices */
+  int size();
+
+  /**
+   * @param i the index of one vertex
+   * @param j the index of the other vertex
+   * @return the distance between the vertices, or 0 if they are not connected or are the same
+   */
+  int get(int i, int j);
+
+  /** @return the longest finite directed shortest path length seen */
+  int getDiameter();
+
+  /**
+   * @param graph the graph
+   * @param vertices the vertices of the graph, in index order
+   * @param parallel if true, the searches from each vertex run concurrently
+   * @return every distance, computed exactly
+   */
+  static <V> DistanceMatrix exact(Graph<V, ?> graph, V[] vertices, boolean parallel) {
+    if (vertices.length > MAX_EXACT_SIZE) {
+      throw new IllegalArgumentException(
+          "too many vertices for an exact distance matrix: " + vertices.length);
+    }
+    return new DistanceMatrices.Exact(
+        new DistanceMatrices.Adjacency(graph, vertices, true), parallel);
+  }
+
+  /**
+   * @param graph the graph
+   * @param vertices the vertices of the graph, in index order
+   * @param count how many landmarks to search from
+   * @return exact distances from the landmarks and estimates of all other distances, both with edge
+   *     directions ignored
+   */
+  static <V> DistanceMatrix landmarks(Graph<V, ?> graph, V[] vertices, int count) {
+    return new DistanceMatrices.Landmarks(
+        new DistanceMatrices.Adjacency(graph, vertices, false), Math.min(count, vertices.length));
+  }
+}
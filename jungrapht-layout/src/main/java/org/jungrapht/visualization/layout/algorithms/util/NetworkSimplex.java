@@ -36,6 +36,13 @@ import org.slf4j.LoggerFactory;
  *
  * <p>This file is re-licensed under the compatible BSD license.
  *
+ * <p>The svGraph is copied once into int indexed arrays (edges are stored with their tail at the
+ * lower rank, so that {@code rank[head] - rank[tail] >= separation}) and all of the work is done on
+ * primitive arrays: the feasible tree is grown with a priority queue of edge slacks, the tree is
+ * numbered with postorder low/lim values so that subtree membership is a range check, cut values
+ * are updated along the tree path between the endpoints of the entering edge, and the search for a
+ * leaving edge cycles through the tree edges, continuing where the previous search stopped.
+ *
  * @see "A Technique for Drawing Directed Graphs. Emden R. Gansner, Eleftherios Koutsofios, Stephen
  *     C. North, and Gem-Phong Vo"
  * @param <V> vertex type
@@ -45,7 +52,8 @@ public class NetworkSimplex<V, E> {
 
   private static final Logger log = LoggerFactory.getLogger(NetworkSimplex.class);
 
-  private static final Random random = new Random();
+  /** the number of negative cut value tree edges to examine when choosing a leaving edge */
+  private static final int SEARCH_SIZE = 30;
 
   public static class Builder<V, E, T extends NetworkSimplex<V, E>, B extends Builder<V, E, T, B>> {
     protected Graph<LV<V>, LE<V, E>> svGraph;
@@ -99,37 +107,50 @@ public class NetworkSimplex<V, E> {
     return new Builder<>(svGraph);
   }
 
-  private static class Incidence<V, E> {
-    final LV<V> v;
-    final Iterator<LE<V, E>> outEdges;
-    final Iterator<LE<V, E>> inEdges;
-
-    static <V, E> Incidence<V, E> of(
-        LV<V> v, Iterator<LE<V, E>> outEdges, Iterator<LE<V, E>> inEdges) {
-      return new Incidence<>(v, outEdges, inEdges);
-    }
-
-    private Incidence(LV<V> v, Iterator<LE<V, E>> outEdges, Iterator<LE<V, E>> inEdges) {
-      this.v = v;
-      this.outEdges = outEdges;
-      this.inEdges = inEdges;
-    }
-  }
-
-  protected List<LV<V>> leaves = new ArrayList<>();
   protected Graph<LV<V>, LE<V, E>> svGraph;
   protected Function<LE<V, E>, Integer> weightFunction;
   protected Function<LE<V, E>, Integer> separationFunction;
-  protected Map<LV<V>, Integer> layers = new HashMap<>();
-  protected Map<LE<V, E>, Integer> cutMap = new HashMap<>();
-  protected List<List<LV<V>>> layerList;
-  protected Map<LV<V>, Integer> lim = new HashMap<>();
-  protected Map<LV<V>, Integer> low = new HashMap<>();
-  protected Map<LV<V>, LE<V, E>> parent = new HashMap<>();
-  protected List<LV<V>> treeVertices = new ArrayList<>();
-  protected Map<LV<V>, Boolean> vertexInTreeMap = new HashMap<>();
-  protected Map<LE<V, E>, Boolean> edgeInTreeMap = new HashMap<>();
   protected Comparator<LE<V, E>> edgeComparator;
+  protected List<List<LV<V>>> layerList;
+
+  // the int indexed copy of the svGraph
+  private LV<V>[] vertices;
+  private LE<V, E>[] edges;
+  /** the lower ranked end of each edge (the target of the LE) */
+  private int[] tail;
+  /** the higher ranked end of each edge (the source of the LE) */
+  private int[] head;
+
+  private int[] weight;
+  private int[] separation;
+  /** edges with their tail at vertex v are at outEdges[outStart[v]..outStart[v+1]) */
+  private int[] outStart;
+
+  private int[] outEdges;
+  /** edges with their head at vertex v are at inEdges[inStart[v]..inStart[v+1]) */
+  private int[] inStart;
+
+  private int[] inEdges;
+
+  private int[] rank;
+  private int[] cut;
+  private int[] low;
+  private int[] lim;
+  /** the tree edge to the parent of each vertex, -1 for a root */
+  private int[] parentEdge;
+  /** the vertex with each lim value */
+  private int[] postorder;
+  /** the position of each edge in treeEdges, -1 for a non tree edge */
+  private int[] treeIndex;
+
+  private int[] treeEdges;
+  private int treeEdgeCount;
+  /** where the next search for a leaving edge starts */
+  private int searchIndex;
+
+  // scratch space for the depth first searches
+  private int[] stack;
+  private int[] cursor;
 
   protected NetworkSimplex(Builder<V, E, ?, ?> builder) {
     this.svGraph = builder.svGraph;
@@ -139,607 +160,518 @@ public class NetworkSimplex<V, E> {
   }
 
   public void run() {
-    if (svGraph.edgeSet().size() == 0 && svGraph.vertexSet().size() == 0) layers = new HashMap<>();
-
-    svGraph.edgeSet().forEach(e -> cutMap.put(e, Integer.MAX_VALUE));
-
+    copyGraph();
+    int n = vertices.length;
+    if (n == 0) {
+      layerList = new ArrayList<>();
+      return;
+    }
+    initRanks();
     feasibleTree();
+    initCutValues();
 
-    Pair<LE<V, E>> leaveEnter;
-    while ((leaveEnter = getLeaveEnterEdge()) != null) {
-      exchange(leaveEnter.first, leaveEnter.second);
+    int iterations = 0;
+    int e;
+    while ((e = leaveEdge()) >= 0) {
+      int f = enterEdge(e);
+      if (f < 0) {
+        throw new IllegalStateException("no entering edge for tree edge " + edges[e]);
+      }
+      update(e, f);
+      iterations++;
     }
+    log.trace("{} network simplex iterations", iterations);
 
-    shiftLayerToZero();
-
-    // any vertices that are in the wrong rank go here
-    List<LV<V>> wrongRow = new ArrayList<>();
-
-    // iterate in reverse so i can remove ones that are in the wrong row
-    // and insert them in a later step
-    for (int i = layerList.size() - 1; i >= 0; i--) {
-      List<LV<V>> layer = layerList.get(i);
-      for (int j = layer.size() - 1; j >= 0; j--) {
-        LV<V> v = layer.get(j);
-        if (v.getRank() != i) {
-          layer.remove(v);
-          wrongRow.add(v);
-        }
-      }
+    int minRank = Integer.MAX_VALUE;
+    for (int v = 0; v < n; v++) {
+      minRank = Math.min(minRank, rank[v]);
     }
-    // reverse the list so i encounter the lowest new ranks first
-    // and can add a single row to layerList for each one below
-    Collections.reverse(wrongRow);
-    // put these in the correct rank
-    for (LV<V> v : wrongRow) {
-      int rank = v.getRank();
-      if (layerList.size() < rank + 1) {
+    layerList = new ArrayList<>();
+    for (int v = 0; v < n; v++) {
+      int r = rank[v] - minRank;
+      while (layerList.size() <= r) {
         layerList.add(new ArrayList<>());
       }
-      layerList.get(rank).add(v);
+      List<LV<V>> layer = layerList.get(r);
+      vertices[v].setRank(r);
+      vertices[v].setIndex(layer.size());
+      layer.add(vertices[v]);
     }
     if (log.isTraceEnabled()) {
       log.trace("layersArray are {}", layerList);
-      log.trace("layers are {}", layers);
-      log.trace("vinTreeMap: {}", vertexInTreeMap);
-      log.trace("einTreeMap: {}", edgeInTreeMap);
-      for (Map.Entry<LE<V, E>, Boolean> entry : edgeInTreeMap.entrySet()) {
-        log.trace("{}", entry);
-      }
     }
   }
 
-  private void initLayers() {
-    layerList = GraphLayers.longestPathReverse(svGraph, edgeComparator);
-    // ranks and indices are assigned in each vertex
-    svGraph.vertexSet().forEach(v -> layers.put(v, v.getRank()));
+  /** copy the svGraph into the int indexed arrays */
+  private void copyGraph() {
+    Set<LV<V>> vertexSet = GraphLayers.getVertices(svGraph, edgeComparator);
+    int n = vertexSet.size();
+    vertices = vertexSet.toArray(new LV[0]);
+    Map<LV<V>, Integer> vertexIndex = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      vertexIndex.put(vertices[i], i);
+    }
+    edges = svGraph.edgeSet().toArray(new LE[0]);
+    int m = edges.length;
+    tail = new int[m];
+    head = new int[m];
+    weight = new int[m];
+    separation = new int[m];
+    outStart = new int[n + 1];
+    inStart = new int[n + 1];
+    for (int e = 0; e < m; e++) {
+      LE<V, E> edge = edges[e];
+      head[e] = vertexIndex.get(svGraph.getEdgeSource(edge));
+      tail[e] = vertexIndex.get(svGraph.getEdgeTarget(edge));
+      weight[e] = weightFunction.apply(edge);
+      separation[e] = separationFunction.apply(edge);
+      outStart[tail[e] + 1]++;
+      inStart[head[e] + 1]++;
+    }
+    for (int v = 0; v < n; v++) {
+      outStart[v + 1] += outStart[v];
+      inStart[v + 1] += inStart[v];
+    }
+    outEdges = new int[m];
+    inEdges = new int[m];
+    int[] outFill = Arrays.copyOf(outStart, n);
+    int[] inFill = Arrays.copyOf(inStart, n);
+    for (int e = 0; e < m; e++) {
+      outEdges[outFill[tail[e]]++] = e;
+      inEdges[inFill[head[e]]++] = e;
+    }
+    rank = new int[n];
+    cut = new int[m];
+    low = new int[n];
+    lim = new int[n];
+    parentEdge = new int[n];
+    postorder = new int[n + 1];
+    treeIndex = new int[m];
+    Arrays.fill(treeIndex, -1);
+    treeEdges = new int[Math.max(n - 1, 0)];
+    treeEdgeCount = 0;
+    searchIndex = 0;
+    stack = new int[n];
+    cursor = new int[n];
   }
 
-  private void feasibleTree() {
-    initLayers();
-
-    while (tightTree() < this.svGraph.vertexSet().size()) {
-
-      LE<V, E> e = getNonTreeEdgeIncidentToTheTreeWithMinimalAmountOfSlack();
-      if (e == null) break; //all edges are tree edges
-      int slack = slack(e);
-      if (slack == 0) throw new IllegalArgumentException("the tree should be tight");
-
-      if (vertexInTreeMap.get(e.getSource())) slack = -slack;
+  private int slack(int e) {
+    return rank[head[e]] - rank[tail[e]] - separation[e];
+  }
 
-      //shift the tree rigidly up or down and make e tight ; since the slack is the minimum of slacks
-      //the layering will still remain feasible
-      for (LV<V> v : treeVertices) {
-        int newRank = layers.get(v) + slack;
-        v.setRank(newRank);
-        layers.put(v, newRank);
+  /**
+   * The longest path layering: vertices that are only edge targets have rank 0 and every edge
+   * source is ranked above all of its targets. This is the layering of {@link
+   * GraphLayers#longestPathReverse(Graph, Comparator)}
+   */
+  private void initRanks() {
+    int n = vertices.length;
+    // the number of edges with their head at each vertex that have not been ranked
+    int[] pending = new int[n];
+    int count = 0;
+    for (int v = 0; v < n; v++) {
+      pending[v] = inStart[v + 1] - inStart[v];
+      if (pending[v] == 0) {
+        stack[count++] = v;
       }
     }
-    initCutValues();
-  }
-
-  private int tightTree() {
-    treeVertices.clear();
-    for (LE<V, E> ie : svGraph.edgeSet()) {
-      edgeInTreeMap.put(ie, false);
+    int ranked = 0;
+    while (ranked < count) {
+      int v = stack[ranked++];
+      for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+        int e = outEdges[i];
+        int h = head[e];
+        rank[h] = Math.max(rank[h], rank[v] + separation[e]);
+        if (--pending[h] == 0) {
+          stack[count++] = h;
+        }
+      }
     }
-    for (LV<V> v : svGraph.vertexSet()) {
-      vertexInTreeMap.put(v, false);
+    if (ranked < n) {
+      throw new IllegalArgumentException("the svGraph must be acyclic");
     }
-    // first vertex
-    LV<V> v0 = svGraph.vertexSet().stream().findFirst().get();
-    vertexInTreeMap.put(v0, true);
-    treeVertices.add(v0);
-
-    Stack<LV<V>> queue = new Stack<>();
-    queue.push(v0);
-
-    while (queue.size() > 0) {
-      LV<V> v = queue.pop();
+  }
 
-      for (LE<V, E> e : svGraph.outgoingEdgesOf(v)) {
-        if (vertexInTreeMap.get(e.getTarget())) {
-          continue;
+  /**
+   * Grow a spanning tree of tight edges from each component. When no tight edge leaves the tree,
+   * the tree is shifted rigidly by the smallest slack of the edges that leave it, which keeps the
+   * ranking feasible and makes that edge tight. The shifts are kept in an offset that is applied to
+   * the tree vertices when the tree is complete.
+   */
+  private void feasibleTree() {
+    int n = vertices.length;
+    boolean[] inTree = new boolean[n];
+    // the tree vertices of the current component, in the order they joined the tree
+    int[] members = new int[n];
+    // edges that leave the tree at their head, keyed on (slack - shift)
+    LongHeap headOut = new LongHeap();
+    // edges that leave the tree at their tail, keyed on (slack + shift)
+    LongHeap tailOut = new LongHeap();
+    int memberCount = 0;
+    for (int root = 0; root < n; root++) {
+      if (inTree[root]) {
+        continue;
+      }
+      int first = memberCount;
+      // the tree ranks are rank[v] + shift until the tree is complete
+      int shift = 0;
+      int v = root;
+      parentEdge[root] = -1;
+      while (true) {
+        inTree[v] = true;
+        members[memberCount++] = v;
+        rank[v] -= shift;
+        int treeRank = rank[v] + shift;
+        // edges from v, the tail, to a head that is not in the tree
+        for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+          int e = outEdges[i];
+          if (!inTree[head[e]]) {
+            int slack = rank[head[e]] - treeRank - separation[e];
+            tailOut.add(slack + shift, e);
+          }
         }
-        if (layers.get(e.getSource()) - layers.get(e.getTarget()) == separationFunction.apply(e)) {
-          //                e.getSource().getRank() - e.getTarget().getRank() == separationFunction.apply(e)) {
-          queue.push(e.getTarget());
-          vertexInTreeMap.put(e.getTarget(), true);
-          treeVertices.add(e.getTarget());
-          edgeInTreeMap.put(e, true);
-        } else {
-          log.debug("did not add {}", e);
+        // edges into v, the head, from a tail that is not in the tree
+        for (int i = inStart[v]; i < inStart[v + 1]; i++) {
+          int e = inEdges[i];
+          if (!inTree[tail[e]]) {
+            int slack = treeRank - rank[tail[e]] - separation[e];
+            headOut.add(slack - shift, e);
+          }
         }
-      }
-
-      for (LE<V, E> e : svGraph.incomingEdgesOf(v)) {
-        if (vertexInTreeMap.get(e.getSource())) {
-          continue;
+        // drop edges that now have both ends in the tree
+        while (!headOut.isEmpty() && inTree[tail[headOut.peekValue()]]) {
+          headOut.poll();
+        }
+        while (!tailOut.isEmpty() && inTree[head[tailOut.peekValue()]]) {
+          tailOut.poll();
+        }
+        if (headOut.isEmpty() && tailOut.isEmpty()) {
+          break;
         }
-        if (layers.get(e.getSource()) - layers.get(e.getTarget()) == separationFunction.apply(e)) {
-          queue.push(e.getSource());
-          vertexInTreeMap.put(e.getSource(), true);
-          treeVertices.add(e.getSource());
-          edgeInTreeMap.put(e, true);
+        int headSlack = headOut.isEmpty() ? Integer.MAX_VALUE : headOut.peekKey() + shift;
+        int tailSlack = tailOut.isEmpty() ? Integer.MAX_VALUE : tailOut.peekKey() - shift;
+        int e;
+        if (headSlack <= tailSlack) {
+          // move the tree down to make e tight
+          e = headOut.poll();
+          shift -= headSlack;
+          v = tail[e];
         } else {
-          log.debug("didn't add {}", e);
+          // move the tree up to make e tight
+          e = tailOut.poll();
+          shift += tailSlack;
+          v = head[e];
         }
+        parentEdge[v] = e;
+        addTreeEdge(e);
       }
+      for (int i = first; i < memberCount; i++) {
+        rank[members[i]] += shift;
+      }
+      headOut.clear();
+      tailOut.clear();
     }
-    log.trace("treeVertices size = {}", treeVertices.size());
-    return treeVertices.size();
-  }
-
-  public List<List<LV<V>>> getLayerList() {
-    return layerList;
-  }
-
-  private int slack(LE<V, E> edge) {
-    int ret =
-        edge.getSource().getRank() - edge.getTarget().getRank() - separationFunction.apply(edge);
-    if (ret < 0) {
-      throw new RuntimeException("separation is not satisfied");
-    }
-    return ret;
-  }
-
-  public List<LV<V>> getTreeVertices() {
-    return treeVertices;
   }
 
-  public Map<LV<V>, Boolean> getVertexInTreeMap() {
-    return vertexInTreeMap;
-  }
-
-  public Map<LE<V, E>, Boolean> getEdgeInTreeMap() {
-    return edgeInTreeMap;
+  private void addTreeEdge(int e) {
+    treeIndex[e] = treeEdgeCount;
+    treeEdges[treeEdgeCount++] = e;
   }
 
-  private Pair<LE<V, E>> getLeaveEnterEdge() {
-    LE<V, E> leavingEdge = null;
-    LE<V, E> enteringEdge = null;
-    int minCut = 0;
-    for (LE<V, E> e : svGraph.edgeSet()) {
-      if (edgeInTreeMap.get(e)) {
-        if (cutMap.getOrDefault(e, 0) < minCut) {
-          minCut = cutMap.get(e);
-          leavingEdge = e;
-        }
+  /** number each tree, then compute the cut values from the leaves up */
+  private void initCutValues() {
+    int n = vertices.length;
+    int next = 1;
+    for (int v = 0; v < n; v++) {
+      if (parentEdge[v] < 0) {
+        next = numberSubtree(v, -1, next);
       }
     }
-    if (leavingEdge == null) return null;
-
-    //now we are looking for a non-tree edge with a minimal slack belonging to TS
-    boolean continuation = false;
-    int minSlack = Integer.MAX_VALUE;
-    for (LE<V, E> f : svGraph.edgeSet()) {
-      int slack = slack(f);
-      if (!edgeInTreeMap.get(f)
-          && edgeSourceTargetVal(f, leavingEdge) == -1
-          && (slack < minSlack || (slack == minSlack && (continuation = random.nextInt(2) == 1)))) {
-        minSlack = slack;
-        enteringEdge = f;
-        if (minSlack == 0 && !continuation) break;
-        continuation = false;
+    for (int i = 1; i <= n; i++) {
+      int v = postorder[i];
+      if (parentEdge[v] >= 0) {
+        computeCutValue(parentEdge[v]);
       }
     }
-
-    if (enteringEdge == null) {
-      throw new RuntimeException();
-    }
-    return Pair.of(leavingEdge, enteringEdge);
-  }
-
-  private void initLimLowAndParent() {
-    svGraph
-        .vertexSet()
-        .forEach(
-            v -> {
-              lim.put(v, 0);
-              low.put(v, 0);
-              parent.put(v, null);
-            });
-
-    int currentLimit = 1;
-    LV<V> v = svGraph.vertexSet().stream().findFirst().get();
-    initLimLowParentAndLeavesOnSubtree(currentLimit, v);
   }
 
-  private void initCutValues() {
-    initLimLowAndParent();
-
-    //going up from the leaves following parents
-    Stack<LV<V>> front = new Stack<>();
-    for (LV<V> leaf : leaves) {
-      front.push(leaf);
-    }
-    Stack<LV<V>> newFront = new Stack<>();
-    while (front.size() > 0) {
-      while (front.size() > 0) {
-        LV<V> w = front.pop();
-        LE<V, E> cutEdge = parent.get(w); //have to find the cut of e
-        if (cutEdge == null) {
-          continue;
-        }
-        int cut = 0;
-        for (LE<V, E> e : svGraph.edgesOf(w)) {
-
-          if (!edgeInTreeMap.get(e)) {
-            int e0Val = edgeSourceTargetVal(e, cutEdge);
-            if (e0Val != 0) {
-              cut += e0Val * weightFunction.apply(e);
-            }
-          } else {
-            //e0 is a tree edge
-            if (e == cutEdge) {
-              cut += weightFunction.apply(e);
-            } else {
-              int impact =
-                  cutEdge.getSource() == e.getTarget() || cutEdge.getTarget() == e.getSource()
-                      ? 1
-                      : -1;
-              int edgeContribution = edgeContribution(e, w);
-              cut += edgeContribution * impact;
-            }
-          }
-        }
-
-        cutMap.put(cutEdge, cut);
-        LV<V> v = cutEdge.getSource() == w ? cutEdge.getTarget() : cutEdge.getSource();
-        if (allLowCutsHaveBeenDone(v)) {
-          newFront.push(v);
+  /**
+   * Number the subtree under {@code root} in postorder, starting at {@code first}, and set the
+   * parent edge of each vertex in it
+   *
+   * @return the next number after the subtree
+   */
+  private int numberSubtree(int root, int rootParentEdge, int first) {
+    int next = first;
+    int top = 0;
+    stack[top++] = root;
+    parentEdge[root] = rootParentEdge;
+    low[root] = next;
+    cursor[root] = 0;
+    while (top > 0) {
+      int v = stack[top - 1];
+      int w = -1;
+      while (w < 0 && cursor[v] < incidentCount(v)) {
+        int e = incidentEdge(v, cursor[v]++);
+        if (treeIndex[e] >= 0 && e != parentEdge[v]) {
+          w = tail[e] == v ? head[e] : tail[e];
+          parentEdge[w] = e;
         }
       }
-      //swap newFrontAndFront
-      Stack<LV<V>> t = front;
-      front = newFront;
-      newFront = t;
+      if (w >= 0) {
+        low[w] = next;
+        cursor[w] = 0;
+        stack[top++] = w;
+      } else {
+        lim[v] = next;
+        postorder[next++] = v;
+        top--;
+      }
     }
+    return next;
   }
 
-  private void initLimLowParentAndLeavesOnSubtree(int curLim, LV<V> v) {
-    Stack<Incidence<V, E>> stack = new Stack<>();
-    Iterator<LE<V, E>> outEdges = svGraph.outgoingEdgesOf(v).iterator();
-    Iterator<LE<V, E>> inEdges = svGraph.incomingEdgesOf(v).iterator();
-    stack.push(Incidence.of(v, outEdges, inEdges));
-    low.put(v, curLim);
-
-    while (stack.size() > 0) {
-      Incidence<V, E> ss = stack.pop();
-      v = ss.v;
-      outEdges = ss.outEdges;
-      inEdges = ss.inEdges;
-
-      boolean done;
-      do {
-        done = true;
-        while (outEdges.hasNext()) {
-          LE<V, E> e = outEdges.next();
-          if (!edgeInTreeMap.get(e) || low.get(e.getTarget()) > 0) {
-            continue;
-          }
-          stack.push(Incidence.of(v, outEdges, inEdges));
-          v = e.getTarget();
-          parent.put(v, e);
-          low.put(v, curLim);
-          outEdges = svGraph.outgoingEdgesOf(v).iterator();
-          inEdges = svGraph.incomingEdgesOf(v).iterator();
-        }
-        while (inEdges.hasNext()) {
-          LE<V, E> e = inEdges.next();
-          if (!edgeInTreeMap.get(e) || low.get(e.getSource()) > 0) {
-            continue;
-          }
-          stack.push(Incidence.of(v, outEdges, inEdges));
-          v = e.getSource();
-          low.put(v, curLim);
-          parent.put(v, e);
-          outEdges = svGraph.outgoingEdgesOf(v).iterator();
-          inEdges = svGraph.incomingEdgesOf(v).iterator();
-          done = false;
-          break;
-        }
-      } while (!done);
+  private int incidentCount(int v) {
+    return outStart[v + 1] - outStart[v] + inStart[v + 1] - inStart[v];
+  }
 
-      lim.put(v, curLim++);
-      if (Objects.equals(lim.get(v), low.get(v))) {
-        leaves.add(v);
-      }
-    }
+  /** @return the i'th edge incident on v, counting the edges with their tail at v first */
+  private int incidentEdge(int v, int i) {
+    int outCount = outStart[v + 1] - outStart[v];
+    return i < outCount ? outEdges[outStart[v] + i] : inEdges[inStart[v] + i - outCount];
   }
 
-  private void updateLayersUnderNode(LV<V> l) {
-    Stack<LV<V>> front = new Stack<>();
-    front.push(l);
+  private boolean inSubtree(int v, int w) {
+    return low[v] <= lim[w] && lim[w] <= lim[v];
+  }
 
-    for (LV<V> v : svGraph.vertexSet()) {
-      if (low.get(l) <= lim.get(v) && lim.get(v) <= lim.get(l) && v != l) {
-        v.setRank(Integer.MAX_VALUE);
-        layers.put(v, Integer.MAX_VALUE);
+  /**
+   * Compute the cut value of tree edge f from the edges incident on its lower end in the tree. The
+   * cut values of the tree edges below that vertex are already known.
+   */
+  private void computeCutValue(int f) {
+    int v;
+    boolean down;
+    if (parentEdge[tail[f]] == f) {
+      v = tail[f];
+      down = true;
+    } else {
+      v = head[f];
+      down = false;
+    }
+    int sum = 0;
+    for (int i = 0; i < incidentCount(v); i++) {
+      int e = incidentEdge(v, i);
+      int other = tail[e] == v ? head[e] : tail[e];
+      boolean outside = !inSubtree(v, other);
+      int value;
+      if (outside) {
+        value = weight[e];
+      } else {
+        value = (treeIndex[e] >= 0 ? cut[e] : 0) - weight[e];
+      }
+      boolean positive = down ? head[e] == v : tail[e] == v;
+      if (outside) {
+        positive = !positive;
       }
+      sum += positive ? value : -value;
     }
+    cut[f] = sum;
+  }
 
-    while (front.size() > 0) {
-      LV<V> u = front.pop();
-      for (LE<V, E> oe : svGraph.outgoingEdgesOf(u)) {
-        if (edgeInTreeMap.get(oe) && layers.get(oe.getTarget()) == Integer.MAX_VALUE) {
-          oe.getTarget().setRank(u.getRank() - separationFunction.apply(oe));
-          layers.put(oe.getTarget(), layers.get(u) - separationFunction.apply(oe));
-          front.push(oe.getTarget());
+  /**
+   * Look for a tree edge with a negative cut value, starting where the last search stopped and
+   * taking the most negative of the first {@link #SEARCH_SIZE} that are found
+   *
+   * @return a tree edge with a negative cut value, or -1 if the ranking is optimal
+   */
+  private int leaveEdge() {
+    int found = -1;
+    int count = 0;
+    for (int i = 0; i < treeEdgeCount; i++) {
+      int index = (searchIndex + i) % treeEdgeCount;
+      int f = treeEdges[index];
+      if (cut[f] < 0) {
+        if (found < 0 || cut[f] < cut[found]) {
+          found = f;
         }
-      }
-      for (LE<V, E> ie : svGraph.incomingEdgesOf(u)) {
-        if (edgeInTreeMap.get(ie) && layers.get(ie.getSource()) == Integer.MAX_VALUE) {
-          ie.getSource().setRank(u.getRank() + separationFunction.apply(ie));
-          layers.put(ie.getSource(), layers.get(u) + separationFunction.apply(ie));
-          front.push(ie.getSource());
+        if (++count >= SEARCH_SIZE) {
+          searchIndex = index;
+          return found;
         }
       }
     }
+    return found;
   }
 
-  private void updateCuts(LE<V, E> e) {
-    Stack<LV<V>> front = new Stack<>();
-    Stack<LV<V>> newFront = new Stack<>();
-
-    front.push(e.getSource());
-    front.push(e.getTarget());
-
-    while (front.size() > 0) {
-      while (front.size() > 0) {
-        LV<V> w = front.pop();
-        LE<V, E> cutEdge = parent.get(w);
-        if (cutEdge == null) {
-          continue;
-        }
-        if (cutMap.get(cutEdge) != Integer.MAX_VALUE) {
-          continue;
-        }
-        int cut = 0;
-        for (LE<V, E> ce : svGraph.edgesOf(w)) {
-          if (!edgeInTreeMap.get(ce)) {
-            int e0val = edgeSourceTargetVal(ce, cutEdge);
-            if (e0val != 0) {
-              cut += e0val * weightFunction.apply(ce);
-            }
-          } else {
-            if (ce == cutEdge) {
-              cut += weightFunction.apply(ce);
-            } else {
-              int impact =
-                  cutEdge.getSource() == ce.getTarget() || cutEdge.getTarget() == ce.getSource()
-                      ? 1
-                      : -1;
-              int edgeContribution = edgeContribution(ce, w);
-              cut += edgeContribution * impact;
+  /**
+   * Find the non tree edge with the least slack that crosses the cut made by removing tree edge e,
+   * in the opposite direction to e
+   *
+   * @return the entering edge, or -1 if there is none
+   */
+  private int enterEdge(int e) {
+    // search the side of the cut that is below e in the tree
+    int v;
+    boolean fromTail;
+    if (lim[tail[e]] < lim[head[e]]) {
+      v = tail[e];
+      fromTail = false;
+    } else {
+      v = head[e];
+      fromTail = true;
+    }
+    int enter = -1;
+    int minSlack = Integer.MAX_VALUE;
+    for (int i = low[v]; i <= lim[v] && minSlack > 0; i++) {
+      int w = postorder[i];
+      int start = fromTail ? outStart[w] : inStart[w];
+      int end = fromTail ? outStart[w + 1] : inStart[w + 1];
+      for (int j = start; j < end; j++) {
+        int f = fromTail ? outEdges[j] : inEdges[j];
+        int other = fromTail ? head[f] : tail[f];
+        if (treeIndex[f] < 0 && !inSubtree(v, other)) {
+          int slack = slack(f);
+          if (slack < minSlack) {
+            minSlack = slack;
+            enter = f;
+            if (slack == 0) {
+              break;
             }
           }
         }
-        cutMap.put(cutEdge, cut);
-        LV<V> u = cutEdge.getSource() == w ? cutEdge.getTarget() : cutEdge.getSource();
-        if (allLowCutsHaveBeenDone(u)) {
-          newFront.push(u);
-        }
       }
-      Stack<LV<V>> t = front;
-      front = newFront;
-      newFront = t;
     }
+    return enter;
   }
 
-  private boolean allLowCutsHaveBeenDone(LV<V> v) {
-    for (LE<V, E> ie : svGraph.edgesOf(v))
-      if (edgeInTreeMap.get(ie)
-          && cutMap.getOrDefault(ie, 0) == Integer.MAX_VALUE
-          && ie != parent.get(v)) {
-        return false;
+  /** exchange tree edge e for non tree edge f */
+  private void update(int e, int f) {
+    int delta = slack(f);
+    if (delta > 0) {
+      // move the subtree below e rigidly to make f tight
+      int v = lim[tail[e]] < lim[head[e]] ? tail[e] : head[e];
+      int d = v == tail[e] ? -delta : delta;
+      for (int i = low[v]; i <= lim[v]; i++) {
+        rank[postorder[i]] += d;
       }
-    return true;
+    }
+    int cutValue = cut[e];
+    int lca = updatePath(tail[f], head[f], cutValue, true);
+    if (updatePath(head[f], tail[f], cutValue, false) != lca) {
+      throw new IllegalStateException("mismatched lowest common ancestor");
+    }
+    cut[f] = -cutValue;
+    cut[e] = 0;
+    // f takes the place of e in the tree edges
+    treeIndex[f] = treeIndex[e];
+    treeEdges[treeIndex[f]] = f;
+    treeIndex[e] = -1;
+    numberSubtree(lca, parentEdge[lca], low[lca]);
   }
 
-  private int edgeSourceTargetVal(LE<V, E> e, LE<V, E> treeEdge) {
+  /**
+   * Adjust the cut values of the tree edges on the path from v up to the lowest common ancestor of
+   * v and w
+   *
+   * @return the lowest common ancestor
+   */
+  private int updatePath(int v, int w, int cutValue, boolean dir) {
+    while (!inSubtree(v, w)) {
+      int e = parentEdge[v];
+      boolean add = v == tail[e] ? dir : !dir;
+      cut[e] += add ? cutValue : -cutValue;
+      v = lim[tail[e]] > lim[head[e]] ? tail[e] : head[e];
+    }
+    return v;
+  }
 
-    if (edgeInTreeMap.get(e) || !edgeInTreeMap.get(treeEdge)) {
-      throw new RuntimeException("Wrong parameters");
-    }
-    return vertexSourceTargetVal(e.getSource(), treeEdge)
-        - vertexSourceTargetVal(e.getTarget(), treeEdge);
+  public List<List<LV<V>>> getLayerList() {
+    return layerList;
   }
 
-  private int vertexSourceTargetVal(LV<V> v, LE<V, E> treeEdge) {
+  /** @return the vertices of the spanning tree (or forest), which are all of the vertices */
+  public List<LV<V>> getTreeVertices() {
+    return vertices == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(vertices));
+  }
 
-    if (!edgeInTreeMap.get(treeEdge)) {
-      throw new RuntimeException("wrong params for VertexSourceTargetVal");
+  public Map<LV<V>, Boolean> getVertexInTreeMap() {
+    Map<LV<V>, Boolean> map = new HashMap<>();
+    if (vertices != null) {
+      Arrays.stream(vertices).forEach(v -> map.put(v, true));
     }
+    return map;
+  }
 
-    LV<V> s = treeEdge.getSource();
-    LV<V> t = treeEdge.getTarget();
-    if (lim.get(s) > lim.get(t)) { //s belongs to the tree root component
-      if (lim.get(v) <= lim.get(t) && low.get(t) <= lim.get(v)) {
-        return 0;
-      } else {
-        return 1;
-      }
-    } else { //t belongs to the tree root component
-      if (lim.get(v) <= lim.get(s) && low.get(s) <= lim.get(v)) {
-        return 1;
-      } else {
-        return 0;
+  public Map<LE<V, E>, Boolean> getEdgeInTreeMap() {
+    Map<LE<V, E>, Boolean> map = new HashMap<>();
+    if (edges != null) {
+      for (int e = 0; e < edges.length; e++) {
+        map.put(edges[e], treeIndex[e] >= 0);
       }
     }
+    return map;
   }
 
-  private LE<V, E> getNonTreeEdgeIncidentToTheTreeWithMinimalAmountOfSlack() {
-    LE<V, E> edge = null;
-    int minSlack = Integer.MAX_VALUE;
+  /** a binary min heap of int values keyed on int priorities, packed into longs */
+  private static class LongHeap {
+    private long[] heap = new long[16];
+    private int size;
 
-    for (LV<V> v : this.treeVertices) {
-      for (LE<V, E> e : this.svGraph.outgoingEdgesOf(v)) {
-        if (vertexInTreeMap.get(e.getSource()) && vertexInTreeMap.get(e.getTarget())) continue;
-        int slack = slack(e);
-        if (slack < minSlack) {
-          edge = e;
-          minSlack = slack;
-          if (slack == 1) return e;
-        }
+    void add(int key, int value) {
+      if (size == heap.length) {
+        heap = Arrays.copyOf(heap, size * 2);
       }
-
-      for (LE<V, E> e : this.svGraph.incomingEdgesOf(v)) {
-        if (vertexInTreeMap.get(e.getSource()) && vertexInTreeMap.get(e.getTarget())) continue;
-
-        int slack = slack(e);
-        if (slack < minSlack) {
-          edge = e;
-          minSlack = slack;
-          if (slack == 1) return e;
+      long item = ((long) key << 32) | (value & 0xFFFFFFFFL);
+      int i = size++;
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (heap[parent] <= item) {
+          break;
         }
+        heap[i] = heap[parent];
+        i = parent;
       }
+      heap[i] = item;
     }
-    return edge;
-  }
 
-  private int edgeContribution(LE<V, E> e, LV<V> w) {
-    int edgeContribution = cutMap.get(e) - weightFunction.apply(e);
-    for (LE<V, E> ie : svGraph.edgesOf(w)) {
-      if (!edgeInTreeMap.get(ie)) {
-        int sign = edgeSourceTargetVal(ie, e);
-        if (sign == -1) {
-          edgeContribution += weightFunction.apply(ie);
-        } else if (sign == 1) {
-          edgeContribution -= weightFunction.apply(ie);
-        }
-      }
+    boolean isEmpty() {
+      return size == 0;
     }
-    return edgeContribution;
-  }
 
-  private void shiftLayerToZero() {
-    int minLayer = Integer.MAX_VALUE;
-    for (Map.Entry<LV<V>, Integer> entry : layers.entrySet()) {
-      if (layers.get(entry.getKey()) < minLayer) minLayer = entry.getValue();
-    }
-    for (LV<V> v : svGraph.vertexSet()) {
-      int newRank = layers.get(v) - minLayer;
-      v.setRank(newRank);
-      layers.put(v, newRank);
+    int peekKey() {
+      return (int) (heap[0] >> 32);
     }
-  }
-
-  private void exchange(LE<V, E> e, LE<V, E> f) {
-    LV<V> node = commonPredecessorOfSourceAndTargetOfF(f);
-
-    createPathForCutUpdates(e, f, node);
-    updateLimLowLeavesAndParentsUnderNode(node);
-
-    updateCuts(e);
-
-    updateLayersUnderNode(node);
-  }
-
-  private void updateLimLowLeavesAndParentsUnderNode(LV<V> node) {
 
-    //first we zero all low values in the subtree since they are an indication when positive that
-    //the node has been processed
-    //We are updating leaves also
-    int llow = low.get(node);
-    int llim = lim.get(node);
-
-    leaves.clear();
-
-    for (LV<V> v : svGraph.vertexSet()) {
-      if (llow <= lim.get(v) && lim.get(v) <= llim) low.put(v, 0);
-      else if (Objects.equals(low.get(v), lim.get(v))) leaves.add(v);
+    int peekValue() {
+      return (int) heap[0];
     }
 
-    initLowLimParentAndLeavesOnSubtree(llow, node);
-  }
-
-  private void initLowLimParentAndLeavesOnSubtree(int curLim, LV<V> v) {
-    Stack<Incidence<V, E>> stack = new Stack<>();
-    Iterator<LE<V, E>> outEnum = this.svGraph.outgoingEdgesOf(v).iterator();
-    Iterator<LE<V, E>> inEnum = this.svGraph.incomingEdgesOf(v).iterator();
-
-    stack.push(new Incidence<>(v, outEnum, inEnum)); //vroot is 0 here
-    low.put(v, curLim);
-
-    while (stack.size() > 0) {
-      Incidence<V, E> ss = stack.pop();
-      v = ss.v;
-      outEnum = ss.outEdges;
-      inEnum = ss.inEdges;
-
-      boolean done;
-      do {
-        done = true;
-        while (outEnum.hasNext()) {
-          LE<V, E> e = outEnum.next();
-          if (!edgeInTreeMap.get(e) || low.get(e.getTarget()) > 0) continue;
-          stack.push(new Incidence<>(v, outEnum, inEnum));
-          v = e.getTarget();
-          parent.put(v, e);
-          low.put(v, curLim);
-          outEnum = this.svGraph.outgoingEdgesOf(v).iterator();
-          inEnum = this.svGraph.incomingEdgesOf(v).iterator();
+    /** remove the smallest item and return its value */
+    int poll() {
+      int value = (int) heap[0];
+      long item = heap[--size];
+      int i = 0;
+      int half = size >>> 1;
+      while (i < half) {
+        int child = 2 * i + 1;
+        if (child + 1 < size && heap[child + 1] < heap[child]) {
+          child++;
         }
-        while (inEnum.hasNext()) {
-          LE<V, E> e = inEnum.next();
-          if (!edgeInTreeMap.get(e) || low.get(e.getSource()) > 0) {
-            continue;
-          }
-          stack.push(new Incidence<>(v, outEnum, inEnum));
-          v = e.getSource();
-          low.put(v, curLim);
-          parent.put(v, e);
-          outEnum = this.svGraph.outgoingEdgesOf(v).iterator();
-          inEnum = this.svGraph.incomingEdgesOf(v).iterator();
-          done = false;
+        if (item <= heap[child]) {
           break;
         }
-      } while (!done);
-
-      //finally done with v
-      lim.put(v, curLim++);
-      if (Objects.equals(lim.get(v), low.get(v))) leaves.add(v);
-    }
-  }
-
-  private void createPathForCutUpdates(LE<V, E> e, LE<V, E> f, LV<V> l) {
-
-    LV<V> v = f.getTarget();
-    while (v != l) {
-      LE<V, E> p = parent.get(v);
-      cutMap.put(p, Integer.MAX_VALUE);
-      v = p.getSource() == v ? p.getTarget() : p.getSource();
-    }
-
-    cutMap.put(f, Integer.MAX_VALUE);
-
-    edgeInTreeMap.put(e, false);
-    edgeInTreeMap.put(f, true);
-  }
-
-  private LV<V> commonPredecessorOfSourceAndTargetOfF(LE<V, E> f) {
-    //find the common predecessor of f.Source and f.Target
-    int fMin, fmax;
-    if (lim.get(f.getSource()) < lim.get(f.getTarget())) {
-      fMin = lim.get(f.getSource());
-      fmax = lim.get(f.getTarget());
-    } else {
-      fMin = lim.get(f.getTarget());
-      fmax = lim.get(f.getSource());
+        heap[i] = heap[child];
+        i = child;
+      }
+      if (size > 0) {
+        heap[i] = item;
+      }
+      return value;
     }
-    //it is the best to walk up from the highest of nodes f
-    //but we don't know the depths
-    //so just start walking up from the source
-    LV<V> l = f.getSource();
-
-    while ((low.get(l) <= fMin && fmax <= lim.get(l)) == false) {
-      LE<V, E> p = parent.get(l);
-
-      cutMap.put(p, Integer.MAX_VALUE);
 
-      l = p.getSource() == l ? p.getTarget() : p.getSource();
+    void clear() {
+      size = 0;
     }
-    return l;
   }
 }
@@ -3,13 +3,16 @@ package org.jungrapht.visualization.layout.event;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 import org.jgrapht.Graph;
 import org.jungrapht.visualization.layout.model.Point;
 
 /**
  * Event support to indicate that a Vertex's position has changed. The jung-visualization spatial
  * data structures will consume this event and re-insert the vertex or edge. The event payload is a
- * single vertex and its (possibly new) Point location.
+ * single vertex and its (possibly new) Point location. A {@link BulkEvent} carries all of the
+ * vertices that were moved during a batch of changes, so that consumers may update once.
  *
  * @author Tom Nelson
  */
@@ -46,6 +49,14 @@ public interface LayoutVertexPositionChange {
     List<LayoutVertexPositionChange.Listener<V>> getLayoutVertexPositionChangeListeners();
 
     void fireLayoutVertexPositionChanged(V vertex, Point location);
+
+    /**
+     * fire one event for a batch of vertices whose locations have changed
+     *
+     * @param vertices the vertices that were moved
+     * @param locations function to get the current location of each moved vertex
+     */
+    void fireLayoutVertexPositionsChanged(Set<V> vertices, Function<V, Point> locations);
   }
 
   /**
@@ -97,6 +108,16 @@ public interface LayoutVertexPositionChange {
         }
       }
     }
+
+    @Override
+    public void fireLayoutVertexPositionsChanged(Set<V> vertices, Function<V, Point> locations) {
+      if (fireEvents && changeListeners.size() > 0 && !vertices.isEmpty()) {
+        BulkEvent<V> layoutEvent = new BulkEvent<>(vertices, locations);
+        for (int i = changeListeners.size() - 1; i >= 0; i--) {
+          changeListeners.get(i).layoutVertexPositionsChanged(layoutEvent);
+        }
+      }
+    }
   }
 
   /**
@@ -132,6 +153,22 @@ public interface LayoutVertexPositionChange {
     }
   }
 
+  /**
+   * Event payload for a batch of changes. Contains the moved vertices and a function to get their
+   * current locations
+   *
+   * @param <V>
+   */
+  class BulkEvent<V> {
+    public final Set<V> vertices;
+    public final Function<V, Point> locations;
+
+    public BulkEvent(Set<V> vertices, Function<V, Point> locations) {
+      this.vertices = vertices;
+      this.locations = locations;
+    }
+  }
+
   /**
    * implemented by consumers for this event model
    *
@@ -141,5 +178,17 @@ public interface LayoutVertexPositionChange {
     void layoutVertexPositionChanged(Event<V> evt);
 
     void layoutVertexPositionChanged(GraphEvent<V> evt);
+
+    /**
+     * consume a batch of changes. The default implementation handles each vertex as a separate
+     * {@link Event}. Override to update only once for the whole batch
+     *
+     * @param evt the vertices that were moved
+     */
+    default void layoutVertexPositionsChanged(BulkEvent<V> evt) {
+      for (V vertex : evt.vertices) {
+        layoutVertexPositionChanged(new Event<>(vertex, evt.locations.apply(vertex)));
+      }
+    }
   }
 }
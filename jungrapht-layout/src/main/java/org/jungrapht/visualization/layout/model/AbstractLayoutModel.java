@@ -5,6 +5,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.Function;
 import org.jgrapht.Graph;
+import org.jungrapht.visualization.layout.algorithms.IncrementalLayoutAlgorithm;
 import org.jungrapht.visualization.layout.algorithms.IterativeLayoutAlgorithm;
 import org.jungrapht.visualization.layout.algorithms.LayoutAlgorithm;
 import org.jungrapht.visualization.layout.algorithms.util.Pair;
@@ -14,6 +15,7 @@ import org.jungrapht.visualization.layout.event.LayoutStateChange;
 import org.jungrapht.visualization.layout.event.LayoutVertexPositionChange;
 import org.jungrapht.visualization.layout.event.ModelChange;
 import org.jungrapht.visualization.layout.event.ViewChange;
+import org.jungrapht.visualization.layout.util.StepScheduler;
 import org.jungrapht.visualization.layout.util.VisRunnable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,8 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
     // the model will create a VisRunnable and start it in a new Thread
     protected boolean createVisRunnable = true;
 
+    protected StepScheduler stepScheduler = StepScheduler.fixedDelay();
+
     public B graph(Graph<V, ?> graph) {
       this.graph = graph;
       return (B) this;
@@ -75,6 +79,15 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
       this.createVisRunnable = createVisRunnable;
       return (B) this;
     }
+
+    /**
+     * @param stepScheduler paces the steps of iterative layout algorithms run by the VisRunnable
+     * @return this builder
+     */
+    public B stepScheduler(StepScheduler stepScheduler) {
+      this.stepScheduler = Objects.requireNonNull(stepScheduler);
+      return (B) this;
+    }
   }
 
   protected Set<V> lockedVertices = new HashSet<>();
@@ -86,6 +99,7 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
   protected boolean createVisRunnable;
   protected Graph<V, ?> graph;
   protected VisRunnable visRunnable = VisRunnable.noop();
+  protected StepScheduler stepScheduler = StepScheduler.fixedDelay();
 
   /** @value relaxing true is this layout model is being accessed by a running relaxer */
   protected boolean relaxing;
@@ -105,6 +119,19 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
 
   protected int appendageCount;
 
+  /**
+   * the open batch of each thread. A batch holds only the moves made by the thread that opened it,
+   * so a drag on the event thread is not delayed by a relax step that has a batch open
+   */
+  private final ThreadLocal<Batch<V>> batch = ThreadLocal.withInitial(Batch::new);
+
+  /** the batch state of one thread */
+  private static class Batch<V> {
+    int depth;
+    /** vertices moved since the outermost {@code beginBatch} */
+    Set<V> vertices = new LinkedHashSet<>();
+  }
+
   protected Function<Graph<V, ?>, Pair<Integer>> initialDimensionFunction;
 
   protected AbstractLayoutModel(Builder builder) {
@@ -113,6 +140,7 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
     setSize(builder.width, builder.height);
     setPreferredSize(builder.width, builder.height);
     this.createVisRunnable = builder.createVisRunnable;
+    this.stepScheduler = builder.stepScheduler;
   }
 
   protected AbstractLayoutModel(LayoutModel<V> other) {
@@ -131,6 +159,25 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
     this.initialDimensionFunction = initialDimensionFunction;
   }
 
+  /** @return the StepScheduler used to pace iterative layout algorithms */
+  public StepScheduler getStepScheduler() {
+    return stepScheduler;
+  }
+
+  /**
+   * set the StepScheduler used for the next iterative layout algorithm
+   *
+   * @param stepScheduler paces the steps of iterative layout algorithms
+   */
+  public void setStepScheduler(StepScheduler stepScheduler) {
+    this.stepScheduler = Objects.requireNonNull(stepScheduler);
+  }
+
+  /** @return the current VisRunnable, which reports step timing for the running algorithm */
+  public VisRunnable getVisRunnable() {
+    return visRunnable;
+  }
+
   /** stop any running Relaxer */
   public void stop() {
     if (this.visRunnable != null) {
@@ -155,6 +202,33 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
    */
   @Override
   public void accept(LayoutAlgorithm<V> layoutAlgorithm) {
+    accept(layoutAlgorithm, true);
+  }
+
+  /**
+   * accept the visit of a LayoutAlgorithm after a small change to the graph. An {@link
+   * IncrementalLayoutAlgorithm} keeps the size of this model and the locations of the vertices away
+   * from the change. Any other LayoutAlgorithm lays out the whole graph again
+   *
+   * @param layoutAlgorithm the algorithm to apply to the model vertex locations
+   * @param changed the vertices that were added or changed
+   */
+  @Override
+  public void acceptIncremental(LayoutAlgorithm<V> layoutAlgorithm, Collection<V> changed) {
+    if (layoutAlgorithm instanceof IncrementalLayoutAlgorithm) {
+      ((IncrementalLayoutAlgorithm<V>) layoutAlgorithm).setIncremental(changed);
+      accept(layoutAlgorithm, false);
+    } else {
+      accept(layoutAlgorithm);
+    }
+  }
+
+  /**
+   * @param layoutAlgorithm the algorithm to apply to the model vertex locations
+   * @param resize if true, a constrained LayoutAlgorithm sets the size from the
+   *     initialDimensionFunction
+   */
+  private void accept(LayoutAlgorithm<V> layoutAlgorithm, boolean resize) {
     if (graph.vertexSet().isEmpty()) {
       return;
     }
@@ -174,7 +248,7 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
       log.trace("{} is constrained: {}", layoutAlgorithm, layoutAlgorithm.constrained());
     }
 
-    if (layoutAlgorithm.constrained()) {
+    if (resize && layoutAlgorithm.constrained()) {
       log.trace("{} constrained: {}", layoutAlgorithm, true);
       Pair<Integer> dimension = initialDimensionFunction.apply(graph);
       // setSize will fire an event with the new size
@@ -249,7 +323,7 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
 
     Executor executor = iterativeContext.getExecutor();
 
-    visRunnable = new VisRunnable(iterativeContext);
+    visRunnable = new VisRunnable(iterativeContext, this, stepScheduler);
 
     if (executor != null) {
       // use the Executor provided with the LayoutAlgorithm
@@ -437,10 +511,57 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
 
   @Override
   public void set(V vertex, Point location) {
+    if (addToBatch(vertex)) {
+      return;
+    }
     layoutVertexPositionSupport.fireLayoutVertexPositionChanged(vertex, location);
     viewChangeSupport.fireViewChanged();
   }
 
+  /** @return true if the calling thread has a batch open */
+  protected boolean inBatch() {
+    return batch.get().depth > 0;
+  }
+
+  /**
+   * @param vertex a vertex that was moved
+   * @return true if the calling thread has a batch open and the vertex was added to it
+   */
+  protected boolean addToBatch(V vertex) {
+    Batch<V> b = batch.get();
+    if (b.depth == 0) {
+      return false;
+    }
+    b.vertices.add(vertex);
+    return true;
+  }
+
+  @Override
+  public void beginBatch() {
+    batch.get().depth++;
+  }
+
+  @Override
+  public void commitBatch() {
+    Batch<V> b = batch.get();
+    if (b.depth == 0) {
+      throw new IllegalStateException("commitBatch called without beginBatch");
+    }
+    if (--b.depth > 0) {
+      return;
+    }
+    Set<V> changed = b.vertices;
+    if (changed.isEmpty()) {
+      return;
+    }
+    // the set is handed to the listeners, who may keep it, and a listener may open a new batch
+    // on this thread while these events are fired
+    b.vertices = new LinkedHashSet<>();
+    layoutVertexPositionSupport.fireLayoutVertexPositionsChanged(
+        Collections.unmodifiableSet(changed), this);
+    viewChangeSupport.fireViewChanged();
+  }
+
   /**
    * @param vertex the vertex whose coordinates are to be offset
    * @param xOffset the change to apply to this vertex's x coordinate
@@ -578,4 +699,24 @@ public abstract class AbstractLayoutModel<V> implements LayoutModel<V> {
           .forEach(v -> this.set(v, layoutModel.get(v).add(widthDelta, 0)));
     }
   }
+
+  /**
+   * Append the supplied layoutModels side by side, in order, with {@link #appendLayoutModel}, but
+   * with a single batch of position change events. Each model is sized as {@link
+   * #appendLayoutModel} sizes it, so the locations are the same as when the models are appended one
+   * at a time
+   *
+   * @param layoutModels contain widths and vertex locations to place
+   */
+  @Override
+  public void appendLayoutModels(List<? extends LayoutModel<V>> layoutModels) {
+    beginBatch();
+    try {
+      for (LayoutModel<V> layoutModel : layoutModels) {
+        appendLayoutModel(layoutModel);
+      }
+    } finally {
+      commitBatch();
+    }
+  }
 }
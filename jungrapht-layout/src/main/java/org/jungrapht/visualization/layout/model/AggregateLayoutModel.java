@@ -10,7 +10,9 @@
  */
 package org.jungrapht.visualization.layout.model;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import org.jgrapht.Graph;
@@ -94,6 +96,11 @@ public class AggregateLayoutModel<V> implements LayoutModel<V> {
     delegate.accept(layoutAlgorithm);
   }
 
+  @Override
+  public void acceptIncremental(LayoutAlgorithm<V> layoutAlgorithm, Collection<V> changed) {
+    delegate.acceptIncremental(layoutAlgorithm, changed);
+  }
+
   @Override
   public Map<V, Point> getLocations() {
     return delegate.getLocations();
@@ -143,6 +150,16 @@ public class AggregateLayoutModel<V> implements LayoutModel<V> {
     delegate.set(vertex, Point.of(x, y));
   }
 
+  @Override
+  public void beginBatch() {
+    delegate.beginBatch();
+  }
+
+  @Override
+  public void commitBatch() {
+    delegate.commitBatch();
+  }
+
   @Override
   public Point get(V vertex) {
     return delegate.get(vertex);
@@ -302,4 +319,9 @@ public class AggregateLayoutModel<V> implements LayoutModel<V> {
   public void appendLayoutModel(LayoutModel<V> layoutModel) {
     delegate.appendLayoutModel(layoutModel);
   }
+
+  @Override
+  public void appendLayoutModels(List<? extends LayoutModel<V>> layoutModels) {
+    delegate.appendLayoutModels(layoutModels);
+  }
 }
@@ -0,0 +1,439 @@
+package org.jungrapht.visualization.layout.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.jgrapht.Graph;
+import org.jungrapht.visualization.layout.algorithms.LayoutAlgorithm;
+import org.jungrapht.visualization.layout.util.Caching;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A LayoutModel that maps each vertex to a dense int index the first time it is seen and keeps the
+ * vertex coordinates in primitive {@code double[]} arrays instead of a {@code Map<V, Point>}.
+ *
+ * <p>The usual {@link LayoutModel} methods are supported so that renderers and spatial structures
+ * can use this model unchanged. In addition, iterative layout algorithms can read and write
+ * coordinates by index with {@link #getX(int)}, {@link #getY(int)} and {@link #set(int, double,
+ * double)} or in bulk with {@link #getLocations(double[], double[])} and {@link
+ * #setLocations(double[], double[])} without allocating a {@code Point} for every vertex on every
+ * step.
+ *
+ * <p>Every setter leaves a locked vertex where it is, whether it is moved by vertex, by index or in
+ * bulk.
+ *
+ * <p>The index of a vertex stays the same until the vertices that were removed from the graph are
+ * pruned by {@link #prune()}. That is done before each layout algorithm visits this model.
+ *
+ * @param <V> the vertex type
+ * @author Tom Nelson
+ */
+public class IndexedLayoutModel<V> extends AbstractLayoutModel<V>
+    implements LayoutModel<V>, Caching {
+
+  private static final Logger log = LoggerFactory.getLogger(IndexedLayoutModel.class);
+
+  /**
+   * a builder for IndexedLayoutModel instances
+   *
+   * @param <V> the vertex type
+   */
+  public static class Builder<V, T extends IndexedLayoutModel<V>, B extends Builder<V, T, B>>
+      extends AbstractLayoutModel.Builder<V, T, B> {
+
+    protected Function<V, Point> initializer = v -> Point.ORIGIN;
+
+    /**
+     * set the size of the LayoutModel to copy with this builder
+     *
+     * @param layoutModel
+     * @return this builder for further use
+     */
+    public B layoutModel(LayoutModel<V> layoutModel) {
+      this.width = layoutModel.getWidth();
+      this.height = layoutModel.getHeight();
+      return (B) this;
+    }
+
+    /**
+     * sets the initializer to use for new vertices
+     *
+     * @param initializer
+     * @return the builder
+     */
+    public B initializer(Function<V, Point> initializer) {
+      this.initializer = initializer;
+      return (B) this;
+    }
+
+    /**
+     * build an instance of the requested LayoutModel of type T
+     *
+     * @return
+     */
+    public T build() {
+      return (T) new IndexedLayoutModel<>(this);
+    }
+  }
+
+  public static <V> Builder<V, ?, ?> builder() {
+    return new Builder<>();
+  }
+
+  public static <V> IndexedLayoutModel<V> from(LayoutModel<V> other) {
+    return new IndexedLayoutModel<>(other);
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** maps each vertex to its position in the coordinate arrays */
+  protected Map<V, Integer> indices = new ConcurrentHashMap<>();
+
+  /** maps each index back to its vertex */
+  protected Object[] vertices = new Object[INITIAL_CAPACITY];
+
+  protected volatile double[] xs = new double[INITIAL_CAPACITY];
+
+  protected volatile double[] ys = new double[INITIAL_CAPACITY];
+
+  protected int size;
+
+  protected Function<V, Point> initializer;
+
+  protected IndexedLayoutModel(Builder<V, ?, ?> builder) {
+    super(builder);
+    this.initializer = builder.initializer;
+    index(graph);
+  }
+
+  private IndexedLayoutModel(LayoutModel<V> other) {
+    super(other.getGraph(), other.getWidth(), other.getHeight());
+    this.initializer = other;
+    index(graph);
+  }
+
+  /**
+   * assign an index to every vertex in the graph, in vertex set iteration order, so that the
+   * coordinate arrays are sized once
+   *
+   * @param graph the graph whose vertices are indexed
+   */
+  private void index(Graph<V, ?> graph) {
+    ensureCapacity(graph.vertexSet().size());
+    graph.vertexSet().forEach(this::indexOf);
+  }
+
+  /**
+   * return the index for the passed vertex. A vertex that has not been seen before is assigned the
+   * next free index and its coordinates are loaded from the initializer
+   *
+   * @param vertex the vertex of interest
+   * @return the index of the vertex in the coordinate arrays
+   */
+  public int indexOf(V vertex) {
+    Integer index = indices.get(vertex);
+    if (index != null) {
+      return index;
+    }
+    synchronized (this) {
+      index = indices.get(vertex);
+      if (index != null) {
+        return index;
+      }
+      Point p = initializer.apply(vertex);
+      int newIndex = size;
+      ensureCapacity(newIndex + 1);
+      vertices[newIndex] = vertex;
+      xs[newIndex] = p.x;
+      ys[newIndex] = p.y;
+      size++;
+      indices.put(vertex, newIndex);
+      return newIndex;
+    }
+  }
+
+  /**
+   * @param index the index of interest
+   * @return the vertex at the passed index
+   */
+  public V vertexAt(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + " is not in [0," + size + ")");
+    }
+    return (V) vertices[index];
+  }
+
+  /** @return the number of indexed vertices */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param index the vertex index
+   * @return the x coordinate of the vertex at index
+   */
+  public double getX(int index) {
+    return xs[index];
+  }
+
+  /**
+   * @param index the vertex index
+   * @return the y coordinate of the vertex at index
+   */
+  public double getY(int index) {
+    return ys[index];
+  }
+
+  /**
+   * Changes the layout coordinates of the vertex at {@code index} to {@code x, y}. No {@code Point}
+   * is created unless there are listeners for single vertex position changes
+   *
+   * @param index the index of the vertex to move
+   * @param x coordinate to set
+   * @param y coordinate to set
+   */
+  public void set(int index, double x, double y) {
+    if (locked || !lockedVertices.isEmpty() && isLocked(vertexAt(index))) {
+      return;
+    }
+    xs[index] = x;
+    ys[index] = y;
+    if (inBatch() && addToBatch(vertexAt(index))) {
+      return;
+    }
+    if (layoutVertexPositionSupport.isFireEvents()
+        && !layoutVertexPositionSupport.getLayoutVertexPositionChangeListeners().isEmpty()) {
+      layoutVertexPositionSupport.fireLayoutVertexPositionChanged(vertexAt(index), Point.of(x, y));
+    }
+    viewChangeSupport.fireViewChanged();
+  }
+
+  /**
+   * copy the coordinates of all indexed vertices into the passed arrays, which must have a length
+   * of at least {@link #size()}
+   *
+   * @param x destination for the x coordinates
+   * @param y destination for the y coordinates
+   */
+  public void getLocations(double[] x, double[] y) {
+    System.arraycopy(xs, 0, x, 0, size);
+    System.arraycopy(ys, 0, y, 0, size);
+  }
+
+  /**
+   * replace the coordinates of all indexed vertices with the contents of the passed arrays. Locked
+   * vertices keep their current coordinates. The changes are made as one batch, so a single bulk
+   * position change event and a single view change event are fired.
+   *
+   * @param x the new x coordinates, indexed as in this model
+   * @param y the new y coordinates, indexed as in this model
+   */
+  public void setLocations(double[] x, double[] y) {
+    if (locked) {
+      return;
+    }
+    beginBatch();
+    try {
+      for (int i = 0; i < size; i++) {
+        V vertex = (V) vertices[i];
+        if (!lockedVertices.isEmpty() && isLocked(vertex)) {
+          continue;
+        }
+        xs[i] = x[i];
+        ys[i] = y[i];
+        addToBatch(vertex);
+      }
+    } finally {
+      commitBatch();
+    }
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= xs.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, xs.length + (xs.length >> 1));
+    vertices = Arrays.copyOf(vertices, newCapacity);
+    // ys is replaced first so that a reader never sees a new xs with an old, shorter ys
+    ys = Arrays.copyOf(ys, newCapacity);
+    xs = Arrays.copyOf(xs, newCapacity);
+  }
+
+  @Override
+  public void setInitializer(Function<V, Point> initializer) {
+    this.initializer = initializer;
+    synchronized (this) {
+      for (int i = 0; i < size; i++) {
+        Point p = initializer.apply((V) vertices[i]);
+        xs[i] = p.x;
+        ys[i] = p.y;
+      }
+    }
+  }
+
+  /** @return a read-only view of the vertex locations */
+  @Override
+  public Map<V, Point> getLocations() {
+    return Collections.unmodifiableMap(new LocationMap());
+  }
+
+  @Override
+  public void set(V vertex, Point location) {
+    if (location == null) throw new IllegalArgumentException("Location cannot be null");
+    if (vertex == null) throw new IllegalArgumentException("vertex cannot be null");
+    set(indexOf(vertex), location.x, location.y);
+  }
+
+  @Override
+  public void set(V vertex, double x, double y) {
+    if (vertex == null) throw new IllegalArgumentException("vertex cannot be null");
+    set(indexOf(vertex), x, y);
+  }
+
+  @Override
+  public Point get(V vertex) {
+    int index = indexOf(vertex);
+    return Point.of(xs[index], ys[index]);
+  }
+
+  @Override
+  public Point apply(V vertex) {
+    return this.get(vertex);
+  }
+
+  /**
+   * forget the vertices that are no longer in the graph and move the remaining vertices down to
+   * fill the gaps, keeping their order. The indices of the remaining vertices may change
+   */
+  public synchronized void prune() {
+    Set<V> current = graph.vertexSet();
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      V vertex = (V) vertices[i];
+      if (!current.contains(vertex)) {
+        indices.remove(vertex);
+        continue;
+      }
+      if (kept != i) {
+        vertices[kept] = vertex;
+        xs[kept] = xs[i];
+        ys[kept] = ys[i];
+        indices.put(vertex, kept);
+      }
+      kept++;
+    }
+    if (kept < size) {
+      log.trace("pruned {} removed vertices", size - kept);
+      Arrays.fill(vertices, kept, size, null);
+      size = kept;
+    }
+  }
+
+  /**
+   * prune the removed vertices, after stopping any running algorithm so that no index changes under
+   * it, then accept the visit
+   *
+   * @param layoutAlgorithm the algorithm to apply to the model vertex locations
+   */
+  @Override
+  public void accept(LayoutAlgorithm<V> layoutAlgorithm) {
+    stopAndPrune();
+    super.accept(layoutAlgorithm);
+  }
+
+  @Override
+  public void acceptIncremental(LayoutAlgorithm<V> layoutAlgorithm, Collection<V> changed) {
+    stopAndPrune();
+    super.acceptIncremental(layoutAlgorithm, changed);
+  }
+
+  private void stopAndPrune() {
+    if (visRunnable != null) {
+      visRunnable.stop();
+    }
+    prune();
+  }
+
+  @Override
+  public void setGraph(Graph<V, ?> graph) {
+    reset();
+    index(graph);
+    super.setGraph(graph);
+  }
+
+  @Override
+  public void clear() {
+    this.initializer = v -> Point.ORIGIN;
+    reset();
+  }
+
+  private synchronized void reset() {
+    log.trace("reset indices for {} vertices", size);
+    indices = new ConcurrentHashMap<>();
+    vertices = new Object[INITIAL_CAPACITY];
+    ys = new double[INITIAL_CAPACITY];
+    xs = new double[INITIAL_CAPACITY];
+    size = 0;
+  }
+
+  /** a Map view over the coordinate arrays that creates Points only as they are requested */
+  private class LocationMap extends AbstractMap<V, Point> {
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indices.containsKey(key);
+    }
+
+    @Override
+    public Point get(Object key) {
+      Integer index = indices.get(key);
+      return index == null ? null : Point.of(xs[index], ys[index]);
+    }
+
+    @Override
+    public Set<Entry<V, Point>> entrySet() {
+      int count = size;
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<V, Point>> iterator() {
+          return new Iterator<>() {
+            int next = 0;
+
+            @Override
+            public boolean hasNext() {
+              return next < count;
+            }
+
+            @Override
+            public Entry<V, Point> next() {
+              if (next >= count) {
+                throw new NoSuchElementException();
+              }
+              int i = next++;
+              return new SimpleImmutableEntry<>((V) vertices[i], Point.of(xs[i], ys[i]));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return count;
+        }
+      };
+    }
+  }
+}
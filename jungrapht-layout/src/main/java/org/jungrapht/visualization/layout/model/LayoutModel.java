@@ -9,11 +9,14 @@
  */
 package org.jungrapht.visualization.layout.model;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.jgrapht.Graph;
+import org.jungrapht.visualization.layout.algorithms.IncrementalLayoutAlgorithm;
 import org.jungrapht.visualization.layout.algorithms.LayoutAlgorithm;
 import org.jungrapht.visualization.layout.algorithms.util.Pair;
 import org.jungrapht.visualization.layout.event.LayoutSizeChange;
@@ -111,6 +114,22 @@ public interface LayoutModel<V>
    */
   void accept(LayoutAlgorithm<V> layoutAlgorithm);
 
+  /**
+   * allow the passed LayoutAlgorithm to update this LayoutModel's Points after a small change to
+   * the graph. If the LayoutAlgorithm is an {@link IncrementalLayoutAlgorithm}, the other vertices
+   * keep their locations and only the vertices near the changed ones are moved. Otherwise the whole
+   * graph is laid out again
+   *
+   * @param layoutAlgorithm the algorithm to apply to this model's Points
+   * @param changed the vertices that were added or changed
+   */
+  default void acceptIncremental(LayoutAlgorithm<V> layoutAlgorithm, Collection<V> changed) {
+    if (layoutAlgorithm instanceof IncrementalLayoutAlgorithm) {
+      ((IncrementalLayoutAlgorithm<V>) layoutAlgorithm).setIncremental(changed);
+    }
+    accept(layoutAlgorithm);
+  }
+
   /** @return a mapping of Vertices to Point locations */
   default Map<V, Point> getLocations() {
     return Collections.unmodifiableMap(
@@ -178,6 +197,41 @@ public interface LayoutModel<V>
    */
   void set(V vertex, double x, double y);
 
+  /**
+   * Changes the layout coordinates of every vertex in {@code locations} as one batch, so that
+   * listeners receive a single bulk position change event and a single view change event.
+   *
+   * @param locations the vertices to move and their new locations
+   */
+  default void set(Map<V, Point> locations) {
+    beginBatch();
+    try {
+      locations.forEach(this::set);
+    } finally {
+      commitBatch();
+    }
+  }
+
+  /**
+   * Start a batch of vertex location changes. Until the matching {@link #commitBatch()}, calls to
+   * {@code set} store the new locations but do not fire events. Batches may be nested, only the
+   * outermost {@code commitBatch} fires events. A batch belongs to the thread that opened it, so
+   * moves made by other threads fire their events as usual.
+   */
+  default void beginBatch() {
+    // noop
+  }
+
+  /**
+   * End a batch of vertex location changes. Fires one bulk {@link LayoutVertexPositionChange} event
+   * with all vertices moved during the batch, followed by one {@link ViewChange} event. The set of
+   * vertices in the event is reused for the next batch, so listeners that keep it past the event
+   * must copy it.
+   */
+  default void commitBatch() {
+    // noop
+  }
+
   /**
    * @param vertex the vertex of interest
    * @return the Point location for vertex
@@ -202,6 +256,15 @@ public interface LayoutModel<V>
 
   void appendLayoutModel(LayoutModel<V> layoutModel);
 
+  /**
+   * append each of the supplied layoutModels, in order, as {@link #appendLayoutModel} would
+   *
+   * @param layoutModels contain widths and vertex locations to place
+   */
+  default void appendLayoutModels(List<? extends LayoutModel<V>> layoutModels) {
+    layoutModels.forEach(this::appendLayoutModel);
+  }
+
   default void setFireEvents(boolean fireEvents) {
     if (getModelChangeSupport() != null) getModelChangeSupport().setFireEvents(fireEvents);
     if (getViewChangeSupport() != null) getViewChangeSupport().setFireEvents(fireEvents);
@@ -0,0 +1,575 @@
+package org.jungrapht.visualization.layout.quadtree;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.layout.model.Rectangle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Barnes-Hut quad tree kept in flat primitive arrays. Where {@link BarnesHutQuadTree} creates a
+ * {@link Node} and {@link ForceObject} for every element on every rebuild, this tree:
+ *
+ * <ul>
+ *   <li>copies the element locations and masses into reusable {@code double[]} arrays
+ *   <li>sorts the elements by the Morton (z-order) code of their location with a radix sort, so
+ *       that the elements of every cell are contiguous and neighbors in space are neighbors in
+ *       memory
+ *   <li>builds the cells top-down from the sorted codes into reusable {@code int[]} and {@code
+ *       double[]} node arrays
+ * </ul>
+ *
+ * Once the arrays have grown to fit the graph, a rebuild allocates nothing.
+ *
+ * <p>When vertices barely move, as in the late iterations of a force directed layout, the tree can
+ * be refit instead of rebuilt: the cells are kept and only the masses and centers of mass are
+ * recomputed from the new locations. See {@link Builder#rebuildInterval(int)}.
+ *
+ * <p>A query with {@link #applyForcesTo(Object, double, double, Visitor)} only reads the tree, so
+ * queries for different elements may run concurrently once the tree is built.
+ *
+ * @param <T> the element type
+ * @author Tom Nelson
+ */
+public class ArrayBarnesHutQuadTree<T> {
+
+  private static final Logger log = LoggerFactory.getLogger(ArrayBarnesHutQuadTree.class);
+
+  /** receives the location and mass of each element or summarized cell that a query visits */
+  @FunctionalInterface
+  public interface Visitor {
+    void addForceFrom(double x, double y, double mass);
+  }
+
+  public static class Builder<T> {
+    protected double theta = Node.DEFAULT_THETA;
+    protected int rebuildInterval = 1;
+
+    public Builder<T> theta(double theta) {
+      this.theta = theta;
+      return this;
+    }
+
+    /**
+     * @param rebuildInterval the tree is rebuilt on every {@code rebuildInterval}th call to {@link
+     *     #update}, and refit on the calls in between. The default of 1 rebuilds every time
+     * @return this builder
+     */
+    public Builder<T> rebuildInterval(int rebuildInterval) {
+      if (rebuildInterval < 1) {
+        throw new IllegalArgumentException("rebuildInterval must be at least 1");
+      }
+      this.rebuildInterval = rebuildInterval;
+      return this;
+    }
+
+    public ArrayBarnesHutQuadTree<T> build() {
+      return new ArrayBarnesHutQuadTree<>(this);
+    }
+  }
+
+  public static <T> Builder<T> builder() {
+    return new Builder<>();
+  }
+
+  /** the number of times a cell can be split, and the number of bits per axis in a Morton code */
+  static final int MAX_DEPTH = 16;
+
+  private static final int GRID = 1 << MAX_DEPTH;
+
+  private static final int NONE = -1;
+
+  private final double theta;
+  private final int rebuildInterval;
+  private int updatesSinceRebuild;
+
+  // elements in the order they were passed in
+  private Object[] input = new Object[0];
+  // position of each input element in the sorted arrays
+  private int[] rank = new int[0];
+
+  // elements sorted by Morton code
+  private long[] keys = new long[0];
+  private long[] scratch = new long[0];
+  private final int[] counts = new int[256];
+  private Object[] elements = new Object[0];
+  private double[] xs = new double[0];
+  private double[] ys = new double[0];
+  private double[] masses = new double[0];
+  private double[] buffer = new double[0];
+  private int size;
+
+  // the cells. Every cell holds a contiguous range of the sorted elements
+  private int[] children = new int[0];
+  private int[] start = new int[0];
+  private int[] end = new int[0];
+  private double[] width = new double[0];
+  private double[] mass = new double[0];
+  private double[] centerX = new double[0];
+  private double[] centerY = new double[0];
+  private int nodeCount;
+
+  private double minX;
+  private double minY;
+  private double extent;
+
+  private ArrayBarnesHutQuadTree(Builder<T> builder) {
+    this.theta = builder.theta;
+    this.rebuildInterval = builder.rebuildInterval;
+  }
+
+  /**
+   * rebuild or refit the tree, according to the rebuild interval
+   *
+   * @param elements the elements to place in the tree
+   * @param masses the mass of each element, or null for a mass of 1
+   * @param locations the location of each element
+   */
+  public void update(
+      Collection<T> elements, Function<T, Double> masses, Function<T, Point> locations) {
+    if (++updatesSinceRebuild < rebuildInterval && refit(elements, masses, locations)) {
+      return;
+    }
+    rebuild(elements, masses, locations);
+  }
+
+  /**
+   * build the tree from scratch
+   *
+   * @param elements the elements to place in the tree
+   * @param masses the mass of each element, or null for a mass of 1
+   * @param locations the location of each element
+   */
+  public void rebuild(
+      Collection<T> elements, Function<T, Double> masses, Function<T, Point> locations) {
+    updatesSinceRebuild = 0;
+    load(elements, masses, locations);
+    nodeCount = 0;
+    if (size == 0) {
+      return;
+    }
+    computeBounds();
+    for (int i = 0; i < size; i++) {
+      keys[i] = ((long) morton(xs[i], ys[i]) << 32) | i;
+    }
+    radixSort();
+    permute();
+    build(0, size, 0, minX, minY, extent);
+  }
+
+  /**
+   * build the tree from scratch over the elements {@code 0} to {@code n - 1}, read directly from
+   * primitive arrays so that nothing is boxed. Query the tree with {@link #applyForcesToIndex(int,
+   * double, double, Visitor)}
+   *
+   * @param xs the x location of each element
+   * @param ys the y location of each element
+   * @param masses the mass of each element
+   * @param n the number of elements
+   */
+  public void rebuild(double[] xs, double[] ys, double[] masses, int n) {
+    updatesSinceRebuild = 0;
+    ensureElementCapacity(n);
+    System.arraycopy(xs, 0, this.xs, 0, n);
+    System.arraycopy(ys, 0, this.ys, 0, n);
+    System.arraycopy(masses, 0, this.masses, 0, n);
+    // the elements are their indices, so there are no objects to hold on to
+    Arrays.fill(input, 0, Math.max(size, n), null);
+    Arrays.fill(elements, 0, Math.max(size, n), null);
+    size = n;
+    nodeCount = 0;
+    if (size == 0) {
+      return;
+    }
+    computeBounds();
+    for (int i = 0; i < size; i++) {
+      keys[i] = ((long) morton(this.xs[i], this.ys[i]) << 32) | i;
+    }
+    radixSort();
+    permute();
+    build(0, size, 0, minX, minY, extent);
+  }
+
+  /**
+   * keep the cells of the current tree and recompute the mass and center of mass of each cell from
+   * new locations. A vertex that has moved out of its cell is still counted in it, so the summaries
+   * become less accurate as the vertices move further
+   *
+   * @param elements the elements in the tree, in the same order as when it was built
+   * @param masses the mass of each element, or null for a mass of 1
+   * @param locations the new location of each element
+   * @return false, leaving the tree unusable until it is rebuilt, if the elements are not the ones
+   *     the tree was built with
+   */
+  public boolean refit(
+      Collection<T> elements, Function<T, Double> masses, Function<T, Point> locations) {
+    if (nodeCount == 0 || elements.size() != size) {
+      return false;
+    }
+    int i = 0;
+    for (T element : elements) {
+      if (i == size || input[i] != element) {
+        return false;
+      }
+      Point p = locations.apply(element);
+      int r = rank[i++];
+      xs[r] = p.x;
+      ys[r] = p.y;
+      this.masses[r] = masses != null ? masses.apply(element) : 1;
+    }
+    // children always have higher indices than their parent
+    for (int node = nodeCount - 1; node >= 0; node--) {
+      summarize(node);
+    }
+    return true;
+  }
+
+  /**
+   * visit the tree with the element at {@code x, y}. Each visited cell that is far enough away,
+   * compared to theta, is passed to the visitor as one mass at its center of mass. Other cells are
+   * descended into. Elements in leaf cells are passed to the visitor one at a time, except for
+   * {@code element} itself
+   *
+   * @param element the element that the forces act on
+   * @param x the x location of the element
+   * @param y the y location of the element
+   * @param visitor accumulates the forces
+   */
+  public void applyForcesTo(T element, double x, double y, Visitor visitor) {
+    if (nodeCount > 0) {
+      visit(0, element, x, y, visitor);
+    }
+  }
+
+  /**
+   * visit the tree with the element at {@code x, y}, as {@link #applyForcesTo(Object, double,
+   * double, Visitor)} does, naming the element by the position it was passed in at
+   *
+   * @param index the position of the element that the forces act on
+   * @param x the x location of the element
+   * @param y the y location of the element
+   * @param visitor accumulates the forces
+   */
+  public void applyForcesToIndex(int index, double x, double y, Visitor visitor) {
+    if (nodeCount > 0) {
+      visit(0, index, x, y, visitor);
+    }
+  }
+
+  /** @return the number of cells in the tree */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /** @return the number of elements in the tree */
+  public int size() {
+    return size;
+  }
+
+  /** @return the total mass of the elements in the tree */
+  public double getMass() {
+    return nodeCount == 0 ? 0 : mass[0];
+  }
+
+  /** @return the center of mass of the elements in the tree */
+  public Point getCenterOfMass() {
+    return nodeCount == 0 ? Point.ORIGIN : Point.of(centerX[0], centerY[0]);
+  }
+
+  /** @return the square area covered by the tree */
+  public Rectangle getBounds() {
+    return new Rectangle(minX, minY, extent, extent);
+  }
+
+  private void visit(int node, T element, double x, double y, Visitor visitor) {
+    int first = children[node * 4];
+    if (first == NONE
+        && children[node * 4 + 1] == NONE
+        && children[node * 4 + 2] == NONE
+        && children[node * 4 + 3] == NONE) {
+      for (int i = start[node]; i < end[node]; i++) {
+        Object other = elements[i];
+        if (other != element && (element == null || !element.equals(other))) {
+          visitor.addForceFrom(xs[i], ys[i], masses[i]);
+        }
+      }
+      return;
+    }
+    double dx = centerX[node] - x;
+    double dy = centerY[node] - y;
+    double d = Math.sqrt(dx * dx + dy * dy);
+    if (width[node] / d < theta) {
+      // this cell is far enough away to be treated as one mass
+      visitor.addForceFrom(centerX[node], centerY[node], mass[node]);
+      return;
+    }
+    for (int q = 0; q < 4; q++) {
+      int child = children[node * 4 + q];
+      if (child != NONE) {
+        visit(child, element, x, y, visitor);
+      }
+    }
+  }
+
+  private void visit(int node, int index, double x, double y, Visitor visitor) {
+    if (children[node * 4] == NONE
+        && children[node * 4 + 1] == NONE
+        && children[node * 4 + 2] == NONE
+        && children[node * 4 + 3] == NONE) {
+      for (int i = start[node]; i < end[node]; i++) {
+        // the low bits of the sorted key are the index the element was passed in at
+        if ((int) keys[i] != index) {
+          visitor.addForceFrom(xs[i], ys[i], masses[i]);
+        }
+      }
+      return;
+    }
+    double dx = centerX[node] - x;
+    double dy = centerY[node] - y;
+    double d = Math.sqrt(dx * dx + dy * dy);
+    if (width[node] / d < theta) {
+      visitor.addForceFrom(centerX[node], centerY[node], mass[node]);
+      return;
+    }
+    for (int q = 0; q < 4; q++) {
+      int child = children[node * 4 + q];
+      if (child != NONE) {
+        visit(child, index, x, y, visitor);
+      }
+    }
+  }
+
+  private void load(
+      Collection<T> elements, Function<T, Double> masses, Function<T, Point> locations) {
+    ensureElementCapacity(elements.size());
+    int i = 0;
+    for (T element : elements) {
+      if (i == input.length) {
+        ensureElementCapacity(i + 1);
+      }
+      Point p = locations.apply(element);
+      input[i] = element;
+      // xs, ys and masses are in input order until permute() sorts them
+      xs[i] = p.x;
+      ys[i] = p.y;
+      this.masses[i] = masses != null ? masses.apply(element) : 1;
+      i++;
+    }
+    // let go of elements from a larger, earlier graph
+    Arrays.fill(input, i, size > i ? size : i, null);
+    Arrays.fill(this.elements, i, size > i ? size : i, null);
+    size = i;
+  }
+
+  private void computeBounds() {
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    minX = Double.POSITIVE_INFINITY;
+    minY = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < size; i++) {
+      minX = Math.min(minX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxX = Math.max(maxX, xs[i]);
+      maxY = Math.max(maxY, ys[i]);
+    }
+    extent = Math.max(Math.max(maxX - minX, maxY - minY), 1.0e-9);
+  }
+
+  /**
+   * @return the Morton code of the grid cell holding {@code x, y}, with the x bits in the even
+   *     positions and the y bits in the odd positions
+   */
+  private int morton(double x, double y) {
+    int gx = (int) Math.min(GRID - 1, (x - minX) / extent * GRID);
+    int gy = (int) Math.min(GRID - 1, (y - minY) / extent * GRID);
+    return spread(gx) | (spread(gy) << 1);
+  }
+
+  /** spread the low 16 bits of {@code v} to the even bit positions */
+  private static int spread(int v) {
+    v &= 0xFFFF;
+    v = (v | (v << 8)) & 0x00FF00FF;
+    v = (v | (v << 4)) & 0x0F0F0F0F;
+    v = (v | (v << 2)) & 0x33333333;
+    v = (v | (v << 1)) & 0x55555555;
+    return v;
+  }
+
+  /** least significant digit radix sort of the keys on their upper 32 bits, 8 bits per pass */
+  private void radixSort() {
+    long[] from = keys;
+    long[] to = scratch;
+    for (int shift = 32; shift < 64; shift += 8) {
+      Arrays.fill(counts, 0);
+      for (int i = 0; i < size; i++) {
+        counts[(int) (from[i] >>> shift) & 0xFF]++;
+      }
+      int sum = 0;
+      for (int b = 0; b < 256; b++) {
+        int c = counts[b];
+        counts[b] = sum;
+        sum += c;
+      }
+      for (int i = 0; i < size; i++) {
+        long key = from[i];
+        to[counts[(int) (key >>> shift) & 0xFF]++] = key;
+      }
+      long[] swap = from;
+      from = to;
+      to = swap;
+    }
+    // an even number of passes leaves the result in keys
+  }
+
+  /** reorder the elements, locations and masses into Morton order */
+  private void permute() {
+    for (int i = 0; i < size; i++) {
+      int index = (int) keys[i];
+      rank[index] = i;
+      elements[i] = input[index];
+    }
+    permute(xs);
+    permute(ys);
+    permute(masses);
+  }
+
+  private void permute(double[] values) {
+    for (int i = 0; i < size; i++) {
+      buffer[i] = values[(int) keys[i]];
+    }
+    System.arraycopy(buffer, 0, values, 0, size);
+  }
+
+  /**
+   * create the cell holding the sorted elements in {@code [from, to)}. A cell whose elements all
+   * fall in one quadrant is replaced by that quadrant, so there are no chains of single children
+   *
+   * @return the index of the new cell
+   */
+  private int build(int from, int to, int depth, double x, double y, double w) {
+    long firstCode = keys[from] >>> 32;
+    long lastCode = keys[to - 1] >>> 32;
+    while (depth < MAX_DEPTH && firstCode != lastCode) {
+      int shift = 2 * (MAX_DEPTH - 1 - depth);
+      int firstQuadrant = (int) (firstCode >>> shift) & 3;
+      if (firstQuadrant != ((int) (lastCode >>> shift) & 3)) {
+        break;
+      }
+      w /= 2;
+      x += (firstQuadrant & 1) * w;
+      y += (firstQuadrant >> 1) * w;
+      depth++;
+    }
+    int node = newNode(from, to, w);
+    if (depth < MAX_DEPTH && firstCode != lastCode) {
+      int shift = 2 * (MAX_DEPTH - 1 - depth);
+      double half = w / 2;
+      int lo = from;
+      for (int q = 0; q < 4 && lo < to; q++) {
+        int hi = lo;
+        while (hi < to && ((int) (keys[hi] >>> (32 + shift)) & 3) == q) {
+          hi++;
+        }
+        if (hi > lo) {
+          int child = build(lo, hi, depth + 1, x + (q & 1) * half, y + (q >> 1) * half, half);
+          children[node * 4 + q] = child;
+        }
+        lo = hi;
+      }
+    }
+    summarize(node);
+    return node;
+  }
+
+  private int newNode(int from, int to, double w) {
+    int node = nodeCount++;
+    ensureNodeCapacity(nodeCount);
+    children[node * 4] = NONE;
+    children[node * 4 + 1] = NONE;
+    children[node * 4 + 2] = NONE;
+    children[node * 4 + 3] = NONE;
+    start[node] = from;
+    end[node] = to;
+    width[node] = w;
+    return node;
+  }
+
+  /** compute the mass and center of mass of a cell from its children, or its elements if a leaf */
+  private void summarize(int node) {
+    double m = 0;
+    double cx = 0;
+    double cy = 0;
+    boolean leaf = true;
+    for (int q = 0; q < 4; q++) {
+      int child = children[node * 4 + q];
+      if (child != NONE) {
+        leaf = false;
+        m += mass[child];
+        cx += centerX[child] * mass[child];
+        cy += centerY[child] * mass[child];
+      }
+    }
+    if (leaf) {
+      for (int i = start[node]; i < end[node]; i++) {
+        m += masses[i];
+        cx += xs[i] * masses[i];
+        cy += ys[i] * masses[i];
+      }
+    }
+    mass[node] = m;
+    if (m != 0) {
+      centerX[node] = cx / m;
+      centerY[node] = cy / m;
+    } else {
+      centerX[node] = 0;
+      centerY[node] = 0;
+    }
+  }
+
+  private void ensureElementCapacity(int capacity) {
+    if (capacity <= input.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, input.length + (input.length >> 1));
+    log.trace("growing element arrays to {}", newCapacity);
+    input = Arrays.copyOf(input, newCapacity);
+    rank = new int[newCapacity];
+    keys = new long[newCapacity];
+    scratch = new long[newCapacity];
+    elements = new Object[newCapacity];
+    xs = Arrays.copyOf(xs, newCapacity);
+    ys = Arrays.copyOf(ys, newCapacity);
+    masses = Arrays.copyOf(masses, newCapacity);
+    buffer = new double[newCapacity];
+    // a tree over n elements has fewer than 2n cells
+    ensureNodeCapacity(2 * newCapacity);
+  }
+
+  private void ensureNodeCapacity(int capacity) {
+    if (capacity <= start.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, start.length + (start.length >> 1));
+    children = Arrays.copyOf(children, 4 * newCapacity);
+    start = Arrays.copyOf(start, newCapacity);
+    end = Arrays.copyOf(end, newCapacity);
+    width = Arrays.copyOf(width, newCapacity);
+    mass = Arrays.copyOf(mass, newCapacity);
+    centerX = Arrays.copyOf(centerX, newCapacity);
+    centerY = Arrays.copyOf(centerY, newCapacity);
+  }
+
+  @Override
+  public String toString() {
+    return "ArrayBarnesHutQuadTree{"
+        + "size="
+        + size
+        + ", nodeCount="
+        + nodeCount
+        + ", bounds="
+        + getBounds()
+        + '}';
+  }
+}
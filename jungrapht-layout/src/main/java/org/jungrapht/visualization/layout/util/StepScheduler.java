@@ -0,0 +1,178 @@
+package org.jungrapht.visualization.layout.util;
+
+/**
+ * Decides how the {@link VisRunnable} paces the steps of an iterative layout algorithm. The steps
+ * are grouped into frames. All vertex moves made during one frame are published to the
+ * visualization as one snapshot when the frame ends, then the {@code VisRunnable} pauses before it
+ * starts the next frame.
+ *
+ * <ul>
+ *   <li>{@link #fixedDelay(long)} - one step per frame, then a fixed pause. This is the default
+ *   <li>{@link #unthrottled()} - every step in one frame with no pause, for headless use
+ *   <li>{@link #frameBudget(long)} - as many steps as fit in a time budget in each frame
+ *   <li>{@link #targetFps(int)} - as many steps as fit in each frame of the target frame rate, then
+ *       a pause until the frame period ends
+ * </ul>
+ *
+ * @author Tom Nelson
+ */
+public interface StepScheduler {
+
+  /**
+   * @param frameStartNanos {@code System.nanoTime()} at the start of the current frame
+   * @param stepsInFrame how many steps have been run in the current frame (at least one)
+   * @param averageStepNanos average duration of the steps run so far
+   * @return true if another step should be run before the current frame is published
+   */
+  boolean stepAgain(long frameStartNanos, int stepsInFrame, double averageStepNanos);
+
+  /**
+   * @param frameStartNanos {@code System.nanoTime()} at the start of the frame that just ended
+   * @return how long to pause, in nanoseconds, before the next frame starts
+   */
+  long pauseNanos(long frameStartNanos);
+
+  /**
+   * @return a scheduler that runs one step and then pauses for 10 ms, as the VisRunnable always has
+   */
+  static StepScheduler fixedDelay() {
+    return fixedDelay(10);
+  }
+
+  /**
+   * @param delayMs the pause after each step
+   * @return a scheduler that publishes each step and then pauses for {@code delayMs}
+   */
+  static StepScheduler fixedDelay(long delayMs) {
+    return new FixedDelay(delayMs);
+  }
+
+  /** @return a scheduler that runs all steps without pausing and publishes once when done */
+  static StepScheduler unthrottled() {
+    return new Unthrottled();
+  }
+
+  /**
+   * @param budgetMs the time to spend stepping in each frame
+   * @return a scheduler that runs steps until {@code budgetMs} has passed, then publishes
+   */
+  static StepScheduler frameBudget(long budgetMs) {
+    return new FrameBudget(budgetMs);
+  }
+
+  /**
+   * @param framesPerSecond the rate at which snapshots are published
+   * @return a scheduler that runs as many steps as will fit in each frame period, publishes, then
+   *     waits for the period to end
+   */
+  static StepScheduler targetFps(int framesPerSecond) {
+    return new TargetFps(framesPerSecond);
+  }
+
+  /** one step per frame followed by a fixed pause */
+  final class FixedDelay implements StepScheduler {
+    private final long delayNanos;
+
+    FixedDelay(long delayMs) {
+      if (delayMs < 0) {
+        throw new IllegalArgumentException("delay cannot be negative: " + delayMs);
+      }
+      this.delayNanos = delayMs * 1_000_000L;
+    }
+
+    @Override
+    public boolean stepAgain(long frameStartNanos, int stepsInFrame, double averageStepNanos) {
+      return false;
+    }
+
+    @Override
+    public long pauseNanos(long frameStartNanos) {
+      return delayNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "FixedDelay{" + delayNanos / 1_000_000L + "ms}";
+    }
+  }
+
+  /** all steps in a single frame, with no pause */
+  final class Unthrottled implements StepScheduler {
+
+    Unthrottled() {}
+
+    @Override
+    public boolean stepAgain(long frameStartNanos, int stepsInFrame, double averageStepNanos) {
+      return true;
+    }
+
+    @Override
+    public long pauseNanos(long frameStartNanos) {
+      return 0;
+    }
+
+    @Override
+    public String toString() {
+      return "Unthrottled";
+    }
+  }
+
+  /** steps until the budget is spent, then publish and start the next frame at once */
+  final class FrameBudget implements StepScheduler {
+    private final long budgetNanos;
+
+    FrameBudget(long budgetMs) {
+      if (budgetMs <= 0) {
+        throw new IllegalArgumentException("budget must be positive: " + budgetMs);
+      }
+      this.budgetNanos = budgetMs * 1_000_000L;
+    }
+
+    @Override
+    public boolean stepAgain(long frameStartNanos, int stepsInFrame, double averageStepNanos) {
+      return System.nanoTime() - frameStartNanos < budgetNanos;
+    }
+
+    @Override
+    public long pauseNanos(long frameStartNanos) {
+      return 0;
+    }
+
+    @Override
+    public String toString() {
+      return "FrameBudget{" + budgetNanos / 1_000_000L + "ms}";
+    }
+  }
+
+  /**
+   * steps while the next step is expected to finish inside the frame period, then publish and wait
+   * for the period to end
+   */
+  final class TargetFps implements StepScheduler {
+    private final int framesPerSecond;
+    private final long periodNanos;
+
+    TargetFps(int framesPerSecond) {
+      if (framesPerSecond <= 0) {
+        throw new IllegalArgumentException("frame rate must be positive: " + framesPerSecond);
+      }
+      this.framesPerSecond = framesPerSecond;
+      this.periodNanos = 1_000_000_000L / framesPerSecond;
+    }
+
+    @Override
+    public boolean stepAgain(long frameStartNanos, int stepsInFrame, double averageStepNanos) {
+      return System.nanoTime() - frameStartNanos + averageStepNanos <= periodNanos;
+    }
+
+    @Override
+    public long pauseNanos(long frameStartNanos) {
+      return Math.max(0, periodNanos - (System.nanoTime() - frameStartNanos));
+    }
+
+    @Override
+    public String toString() {
+      return "TargetFps{" + framesPerSecond + "}";
+    }
+  }
+}
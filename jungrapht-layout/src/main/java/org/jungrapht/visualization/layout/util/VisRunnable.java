@@ -1,12 +1,14 @@
 package org.jungrapht.visualization.layout.util;
 
 import org.jungrapht.visualization.layout.algorithms.util.IterativeContext;
+import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * a {@code Runnable} object to pass to the {@code Thread} that will perform the relax function on a
- * graph layout
+ * graph layout. The steps are paced by a {@link StepScheduler}. When a {@code LayoutModel} is
+ * supplied, the vertex moves made in each frame of steps are published to it as one batch.
  *
  * @author Tom Nelson
  */
@@ -14,8 +16,14 @@ public class VisRunnable implements Runnable {
 
   private static final Logger log = LoggerFactory.getLogger(VisRunnable.class);
   private final IterativeContext iterativeContext;
-  private long sleepTime = 10;
-  private boolean stop = false;
+  private final LayoutModel<?> layoutModel;
+  private final StepScheduler stepScheduler;
+  private volatile boolean stop = false;
+
+  private volatile long stepCount;
+  private volatile long frameCount;
+  private volatile long stepNanos;
+  private volatile long elapsedNanos;
 
   public static VisRunnable noop() {
     return new VisRunnable(null) {
@@ -24,8 +32,20 @@ public class VisRunnable implements Runnable {
   }
 
   public VisRunnable(IterativeContext iterativeContext) {
+    this(iterativeContext, null, StepScheduler.fixedDelay());
+  }
+
+  /**
+   * @param iterativeContext the algorithm to step
+   * @param layoutModel if not null, each frame of steps is run as one batch on this model
+   * @param stepScheduler decides how many steps make a frame and how long to pause between frames
+   */
+  public VisRunnable(
+      IterativeContext iterativeContext, LayoutModel<?> layoutModel, StepScheduler stepScheduler) {
     log.trace("created a VisRunnable {} for {}", hashCode(), iterativeContext);
     this.iterativeContext = iterativeContext;
+    this.layoutModel = layoutModel;
+    this.stepScheduler = stepScheduler;
   }
 
   public void stop() {
@@ -35,19 +55,86 @@ public class VisRunnable implements Runnable {
 
   @Override
   public void run() {
+    long runStart = System.nanoTime();
     while (!iterativeContext.done() && !stop) {
+      long frameStart = System.nanoTime();
+      if (layoutModel != null) {
+        layoutModel.beginBatch();
+      }
       try {
-        iterativeContext.step();
+        int stepsInFrame = 0;
+        do {
+          long stepStart = System.nanoTime();
+          iterativeContext.step();
+          stepNanos += System.nanoTime() - stepStart;
+          stepCount++;
+          stepsInFrame++;
+        } while (!stop
+            && !iterativeContext.done()
+            && stepScheduler.stepAgain(frameStart, stepsInFrame, getAverageStepNanos()));
+      } catch (Exception ex) {
+        ex.printStackTrace();
+      } finally {
+        if (layoutModel != null) {
+          layoutModel.commitBatch();
+        }
+      }
+      frameCount++;
+      elapsedNanos = System.nanoTime() - runStart;
+      long pause = stepScheduler.pauseNanos(frameStart);
+      if (pause > 0 && !stop) {
         try {
-          Thread.sleep(sleepTime);
+          Thread.sleep(pause / 1_000_000L, (int) (pause % 1_000_000L));
         } catch (InterruptedException ex) {
         }
-      } catch (Exception ex) {
-        ex.printStackTrace();
       }
     }
+    elapsedNanos = System.nanoTime() - runStart;
     if (stop) {
       log.trace("done here because {} stop = {}", hashCode(), stop);
     }
+    if (log.isDebugEnabled()) {
+      log.debug(
+          "{} ran {} steps in {} frames, {} steps/s, {} ms/step",
+          stepScheduler,
+          stepCount,
+          frameCount,
+          getStepsPerSecond(),
+          getTimePerStep());
+    }
+  }
+
+  /** @return the StepScheduler that paces this VisRunnable */
+  public StepScheduler getStepScheduler() {
+    return stepScheduler;
+  }
+
+  /** @return the number of steps run so far */
+  public long getStepCount() {
+    return stepCount;
+  }
+
+  /** @return the number of frames published so far */
+  public long getFrameCount() {
+    return frameCount;
+  }
+
+  /** @return steps run per second of wall-clock time, pauses included */
+  public double getStepsPerSecond() {
+    return elapsedNanos == 0 ? 0 : stepCount * 1e9 / elapsedNanos;
+  }
+
+  /** @return the average time spent in one step, in milliseconds */
+  public double getTimePerStep() {
+    return getAverageStepNanos() / 1e6;
+  }
+
+  private double getAverageStepNanos() {
+    return stepCount == 0 ? 0 : (double) stepNanos / stepCount;
+  }
+
+  @Override
+  public String toString() {
+    return "VisRunnable{" + "hashCode=" + hashCode() + ", stepScheduler=" + stepScheduler + '}';
   }
 }
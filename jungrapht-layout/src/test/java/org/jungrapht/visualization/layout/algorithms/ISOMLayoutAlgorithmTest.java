@@ -0,0 +1,106 @@
+package org.jungrapht.visualization.layout.algorithms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check the ISOMLayoutAlgorithm position grid against a linear search, and run the algorithm to
+ * completion
+ *
+ * @author Tom Nelson
+ */
+public class ISOMLayoutAlgorithmTest {
+
+  private static int linearNearest(double[] x, double[] y, double px, double py) {
+    int best = -1;
+    double bestDistance = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < x.length; i++) {
+      double d = (x[i] - px) * (x[i] - px) + (y[i] - py) * (y[i] - py);
+      if (d < bestDistance) {
+        bestDistance = d;
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  @Test
+  public void testNearestMatchesLinearSearch() {
+    Random random = new Random(7);
+    int count = 500;
+    double[] x = new double[count];
+    double[] y = new double[count];
+    for (int i = 0; i < count; i++) {
+      // cluster half of the vertices in a corner so that many cells are empty
+      double extent = i % 2 == 0 ? 100 : 1000;
+      x[i] = random.nextDouble() * extent;
+      y[i] = random.nextDouble() * extent;
+    }
+    ISOMLayoutAlgorithm.PositionGrid grid =
+        new ISOMLayoutAlgorithm.PositionGrid(x.clone(), y.clone(), 0, 0, 1010, 1010);
+    for (int q = 0; q < 2000; q++) {
+      if (q % 3 == 0) {
+        int i = random.nextInt(count);
+        x[i] = random.nextDouble() * 1000;
+        y[i] = random.nextDouble() * 1000;
+        grid.move(i, x[i], y[i]);
+      }
+      double px = random.nextDouble() * 1010;
+      double py = random.nextDouble() * 1010;
+      int expected = linearNearest(x, y, px, py);
+      int actual = grid.nearest(px, py);
+      double de = Math.hypot(x[expected] - px, y[expected] - py);
+      double da = Math.hypot(x[actual] - px, y[actual] - py);
+      assertEquals(de, da, 1e-9);
+    }
+    assertFalse(grid.stale);
+    grid.move(0, 2000, 2000);
+    assertTrue(grid.stale);
+  }
+
+  @Test
+  public void testLayout() {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    for (int i = 0; i < 300; i++) {
+      graph.addVertex();
+    }
+    for (int i = 1; i < 300; i++) {
+      graph.addEdge(i / 2, i);
+    }
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder().graph(graph).size(500, 500).createVisRunnable(false).build();
+    ISOMLayoutAlgorithm<Integer> layoutAlgorithm = new ISOMLayoutAlgorithm<>();
+    layoutModel.accept(layoutAlgorithm);
+    while (!layoutAlgorithm.done()) {
+      layoutAlgorithm.step();
+    }
+    for (Integer v : graph.vertexSet()) {
+      Point p = layoutModel.apply(v);
+      assertTrue(Double.isFinite(p.x) && Double.isFinite(p.y));
+    }
+    // a tree laid out by ISOM keeps neighbors closer than the layout average
+    double edgeLength =
+        graph
+            .edgeSet()
+            .stream()
+            .mapToDouble(
+                e ->
+                    layoutModel
+                        .apply(graph.getEdgeSource(e))
+                        .distance(layoutModel.apply(graph.getEdgeTarget(e))))
+            .average()
+            .orElse(0);
+    assertTrue(edgeLength < 100, "mean edge length " + edgeLength);
+  }
+}
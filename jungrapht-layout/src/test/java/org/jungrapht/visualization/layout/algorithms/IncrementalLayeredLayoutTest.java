@@ -0,0 +1,109 @@
+package org.jungrapht.visualization.layout.algorithms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Add a vertex to a laid out directed acyclic graph and check that an incremental layered layout
+ * keeps the rank of the other vertices, and, for Sugiyama, the order of the ranks above the change
+ *
+ * @author Tom Nelson
+ */
+public class IncrementalLayeredLayoutTest {
+
+  Graph<Integer, Integer> graph;
+  LayoutModel<Integer> layoutModel;
+
+  @BeforeEach
+  public void setup() {
+    graph =
+        GraphTypeBuilder.<Integer, Integer>directed()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    Random random = new Random(7);
+    for (int i = 0; i < 60; i++) {
+      graph.addVertex();
+    }
+    // every vertex has an edge from a lower numbered vertex, so the graph is connected and acyclic
+    for (int i = 1; i < 60; i++) {
+      graph.addEdge(random.nextInt(i), i);
+      if (i > 10) {
+        graph.addEdge(random.nextInt(i), i);
+      }
+    }
+    layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(1000, 1000)
+            .createVisRunnable(false)
+            .build();
+  }
+
+  /** @return the vertices of each rank, from left to right */
+  private Map<Double, List<Integer>> ranks() {
+    return graph
+        .vertexSet()
+        .stream()
+        .sorted((v, w) -> Double.compare(layoutModel.apply(v).x, layoutModel.apply(w).x))
+        .collect(Collectors.groupingBy(v -> layoutModel.apply(v).y, Collectors.toList()));
+  }
+
+  private void testAddVertex(
+      AbstractHierarchicalMinCrossLayoutAlgorithm<Integer, Integer> layout, boolean keepsOrder) {
+    layoutModel.accept(layout);
+    Map<Integer, Point> before = new HashMap<>(layoutModel.getLocations());
+    Map<Double, List<Integer>> ranksBefore = ranks();
+
+    // a new leaf below a vertex in the middle of the graph
+    Integer added = graph.addVertex();
+    graph.addEdge(30, added);
+    layoutModel.acceptIncremental(layout, Collections.singleton(added));
+
+    Map<Double, List<Integer>> ranksAfter = ranks();
+    // the ranks are spaced the same, so no vertex changed rank
+    for (Integer v : before.keySet()) {
+      assertEquals(before.get(v).y, layoutModel.apply(v).y, "vertex " + v + " changed rank");
+    }
+    assertTrue(layoutModel.apply(added).y > layoutModel.apply(30).y);
+    // the ranks above the change keep their order
+    double changedY = before.get(30).y;
+    ranksBefore.forEach(
+        (y, rank) -> {
+          if (!keepsOrder || y >= changedY) {
+            return;
+          }
+          List<Integer> after =
+              ranksAfter.get(y).stream().filter(v -> !v.equals(added)).collect(Collectors.toList());
+          assertEquals(rank, after, "the rank at " + y + " changed order");
+        });
+    assertFalse(layout.isIncremental());
+  }
+
+  @Test
+  public void testSugiyamaAddVertex() {
+    testAddVertex(
+        SugiyamaLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder().threaded(false).build(), true);
+  }
+
+  /** Eiglsperger sweeps every rank, starting from the retained order */
+  @Test
+  public void testEiglspergerAddVertex() {
+    testAddVertex(
+        EiglspergerLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder().threaded(false).build(),
+        false);
+  }
+}
@@ -0,0 +1,148 @@
+package org.jungrapht.visualization.layout.algorithms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Add a vertex to a laid out grid and check that an incremental layout places it near its
+ * neighbors, moves only the vertices near it, and unlocks the vertices that it locked
+ *
+ * @author Tom Nelson
+ */
+public class IncrementalLayoutAlgorithmTest {
+
+  Graph<Integer, Integer> graph;
+  LayoutModel<Integer> layoutModel;
+
+  @BeforeEach
+  public void setup() {
+    graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    int size = 20;
+    for (int i = 0; i < size * size; i++) {
+      graph.addVertex();
+    }
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        int v = row * size + col;
+        if (col + 1 < size) {
+          graph.addEdge(v, v + 1);
+        }
+        if (row + 1 < size) {
+          graph.addEdge(v, v + size);
+        }
+      }
+    }
+    layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(1000, 1000)
+            .createVisRunnable(false)
+            .build();
+  }
+
+  private void run(IterativeLayoutAlgorithm<Integer> layoutAlgorithm) {
+    // the spring layout relaxes until it is stopped
+    for (int i = 0; i < 10000 && !layoutAlgorithm.done(); i++) {
+      layoutAlgorithm.step();
+    }
+  }
+
+  private <
+          T extends AbstractIterativeLayoutAlgorithm<Integer> & IncrementalLayoutAlgorithm<Integer>>
+      void testAddVertex(T layoutAlgorithm) {
+    layoutModel.accept(layoutAlgorithm);
+    run(layoutAlgorithm);
+    Map<Integer, Point> before = new HashMap<>(layoutModel.getLocations());
+
+    // a new vertex joined to two neighboring vertices in the middle of the grid
+    Integer added = graph.addVertex();
+    graph.addEdge(added, 210);
+    graph.addEdge(added, 211);
+    layoutModel.acceptIncremental(layoutAlgorithm, Collections.singleton(added));
+    assertTrue(layoutAlgorithm.isIncremental());
+
+    Point p = layoutModel.apply(added);
+    Point center =
+        Point.of(
+            (before.get(210).x + before.get(211).x) / 2,
+            (before.get(210).y + before.get(211).y) / 2);
+    assertTrue(p.distance(center) < 10, p + " is not near " + center);
+
+    run(layoutAlgorithm);
+    if (!layoutAlgorithm.done()) {
+      layoutAlgorithm.cancel();
+    }
+    // more than 2 edges from the new vertex, nothing moved
+    for (int row = 0; row < 20; row++) {
+      for (int col = 0; col < 20; col++) {
+        int v = row * 20 + col;
+        int hops =
+            1
+                + Math.min(
+                    Math.abs(row - 10) + Math.abs(col - 10),
+                    Math.abs(row - 10) + Math.abs(col - 11));
+        if (hops > 2) {
+          assertEquals(before.get(v), layoutModel.apply(v), "vertex " + v + " moved");
+        }
+      }
+    }
+    assertNotEquals(before.get(210), layoutModel.apply(210));
+    assertFalse(layoutAlgorithm.isIncremental());
+    // the vertices locked for the incremental layout are unlocked
+    for (Integer v : graph.vertexSet()) {
+      assertFalse(layoutModel.isLocked(v), "vertex " + v + " is locked");
+    }
+  }
+
+  @Test
+  public void testFRAddVertex() {
+    testAddVertex(FRLayoutAlgorithm.<Integer>builder().randomSeed(0).build());
+  }
+
+  @Test
+  public void testMultilevelAddVertex() {
+    testAddVertex(MultilevelLayoutAlgorithm.<Integer>builder().randomSeed(0).build());
+  }
+
+  @Test
+  public void testSpringAddVertex() {
+    testAddVertex(SpringLayoutAlgorithm.<Integer, Integer>builder().randomSeed(0).build());
+  }
+
+  @Test
+  public void testForceAtlas2AddVertex() {
+    testAddVertex(ForceAtlas2LayoutAlgorithm.<Integer>builder().randomSeed(0).build());
+  }
+
+  @Test
+  public void testKKAddVertex() {
+    testAddVertex(KKLayoutAlgorithm.<Integer>builder().randomSeed(0).build());
+  }
+
+  @Test
+  public void testISOMAddVertex() {
+    testAddVertex(ISOMLayoutAlgorithm.<Integer>builder().randomSeed(0).build());
+  }
+
+  @Test
+  public void testGEMIsNotIncremental() {
+    // GEM lays out the whole graph again in each visit
+    assertFalse(
+        GEMLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder().build()
+            instanceof IncrementalLayoutAlgorithm);
+  }
+}
@@ -0,0 +1,121 @@
+package org.jungrapht.visualization.layout.algorithms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.algorithms.eiglsperger.EiglspergerRunnable;
+import org.jungrapht.visualization.layout.algorithms.sugiyama.SugiyamaRunnable;
+import org.jungrapht.visualization.layout.algorithms.util.LayeredRunnable;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.layout.model.Rectangle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that a layered layout whose deadline has passed still lays out the best order of its first
+ * sweep, and that intermediate layouts are published before the final layout
+ *
+ * @author Tom Nelson
+ */
+public class LayeredTimeBudgetTest {
+
+  Graph<Integer, Integer> graph;
+  LayoutModel<Integer> layoutModel;
+
+  @BeforeEach
+  public void setup() {
+    graph =
+        GraphTypeBuilder.<Integer, Integer>directed()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    Random random = new Random(5);
+    for (int i = 0; i < 80; i++) {
+      graph.addVertex();
+    }
+    for (int i = 1; i < 80; i++) {
+      graph.addEdge(random.nextInt(i), i);
+      graph.addEdge(random.nextInt(i), i);
+    }
+    layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(1000, 1000)
+            .createVisRunnable(false)
+            .build();
+  }
+
+  private void testPastDeadline(
+      LayeredRunnable<Integer> runnable, List<Map<Integer, Point>> sweeps) {
+    runnable.run();
+    // the first sweep always improves on no order at all, and no sweep starts after it
+    assertEquals(1, sweeps.size());
+    assertEquals(graph.vertexSet(), sweeps.get(0).keySet());
+    for (Integer v : graph.vertexSet()) {
+      assertNotNull(layoutModel.apply(v));
+    }
+    assertFalse(runnable.getEdgePointMap().isEmpty());
+  }
+
+  @Test
+  public void testSugiyamaPastDeadline() {
+    List<Map<Integer, Point>> sweeps = new ArrayList<>();
+    testPastDeadline(
+        SugiyamaRunnable.<Integer, Integer>builder()
+            .layoutModel(layoutModel)
+            .vertexShapeFunction(v -> Rectangle.of(-5, -5, 10, 10))
+            .straightenEdges(true)
+            .transpose(true)
+            .maxLevelCross(20)
+            .deadline(1)
+            .intermediate(sweeps::add)
+            .build(),
+        sweeps);
+  }
+
+  @Test
+  public void testEiglspergerPastDeadline() {
+    List<Map<Integer, Point>> sweeps = new ArrayList<>();
+    testPastDeadline(
+        EiglspergerRunnable.<Integer, Integer>builder()
+            .layoutModel(layoutModel)
+            .vertexShapeFunction(v -> Rectangle.of(-5, -5, 10, 10))
+            .straightenEdges(true)
+            .transpose(true)
+            .maxLevelCross(20)
+            .deadline(1)
+            .intermediate(sweeps::add)
+            .build(),
+        sweeps);
+  }
+
+  @Test
+  public void testIntermediateLayouts() {
+    // a second component, so that the intermediate layouts are placed side by side
+    Integer a = graph.addVertex();
+    Integer b = graph.addVertex();
+    graph.addEdge(a, b);
+    AtomicInteger published = new AtomicInteger();
+    SugiyamaLayoutAlgorithm<Integer, Integer> layoutAlgorithm =
+        SugiyamaLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder()
+            .threaded(false)
+            .intermediate(
+                () -> {
+                  published.incrementAndGet();
+                  // the component with the new edge is never placed over the other one
+                  assertNotEquals(layoutModel.apply(a), layoutModel.apply(0));
+                })
+            .build();
+    layoutModel.accept(layoutAlgorithm);
+    assertTrue(published.get() > 0);
+    assertNotEquals(layoutModel.apply(a).y, layoutModel.apply(b).y);
+  }
+}
@@ -0,0 +1,169 @@
+package org.jungrapht.visualization.layout.algorithms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lay out graphs with the MultilevelLayoutAlgorithm and check that every vertex ends up inside the
+ * layout area, and that the coarse levels give a better layout than the refinement alone
+ *
+ * @author Tom Nelson
+ */
+public class MultilevelLayoutAlgorithmTest {
+
+  private Graph<Integer, Integer> graph() {
+    return GraphTypeBuilder.<Integer, Integer>undirected()
+        .vertexSupplier(SupplierUtil.createIntegerSupplier())
+        .edgeSupplier(SupplierUtil.createIntegerSupplier())
+        .buildGraph();
+  }
+
+  /** a 40 by 40 grid */
+  private Graph<Integer, Integer> grid() {
+    Graph<Integer, Integer> graph = graph();
+    int size = 40;
+    for (int i = 0; i < size * size; i++) {
+      graph.addVertex();
+    }
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        int v = row * size + col;
+        if (col + 1 < size) {
+          graph.addEdge(v, v + 1);
+        }
+        if (row + 1 < size) {
+          graph.addEdge(v, v + size);
+        }
+      }
+    }
+    return graph;
+  }
+
+  /** a star, which a plain matching can only shrink by one vertex per level */
+  private Graph<Integer, Integer> star() {
+    Graph<Integer, Integer> graph = graph();
+    Integer hub = graph.addVertex();
+    for (int i = 0; i < 500; i++) {
+      graph.addEdge(hub, graph.addVertex());
+    }
+    return graph;
+  }
+
+  private LayoutModel<Integer> run(Graph<Integer, Integer> graph, int maxLevels) {
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(1000, 1000)
+            .createVisRunnable(false)
+            .build();
+    MultilevelLayoutAlgorithm<Integer> layoutAlgorithm =
+        MultilevelLayoutAlgorithm.<Integer>builder()
+            .randomSeed(0)
+            .levelIterations(30)
+            .maxLevels(maxLevels)
+            .build();
+    layoutModel.accept(layoutAlgorithm);
+    int steps = 0;
+    while (!layoutAlgorithm.done()) {
+      layoutAlgorithm.step();
+      steps++;
+    }
+    assertTrue(steps > 0);
+    if (maxLevels > 0) {
+      assertTrue(layoutAlgorithm.getLevelCount() > 1);
+    }
+    return layoutModel;
+  }
+
+  /**
+   * the squared coefficient of variation of the ratio of layout distance to graph distance, from a
+   * few sources to every vertex. 0 when the layout distances are proportional to the graph
+   * distances, whatever the scale of the layout
+   */
+  private double stress(Graph<Integer, Integer> graph, LayoutModel<Integer> layoutModel) {
+    double sum = 0;
+    double sumSquares = 0;
+    int count = 0;
+    List<Integer> vertices = new ArrayList<>(graph.vertexSet());
+    for (int s = 0; s < vertices.size(); s += vertices.size() / 20) {
+      Integer source = vertices.get(s);
+      Map<Integer, Integer> distance = new HashMap<>();
+      distance.put(source, 0);
+      List<Integer> queue = new ArrayList<>(List.of(source));
+      for (int head = 0; head < queue.size(); head++) {
+        Integer v = queue.get(head);
+        for (Integer w : Graphs.neighborListOf(graph, v)) {
+          if (distance.putIfAbsent(w, distance.get(v) + 1) == null) {
+            queue.add(w);
+          }
+        }
+      }
+      Point p = layoutModel.apply(source);
+      for (Map.Entry<Integer, Integer> entry : distance.entrySet()) {
+        if (entry.getValue() > 0) {
+          double ratio = p.distance(layoutModel.apply(entry.getKey())) / entry.getValue();
+          sum += ratio;
+          sumSquares += ratio * ratio;
+          count++;
+        }
+      }
+    }
+    double mean = sum / count;
+    return (sumSquares / count - mean * mean) / (mean * mean);
+  }
+
+  private void layout(Graph<Integer, Integer> graph) {
+    LayoutModel<Integer> layoutModel = run(graph, 40);
+    for (Integer vertex : graph.vertexSet()) {
+      Point p = layoutModel.apply(vertex);
+      assertFalse(Double.isNaN(p.x) || Double.isNaN(p.y), "vertex " + vertex + " at " + p);
+      assertTrue(p.x >= 0 && p.x <= layoutModel.getWidth(), "vertex " + vertex + " at " + p);
+      assertTrue(p.y >= 0 && p.y <= layoutModel.getHeight(), "vertex " + vertex + " at " + p);
+    }
+  }
+
+  @Test
+  public void testGrid() {
+    layout(grid());
+  }
+
+  /** the same refinement, from the same seed, does better when it starts from the coarse levels */
+  @Test
+  public void testBeatsSingleLevel() {
+    Graph<Integer, Integer> grid = grid();
+    double multilevel = stress(grid, run(grid, 40));
+    double singleLevel = stress(grid, run(grid, 0));
+    assertTrue(
+        multilevel < singleLevel, "multilevel " + multilevel + " single level " + singleLevel);
+  }
+
+  @Test
+  public void testStar() {
+    layout(star());
+  }
+
+  @Test
+  public void testEmptyGraph() {
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph())
+            .size(100, 100)
+            .createVisRunnable(false)
+            .build();
+    MultilevelLayoutAlgorithm<Integer> layoutAlgorithm =
+        MultilevelLayoutAlgorithm.<Integer>builder().build();
+    layoutModel.accept(layoutAlgorithm);
+    assertTrue(layoutAlgorithm.done());
+  }
+}
@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 import org.jungrapht.visualization.layout.algorithms.util.InsertionSortCounter;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -91,4 +92,27 @@ public class BiLayerCrossCountingTest {
     }
     log.info("layerN: {}", layerN);
   }
+
+  /** swapped target positions give the same count as a bi-layer built from the swapped rank */
+  @Test
+  public void testSwapTargets() {
+    BiLayer biLayer = BiLayer.of(edges);
+    Random random = new Random(1);
+    for (int k = 0; k < 50; k++) {
+      int j = random.nextInt(layerS.length - 1);
+      swap(layerS, j, j + 1);
+      biLayer.swapTargets(j, j + 1);
+      assertEquals(BiLayer.of(edges).crossingCount(), biLayer.crossingCount());
+      for (int e = 0; e < edges.size(); e++) {
+        assertEquals(edges.get(e).getTarget().getIndex(), biLayer.targets[e]);
+      }
+    }
+    // a position past the last vertex of the rank
+    int atFour = 0;
+    while (biLayer.targets[atFour] != 4) {
+      atFour++;
+    }
+    biLayer.swapTargets(4, 7);
+    assertEquals(7, biLayer.targets[atFour]);
+  }
 }
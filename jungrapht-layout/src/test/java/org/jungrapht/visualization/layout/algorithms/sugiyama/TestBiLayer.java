@@ -0,0 +1,119 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check the int array crossing counts of a BiLayer against a count of every pair of edges, and the
+ * primitive sort by measure against a stable sort of boxed positions
+ *
+ * @author Tom Nelson
+ */
+public class TestBiLayer {
+
+  Random random = new Random(11);
+
+  /** @return the crossing weight, counted over every pair of edges */
+  private static int pairCount(int[] sources, int[] targets, int[] weights) {
+    int count = 0;
+    for (int a = 0; a < sources.length; a++) {
+      for (int b = a + 1; b < sources.length; b++) {
+        long direction = (long) (sources[a] - sources[b]) * (targets[a] - targets[b]);
+        if (direction < 0) {
+          count += weights == null ? 1 : weights[a] * weights[b];
+        }
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testCrossingCount() {
+    for (int trial = 0; trial < 50; trial++) {
+      int upperSize = 1 + random.nextInt(20);
+      int lowerSize = 1 + random.nextInt(20);
+      int edgeCount = random.nextInt(60);
+      int[] sources = new int[edgeCount];
+      int[] targets = new int[edgeCount];
+      int[] weights = new int[edgeCount];
+      for (int e = 0; e < edgeCount; e++) {
+        sources[e] = random.nextInt(upperSize);
+        targets[e] = random.nextInt(lowerSize);
+        weights[e] = 1 + random.nextInt(4);
+      }
+      assertEquals(
+          pairCount(sources, targets, null),
+          new BiLayer(sources.clone(), targets.clone(), null).crossingCount());
+      assertEquals(
+          pairCount(sources, targets, weights),
+          new BiLayer(sources.clone(), targets.clone(), weights).crossingWeight());
+    }
+  }
+
+  @Test
+  public void testSwapTargets() {
+    int[] sources = {0, 0, 1, 2, 2, 3};
+    int[] targets = {1, 3, 0, 2, 3, 1};
+    BiLayer biLayer = new BiLayer(sources.clone(), targets.clone(), null);
+    assertEquals(pairCount(sources, targets, null), biLayer.crossingCount());
+    biLayer.swapTargets(1, 2);
+    int[] swapped = {2, 3, 0, 1, 3, 2};
+    assertEquals(pairCount(sources, swapped, null), biLayer.crossingCount());
+  }
+
+  @Test
+  public void testEdgeList() {
+    LV<String>[] upper = new LV[6];
+    LV<String>[] lower = new LV[5];
+    for (int i = 0; i < upper.length; i++) {
+      upper[i] = LV.of("n" + i, 0, i);
+    }
+    for (int i = 0; i < lower.length; i++) {
+      lower[i] = LV.of("s" + i, 1, i);
+    }
+    int[][] pairs = {
+      {0, 0}, {1, 1}, {1, 2}, {2, 0}, {2, 3}, {2, 4}, {3, 0}, {3, 2}, {4, 3}, {5, 2}, {5, 4}
+    };
+    List<LE<String, String>> edges = new ArrayList<>();
+    for (int[] pair : pairs) {
+      edges.add(LE.of("e" + edges.size(), upper[pair[0]], lower[pair[1]]));
+    }
+    // the edge order does not matter
+    edges.sort(Comparator.comparing(e -> e.getTarget().getVertex()));
+    assertEquals(12, AccumulatorTreeUtil.crossingCount(edges));
+    assertEquals(12, BiLayer.of(edges).crossingCount());
+  }
+
+  @Test
+  public void testSortByMeasure() {
+    for (int trial = 0; trial < 20; trial++) {
+      int size = random.nextInt(40);
+      double[] measure = new double[size];
+      for (int j = 0; j < size; j++) {
+        measure[j] = random.nextInt(6) - 1;
+      }
+      int[] order = IntStream.range(0, size).toArray();
+      ParallelSweeps.sortByMeasure(order, measure);
+      Integer[] expected = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+      Arrays.sort(expected, Comparator.comparingDouble(j -> measure[j]));
+      assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(), order);
+    }
+  }
+
+  @Test
+  public void testMedianValue() {
+    assertEquals(-1, BiLayer.medianValue(new int[] {9}, 0));
+    assertEquals(4, BiLayer.medianValue(new int[] {1, 4, 7, 9}, 3));
+    assertEquals(2, BiLayer.medianValue(new int[] {1, 4}, 2));
+    // leans towards the closer pair
+    double median = BiLayer.medianValue(new int[] {0, 4, 5, 6}, 4);
+    assertTrue(median > 4 && median < 5);
+  }
+}
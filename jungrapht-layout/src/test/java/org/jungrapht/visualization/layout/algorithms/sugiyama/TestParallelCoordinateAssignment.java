@@ -0,0 +1,154 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.algorithms.EiglspergerLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.LayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that running the four Brandes-Köpf alignments concurrently gives the same coordinates as
+ * running them one after another, and check the array backed {@link LayeredMap}
+ *
+ * @author Tom Nelson
+ */
+public class TestParallelCoordinateAssignment {
+
+  private Graph<Integer, Integer> graph() {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>directed()
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    IntStream.range(0, 60).forEach(graph::addVertex);
+    for (int i = 1; i < 60; i++) {
+      graph.addEdge(i / 3, i);
+      if (i > 10 && i % 4 == 0) {
+        graph.addEdge(i / 5, i);
+      }
+    }
+    return graph;
+  }
+
+  private Map<LV<Integer>, Point> points(LV<Integer>[][] layers) {
+    Map<LV<Integer>, Point> points = new HashMap<>();
+    for (LV<Integer>[] layer : layers) {
+      for (LV<Integer> v : layer) {
+        points.put(v, v.getPoint());
+      }
+    }
+    return points;
+  }
+
+  @Test
+  public void testSameCoordinates() throws Exception {
+    BrandesKopf<Integer, Integer> brandesKopf = new BrandesKopf<>(graph());
+    LV<Integer>[][] layers = brandesKopf.layersArray;
+
+    new HorizontalCoordinateAssignment<>(layers, brandesKopf.svGraph, new HashSet<>(), 20, 20)
+        .horizontalCoordinateAssignment();
+    Map<LV<Integer>, Point> sequential = points(layers);
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      new HorizontalCoordinateAssignment<>(
+              layers, brandesKopf.svGraph, new HashSet<>(), 20, 20, pool)
+          .horizontalCoordinateAssignment();
+      assertEquals(sequential, points(layers));
+    } finally {
+      pool.shutdown();
+    }
+
+    // a single thread executor that is busy running the assignment itself must not deadlock
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      single
+          .submit(
+              () ->
+                  new HorizontalCoordinateAssignment<>(
+                          layers, brandesKopf.svGraph, new HashSet<>(), 20, 20, single)
+                      .horizontalCoordinateAssignment())
+          .get(10, TimeUnit.SECONDS);
+      assertEquals(sequential, points(layers));
+    } finally {
+      single.shutdown();
+    }
+  }
+
+  private Map<Integer, Point> layout(LayoutAlgorithm<Integer> layoutAlgorithm) {
+    Graph<Integer, Integer> graph = graph();
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder().graph(graph).size(500, 500).build();
+    layoutModel.accept(layoutAlgorithm);
+    Map<Integer, Point> locations = new HashMap<>();
+    graph.vertexSet().forEach(v -> locations.put(v, layoutModel.apply(v)));
+    return locations;
+  }
+
+  @Test
+  public void testLayoutAlgorithms() {
+    assertEquals(
+        layout(SugiyamaLayoutAlgorithm.<Integer, Integer>builder().threaded(false).build()),
+        layout(
+            SugiyamaLayoutAlgorithm.<Integer, Integer>builder()
+                .threaded(false)
+                .parallelCoordinateAssignment(true)
+                .build()));
+    assertEquals(
+        layout(EiglspergerLayoutAlgorithm.<Integer, Integer>builder().threaded(false).build()),
+        layout(
+            EiglspergerLayoutAlgorithm.<Integer, Integer>builder()
+                .threaded(false)
+                .parallelCoordinateAssignment(true)
+                .build()));
+  }
+
+  @Test
+  public void testLayeredMap() {
+    LV<String>[][] layers = new LV[2][];
+    layers[0] = new LV[] {LV.of("a"), LV.of("b")};
+    layers[1] = new LV[] {LV.of("c")};
+    for (int i = 0; i < layers.length; i++) {
+      for (int j = 0; j < layers[i].length; j++) {
+        layers[i][j].setRank(i);
+        layers[i][j].setIndex(j);
+      }
+    }
+    LV<String> outside = LV.of("d");
+    outside.setRank(0);
+    outside.setIndex(1);
+
+    LayeredMap<String, Integer> map = new LayeredMap<>(layers);
+    assertTrue(map.isEmpty());
+    map.put(layers[0][1], 1);
+    map.put(layers[1][0], 2);
+    // same rank and index as layers[0][1], but not the vertex in the layers
+    map.put(outside, 3);
+    assertEquals(3, map.size());
+    assertEquals(1, map.get(layers[0][1]));
+    assertEquals(3, map.get(outside));
+    assertFalse(map.containsKey(layers[0][0]));
+    assertNull(map.get(layers[0][0]));
+
+    map.entrySet().forEach(entry -> entry.setValue(entry.getValue() * 10));
+    assertEquals(Map.of(layers[0][1], 10, layers[1][0], 20, outside, 30), new HashMap<>(map));
+
+    assertEquals(20, map.remove(layers[1][0]));
+    assertEquals(2, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+  }
+}
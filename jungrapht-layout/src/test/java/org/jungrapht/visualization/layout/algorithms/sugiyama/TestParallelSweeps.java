@@ -0,0 +1,137 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the concurrent crossing minimization chains and of the parallel mode of the
+ * SugiyamaLayoutAlgorithm
+ *
+ * @author Tom Nelson
+ */
+public class TestParallelSweeps {
+
+  LV<Integer>[][] layers;
+  Graph<LV<Integer>, LE<Integer, Integer>> svGraph;
+
+  /** random edges between adjacent ranks of a layered graph */
+  private void layeredGraph(int rankCount, int rankSize, int edgesPerRank) {
+    Random random = new Random(0);
+    svGraph = GraphTypeBuilder.<LV<Integer>, LE<Integer, Integer>>directed().buildGraph();
+    layers = new LV[rankCount][];
+    int id = 0;
+    for (int r = 0; r < rankCount; r++) {
+      layers[r] = new LV[rankSize];
+      for (int j = 0; j < rankSize; j++) {
+        layers[r][j] = LV.of(id++, r, j);
+        svGraph.addVertex(layers[r][j]);
+      }
+    }
+    int edge = 0;
+    for (int r = 0; r < rankCount - 1; r++) {
+      for (int i = 0; i < edgesPerRank; i++) {
+        LV<Integer> source = layers[r][random.nextInt(rankSize)];
+        LV<Integer> target = layers[r + 1][random.nextInt(rankSize)];
+        if (!svGraph.containsEdge(source, target)) {
+          svGraph.addEdge(source, target, LE.of(edge++, source, target));
+        }
+      }
+    }
+  }
+
+  private int crossingCount() {
+    int count = 0;
+    for (int r = 0; r < layers.length - 1; r++) {
+      List<LE<Integer, Integer>> edges = new ArrayList<>();
+      for (LV<Integer> v : layers[r]) {
+        edges.addAll(svGraph.outgoingEdgesOf(v));
+      }
+      count += AccumulatorTreeUtil.crossingCount(edges);
+    }
+    return count;
+  }
+
+  @Test
+  public void testMoreChainsAreNoWorse() {
+    layeredGraph(6, 20, 40);
+    int initial = crossingCount();
+
+    ParallelSweeps<Integer, Integer> sweeps = new ParallelSweeps<>(layers, svGraph);
+    int oneChain = sweeps.apply(layers, 1, 8, true, 6, () -> false);
+    assertEquals(oneChain, crossingCount());
+    assertTrue(oneChain < initial, oneChain + " not below " + initial);
+
+    layeredGraph(6, 20, 40);
+    sweeps = new ParallelSweeps<>(layers, svGraph);
+    int manyChains = sweeps.apply(layers, 6, 8, true, 6, () -> false);
+    assertEquals(manyChains, crossingCount());
+    assertTrue(manyChains <= oneChain, manyChains + " above " + oneChain);
+
+    for (LV<Integer>[] layer : layers) {
+      for (int j = 0; j < layer.length; j++) {
+        assertEquals(j, layer[j].getIndex());
+      }
+    }
+  }
+
+  /** a deadline that has already passed still gets one sweep from each chain */
+  @Test
+  public void testPastDeadline() {
+    layeredGraph(6, 20, 40);
+    int initial = crossingCount();
+
+    ParallelSweeps<Integer, Integer> sweeps = new ParallelSweeps<>(layers, svGraph);
+    int count = sweeps.apply(layers, 4, 8, true, 6, () -> true);
+    assertEquals(count, crossingCount());
+    assertTrue(count < initial, count + " not below " + initial);
+  }
+
+  /** several components, each minimized with parallel sweeps */
+  @Test
+  public void testParallelLayout() {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>directed()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    Random random = new Random(1);
+    for (int component = 0; component < 3; component++) {
+      List<Integer> vertices = new ArrayList<>();
+      for (int i = 0; i < 30; i++) {
+        vertices.add(graph.addVertex());
+      }
+      for (int i = 1; i < vertices.size(); i++) {
+        graph.addEdge(vertices.get(random.nextInt(i)), vertices.get(i));
+      }
+      for (int i = 0; i < 10; i++) {
+        int a = random.nextInt(vertices.size());
+        int b = random.nextInt(vertices.size());
+        if (a < b) {
+          graph.addEdge(vertices.get(a), vertices.get(b));
+        }
+      }
+    }
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder().graph(graph).size(600, 600).build();
+    SugiyamaLayoutAlgorithm<Integer, Integer> layoutAlgorithm =
+        SugiyamaLayoutAlgorithm.<Integer, Integer>edgeAwareBuilder()
+            .parallelSweeps(true)
+            .threaded(false)
+            .build();
+    layoutModel.accept(layoutAlgorithm);
+    assertEquals(graph.vertexSet(), layoutModel.getLocations().keySet());
+    for (Point p : layoutModel.getLocations().values()) {
+      assertFalse(Double.isNaN(p.x) || Double.isNaN(p.y));
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test that the retained layers forget the vertices and edges that were removed from the graph, so
+ * that they are treated as new when they are added again
+ *
+ * @author Tom Nelson
+ */
+public class TestRetainedLayers {
+
+  Graph<Integer, Integer> graph;
+  RetainedLayers<Integer, Integer> retainedLayers;
+
+  @BeforeEach
+  public void setup() {
+    // vertex 0 above vertices 1 and 2
+    graph = GraphTypeBuilder.<Integer, Integer>directed().buildGraph();
+    graph.addVertex(0);
+    graph.addVertex(1);
+    graph.addVertex(2);
+    graph.addEdge(0, 1, 0);
+    graph.addEdge(0, 2, 1);
+    retainedLayers = new RetainedLayers<>();
+  }
+
+  /** @return the graph of the layers of the current graph */
+  private Graph<LV<Integer>, LE<Integer, Integer>> dag() {
+    Graph<LV<Integer>, LE<Integer, Integer>> dag =
+        GraphTypeBuilder.<LV<Integer>, LE<Integer, Integer>>directed().buildGraph();
+    Map<Integer, LV<Integer>> lvs = new HashMap<>();
+    graph.vertexSet().forEach(v -> dag.addVertex(lvs.computeIfAbsent(v, LV::of)));
+    for (Integer e : graph.edgeSet()) {
+      LE<Integer, Integer> le =
+          LE.of(e, lvs.get(graph.getEdgeSource(e)), lvs.get(graph.getEdgeTarget(e)));
+      dag.addEdge(le.getSource(), le.getTarget(), le);
+    }
+    return dag;
+  }
+
+  /** rank the current graph from the retained layers, then retain the result */
+  private RetainedLayers<Integer, Integer>.Increment layout(List<Integer> changed) {
+    Graph<LV<Integer>, LE<Integer, Integer>> dag = dag();
+    RetainedLayers<Integer, Integer>.Increment increment = retainedLayers.increment();
+    List<List<LV<Integer>>> layers = increment.assignLayers(dag, changed);
+    LV<Integer>[][] layersArray = new LV[layers.size()][];
+    for (int r = 0; r < layers.size(); r++) {
+      layersArray[r] = layers.get(r).toArray(new LV[0]);
+    }
+    increment.order(layersArray, dag);
+    retainedLayers.retain(layersArray, dag);
+    return increment;
+  }
+
+  @Test
+  public void testUnchangedGraph() {
+    layout(Collections.emptyList());
+    RetainedLayers<Integer, Integer>.Increment increment = layout(Collections.emptyList());
+    assertEquals(-1, increment.getTouchedTo());
+  }
+
+  @Test
+  public void testRemoveAndAddEdge() {
+    layout(Collections.emptyList());
+
+    graph.removeEdge(1);
+    retainedLayers.prune(graph);
+    layout(List.of(0, 2));
+
+    // the same edge, added again, is new to the retained layers
+    graph.addEdge(0, 2, 1);
+    retainedLayers.prune(graph);
+    RetainedLayers<Integer, Integer>.Increment increment = layout(Collections.emptyList());
+    assertEquals(0, increment.getTouchedFrom());
+    assertEquals(1, increment.getTouchedTo());
+  }
+
+  @Test
+  public void testRemoveVertices() {
+    layout(Collections.emptyList());
+    graph.removeVertex(0);
+    graph.removeVertex(1);
+    graph.removeVertex(2);
+    retainedLayers.prune(graph);
+    assertTrue(retainedLayers.isEmpty());
+  }
+}
@@ -0,0 +1,74 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * compare the incremental transpose swap decisions with full recounts of the bi-layer crossings
+ *
+ * @author Tom Nelson
+ */
+public class TestTranspose {
+
+  LV<Integer>[] upper;
+  LV<Integer>[] lower;
+  List<LE<Integer, Integer>> edges;
+
+  private void biLayer(long seed, int size, int edgeCount) {
+    Random random = new Random(seed);
+    upper = new LV[size];
+    lower = new LV[size];
+    for (int i = 0; i < size; i++) {
+      upper[i] = LV.of(i, 0, i);
+      lower[i] = LV.of(size + i, 1, i);
+    }
+    edges = new ArrayList<>();
+    for (int i = 0; i < edgeCount; i++) {
+      edges.add(LE.of(i, upper[random.nextInt(size)], lower[random.nextInt(size)]));
+    }
+  }
+
+  @Test
+  public void testCrossings() {
+    assertEquals(0, Transpose.crossings(new int[] {0, 1}, new int[] {1, 2}));
+    assertEquals(4, Transpose.crossings(new int[] {2, 3}, new int[] {0, 1}));
+    assertEquals(2, Transpose.crossings(new int[] {1, 2}, new int[] {0, 2}));
+  }
+
+  /** no swap adds crossings, and afterwards no single adjacent swap can remove any */
+  private void testRank(LV<Integer>[] rank, boolean rankIsTarget) {
+    int before = AccumulatorTreeUtil.crossingCount(edges);
+    int passes = 0;
+    while (Transpose.transpose(rank, edges, rankIsTarget)) {
+      int after = AccumulatorTreeUtil.crossingCount(edges);
+      assertTrue(after < before, after + " not below " + before);
+      before = after;
+      passes++;
+    }
+    assertTrue(passes > 0);
+    for (int j = 0; j < rank.length; j++) {
+      assertEquals(j, rank[j].getIndex());
+    }
+    for (int j = 0; j < rank.length - 1; j++) {
+      AccumulatorTreeUtil.swap(rank, j, j + 1);
+      assertTrue(AccumulatorTreeUtil.crossingCount(edges) >= before, "swap at " + j);
+      AccumulatorTreeUtil.swap(rank, j, j + 1);
+    }
+  }
+
+  @Test
+  public void testTargetRank() {
+    biLayer(0, 30, 80);
+    testRank(lower, true);
+  }
+
+  @Test
+  public void testSourceRank() {
+    biLayer(1, 30, 80);
+    testRank(upper, false);
+  }
+}
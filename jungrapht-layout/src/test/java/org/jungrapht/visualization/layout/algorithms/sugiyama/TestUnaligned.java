@@ -0,0 +1,46 @@
+package org.jungrapht.visualization.layout.algorithms.sugiyama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.layout.model.Rectangle;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test that the centered locations published during a layered layout follow the index metadata and
+ * leave the points of the vertices alone
+ *
+ * @author Tom Nelson
+ */
+public class TestUnaligned {
+
+  @Test
+  public void testCenteredLocations() {
+    LV<Integer>[][] layers = new LV[2][];
+    layers[0] = new LV[] {LV.of(0, 0, 0)};
+    // the index metadata has the second rank in the opposite order to the array
+    layers[1] = new LV[] {LV.of(1, 1, 1), LV.of(2, 1, 0)};
+    Point unset = Point.of(-1, -1);
+    for (LV<Integer>[] layer : layers) {
+      for (LV<Integer> v : layer) {
+        v.setPoint(unset);
+      }
+    }
+
+    Map<Integer, Point> locations =
+        Unaligned.centeredLocations(layers, v -> Rectangle.of(10, 10), 20, 30);
+
+    assertEquals(3, locations.size());
+    assertTrue(locations.get(2).x < locations.get(1).x);
+    assertEquals(locations.get(1).y, locations.get(2).y);
+    assertTrue(locations.get(0).y < locations.get(1).y);
+    // the layers keep their order and their points
+    assertEquals(1, layers[1][0].getVertex());
+    for (LV<Integer>[] layer : layers) {
+      for (LV<Integer> v : layer) {
+        assertEquals(unset, v.getPoint());
+      }
+    }
+  }
+}
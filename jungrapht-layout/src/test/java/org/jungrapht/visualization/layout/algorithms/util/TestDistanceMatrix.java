@@ -0,0 +1,160 @@
+package org.jungrapht.visualization.layout.algorithms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Random;
+import org.jgrapht.Graph;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.AsUndirectedGraph;
+import org.jgrapht.graph.DefaultGraphType;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jungrapht.visualization.layout.algorithms.KKLayoutAlgorithm;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.Test;
+
+/** compare the DistanceMatrix to the jgrapht shortest paths */
+public class TestDistanceMatrix {
+
+  private Graph<Integer, Integer> graph(boolean directed, boolean weighted) {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>forGraphType(
+                directed ? DefaultGraphType.directedPseudograph() : DefaultGraphType.pseudograph())
+            .weighted(weighted)
+            .buildGraph();
+    Random random = new Random(0);
+    // two components, so that some pairs are not connected
+    for (int i = 0; i < 60; i++) {
+      graph.addVertex(i);
+    }
+    for (int i = 0; i < 90; i++) {
+      int offset = i % 2 == 0 ? 0 : 40;
+      int size = i % 2 == 0 ? 40 : 20;
+      graph.addEdge(offset + random.nextInt(size), offset + random.nextInt(size), i);
+      if (weighted) {
+        graph.setEdgeWeight(i, 1 + random.nextInt(5));
+      }
+    }
+    return graph;
+  }
+
+  private int expected(DijkstraShortestPath<Integer, Integer> dijkstra, int i, int j) {
+    GraphPath<Integer, Integer> path = dijkstra.getPath(i, j);
+    return path == null ? 0 : (int) path.getWeight();
+  }
+
+  private void testExact(boolean directed, boolean weighted, boolean parallel) {
+    Graph<Integer, Integer> graph = graph(directed, weighted);
+    Integer[] vertices = graph.vertexSet().toArray(new Integer[0]);
+    DistanceMatrix distances = DistanceMatrix.exact(graph, vertices, parallel);
+    DijkstraShortestPath<Integer, Integer> dijkstra = new DijkstraShortestPath<>(graph);
+    int diameter = 0;
+    for (int i = 0; i < vertices.length; i++) {
+      for (int j = 0; j < vertices.length; j++) {
+        if (i == j) {
+          continue;
+        }
+        int ij = expected(dijkstra, vertices[i], vertices[j]);
+        int ji = expected(dijkstra, vertices[j], vertices[i]);
+        diameter = Math.max(diameter, ij);
+        int shorter = ij == 0 ? ji : ji == 0 ? ij : Math.min(ij, ji);
+        assertEquals(shorter, distances.get(i, j), "distance from " + i + " to " + j);
+      }
+    }
+    assertEquals(diameter, distances.getDiameter());
+  }
+
+  @Test
+  public void testUndirected() {
+    testExact(false, false, false);
+  }
+
+  @Test
+  public void testDirectedParallel() {
+    testExact(true, false, true);
+  }
+
+  @Test
+  public void testWeighted() {
+    testExact(true, true, true);
+  }
+
+  /**
+   * the estimates are never shorter than the true distance. A pair in a component without a
+   * landmark has no estimate
+   */
+  @Test
+  public void testLandmarks() {
+    Graph<Integer, Integer> graph = graph(true, false);
+    Integer[] vertices = graph.vertexSet().toArray(new Integer[0]);
+    DistanceMatrix distances = DistanceMatrix.landmarks(graph, vertices, 6);
+    DijkstraShortestPath<Integer, Integer> dijkstra =
+        new DijkstraShortestPath<>(new AsUndirectedGraph<>(graph));
+    for (int i = 0; i < vertices.length; i++) {
+      for (int j = 0; j < vertices.length; j++) {
+        if (i == j) {
+          continue;
+        }
+        int actual = expected(dijkstra, vertices[i], vertices[j]);
+        int estimate = distances.get(i, j);
+        if (actual == 0) {
+          assertEquals(0, estimate, "not connected " + i + " and " + j);
+        } else {
+          assertTrue(estimate == 0 || estimate >= actual, estimate + " below " + actual);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testKKWithLandmarks() {
+    Graph<Integer, Integer> graph = graph(false, false);
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder().graph(graph).size(600, 600).createVisRunnable(false).build();
+    KKLayoutAlgorithm<Integer> layoutAlgorithm =
+        KKLayoutAlgorithm.<Integer>builder().landmarks(8).maxIterations(50).build();
+    layoutModel.accept(layoutAlgorithm);
+    while (!layoutAlgorithm.done()) {
+      layoutAlgorithm.step();
+    }
+    for (Integer vertex : graph.vertexSet()) {
+      Point p = layoutModel.apply(vertex);
+      assertFalse(Double.isNaN(p.x) || Double.isNaN(p.y), "vertex " + vertex + " at " + p);
+    }
+  }
+
+  /** the deprecated distance map of KK still answers lookups, backed by the distance matrix */
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testKKDistanceMap() {
+    Graph<Integer, Integer> graph = graph(false, false);
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder().graph(graph).size(600, 600).createVisRunnable(false).build();
+    Map<KKLayoutAlgorithm.Pair<Integer>, Integer>[] maps = new Map[1];
+    KKLayoutAlgorithm<Integer> layoutAlgorithm =
+        new KKLayoutAlgorithm<>(KKLayoutAlgorithm.<Integer>builder().maxIterations(1)) {
+          @Override
+          public void initialize() {
+            super.initialize();
+            maps[0] = this.distance;
+          }
+        };
+    layoutModel.accept(layoutAlgorithm);
+    DijkstraShortestPath<Integer, Integer> dijkstra = new DijkstraShortestPath<>(graph);
+    int connected = 0;
+    for (Integer v : graph.vertexSet()) {
+      for (Integer w : graph.vertexSet()) {
+        int expected = v.equals(w) ? 0 : expected(dijkstra, v, w);
+        Integer actual = maps[0].get(KKLayoutAlgorithm.Pair.of(v, w));
+        assertEquals(expected == 0 ? null : expected, actual, "distance from " + v + " to " + w);
+        if (expected != 0) {
+          connected++;
+        }
+      }
+    }
+    assertEquals(connected, maps[0].size());
+    assertEquals(connected, maps[0].entrySet().stream().count());
+  }
+}
@@ -0,0 +1,112 @@
+package org.jungrapht.visualization.layout.algorithms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.algorithms.sugiyama.GraphLayers;
+import org.jungrapht.visualization.layout.algorithms.sugiyama.LE;
+import org.jungrapht.visualization.layout.algorithms.sugiyama.LV;
+import org.jungrapht.visualization.layout.algorithms.sugiyama.TransformedGraphSupplier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check the layering made by the array based {@link NetworkSimplex}: it must be feasible, it must
+ * match the known optimum for the graph in the Gansner paper, and no single vertex move may shorten
+ * the edges of a larger random graph
+ *
+ * @author Tom Nelson
+ */
+public class TestNetworkSimplexLayering {
+
+  private static <V, E> int totalLength(Graph<LV<V>, LE<V, E>> svGraph) {
+    return svGraph
+        .edgeSet()
+        .stream()
+        .mapToInt(e -> svGraph.getEdgeSource(e).getRank() - svGraph.getEdgeTarget(e).getRank())
+        .sum();
+  }
+
+  private static <V, E> void assertFeasible(
+      Graph<LV<V>, LE<V, E>> svGraph, List<List<LV<V>>> layers) {
+    assertEquals(svGraph.vertexSet().size(), layers.stream().mapToInt(List::size).sum());
+    for (int i = 0; i < layers.size(); i++) {
+      for (int j = 0; j < layers.get(i).size(); j++) {
+        assertEquals(i, layers.get(i).get(j).getRank());
+        assertEquals(j, layers.get(i).get(j).getIndex());
+      }
+    }
+    for (LE<V, E> e : svGraph.edgeSet()) {
+      assertTrue(svGraph.getEdgeSource(e).getRank() > svGraph.getEdgeTarget(e).getRank());
+    }
+  }
+
+  @Test
+  public void testGansnerExample() {
+    Graph<LV<String>, LE<String, Integer>> svGraph =
+        new TransformedGraphSupplier<>(TestNetworkSimplex.generateDag()).get();
+    NetworkSimplex<String, Integer> networkSimplex = NetworkSimplex.builder(svGraph).build();
+    networkSimplex.run();
+    assertFeasible(svGraph, networkSimplex.getLayerList());
+    assertEquals(5, networkSimplex.getLayerList().size());
+    // the longest path layering has a total edge length of 11, the optimum is 10
+    assertEquals(10, totalLength(svGraph));
+    assertEquals(
+        svGraph.vertexSet().size() - 1,
+        networkSimplex.getEdgeInTreeMap().values().stream().filter(b -> b).count());
+  }
+
+  @Test
+  public void testRandomDag() {
+    Graph<Integer, Integer> dag =
+        GraphTypeBuilder.<Integer, Integer>directed()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    Random random = new Random(11);
+    int count = 3000;
+    for (int i = 0; i < count; i++) {
+      dag.addVertex();
+    }
+    // a connected dag with edges from lower to higher numbered vertices
+    for (int i = 1; i < count; i++) {
+      dag.addEdge(random.nextInt(i), i);
+      if (i > 20 && random.nextBoolean()) {
+        dag.addEdge(i - 1 - random.nextInt(20), i);
+      }
+    }
+    Graph<LV<Integer>, LE<Integer, Integer>> svGraph = new TransformedGraphSupplier<>(dag).get();
+
+    GraphLayers.longestPathReverse(svGraph);
+    int longestPathLength = totalLength(svGraph);
+
+    NetworkSimplex<Integer, Integer> networkSimplex = NetworkSimplex.builder(svGraph).build();
+    networkSimplex.run();
+    assertFeasible(svGraph, networkSimplex.getLayerList());
+    int length = totalLength(svGraph);
+    assertTrue(length < longestPathLength, length + " >= " + longestPathLength);
+
+    // moving any one vertex up or down a rank must not make the edges shorter
+    for (LV<Integer> v : svGraph.vertexSet()) {
+      int up = 0;
+      int down = 0;
+      boolean canMoveUp = true;
+      boolean canMoveDown = true;
+      for (LE<Integer, Integer> e : svGraph.outgoingEdgesOf(v)) {
+        up++;
+        down--;
+        canMoveDown &= v.getRank() - svGraph.getEdgeTarget(e).getRank() > 1;
+      }
+      for (LE<Integer, Integer> e : svGraph.incomingEdgesOf(v)) {
+        up--;
+        down++;
+        canMoveUp &= svGraph.getEdgeSource(e).getRank() - v.getRank() > 1;
+      }
+      assertFalse(canMoveUp && up < 0, "moving " + v + " up shortens the edges");
+      assertFalse(canMoveDown && down < 0, "moving " + v + " down shortens the edges");
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package org.jungrapht.visualization.layout.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultGraphType;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jungrapht.visualization.layout.algorithms.FRLayoutAlgorithm;
+import org.jungrapht.visualization.layout.event.LayoutVertexPositionChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class IndexedLayoutModelTest {
+
+  Graph<String, Integer> graph;
+  IndexedLayoutModel<String> layoutModel;
+
+  @BeforeEach
+  public void setup() {
+    graph =
+        GraphTypeBuilder.<String, Integer>forGraphType(DefaultGraphType.directedMultigraph())
+            .buildGraph();
+    graph.addVertex("A");
+    graph.addVertex("B");
+    graph.addVertex("C");
+    graph.addEdge("A", "B", 0);
+    graph.addEdge("B", "C", 1);
+    graph.addEdge("C", "A", 2);
+    layoutModel =
+        IndexedLayoutModel.<String>builder()
+            .graph(graph)
+            .size(500, 500)
+            .initializer(v -> Point.of(v.charAt(0), v.charAt(0) * 2))
+            .createVisRunnable(false)
+            .build();
+  }
+
+  @Test
+  public void testIndicesAreDense() {
+    assertEquals(3, layoutModel.size());
+    for (String vertex : graph.vertexSet()) {
+      int index = layoutModel.indexOf(vertex);
+      assertTrue(index >= 0 && index < 3);
+      assertEquals(vertex, layoutModel.vertexAt(index));
+      assertEquals(Point.of(vertex.charAt(0), vertex.charAt(0) * 2), layoutModel.get(vertex));
+    }
+  }
+
+  @Test
+  public void testSetByIndexAndByVertex() {
+    int b = layoutModel.indexOf("B");
+    layoutModel.set(b, 10, 20);
+    assertEquals(Point.of(10, 20), layoutModel.get("B"));
+    layoutModel.set("B", Point.of(30, 40));
+    assertEquals(30, layoutModel.getX(b));
+    assertEquals(40, layoutModel.getY(b));
+    assertEquals(Point.of(30, 40), layoutModel.getLocations().get("B"));
+  }
+
+  @Test
+  public void testBulkLocations() {
+    double[] x = new double[layoutModel.size()];
+    double[] y = new double[layoutModel.size()];
+    layoutModel.getLocations(x, y);
+    for (int i = 0; i < x.length; i++) {
+      x[i] += 100;
+      y[i] += 100;
+    }
+    layoutModel.lock("C", true);
+    Point c = layoutModel.get("C");
+
+    List<String> moved = new ArrayList<>();
+    layoutModel
+        .getLayoutVertexPositionSupport()
+        .addLayoutVertexPositionChangeListener(
+            new LayoutVertexPositionChange.Listener<>() {
+              @Override
+              public void layoutVertexPositionChanged(
+                  LayoutVertexPositionChange.Event<String> evt) {
+                moved.add(evt.vertex);
+              }
+
+              @Override
+              public void layoutVertexPositionChanged(
+                  LayoutVertexPositionChange.GraphEvent<String> evt) {}
+            });
+    layoutModel.setLocations(x, y);
+
+    assertEquals(Point.of('A' + 100, 'A' * 2 + 100), layoutModel.get("A"));
+    assertEquals(Point.of('B' + 100, 'B' * 2 + 100), layoutModel.get("B"));
+    assertEquals(c, layoutModel.get("C"));
+    assertEquals(2, moved.size());
+    assertFalse(moved.contains("C"));
+  }
+
+  @Test
+  public void testNewVertexIsIndexed() {
+    graph.addVertex("D");
+    int d = layoutModel.indexOf("D");
+    assertEquals(3, d);
+    assertEquals(Point.of('D', 'D' * 2), layoutModel.get("D"));
+    assertEquals(4, layoutModel.getLocations().size());
+  }
+
+  @Test
+  public void testIterativeAlgorithm() {
+    FRLayoutAlgorithm<String> layoutAlgorithm =
+        FRLayoutAlgorithm.<String>builder().randomSeed(0).prerelax(false).build();
+    layoutModel.accept(layoutAlgorithm);
+    for (int i = 0; i < 20; i++) {
+      layoutAlgorithm.step();
+    }
+    for (String vertex : graph.vertexSet()) {
+      Point p = layoutModel.get(vertex);
+      assertTrue(p.x >= 0 && p.x <= 500, "x out of bounds: " + p);
+      assertTrue(p.y >= 0 && p.y <= 500, "y out of bounds: " + p);
+    }
+  }
+
+  @Test
+  public void testLockedVertexIsNotMoved() {
+    Point b = layoutModel.get("B");
+    layoutModel.lock("B", true);
+    layoutModel.set(layoutModel.indexOf("B"), 10, 20);
+    layoutModel.set("B", 30, 40);
+    layoutModel.set("B", Point.of(50, 60));
+    assertEquals(b, layoutModel.get("B"));
+
+    layoutModel.lock("B", false);
+    layoutModel.set("B", 30, 40);
+    assertEquals(Point.of(30, 40), layoutModel.get("B"));
+  }
+
+  @Test
+  public void testPrune() {
+    layoutModel.set("C", 70, 80);
+    graph.removeVertex("A");
+    layoutModel.prune();
+    assertEquals(2, layoutModel.size());
+    assertEquals(2, layoutModel.getLocations().size());
+    assertFalse(layoutModel.getLocations().containsKey("A"));
+    assertEquals(Point.of(70, 80), layoutModel.get("C"));
+    assertEquals("C", layoutModel.vertexAt(layoutModel.indexOf("C")));
+
+    // a layout algorithm visit prunes too
+    graph.removeVertex("B");
+    layoutModel.accept(FRLayoutAlgorithm.<String>builder().prerelax(false).build());
+    assertEquals(1, layoutModel.size());
+    assertEquals(0, layoutModel.indexOf("C"));
+  }
+
+  /** FR moves the vertices of an IndexedLayoutModel by index */
+  @Test
+  public void testAlgorithmSetsByIndex() {
+    IndexedLayoutModel<String> byIndex =
+        new IndexedLayoutModel<>(
+            IndexedLayoutModel.<String>builder()
+                .graph(graph)
+                .size(500, 500)
+                .initializer(v -> Point.of(v.charAt(0), v.charAt(0) * 2))
+                .createVisRunnable(false)) {
+          @Override
+          public void set(String vertex, double x, double y) {
+            fail("moved " + vertex + " by vertex");
+          }
+        };
+    FRLayoutAlgorithm<String> layoutAlgorithm =
+        FRLayoutAlgorithm.<String>builder().randomSeed(0).prerelax(false).build();
+    byIndex.accept(layoutAlgorithm);
+    layoutAlgorithm.step();
+    assertNotEquals(Point.of('A', 'A' * 2), byIndex.get("A"));
+  }
+}
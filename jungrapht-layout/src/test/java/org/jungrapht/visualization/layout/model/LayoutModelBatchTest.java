@@ -0,0 +1,178 @@
+package org.jungrapht.visualization.layout.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultGraphType;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jungrapht.visualization.layout.event.LayoutVertexPositionChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** confirm that vertex moves made in a batch are delivered as one bulk event */
+public class LayoutModelBatchTest {
+
+  Graph<String, Integer> graph;
+  LayoutModel<String> layoutModel;
+  List<LayoutVertexPositionChange.BulkEvent<String>> bulkEvents = new ArrayList<>();
+  List<String> singleEvents = new ArrayList<>();
+  AtomicInteger viewChanges = new AtomicInteger();
+
+  @BeforeEach
+  public void setup() {
+    graph =
+        GraphTypeBuilder.<String, Integer>forGraphType(DefaultGraphType.directedMultigraph())
+            .buildGraph();
+    graph.addVertex("A");
+    graph.addVertex("B");
+    graph.addVertex("C");
+    layoutModel =
+        LayoutModel.<String>builder().graph(graph).size(500, 500).createVisRunnable(false).build();
+    layoutModel
+        .getLayoutVertexPositionSupport()
+        .addLayoutVertexPositionChangeListener(
+            new LayoutVertexPositionChange.Listener<>() {
+              @Override
+              public void layoutVertexPositionChanged(
+                  LayoutVertexPositionChange.Event<String> evt) {
+                singleEvents.add(evt.vertex);
+              }
+
+              @Override
+              public void layoutVertexPositionChanged(
+                  LayoutVertexPositionChange.GraphEvent<String> evt) {}
+
+              @Override
+              public void layoutVertexPositionsChanged(
+                  LayoutVertexPositionChange.BulkEvent<String> evt) {
+                bulkEvents.add(evt);
+              }
+            });
+    layoutModel.getViewChangeSupport().addViewChangeListener(viewChanges::incrementAndGet);
+  }
+
+  @Test
+  public void testUnbatchedSet() {
+    layoutModel.set("A", 1, 2);
+    layoutModel.set("B", 3, 4);
+    assertEquals(List.of("A", "B"), singleEvents);
+    assertTrue(bulkEvents.isEmpty());
+    assertEquals(2, viewChanges.get());
+  }
+
+  @Test
+  public void testNestedBatch() {
+    layoutModel.beginBatch();
+    layoutModel.set("A", 1, 2);
+    layoutModel.beginBatch();
+    layoutModel.set("B", 3, 4);
+    layoutModel.set("A", 5, 6);
+    layoutModel.commitBatch();
+    assertTrue(bulkEvents.isEmpty());
+    layoutModel.commitBatch();
+
+    assertTrue(singleEvents.isEmpty());
+    assertEquals(1, bulkEvents.size());
+    assertEquals(1, viewChanges.get());
+    LayoutVertexPositionChange.BulkEvent<String> evt = bulkEvents.get(0);
+    assertEquals(2, evt.vertices.size());
+    assertEquals(Point.of(5, 6), evt.locations.apply("A"));
+    assertEquals(Point.of(3, 4), evt.locations.apply("B"));
+  }
+
+  @Test
+  public void testEventVerticesAreKept() {
+    layoutModel.beginBatch();
+    layoutModel.set("A", 1, 2);
+    layoutModel.commitBatch();
+    layoutModel.beginBatch();
+    layoutModel.set("B", 3, 4);
+    layoutModel.commitBatch();
+
+    // the vertices of the first event are not cleared or reused by the second batch
+    assertEquals(2, bulkEvents.size());
+    assertEquals(Set.of("A"), bulkEvents.get(0).vertices);
+    assertEquals(Set.of("B"), bulkEvents.get(1).vertices);
+    assertThrows(UnsupportedOperationException.class, () -> bulkEvents.get(0).vertices.add("C"));
+  }
+
+  @Test
+  public void testSetMap() {
+    Map<String, Point> locations = new HashMap<>();
+    locations.put("A", Point.of(10, 10));
+    locations.put("C", Point.of(20, 20));
+    layoutModel.set(locations);
+    assertEquals(1, bulkEvents.size());
+    assertEquals(locations.keySet(), bulkEvents.get(0).vertices);
+    assertEquals(Point.of(20, 20), layoutModel.get("C"));
+  }
+
+  @Test
+  public void testBatchBelongsToThread() throws InterruptedException {
+    layoutModel.beginBatch();
+    layoutModel.set("A", 1, 2);
+    // a move on another thread, like a drag while a relax step has a batch open, is not delayed
+    Thread other = new Thread(() -> layoutModel.set("C", 7, 8));
+    other.start();
+    other.join();
+    assertEquals(List.of("C"), singleEvents);
+    layoutModel.commitBatch();
+    assertEquals(1, bulkEvents.size());
+    assertEquals(Set.of("A"), bulkEvents.get(0).vertices);
+
+    // the next batch starts empty
+    layoutModel.beginBatch();
+    layoutModel.set("B", 3, 4);
+    layoutModel.commitBatch();
+    assertEquals(Set.of("B"), bulkEvents.get(1).vertices);
+  }
+
+  /** a model that is never narrower than 400 */
+  private LayoutModel<String> minimumWidthModel() {
+    return new DefaultLayoutModel<>(LayoutModel.<String>builder().graph(graph).size(500, 500)) {
+      @Override
+      public void setSize(int width, int height) {
+        super.setSize(Math.max(width, 400), height);
+      }
+    };
+  }
+
+  /** appending all of the models at once places them as appending them one at a time does */
+  @Test
+  public void testAppendLayoutModels() {
+    List<LayoutModel<String>> components = new ArrayList<>();
+    int[] widths = {100, 300, 200};
+    String[] vertices = {"A", "B", "C"};
+    for (int i = 0; i < vertices.length; i++) {
+      Graph<String, Integer> component =
+          GraphTypeBuilder.<String, Integer>forGraphType(DefaultGraphType.directedMultigraph())
+              .buildGraph();
+      component.addVertex(vertices[i]);
+      LayoutModel<String> componentModel =
+          LayoutModel.<String>builder().graph(component).size(widths[i], 100 + i * 50).build();
+      componentModel.set(vertices[i], 10, 20);
+      components.add(componentModel);
+    }
+    LayoutModel<String> oneAtATime = minimumWidthModel();
+    components.forEach(oneAtATime::appendLayoutModel);
+    LayoutModel<String> all = minimumWidthModel();
+    all.appendLayoutModels(components);
+
+    assertEquals(oneAtATime.getWidth(), all.getWidth());
+    assertEquals(oneAtATime.getHeight(), all.getHeight());
+    for (String vertex : vertices) {
+      assertEquals(oneAtATime.apply(vertex), all.apply(vertex));
+    }
+  }
+
+  @Test
+  public void testCommitWithoutBegin() {
+    assertThrows(IllegalStateException.class, () -> layoutModel.commitBatch());
+  }
+}
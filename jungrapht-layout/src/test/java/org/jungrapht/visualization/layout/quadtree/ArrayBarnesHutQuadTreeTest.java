@@ -0,0 +1,168 @@
+package org.jungrapht.visualization.layout.quadtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the ArrayBarnesHutQuadTree construction, queries and refit
+ *
+ * @author Tom Nelson
+ */
+public class ArrayBarnesHutQuadTreeTest {
+
+  List<Integer> elements;
+  Map<Integer, Point> locations;
+
+  @BeforeEach
+  public void setup() {
+    Random random = new Random(0);
+    elements = new ArrayList<>();
+    locations = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      elements.add(i);
+      locations.put(i, Point.of(random.nextDouble() * 800, random.nextDouble() * 600));
+    }
+  }
+
+  /** all elements at the same location make a single leaf */
+  @Test
+  public void testSameLocation() {
+    ArrayBarnesHutQuadTree<String> tree = ArrayBarnesHutQuadTree.<String>builder().build();
+    tree.rebuild(List.of("A", "B", "C"), null, v -> Point.of(10, 10));
+    assertEquals(1, tree.getNodeCount());
+    assertEquals(3, tree.getMass());
+    assertEquals(Point.of(10, 10), tree.getCenterOfMass());
+
+    List<Double> visited = new ArrayList<>();
+    tree.applyForcesTo("A", 10, 10, (x, y, mass) -> visited.add(mass));
+    assertEquals(2, visited.size());
+  }
+
+  /** with a theta of 0, every other element is visited one at a time */
+  @Test
+  public void testThetaZeroVisitsAllElements() {
+    ArrayBarnesHutQuadTree<Integer> tree =
+        ArrayBarnesHutQuadTree.<Integer>builder().theta(0).build();
+    tree.rebuild(elements, null, locations::get);
+    assertEquals(elements.size(), tree.size());
+    assertTrue(tree.getNodeCount() < 2 * elements.size());
+
+    for (Integer element : List.of(0, 17, 999)) {
+      Point p = locations.get(element);
+      double[] sum = new double[3];
+      tree.applyForcesTo(
+          element,
+          p.x,
+          p.y,
+          (x, y, mass) -> {
+            sum[0] += x;
+            sum[1] += y;
+            sum[2] += mass;
+          });
+      double expectedX = 0;
+      double expectedY = 0;
+      for (Integer other : elements) {
+        if (!other.equals(element)) {
+          expectedX += locations.get(other).x;
+          expectedY += locations.get(other).y;
+        }
+      }
+      assertEquals(elements.size() - 1, sum[2]);
+      assertEquals(expectedX, sum[0], 1.0e-6);
+      assertEquals(expectedY, sum[1], 1.0e-6);
+    }
+  }
+
+  /** the summarized cells keep the total mass, and the default theta visits fewer cells */
+  @Test
+  public void testApproximation() {
+    ArrayBarnesHutQuadTree<Integer> tree = ArrayBarnesHutQuadTree.<Integer>builder().build();
+    tree.rebuild(elements, v -> 2.0, locations::get);
+    assertEquals(2.0 * elements.size(), tree.getMass(), 1.0e-9);
+
+    Point p = locations.get(0);
+    double[] visits = new double[2];
+    tree.applyForcesTo(
+        0,
+        p.x,
+        p.y,
+        (x, y, mass) -> {
+          visits[0]++;
+          visits[1] += mass;
+        });
+    assertTrue(visits[0] < elements.size() - 1);
+    assertEquals(2.0 * (elements.size() - 1), visits[1], 1.0e-9);
+  }
+
+  /** refit moves the centers of mass with the elements, and fails for different elements */
+  @Test
+  public void testRefit() {
+    ArrayBarnesHutQuadTree<Integer> tree =
+        ArrayBarnesHutQuadTree.<Integer>builder().rebuildInterval(5).build();
+    tree.update(elements, null, locations::get);
+    int nodeCount = tree.getNodeCount();
+    Point center = tree.getCenterOfMass();
+
+    assertTrue(tree.refit(elements, null, v -> locations.get(v).add(10, 20)));
+    assertEquals(nodeCount, tree.getNodeCount());
+    assertEquals(center.x + 10, tree.getCenterOfMass().x, 1.0e-6);
+    assertEquals(center.y + 20, tree.getCenterOfMass().y, 1.0e-6);
+
+    assertFalse(tree.refit(elements.subList(1, elements.size()), null, locations::get));
+    tree.update(elements.subList(1, elements.size()), null, locations::get);
+    assertEquals(elements.size() - 1, tree.size());
+  }
+
+  /** a tree built from primitive arrays gives the same forces as one built from the elements */
+  @Test
+  public void testPrimitiveArrays() {
+    int n = elements.size();
+    double[] xs = new double[n];
+    double[] ys = new double[n];
+    double[] masses = new double[n];
+    for (int i = 0; i < n; i++) {
+      xs[i] = locations.get(i).x;
+      ys[i] = locations.get(i).y;
+      masses[i] = 1 + i % 3;
+    }
+    ArrayBarnesHutQuadTree<Integer> tree = ArrayBarnesHutQuadTree.<Integer>builder().build();
+    ArrayBarnesHutQuadTree<Integer> primitive = ArrayBarnesHutQuadTree.<Integer>builder().build();
+    tree.rebuild(elements, v -> masses[v], locations::get);
+    primitive.rebuild(xs, ys, masses, n);
+    assertEquals(tree.getNodeCount(), primitive.getNodeCount());
+    assertEquals(tree.getMass(), primitive.getMass(), 1.0e-9);
+
+    for (int element : List.of(0, 17, 999)) {
+      double[] expected = new double[3];
+      double[] actual = new double[3];
+      tree.applyForcesTo(
+          Integer.valueOf(element),
+          xs[element],
+          ys[element],
+          (x, y, mass) -> {
+            expected[0] += x * mass;
+            expected[1] += y * mass;
+            expected[2] += mass;
+          });
+      primitive.applyForcesToIndex(
+          element,
+          xs[element],
+          ys[element],
+          (x, y, mass) -> {
+            actual[0] += x * mass;
+            actual[1] += y * mass;
+            actual[2] += mass;
+          });
+      assertArrayEquals(expected, actual, 1.0e-6);
+      assertEquals(tree.getMass() - masses[element], actual[2], 1.0e-9);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package org.jungrapht.visualization.layout.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultGraphType;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jungrapht.visualization.layout.algorithms.AbstractIterativeLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.FRLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.ForceAtlas2LayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.SpringLayoutAlgorithm;
+import org.jungrapht.visualization.layout.algorithms.repulsion.BarnesHutFA2Repulsion;
+import org.jungrapht.visualization.layout.algorithms.repulsion.BarnesHutFRRepulsion;
+import org.jungrapht.visualization.layout.algorithms.repulsion.BarnesHutSpringRepulsion;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs each BarnesHut repulsion sequentially and in parallel from the same start positions. The
+ * force on each vertex is computed from the same tree in both cases, so the end positions should be
+ * the same.
+ */
+public class ParallelRepulsionTest {
+
+  static ForkJoinPool pool;
+  Graph<Integer, Integer> graph;
+
+  @BeforeAll
+  public static void startPool() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterAll
+  public static void stopPool() {
+    pool.shutdown();
+  }
+
+  @BeforeEach
+  public void setup() {
+    graph =
+        GraphTypeBuilder.<Integer, Integer>forGraphType(DefaultGraphType.directedPseudograph())
+            .buildGraph();
+    Random random = new Random(0);
+    for (int i = 0; i < 500; i++) {
+      graph.addVertex(i);
+    }
+    for (int i = 0; i < 800; i++) {
+      graph.addEdge(random.nextInt(500), random.nextInt(500), i);
+    }
+  }
+
+  @Test
+  public void testFR() {
+    compare(
+        FRLayoutAlgorithm.<Integer>builder()
+            .repulsionContractBuilder(BarnesHutFRRepulsion.builder())
+            .prerelax(false)
+            .randomSeed(0)
+            .build(),
+        FRLayoutAlgorithm.<Integer>builder()
+            .repulsionContractBuilder(
+                BarnesHutFRRepulsion.builder().parallel(true).forkJoinPool(pool))
+            .prerelax(false)
+            .randomSeed(0)
+            .build());
+  }
+
+  /**
+   * with a theta of 0 both trees give the exact repulsion, summed in a different order. The
+   * rounding differences grow from step to step, so only a few steps are compared
+   */
+  @Test
+  public void testFRArrayBacked() {
+    compare(
+        FRLayoutAlgorithm.<Integer>builder()
+            .repulsionContractBuilder(BarnesHutFRRepulsion.builder().theta(0))
+            .prerelax(false)
+            .randomSeed(0)
+            .build(),
+        FRLayoutAlgorithm.<Integer>builder()
+            .repulsionContractBuilder(
+                BarnesHutFRRepulsion.builder().theta(0).arrayBacked(true).parallel(true))
+            .prerelax(false)
+            .randomSeed(0)
+            .build(),
+        3);
+  }
+
+  @Test
+  public void testSpring() {
+    compare(
+        SpringLayoutAlgorithm.<Integer, Integer>builder()
+            .repulsionContractBuilder(BarnesHutSpringRepulsion.builder())
+            .prerelax(false)
+            .randomSeed(0)
+            .build(),
+        SpringLayoutAlgorithm.<Integer, Integer>builder()
+            .repulsionContractBuilder(
+                BarnesHutSpringRepulsion.builder().parallel(true).forkJoinPool(pool))
+            .prerelax(false)
+            .randomSeed(0)
+            .build());
+  }
+
+  @Test
+  public void testFA2() {
+    compare(
+        ForceAtlas2LayoutAlgorithm.<Integer>builder()
+            .repulsionContractBuilder(BarnesHutFA2Repulsion.builder())
+            .prerelax(false)
+            .randomSeed(0)
+            .build(),
+        ForceAtlas2LayoutAlgorithm.<Integer>builder()
+            .repulsionContractBuilder(
+                BarnesHutFA2Repulsion.builder().parallel(true).forkJoinPool(pool))
+            .prerelax(false)
+            .randomSeed(0)
+            .build());
+  }
+
+  /** the parallel FR repulsion leaves locked vertices alone, as the sequential one does */
+  @Test
+  public void testFRLocked() {
+    for (boolean parallel : new boolean[] {false, true}) {
+      LayoutModel<Integer> layoutModel =
+          LayoutModel.<Integer>builder()
+              .graph(graph)
+              .size(1000, 1000)
+              .initializer(v -> Point.of((v * 37) % 1000, (v * 91) % 1000))
+              .createVisRunnable(false)
+              .build();
+      layoutModel.lock(7, true);
+      Map<Integer, Point> forces = new HashMap<>();
+      BarnesHutFRRepulsion<Integer> repulsion =
+          BarnesHutFRRepulsion.<Integer>builder()
+              .parallel(parallel)
+              .forkJoinPool(pool)
+              .layoutModel(layoutModel)
+              .nodeData(forces)
+              .random(new Random(0))
+              .build();
+      repulsion.step();
+      repulsion.calculateRepulsion();
+      assertFalse(forces.containsKey(7), "parallel " + parallel);
+      assertEquals(graph.vertexSet().size() - 1, forces.size(), "parallel " + parallel);
+    }
+  }
+
+  private void compare(
+      AbstractIterativeLayoutAlgorithm<Integer> sequential,
+      AbstractIterativeLayoutAlgorithm<Integer> parallel) {
+    compare(sequential, parallel, 20);
+  }
+
+  private void compare(
+      AbstractIterativeLayoutAlgorithm<Integer> sequential,
+      AbstractIterativeLayoutAlgorithm<Integer> parallel,
+      int steps) {
+    LayoutModel<Integer> one = run(sequential, steps);
+    LayoutModel<Integer> two = run(parallel, steps);
+    for (Integer vertex : graph.vertexSet()) {
+      Point p = one.apply(vertex);
+      Point q = two.apply(vertex);
+      assertEquals(p.x, q.x, 1.0e-6, "vertex " + vertex);
+      assertEquals(p.y, q.y, 1.0e-6, "vertex " + vertex);
+    }
+  }
+
+  private LayoutModel<Integer> run(
+      AbstractIterativeLayoutAlgorithm<Integer> layoutAlgorithm, int steps) {
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(1000, 1000)
+            .initializer(v -> Point.of((v * 37) % 1000, (v * 91) % 1000))
+            .createVisRunnable(false)
+            .build();
+    layoutModel.accept(layoutAlgorithm);
+    for (int i = 0; i < steps; i++) {
+      layoutAlgorithm.step();
+    }
+    return layoutModel;
+  }
+}
@@ -0,0 +1,113 @@
+package org.jungrapht.visualization.layout.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultGraphType;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jungrapht.visualization.layout.algorithms.util.IterativeContext;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** exercise the StepScheduler modes of the VisRunnable */
+public class VisRunnableTest {
+
+  LayoutModel<String> layoutModel;
+  AtomicInteger viewChanges = new AtomicInteger();
+
+  /** moves vertex A on each step and is done after a fixed number of steps */
+  class CountingContext implements IterativeContext {
+    final int maxSteps;
+    int steps;
+
+    CountingContext(int maxSteps) {
+      this.maxSteps = maxSteps;
+    }
+
+    @Override
+    public void step() {
+      steps++;
+      layoutModel.set("A", steps, steps);
+    }
+
+    @Override
+    public boolean done() {
+      return steps >= maxSteps;
+    }
+  }
+
+  @BeforeEach
+  public void setup() {
+    Graph<String, Integer> graph =
+        GraphTypeBuilder.<String, Integer>forGraphType(DefaultGraphType.directedMultigraph())
+            .buildGraph();
+    graph.addVertex("A");
+    layoutModel =
+        LayoutModel.<String>builder().graph(graph).size(500, 500).createVisRunnable(false).build();
+    layoutModel.getViewChangeSupport().addViewChangeListener(viewChanges::incrementAndGet);
+  }
+
+  @Test
+  public void testFixedDelay() {
+    CountingContext context = new CountingContext(5);
+    VisRunnable visRunnable = new VisRunnable(context, layoutModel, StepScheduler.fixedDelay(1));
+    visRunnable.run();
+    assertEquals(5, context.steps);
+    assertEquals(5, visRunnable.getStepCount());
+    assertEquals(5, visRunnable.getFrameCount());
+    assertEquals(5, viewChanges.get());
+  }
+
+  @Test
+  public void testUnthrottled() {
+    CountingContext context = new CountingContext(100);
+    VisRunnable visRunnable = new VisRunnable(context, layoutModel, StepScheduler.unthrottled());
+    visRunnable.run();
+    assertEquals(100, visRunnable.getStepCount());
+    assertEquals(1, visRunnable.getFrameCount());
+    // all of the steps were published as one snapshot
+    assertEquals(1, viewChanges.get());
+    assertTrue(visRunnable.getStepsPerSecond() > 0);
+    assertTrue(visRunnable.getTimePerStep() >= 0);
+  }
+
+  @Test
+  public void testFrameBudget() {
+    CountingContext context = new CountingContext(1000);
+    VisRunnable visRunnable = new VisRunnable(context, layoutModel, StepScheduler.frameBudget(50));
+    visRunnable.run();
+    assertEquals(1000, visRunnable.getStepCount());
+    assertTrue(visRunnable.getFrameCount() < 1000);
+    assertEquals(visRunnable.getFrameCount(), viewChanges.get());
+  }
+
+  @Test
+  public void testTargetFps() {
+    CountingContext context = new CountingContext(200);
+    VisRunnable visRunnable = new VisRunnable(context, layoutModel, StepScheduler.targetFps(60));
+    visRunnable.run();
+    assertEquals(200, visRunnable.getStepCount());
+    assertTrue(visRunnable.getFrameCount() < 200);
+  }
+
+  @Test
+  public void testStop() {
+    CountingContext context =
+        new CountingContext(Integer.MAX_VALUE) {
+          @Override
+          public void step() {
+            super.step();
+            if (steps == 10) {
+              visRunnable.stop();
+            }
+          }
+        };
+    visRunnable = new VisRunnable(context, layoutModel, StepScheduler.unthrottled());
+    visRunnable.run();
+    assertEquals(10, context.steps);
+  }
+
+  VisRunnable visRunnable;
+}
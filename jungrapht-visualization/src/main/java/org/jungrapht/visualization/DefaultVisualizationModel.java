@@ -107,7 +107,8 @@ class DefaultVisualizationModel<V, E> implements VisualizationModel<V, E> {
   @Override
   public void setLayoutModel(LayoutModel<V> layoutModel) {
     // stop any Relaxer threads before abandoning the previous LayoutModel
-    if (this.layoutModel != null) {
+    boolean replaced = this.layoutModel != null;
+    if (replaced) {
       this.layoutModel.stop();
       this.layoutModel.getModelChangeSupport().getModelChangeListeners().remove(this);
       this.layoutModel.getViewChangeSupport().getViewChangeListeners().remove(this);
@@ -119,6 +120,10 @@ class DefaultVisualizationModel<V, E> implements VisualizationModel<V, E> {
     if (layoutAlgorithm != null) {
       layoutModel.accept(layoutAlgorithm);
     }
+    if (replaced) {
+      // listeners of the previous LayoutModel follow this one
+      getModelChangeSupport().fireModelChanged();
+    }
   }
 
   @Override
@@ -88,6 +88,7 @@ class DefaultVisualizationServer<V, E> extends JPanel
   private static final String EDGE_SPATIAL_SUPPORT = PREFIX + "edgeSpatialSupport";
   private static final String SPATIAL_SUPPORT_ON_SWING_THREAD =
       PREFIX + "spatialSupportOnSwingThread";
+  private static final String PACKED_RTREE = PREFIX + "packedRTree";
   private static final String PROPERTIES_FILE_NAME =
       System.getProperty("jungrapht.properties.file.name", PREFIX + "properties");
   private static final String LIGHTWEIGHT_VERTEX_COUNT_THRESHOLD =
@@ -95,6 +96,9 @@ class DefaultVisualizationServer<V, E> extends JPanel
   private static final String LIGHTWEIGHT_SCALE_THRESHOLD = PREFIX + "lightweightScaleThreshold";
 
   private static final String DOUBLE_BUFFERED = PREFIX + "doubleBuffered";
+  private static final String TILE_CACHE = PREFIX + "tileCache";
+  private static final String TILE_SIZE = PREFIX + "tileSize";
+  private static final String TILE_MARGIN = PREFIX + "tileMargin";
 
   private static final String SCALE_TO_LAYOUT_PADDING_FACTOR =
       PREFIX + "scaleToLayoutPaddingFactor";
@@ -130,6 +134,22 @@ class DefaultVisualizationServer<V, E> extends JPanel
   /** user-settable choice to use the offscreen image or not. 'false' by default */
   protected boolean doubleBuffered;
 
+  /** user-settable choice to draw the graph from cached tiles. 'false' by default */
+  protected boolean tileCached = Boolean.parseBoolean(System.getProperty(TILE_CACHE, "false"));
+
+  /** holds the rendered graph as tiles, so that a pan renders only the exposed tiles */
+  protected TileCache<V, E> tileCache =
+      new TileCache<>(
+          this,
+          Integer.getInteger(TILE_SIZE, 256),
+          Integer.getInteger(TILE_MARGIN, 64));
+
+  /** the layout model that the tile cache listens to for moved vertices */
+  private LayoutModel<V> tileCacheLayoutModel;
+
+  /** while a tile is rendered, the area of the view that is rendered */
+  private Rectangle2D renderBounds;
+
   /**
    * a collection of user-implementable functions to render under the topology (before the graph is
    * rendered)
@@ -153,6 +173,9 @@ class DefaultVisualizationServer<V, E> extends JPanel
   protected boolean spatialSupportOnSwingThread =
       Boolean.parseBoolean(System.getProperty(SPATIAL_SUPPORT_ON_SWING_THREAD, "true"));
 
+  /** whether the RTree spatial structures are packed read-only until an element is moved */
+  protected boolean packedRTree = Boolean.parseBoolean(System.getProperty(PACKED_RTREE, "false"));
+
   protected BiFunction<Graph<V, E>, E, Shape> savedEdgeShapeFunction;
 
   protected int lightweightRenderingVertexCountThreshold =
@@ -249,6 +272,7 @@ class DefaultVisualizationServer<V, E> extends JPanel
   @Override
   public void layoutSizeChanged(LayoutSizeChange.Event evt) {
     log.trace("layoutSizeChanged to {} x {}", evt.width, evt.height);
+    tileCache.reset();
     scaleToLayout();
   }
 
@@ -277,10 +301,16 @@ class DefaultVisualizationServer<V, E> extends JPanel
     }
     this.vertexSpatial = spatial;
 
-    boolean layoutModelRelaxing = visualizationModel.getLayoutModel().isRelaxing();
-    vertexSpatial.setActive(!layoutModelRelaxing);
-    if (!layoutModelRelaxing) {
-      vertexSpatial.recalculate();
+    LayoutModel<V> layoutModel = visualizationModel.getLayoutModel();
+    boolean layoutModelRelaxing = layoutModel.isRelaxing();
+    if (layoutModelRelaxing && vertexSpatial.isLiveIndex()) {
+      // a live structure stays active while the layout model relaxes
+      vertexSpatial.layoutStateChanged(new LayoutStateChange.Event(layoutModel, true));
+    } else {
+      vertexSpatial.setActive(!layoutModelRelaxing);
+      if (!layoutModelRelaxing) {
+        vertexSpatial.recalculate();
+      }
     }
     connectListeners(spatial);
   }
@@ -298,10 +328,16 @@ class DefaultVisualizationServer<V, E> extends JPanel
     }
     this.edgeSpatial = spatial;
 
-    boolean layoutModelRelaxing = visualizationModel.getLayoutModel().isRelaxing();
-    edgeSpatial.setActive(!layoutModelRelaxing);
-    if (!layoutModelRelaxing) {
-      edgeSpatial.recalculate();
+    LayoutModel<V> layoutModel = visualizationModel.getLayoutModel();
+    boolean layoutModelRelaxing = layoutModel.isRelaxing();
+    if (layoutModelRelaxing && edgeSpatial.isLiveIndex()) {
+      // a live structure stays active while the layout model relaxes
+      edgeSpatial.layoutStateChanged(new LayoutStateChange.Event(layoutModel, true));
+    } else {
+      edgeSpatial.setActive(!layoutModelRelaxing);
+      if (!layoutModelRelaxing) {
+        edgeSpatial.recalculate();
+      }
     }
     connectListeners(edgeSpatial);
   }
@@ -342,6 +378,24 @@ class DefaultVisualizationServer<V, E> extends JPanel
     return doubleBuffered;
   }
 
+  @Override
+  public void setTileCached(boolean tileCached) {
+    this.tileCached = tileCached;
+    tileCache.reset();
+    repaint();
+  }
+
+  @Override
+  public boolean isTileCached() {
+    return tileCached;
+  }
+
+  @Override
+  public void clearTileCache() {
+    tileCache.reset();
+    repaint();
+  }
+
   /**
    * Always sanity-check getLayoutSize so that we don't use a value that is improbable
    *
@@ -397,6 +451,30 @@ class DefaultVisualizationServer<V, E> extends JPanel
         .getLayoutStateChangeSupport()
         .addLayoutStateChangeListener(this);
     this.visualizationModel.getLayoutSizeChangeSupport().addLayoutSizeChangeListener(this);
+    followLayoutModel();
+    tileCache.reset();
+  }
+
+  /**
+   * move the tile cache's vertex position listener, and the spatial structures, to the current
+   * layout model, which the visualization model may have replaced
+   */
+  private void followLayoutModel() {
+    LayoutModel<V> layoutModel = visualizationModel.getLayoutModel();
+    if (layoutModel == tileCacheLayoutModel) {
+      return;
+    }
+    if (tileCacheLayoutModel != null) {
+      tileCacheLayoutModel
+          .getLayoutVertexPositionSupport()
+          .removeLayoutVertexPositionChangeListener(tileCache);
+      if (renderContext != null) {
+        createSpatialStuctures(visualizationModel, renderContext);
+      }
+    }
+    tileCacheLayoutModel = layoutModel;
+    layoutModel.getLayoutVertexPositionSupport().addLayoutVertexPositionChangeListener(tileCache);
+    tileCache.reset();
   }
 
   @Override
@@ -518,8 +596,11 @@ class DefaultVisualizationServer<V, E> extends JPanel
 
   @Override
   public Shape viewOnLayout() {
-    Dimension d = this.getSize();
     MultiLayerTransformer vt = renderContext.getMultiLayerTransformer();
+    if (renderBounds != null) {
+      return vt.inverseTransform(renderBounds);
+    }
+    Dimension d = this.getSize();
     Shape s = new Rectangle2D.Double(0, 0, d.width, d.height);
     return vt.inverseTransform(s);
   }
@@ -569,7 +650,10 @@ class DefaultVisualizationServer<V, E> extends JPanel
       }
     }
 
-    renderer.render(renderContext, visualizationModel.getLayoutModel(), vertexSpatial, edgeSpatial);
+    if (!tileCached || !paintTiles(g2d, oldXform, newXform)) {
+      renderer.render(
+          renderContext, visualizationModel.getLayoutModel(), vertexSpatial, edgeSpatial);
+    }
 
     // if there are postRenderers set, do it
     for (Paintable paintable : postRenderers) {
@@ -585,6 +669,53 @@ class DefaultVisualizationServer<V, E> extends JPanel
     g2d.setTransform(oldXform);
   }
 
+  /**
+   * draw the graph from the cached tiles
+   *
+   * @param g2d the graphics context
+   * @param oldXform the transform of g2d without the view transform
+   * @param newXform the transform of g2d with the view transform
+   * @return false if the tiles could not be used and the graph must be rendered directly
+   */
+  private boolean paintTiles(Graphics2D g2d, AffineTransform oldXform, AffineTransform newXform) {
+    g2d.setTransform(oldXform);
+    try {
+      return tileCache.paint(g2d);
+    } finally {
+      g2d.setTransform(newXform);
+    }
+  }
+
+  /**
+   * render the part of the graph that is in one tile
+   *
+   * @param g2d the graphics context of the tile image
+   * @param viewBounds the area of the view that the tile holds
+   * @param margin the distance past the tile to look for elements that may be drawn on it
+   */
+  void renderTile(Graphics2D g2d, Rectangle2D viewBounds, int margin) {
+    GraphicsDecorator graphicsContext = renderContext.getGraphicsContext();
+    Graphics2D delegate = graphicsContext.getDelegate();
+    g2d.setRenderingHints(renderingHints);
+    g2d.translate(-viewBounds.getX(), -viewBounds.getY());
+    g2d.transform(
+        renderContext.getMultiLayerTransformer().getTransformer(Layer.VIEW).getTransform());
+    graphicsContext.setDelegate(g2d);
+    renderBounds =
+        new Rectangle2D.Double(
+            viewBounds.getX() - margin,
+            viewBounds.getY() - margin,
+            viewBounds.getWidth() + 2 * margin,
+            viewBounds.getHeight() + 2 * margin);
+    try {
+      renderer.render(
+          renderContext, visualizationModel.getLayoutModel(), vertexSpatial, edgeSpatial);
+    } finally {
+      renderBounds = null;
+      graphicsContext.setDelegate(delegate);
+    }
+  }
+
   /** a ModelChange.Event from the LayoutModel will trigger a repaint of the visualization */
   @Override
   public void modelChanged() {
@@ -595,6 +726,8 @@ class DefaultVisualizationServer<V, E> extends JPanel
       SwingUtilities.invokeLater(() -> displayLayoutBounds()); // for debugging
     }
     updateSelectionStates();
+    followLayoutModel();
+    tileCache.reset();
     repaint();
   }
 
@@ -669,18 +802,24 @@ class DefaultVisualizationServer<V, E> extends JPanel
 
   @Override
   public void viewChanged() {
+    // the layout model fires this for each moved vertex, and the tile cache discards only the
+    // tiles that the moves touched. A change of the view transform is found when the tiles are
+    // painted
+    followLayoutModel();
     repaint();
   }
 
   @Override
   public void layoutStateChanged(LayoutStateChange.Event evt) {
     log.trace("layoutStateChanged. active:{}", evt.active);
+    tileCache.reset();
     //    repaint();
     //    no op
   }
 
   @Override
   public void renderContextStateChanged(RenderContextStateChange.Event evt) {
+    tileCache.reset();
     this.createSpatialStuctures(visualizationModel, renderContext);
   }
 
@@ -803,7 +942,11 @@ class DefaultVisualizationServer<V, E> extends JPanel
     this.selectedVertexState = selectedVertexState;
     this.renderContext.setSelectedVertexState(selectedVertexState);
     if (pickEventListener == null) {
-      pickEventListener = e -> repaint();
+      pickEventListener =
+          e -> {
+            tileCache.selectionChanged(e.getItem());
+            repaint();
+          };
     }
     selectedVertexState.addItemListener(pickEventListener);
   }
@@ -817,7 +960,11 @@ class DefaultVisualizationServer<V, E> extends JPanel
     this.selectedEdgeState = selectedEdgeState;
     this.renderContext.setSelectedEdgeState(selectedEdgeState);
     if (pickEventListener == null) {
-      pickEventListener = e -> repaint();
+      pickEventListener =
+          e -> {
+            tileCache.selectionChanged(e.getItem());
+            repaint();
+          };
     }
     selectedEdgeState.addItemListener(pickEventListener);
   }
@@ -945,26 +1092,13 @@ class DefaultVisualizationServer<V, E> extends JPanel
                 .layoutModel(layoutModel)
                 .boundingRectangleCollector(
                     new BoundingRectangleCollector.Vertices<>(
-                        renderContext
-                            .getVertexShapeFunction()
-                            .andThen(
-                                shape -> {
-                                  // use the inverse of the scales from the layoutTransform to fix the rectangle when
-                                  // layout scale has been applied (> 1.0 or when single axis scaling has been applied)
-                                  MutableTransformer layoutTransformer =
-                                      renderContext
-                                          .getMultiLayerTransformer()
-                                          .getTransformer(Layer.LAYOUT);
-                                  //                                          .getTransform();
-                                  return AffineTransform.getScaleInstance(
-                                          1 / layoutTransformer.getScaleX(),
-                                          1 / layoutTransformer.getScaleY())
-                                      .createTransformedShape(shape);
-                                }),
+                        renderContext.getVertexShapeFunction(),
+                        this::inverseLayoutScale,
                         visualizationModel.getLayoutModel()))
                 .splitterContext(
                     SplitterContext.of(new RStarLeafSplitter<>(), new RStarSplitter<>()))
                 .reinsert(true)
+                .packed(packedRTree)
                 .build();
         break;
       case GRID:
@@ -983,6 +1117,19 @@ class DefaultVisualizationServer<V, E> extends JPanel
         : vertexSpatial;
   }
 
+  /**
+   * use the inverse of the scales from the layoutTransform to fix the vertex bounds when layout
+   * scale has been applied (&gt; 1.0 or when single axis scaling has been applied)
+   *
+   * @return the inverse of the layout scale
+   */
+  AffineTransform inverseLayoutScale() {
+    MutableTransformer layoutTransformer =
+        renderContext.getMultiLayerTransformer().getTransformer(Layer.LAYOUT);
+    return AffineTransform.getScaleInstance(
+        1 / layoutTransformer.getScaleX(), 1 / layoutTransformer.getScaleY());
+  }
+
   private Spatial<E, V> createEdgeSpatial(
       LayoutModel<V> layoutModel, RenderContext<V, E> renderContext) {
     Spatial<E, V> edgeSpatial;
@@ -999,6 +1146,7 @@ class DefaultVisualizationServer<V, E> extends JPanel
                 .splitterContext(
                     SplitterContext.of(new QuadraticLeafSplitter(), new QuadraticSplitter()))
                 .reinsert(false)
+                .packed(packedRTree)
                 .build();
         break;
       case NONE:
@@ -0,0 +1,342 @@
+package org.jungrapht.visualization;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.List;
+import org.jgrapht.Graph;
+import org.jungrapht.visualization.MultiLayerTransformer.Layer;
+import org.jungrapht.visualization.layout.event.LayoutVertexPositionChange;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.renderers.ModalRenderer;
+import org.jungrapht.visualization.renderers.Renderer;
+import org.jungrapht.visualization.transform.LensTransformer;
+import org.jungrapht.visualization.transform.shape.TransformingGraphics;
+import org.jungrapht.visualization.util.BoundingRectangleCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the rendered graph of a {@link DefaultVisualizationServer} as square tiles of view pixels.
+ * The tiles are placed on a grid that moves with the view translation, so a pan only draws the
+ * cached tiles at their new place and renders the tiles that it exposes. The tiles are kept while
+ * the scale, rotation and shear of the view and the renderer {@link ModalRenderer.Mode} are
+ * unchanged.
+ *
+ * <p>When vertices are moved, or selected or deselected, only the tiles that hold their old or new
+ * bounds, and the bounds of their edges, are rendered again. Any other change in the {@link
+ * RenderContext} must be followed by {@link #reset()}. While the layout relaxes, or when a lens or
+ * the density renderer is in use, the tiles are not used.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ * @author Tom Nelson
+ */
+class TileCache<V, E> implements LayoutVertexPositionChange.Listener<V> {
+
+  private static final Logger log = LoggerFactory.getLogger(TileCache.class);
+
+  /** more moved vertices than this in one event will discard all of the tiles */
+  private static final int MAX_MOVED_VERTICES = 1000;
+
+  protected final DefaultVisualizationServer<V, E> vv;
+
+  /** the width and height of each tile, in view pixels */
+  protected final int tileSize;
+
+  /**
+   * the distance, in view pixels, past the bounds of a vertex or edge that labels, arrows and
+   * selection highlights may be drawn
+   */
+  protected final int margin;
+
+  /** the tiles, keyed on their column and row, least recently drawn first */
+  private final LinkedHashMap<Long, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+
+  private int capacity;
+
+  /** the scale, rotation and shear from layout to view when the tiles were rendered */
+  private final double[] linear = new double[4];
+
+  private ModalRenderer.Mode mode;
+
+  /** the vertex locations when the tiles were rendered */
+  private Map<V, Point> locations;
+
+  private BoundingRectangleCollector.Vertices<V> vertexBounds;
+
+  private BoundingRectangleCollector.Edges<V, E> edgeBounds;
+
+  TileCache(DefaultVisualizationServer<V, E> vv, int tileSize, int margin) {
+    this.vv = vv;
+    this.tileSize = Math.max(16, tileSize);
+    this.margin = Math.max(0, margin);
+  }
+
+  /** discard the tiles. They will be rendered again as they are drawn */
+  synchronized void clear() {
+    tiles.clear();
+  }
+
+  /** discard the tiles, the vertex locations and the element bounds */
+  synchronized void reset() {
+    tiles.clear();
+    locations = null;
+    vertexBounds = null;
+    edgeBounds = null;
+  }
+
+  /**
+   * Draw the visible tiles, rendering any that are not cached
+   *
+   * @param g2d the graphics to draw on, transformed by no more than a translation
+   * @return false if the tiles cannot be used for this frame and the graph must be rendered
+   *     directly
+   */
+  synchronized boolean paint(Graphics2D g2d) {
+    LayoutModel<V> layoutModel = vv.getVisualizationModel().getLayoutModel();
+    if (layoutModel.isRelaxing()) {
+      reset();
+      return false;
+    }
+    if (!canPaint(g2d, layoutModel)) {
+      return false;
+    }
+    MultiLayerTransformer multiLayerTransformer = vv.getRenderContext().getMultiLayerTransformer();
+    AffineTransform layoutToView =
+        new AffineTransform(multiLayerTransformer.getTransformer(Layer.VIEW).getTransform());
+    layoutToView.concatenate(multiLayerTransformer.getTransformer(Layer.LAYOUT).getTransform());
+    ModalRenderer.Mode currentMode = vv.renderer.getMode();
+    if (layoutToView.getScaleX() != linear[0]
+        || layoutToView.getShearY() != linear[1]
+        || layoutToView.getShearX() != linear[2]
+        || layoutToView.getScaleY() != linear[3]
+        || currentMode != mode) {
+      tiles.clear();
+      linear[0] = layoutToView.getScaleX();
+      linear[1] = layoutToView.getShearY();
+      linear[2] = layoutToView.getShearX();
+      linear[3] = layoutToView.getScaleY();
+      mode = currentMode;
+    }
+    if (locations == null) {
+      locations = new HashMap<>(layoutModel.getLocations());
+    }
+
+    // tile (i,j) is drawn at (i * tileSize + tx, j * tileSize + ty)
+    double tx = layoutToView.getTranslateX();
+    double ty = layoutToView.getTranslateY();
+    Dimension d = vv.getSize();
+    int i0 = (int) Math.floor(-tx / tileSize);
+    int i1 = (int) Math.floor((d.width - tx) / tileSize);
+    int j0 = (int) Math.floor(-ty / tileSize);
+    int j1 = (int) Math.floor((d.height - ty) / tileSize);
+    capacity = Math.max(capacity, 2 * (i1 - i0 + 1) * (j1 - j0 + 1));
+    long x0 = Math.round(tx);
+    long y0 = Math.round(ty);
+    for (int i = i0; i <= i1; i++) {
+      for (int j = j0; j <= j1; j++) {
+        long key = key(i, j);
+        BufferedImage tile = tiles.get(key);
+        if (tile == null) {
+          tile = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+          Graphics2D tileGraphics = tile.createGraphics();
+          vv.renderTile(
+              tileGraphics,
+              new Rectangle2D.Double(i * tileSize + tx, j * tileSize + ty, tileSize, tileSize),
+              margin);
+          tileGraphics.dispose();
+          tiles.put(key, tile);
+        }
+        g2d.drawImage(tile, (int) (i * tileSize + x0), (int) (j * tileSize + y0), null);
+      }
+    }
+    while (tiles.size() > capacity) {
+      Iterator<Long> iterator = tiles.keySet().iterator();
+      iterator.next();
+      iterator.remove();
+    }
+    return true;
+  }
+
+  /** @return false if the graph must be drawn directly because it depends on more than the scale */
+  private boolean canPaint(Graphics2D g2d, LayoutModel<V> layoutModel) {
+    RenderContext<V, E> renderContext = vv.getRenderContext();
+    MultiLayerTransformer multiLayerTransformer = renderContext.getMultiLayerTransformer();
+    return (g2d.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) == 0
+        && !(renderContext.getGraphicsContext() instanceof TransformingGraphics)
+        && !(multiLayerTransformer.getTransformer(Layer.VIEW) instanceof LensTransformer)
+        && !(multiLayerTransformer.getTransformer(Layer.LAYOUT) instanceof LensTransformer)
+        // the AUTO label position depends on where the vertex is in the view
+        && renderContext.getVertexLabelPosition() != Renderer.VertexLabel.Position.AUTO
+        && !vv.renderer.isDense(renderContext, layoutModel);
+  }
+
+  @Override
+  public void layoutVertexPositionChanged(LayoutVertexPositionChange.Event<V> evt) {
+    moved(Collections.singleton(evt.vertex));
+  }
+
+  @Override
+  public void layoutVertexPositionChanged(LayoutVertexPositionChange.GraphEvent<V> evt) {
+    moved(Collections.singleton(evt.vertex));
+  }
+
+  @Override
+  public void layoutVertexPositionsChanged(LayoutVertexPositionChange.BulkEvent<V> evt) {
+    moved(evt.vertices);
+  }
+
+  /**
+   * discard the tiles that hold the old or new bounds of the moved vertices and their edges
+   *
+   * @param vertices the vertices that were moved
+   */
+  synchronized void moved(Collection<V> vertices) {
+    if (locations == null) {
+      // nothing has been rendered since the last reset
+      return;
+    }
+    LayoutModel<V> layoutModel = vv.getVisualizationModel().getLayoutModel();
+    if (layoutModel.isRelaxing() || vertices.size() > MAX_MOVED_VERTICES) {
+      reset();
+      return;
+    }
+    Graph<V, E> graph = layoutModel.getGraph();
+    List<Rectangle2D> dirty = new ArrayList<>();
+    Set<E> edges = new HashSet<>();
+    for (V v : vertices) {
+      Point old = locations.get(v);
+      if (old == null || !graph.containsVertex(v)) {
+        reset();
+        return;
+      }
+      dirty.add(vertexBounds().getForElement(v, old));
+      dirty.add(vertexBounds().getForElement(v, layoutModel.apply(v)));
+      edges.addAll(graph.edgesOf(v));
+    }
+    for (E e : edges) {
+      V source = graph.getEdgeSource(e);
+      V target = graph.getEdgeTarget(e);
+      dirty.add(
+          edgeBounds()
+              .getExtentFor(
+                  e,
+                  locations.getOrDefault(source, layoutModel.apply(source)),
+                  locations.getOrDefault(target, layoutModel.apply(target))));
+      dirty.add(edgeBounds().getExtentFor(e, layoutModel.apply(source), layoutModel.apply(target)));
+    }
+    vertices.forEach(v -> locations.put(v, layoutModel.apply(v)));
+    dirty.forEach(this::invalidate);
+  }
+
+  /**
+   * discard the tiles that hold the bounds of the selected or deselected vertices or edges
+   *
+   * @param item a vertex or edge, or a collection of them
+   */
+  synchronized void selectionChanged(Object item) {
+    if (locations == null) {
+      return;
+    }
+    LayoutModel<V> layoutModel = vv.getVisualizationModel().getLayoutModel();
+    Graph<V, E> graph = layoutModel.getGraph();
+    Collection<?> items = item instanceof Collection ? (Collection<?>) item : List.of(item);
+    for (Object element : items) {
+      if (graph.containsVertex((V) element)) {
+        invalidate(vertexBounds().getForElement((V) element, layoutModel.apply((V) element)));
+      } else if (graph.containsEdge((E) element)) {
+        E e = (E) element;
+        invalidate(
+            edgeBounds()
+                .getExtentFor(
+                    e,
+                    layoutModel.apply(graph.getEdgeSource(e)),
+                    layoutModel.apply(graph.getEdgeTarget(e))));
+      } else {
+        clear();
+        return;
+      }
+    }
+  }
+
+  /** discard the tiles that hold the passed rectangle in layout coordinates */
+  private void invalidate(Rectangle2D layoutBounds) {
+    if (tiles.isEmpty()) {
+      return;
+    }
+    AffineTransform scale = new AffineTransform(linear[0], linear[1], linear[2], linear[3], 0, 0);
+    Rectangle2D bounds = scale.createTransformedShape(layoutBounds).getBounds2D();
+    int i0 = (int) Math.floor((bounds.getMinX() - margin) / tileSize);
+    int i1 = (int) Math.floor((bounds.getMaxX() + margin) / tileSize);
+    int j0 = (int) Math.floor((bounds.getMinY() - margin) / tileSize);
+    int j1 = (int) Math.floor((bounds.getMaxY() + margin) / tileSize);
+    if ((long) (i1 - i0 + 1) * (j1 - j0 + 1) > tiles.size()) {
+      tiles.keySet().removeIf(key -> within(key, i0, i1, j0, j1));
+    } else {
+      for (int i = i0; i <= i1; i++) {
+        for (int j = j0; j <= j1; j++) {
+          tiles.remove(key(i, j));
+        }
+      }
+    }
+    log.trace("invalidated tiles {},{} to {},{}", i0, j0, i1, j1);
+  }
+
+  private BoundingRectangleCollector.Vertices<V> vertexBounds() {
+    if (vertexBounds == null) {
+      vertexBounds =
+          new BoundingRectangleCollector.Vertices<>(
+              vv.getRenderContext().getVertexShapeFunction(),
+              vv::inverseLayoutScale,
+              vv.getVisualizationModel().getLayoutModel());
+    }
+    return vertexBounds;
+  }
+
+  private BoundingRectangleCollector.Edges<V, E> edgeBounds() {
+    if (edgeBounds == null) {
+      edgeBounds =
+          new BoundingRectangleCollector.Edges<>(
+              vv.getRenderContext().getVertexShapeFunction(),
+              vv.getRenderContext().getEdgeShapeFunction(),
+              vv.getVisualizationModel().getLayoutModel());
+    }
+    return edgeBounds;
+  }
+
+  synchronized int size() {
+    return tiles.size();
+  }
+
+  /** @return the view bounds of each cached tile, at the current view translation */
+  synchronized List<Rectangle2D> tileBounds() {
+    MultiLayerTransformer multiLayerTransformer = vv.getRenderContext().getMultiLayerTransformer();
+    AffineTransform layoutToView =
+        new AffineTransform(multiLayerTransformer.getTransformer(Layer.VIEW).getTransform());
+    layoutToView.concatenate(multiLayerTransformer.getTransformer(Layer.LAYOUT).getTransform());
+    List<Rectangle2D> bounds = new ArrayList<>();
+    for (long key : tiles.keySet()) {
+      bounds.add(
+          new Rectangle2D.Double(
+              (int) (key >> 32) * tileSize + layoutToView.getTranslateX(),
+              (int) key * tileSize + layoutToView.getTranslateY(),
+              tileSize,
+              tileSize));
+    }
+    return bounds;
+  }
+
+  private static long key(int i, int j) {
+    return ((long) i << 32) | (j & 0xFFFFFFFFL);
+  }
+
+  private static boolean within(long key, int i0, int i1, int j0, int j1) {
+    int i = (int) (key >> 32);
+    int j = (int) key;
+    return i >= i0 && i <= i1 && j >= j0 && j <= j1;
+  }
+}
@@ -186,6 +186,23 @@ public interface VisualizationServer<V, E>
    */
   boolean isDoubleBuffered();
 
+  /**
+   * Specify whether the graph is drawn from cached tiles, so that a pan renders only the parts of
+   * the graph that it exposes
+   *
+   * @param tileCached if true, draw the graph from cached tiles
+   */
+  void setTileCached(boolean tileCached);
+
+  /** @return whether the graph is drawn from cached tiles */
+  boolean isTileCached();
+
+  /**
+   * discard the cached tiles. Call this after a change in the RenderContext (colors, strokes,
+   * labels) that should be seen in the tiles
+   */
+  void clearTileCache();
+
   Shape viewOnLayout();
 
   Spatial<V, V> getVertexSpatial();
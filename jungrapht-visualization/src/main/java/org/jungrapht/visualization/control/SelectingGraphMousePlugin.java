@@ -295,10 +295,15 @@ public class SelectingGraphMousePlugin<V, E> extends AbstractGraphMousePlugin
       double dy = graphPoint.getY() - graphDown.getY();
       log.trace("dx, dy: {},{}", dx, dy);
 
-      for (V v : vv.getSelectedVertices()) {
-        org.jungrapht.visualization.layout.model.Point vp = layoutModel.apply(v);
-        vp = vp.add(dx, dy);
-        layoutModel.set(v, vp);
+      layoutModel.beginBatch();
+      try {
+        for (V v : vv.getSelectedVertices()) {
+          org.jungrapht.visualization.layout.model.Point vp = layoutModel.apply(v);
+          vp = vp.add(dx, dy);
+          layoutModel.set(v, vp);
+        }
+      } finally {
+        layoutModel.commitBatch();
       }
       deltaDown = out;
     }
@@ -341,10 +346,15 @@ public class SelectingGraphMousePlugin<V, E> extends AbstractGraphMousePlugin
         log.trace("dx, dy: {},{}", dx, dy);
         //        MutableSelectedState<V> ps = vv.getSelectedVertexState();
 
-        for (V v : vv.getSelectedVertices()) {
-          org.jungrapht.visualization.layout.model.Point vp = layoutModel.apply(v);
-          vp = vp.add(dx, dy); //Point.of(vp.x + dx, vp.y + dy);
-          layoutModel.set(v, vp);
+        layoutModel.beginBatch();
+        try {
+          for (V v : vv.getSelectedVertices()) {
+            org.jungrapht.visualization.layout.model.Point vp = layoutModel.apply(v);
+            vp = vp.add(dx, dy); //Point.of(vp.x + dx, vp.y + dy);
+            layoutModel.set(v, vp);
+          }
+        } finally {
+          layoutModel.commitBatch();
         }
         deltaDown = p;
       }
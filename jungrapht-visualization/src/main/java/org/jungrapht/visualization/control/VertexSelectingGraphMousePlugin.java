@@ -273,10 +273,15 @@ public class VertexSelectingGraphMousePlugin<V, E> extends AbstractGraphMousePlu
       double dy = graphPoint.getY() - graphDown.getY();
       log.trace("dx, dy: {},{}", dx, dy);
 
-      for (V v : vv.getSelectedVertices()) {
-        org.jungrapht.visualization.layout.model.Point vp = layoutModel.apply(v);
-        vp = vp.add(dx, dy);
-        layoutModel.set(v, vp);
+      layoutModel.beginBatch();
+      try {
+        for (V v : vv.getSelectedVertices()) {
+          org.jungrapht.visualization.layout.model.Point vp = layoutModel.apply(v);
+          vp = vp.add(dx, dy);
+          layoutModel.set(v, vp);
+        }
+      } finally {
+        layoutModel.commitBatch();
       }
       deltaDown = out;
     }
@@ -317,10 +322,15 @@ public class VertexSelectingGraphMousePlugin<V, E> extends AbstractGraphMousePlu
         log.trace("dx, dy: {},{}", dx, dy);
         //        MutableSelectedState<V> ps = vv.getSelectedVertexState();
 
-        for (V v : vv.getSelectedVertices()) {
-          org.jungrapht.visualization.layout.model.Point vp = layoutModel.apply(v);
-          vp = vp.add(dx, dy); //Point.of(vp.x + dx, vp.y + dy);
-          layoutModel.set(v, vp);
+        layoutModel.beginBatch();
+        try {
+          for (V v : vv.getSelectedVertices()) {
+            org.jungrapht.visualization.layout.model.Point vp = layoutModel.apply(v);
+            vp = vp.add(dx, dy); //Point.of(vp.x + dx, vp.y + dy);
+            layoutModel.set(v, vp);
+          }
+        } finally {
+          layoutModel.commitBatch();
         }
         deltaDown = p;
       }
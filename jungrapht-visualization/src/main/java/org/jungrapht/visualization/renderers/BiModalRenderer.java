@@ -6,6 +6,7 @@ import static org.jungrapht.visualization.layout.util.PropertyLoader.PREFIX;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Map;
@@ -27,6 +28,7 @@ import org.jungrapht.visualization.transform.Lens;
 import org.jungrapht.visualization.transform.MagnifyTransformer;
 import org.jungrapht.visualization.transform.shape.GraphicsDecorator;
 import org.jungrapht.visualization.transform.shape.MagnifyIconGraphics;
+import org.jungrapht.visualization.transform.shape.TransformingGraphics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +60,11 @@ import org.slf4j.LoggerFactory;
  *       </ul>
  * </ol>
  *
+ * <p>Whatever the mode, when the graph is so dense at the current scale that there are more than
+ * {@code densityThreshold} vertices, on average, in each cell of the {@link DensityRenderer}, the
+ * graph is drawn by the {@link DensityRenderer} as counts of elements per screen cell. A {@code
+ * densityThreshold} of 0 or less, the default, turns this off.
+ *
  * @param <V> the vertex type
  * @param <E> the edge type
  */
@@ -69,6 +76,7 @@ public class BiModalRenderer<V, E> implements ModalRenderer<V, E>, ChangeListene
 
   public static final Mode LIGHTWEIGHT = new Mode();
   public static final Mode HEAVYWEIGHT = new Mode();
+  public static final Mode DENSITY = new Mode();
   /**
    * Builder to create a configured instance of a BiModalRenderer
    *
@@ -117,6 +125,15 @@ public class BiModalRenderer<V, E> implements ModalRenderer<V, E>, ChangeListene
       return self();
     }
 
+    /**
+     * @param densityRenderer the value for the DENSITY key
+     * @return this Builder
+     */
+    public B densityRenderer(Renderer<V, E> densityRenderer) {
+      rendererMap.put(DENSITY, densityRenderer);
+      return self();
+    }
+
     /** @return a configured instance of a BiModalRenderer */
     public T build() {
       return (T) new BiModalRenderer<>(this);
@@ -140,6 +157,9 @@ public class BiModalRenderer<V, E> implements ModalRenderer<V, E>, ChangeListene
   /** Property key for the scale threshold that affects the rendering mode */
   private static final String LIGHTWEIGHT_SCALE_THRESHOLD = PREFIX + "lightweightScaleThreshold";
 
+  /** Property key for the average vertices per density cell above which density is drawn */
+  private static final String DENSITY_THRESHOLD = PREFIX + "densityThreshold";
+
   /** threshold for vertex count that affects rendering mode */
   protected int lightweightRenderingCountThreshold =
       Integer.parseInt(System.getProperty(LIGHTWEIGHT_COUNT_THRESHOLD, "20"));
@@ -154,6 +174,10 @@ public class BiModalRenderer<V, E> implements ModalRenderer<V, E>, ChangeListene
   protected Predicate<Supplier<Double>> scalePredicate =
       t -> t.get() < lightweightRenderingScaleThreshold;
 
+  /** average vertices per density cell above which the graph is drawn by the DENSITY renderer */
+  protected double densityThreshold =
+      Double.parseDouble(System.getProperty(DENSITY_THRESHOLD, "0"));
+
   protected Supplier<Integer> countSupplier = () -> 0;
   protected Predicate<Supplier<Integer>> countPredicate =
       t -> t.get() > lightweightRenderingCountThreshold;
@@ -178,6 +202,9 @@ public class BiModalRenderer<V, E> implements ModalRenderer<V, E>, ChangeListene
     if (rendererMap.get(HEAVYWEIGHT) == null) {
       rendererMap.put(HEAVYWEIGHT, new HeavyweightRenderer<>());
     }
+    if (rendererMap.get(DENSITY) == null) {
+      rendererMap.put(DENSITY, new DensityRenderer<>());
+    }
   }
 
   public void setRenderer(Mode mode, Renderer<V, E> renderer) {
@@ -205,6 +232,55 @@ public class BiModalRenderer<V, E> implements ModalRenderer<V, E>, ChangeListene
     stateChanged(null);
   }
 
+  public double getDensityThreshold() {
+    return densityThreshold;
+  }
+
+  /**
+   * @param densityThreshold the average number of vertices per density cell above which the graph
+   *     is drawn by the DENSITY renderer. 0 or less to always draw each element
+   */
+  public void setDensityThreshold(double densityThreshold) {
+    this.densityThreshold = densityThreshold;
+  }
+
+  /**
+   * Estimate the average number of visible vertices in each cell of the DENSITY renderer, assuming
+   * the vertices are spread evenly over the layout area
+   *
+   * @param renderContext supplies the screen device
+   * @param layoutModel supplies the layout area
+   * @return true if the graph should be drawn by the DENSITY renderer
+   */
+  public boolean isDense(RenderContext<V, E> renderContext, LayoutModel<V> layoutModel) {
+    Renderer<V, E> densityRenderer = rendererMap.get(DENSITY);
+    if (densityThreshold <= 0
+        || !(densityRenderer instanceof DensityRenderer)
+        || !(renderContext.getScreenDevice() instanceof VisualizationServer)
+        || renderContext.getGraphicsContext() instanceof TransformingGraphics) {
+      // a lens needs each element drawn through its transform
+      return false;
+    }
+    double layoutArea = (double) layoutModel.getWidth() * layoutModel.getHeight();
+    Dimension d = renderContext.getScreenDevice().getSize();
+    if (layoutArea <= 0 || d.width <= 0 || d.height <= 0) {
+      return false;
+    }
+    Rectangle2D view =
+        ((VisualizationServer) renderContext.getScreenDevice()).viewOnLayout().getBounds2D();
+    Rectangle2D visible =
+        view.createIntersection(
+            new Rectangle2D.Double(0, 0, layoutModel.getWidth(), layoutModel.getHeight()));
+    if (visible.isEmpty()) {
+      return false;
+    }
+    int cellSize = ((DensityRenderer<V, E>) densityRenderer).getCellSize();
+    double cells = Math.ceil((double) d.width / cellSize) * Math.ceil((double) d.height / cellSize);
+    double visibleCount =
+        countSupplier.get() * visible.getWidth() * visible.getHeight() / layoutArea;
+    return visibleCount / cells > densityThreshold;
+  }
+
   @Override
   public void setMode(Mode mode) {
     log.trace("setMode({})", mode);
@@ -245,6 +321,11 @@ public class BiModalRenderer<V, E> implements ModalRenderer<V, E>, ChangeListene
       Spatial<V, V> vertexSpatial,
       Spatial<E, V> edgeSpatial) {
 
+    if (isDense(renderContext, layoutModel)) {
+      setAntialias(renderContext, LIGHTWEIGHT);
+      rendererMap.get(DENSITY).render(renderContext, layoutModel, vertexSpatial, edgeSpatial);
+      return;
+    }
     if (mode == null) {
       setAntialias(renderContext, HEAVYWEIGHT);
       getInitialRenderer().render(renderContext, layoutModel, vertexSpatial, edgeSpatial);
@@ -0,0 +1,383 @@
+package org.jungrapht.visualization.renderers;
+
+import static org.jungrapht.visualization.layout.util.PropertyLoader.PREFIX;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import org.jgrapht.Graph;
+import org.jungrapht.visualization.MultiLayerTransformer.Layer;
+import org.jungrapht.visualization.PropertyLoader;
+import org.jungrapht.visualization.RenderContext;
+import org.jungrapht.visualization.VisualizationServer;
+import org.jungrapht.visualization.layout.event.ModelChange;
+import org.jungrapht.visualization.layout.event.ViewChange;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.spatial.Spatial;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Renderer} for graphs that are too dense to draw one element at a time. The screen is
+ * divided into square cells of {@code cellSize} pixels. The vertices and edges that are visible in
+ * the {@link Spatial} structures are counted into the cells (each edge adds one to every cell that
+ * it crosses) and the counts are drawn as a single image, with the alpha of the vertex or edge
+ * color growing with the log of the count. No Shape is created for any element, so the time to draw
+ * depends on the number of visible elements and the size of the screen, not on the vertex and edge
+ * shapes.
+ *
+ * <p>The image is kept and drawn again until the view or layout transform, the size of the screen,
+ * the vertex locations or the graph change, so a repaint that changes none of them counts nothing.
+ *
+ * <p>The methods that draw a single element use the lightweight vertex and edge renderers.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ * @author Tom Nelson
+ */
+public class DensityRenderer<V, E> implements Renderer<V, E> {
+
+  static {
+    PropertyLoader.load();
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(DensityRenderer.class);
+
+  /** Property key for the size, in pixels, of the cells that the elements are counted into */
+  private static final String DENSITY_CELL_SIZE = PREFIX + "densityCellSize";
+
+  private static final String VERTEX_FILL_COLOR = PREFIX + "vertexFillColor";
+  private static final String EDGE_COLOR = PREFIX + "edgeColor";
+
+  /** the size, in pixels, of the cells that the elements are counted into */
+  protected int cellSize = Math.max(1, Integer.getInteger(DENSITY_CELL_SIZE, 2));
+
+  protected Color vertexColor = Color.getColor(VERTEX_FILL_COLOR, Color.RED);
+  protected Color edgeColor = Color.getColor(EDGE_COLOR, Color.BLACK);
+
+  protected Vertex<V, E> vertexRenderer = new LightweightVertexRenderer<>();
+  protected Renderer.Edge<V, E> edgeRenderer = new LightweightEdgeRenderer<>();
+
+  /** the counts drawn last, as an image of one pixel per cell */
+  private BufferedImage image;
+
+  /** the layout to cell transform that the image was counted with */
+  private final AffineTransform imageTransform = new AffineTransform();
+
+  /** the layout model that the image was counted from, which is listened to for changes */
+  private LayoutModel<V> imageLayoutModel;
+
+  /** set when the vertex locations or the graph change after the image was counted */
+  private volatile boolean stale = true;
+
+  private final ViewChange.Listener viewChangeListener = this::invalidate;
+  private final ModelChange.Listener modelChangeListener = this::invalidate;
+
+  public int getCellSize() {
+    return cellSize;
+  }
+
+  public void setCellSize(int cellSize) {
+    this.cellSize = Math.max(1, cellSize);
+    invalidate();
+  }
+
+  public Color getVertexColor() {
+    return vertexColor;
+  }
+
+  public void setVertexColor(Color vertexColor) {
+    this.vertexColor = vertexColor;
+    invalidate();
+  }
+
+  public Color getEdgeColor() {
+    return edgeColor;
+  }
+
+  public void setEdgeColor(Color edgeColor) {
+    this.edgeColor = edgeColor;
+    invalidate();
+  }
+
+  /** count the elements again the next time this renders */
+  public void invalidate() {
+    stale = true;
+  }
+
+  @Override
+  public void render(
+      RenderContext<V, E> renderContext,
+      LayoutModel<V> layoutModel,
+      Spatial<V, V> vertexSpatial,
+      Spatial<E, V> edgeSpatial) {
+    if (isCurrent(renderContext, layoutModel)) {
+      draw(renderContext);
+      return;
+    }
+    Graph<V, E> graph = layoutModel.getGraph();
+    Shape viewOnLayout = ((VisualizationServer) renderContext.getScreenDevice()).viewOnLayout();
+    Iterable<V> vertices =
+        vertexSpatial != null ? vertexSpatial.getVisibleElements(viewOnLayout) : graph.vertexSet();
+    Iterable<E> edges =
+        edgeSpatial != null ? edgeSpatial.getVisibleElements(viewOnLayout) : graph.edgeSet();
+    paint(renderContext, layoutModel, vertices, edges);
+  }
+
+  @Override
+  public void render(RenderContext<V, E> renderContext, LayoutModel<V> layoutModel) {
+    if (isCurrent(renderContext, layoutModel)) {
+      draw(renderContext);
+      return;
+    }
+    Graph<V, E> graph = layoutModel.getGraph();
+    paint(renderContext, layoutModel, graph.vertexSet(), graph.edgeSet());
+  }
+
+  /**
+   * @return true if the image was counted with the current transforms, screen size and layout
+   *     model, and nothing has moved since
+   */
+  private boolean isCurrent(RenderContext<V, E> renderContext, LayoutModel<V> layoutModel) {
+    follow(layoutModel);
+    if (stale || image == null) {
+      return false;
+    }
+    Dimension d = renderContext.getScreenDevice().getSize();
+    return image.getWidth() == columns(d.width)
+        && image.getHeight() == columns(d.height)
+        && cellTransform(renderContext).equals(imageTransform);
+  }
+
+  /** @return the number of cells that cover the passed number of pixels */
+  private int columns(int pixels) {
+    return Math.max(1, (pixels + cellSize - 1) / cellSize);
+  }
+
+  /** listen to the passed layout model for changes in place of the one that was counted last */
+  private void follow(LayoutModel<V> layoutModel) {
+    if (layoutModel == imageLayoutModel) {
+      return;
+    }
+    if (imageLayoutModel != null) {
+      imageLayoutModel.getViewChangeSupport().removeViewChangeListener(viewChangeListener);
+      imageLayoutModel.getModelChangeSupport().removeModelChangeListener(modelChangeListener);
+    }
+    imageLayoutModel = layoutModel;
+    layoutModel.getViewChangeSupport().addViewChangeListener(viewChangeListener);
+    layoutModel.getModelChangeSupport().addModelChangeListener(modelChangeListener);
+    stale = true;
+  }
+
+  /** @return the transform from layout coordinates to cell coordinates */
+  private AffineTransform cellTransform(RenderContext<V, E> renderContext) {
+    AffineTransform toCell = AffineTransform.getScaleInstance(1.0 / cellSize, 1.0 / cellSize);
+    toCell.concatenate(
+        renderContext.getMultiLayerTransformer().getTransformer(Layer.VIEW).getTransform());
+    toCell.concatenate(
+        renderContext.getMultiLayerTransformer().getTransformer(Layer.LAYOUT).getTransform());
+    return toCell;
+  }
+
+  /**
+   * count the passed vertices and edges into the screen cells and draw the counts
+   *
+   * @param renderContext supplies the transforms and the graphics
+   * @param layoutModel supplies the vertex locations
+   * @param vertices the vertices to draw
+   * @param edges the edges to draw
+   */
+  protected void paint(
+      RenderContext<V, E> renderContext,
+      LayoutModel<V> layoutModel,
+      Iterable<V> vertices,
+      Iterable<E> edges) {
+    follow(layoutModel);
+    // a change while counting marks the image stale again
+    stale = false;
+    Dimension d = renderContext.getScreenDevice().getSize();
+    int w = columns(d.width);
+    int h = columns(d.height);
+
+    // layout coordinates to cell coordinates
+    AffineTransform toCell = cellTransform(renderContext);
+
+    Graph<V, E> graph = layoutModel.getGraph();
+    int[] edgeCounts = new int[w * h];
+    int[] vertexCounts = new int[w * h];
+    double[] coords = new double[4];
+    for (E e : edges) {
+      if (!graph.containsEdge(e)) {
+        continue;
+      }
+      Point p1 = layoutModel.apply(graph.getEdgeSource(e));
+      Point p2 = layoutModel.apply(graph.getEdgeTarget(e));
+      coords[0] = p1.x;
+      coords[1] = p1.y;
+      coords[2] = p2.x;
+      coords[3] = p2.y;
+      toCell.transform(coords, 0, coords, 0, 2);
+      countLine(edgeCounts, w, h, coords[0], coords[1], coords[2], coords[3]);
+    }
+    for (V v : vertices) {
+      Point p = layoutModel.apply(v);
+      coords[0] = p.x;
+      coords[1] = p.y;
+      toCell.transform(coords, 0, coords, 0, 1);
+      int x = (int) Math.floor(coords[0]);
+      int y = (int) Math.floor(coords[1]);
+      if (x >= 0 && x < w && y >= 0 && y < h) {
+        vertexCounts[y * w + x]++;
+      }
+    }
+
+    if (image == null || image.getWidth() != w || image.getHeight() != h) {
+      image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+    }
+    int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    Arrays.fill(pixels, 0);
+    double maxVertexLog = Math.log1p(max(vertexCounts));
+    double maxEdgeLog = Math.log1p(max(edgeCounts));
+    int vertexRgb = vertexColor.getRGB() & 0xFFFFFF;
+    int edgeRgb = edgeColor.getRGB() & 0xFFFFFF;
+    for (int i = 0; i < pixels.length; i++) {
+      if (vertexCounts[i] > 0) {
+        pixels[i] = alpha(vertexCounts[i], maxVertexLog) << 24 | vertexRgb;
+      } else if (edgeCounts[i] > 0) {
+        pixels[i] = alpha(edgeCounts[i], maxEdgeLog) << 24 | edgeRgb;
+      }
+    }
+    imageTransform.setTransform(toCell);
+    draw(renderContext);
+  }
+
+  /** draw the counted cells in screen coordinates, under the view transform of the graphics */
+  private void draw(RenderContext<V, E> renderContext) {
+    AffineTransform viewTransform =
+        renderContext.getMultiLayerTransformer().getTransformer(Layer.VIEW).getTransform();
+    try {
+      AffineTransform cellToView = viewTransform.createInverse();
+      cellToView.scale(cellSize, cellSize);
+      renderContext.getGraphicsContext().getDelegate().drawImage(image, cellToView, null);
+    } catch (NoninvertibleTransformException ex) {
+      log.debug("view transform {} is not invertible", viewTransform);
+    }
+  }
+
+  private static int max(int[] counts) {
+    int max = 0;
+    for (int count : counts) {
+      max = Math.max(max, count);
+    }
+    return max;
+  }
+
+  /** @return an alpha from 64 for a count of one up to 255 for the largest count */
+  private static int alpha(int count, double maxLog) {
+    if (maxLog <= Math.log(2)) {
+      return 255;
+    }
+    return 64 + (int) (191 * (Math.log1p(count) - Math.log(2)) / (maxLog - Math.log(2)));
+  }
+
+  /**
+   * add one to each cell on the line from (x0,y0) to (x1,y1), after clipping the line to the cells
+   */
+  static void countLine(int[] counts, int w, int h, double x0, double y0, double x1, double y1) {
+    // Liang-Barsky clip to [0,w) x [0,h)
+    double dx = x1 - x0;
+    double dy = y1 - y0;
+    double t0 = 0;
+    double t1 = 1;
+    double[] p = {-dx, dx, -dy, dy};
+    double[] q = {x0, w - 1.0e-9 - x0, y0, h - 1.0e-9 - y0};
+    for (int i = 0; i < 4; i++) {
+      if (p[i] == 0) {
+        if (q[i] < 0) {
+          return;
+        }
+      } else {
+        double t = q[i] / p[i];
+        if (p[i] < 0) {
+          t0 = Math.max(t0, t);
+        } else {
+          t1 = Math.min(t1, t);
+        }
+      }
+    }
+    if (t0 > t1) {
+      return;
+    }
+    double sx = x0 + t0 * dx;
+    double sy = y0 + t0 * dy;
+    double ex = x0 + t1 * dx;
+    double ey = y0 + t1 * dy;
+    int steps = (int) Math.ceil(Math.max(Math.abs(ex - sx), Math.abs(ey - sy)));
+    double stepX = steps == 0 ? 0 : (ex - sx) / steps;
+    double stepY = steps == 0 ? 0 : (ey - sy) / steps;
+    for (int i = 0; i <= steps; i++) {
+      int x = (int) (sx + i * stepX);
+      int y = (int) (sy + i * stepY);
+      if (x >= 0 && x < w && y >= 0 && y < h) {
+        counts[y * w + x]++;
+      }
+    }
+  }
+
+  @Override
+  public void renderVertex(RenderContext<V, E> renderContext, LayoutModel<V> layoutModel, V v) {
+    vertexRenderer.paintVertex(renderContext, layoutModel, v);
+  }
+
+  @Override
+  public void renderVertexLabel(
+      RenderContext<V, E> renderContext, LayoutModel<V> layoutModel, V v) {}
+
+  @Override
+  public void renderEdge(RenderContext<V, E> renderContext, LayoutModel<V> layoutModel, E e) {
+    edgeRenderer.paintEdge(renderContext, layoutModel, e);
+  }
+
+  @Override
+  public void renderEdgeLabel(RenderContext<V, E> renderContext, LayoutModel<V> layoutModel, E e) {}
+
+  @Override
+  public void setVertexRenderer(Vertex<V, E> r) {
+    this.vertexRenderer = r;
+  }
+
+  @Override
+  public void setEdgeRenderer(Renderer.Edge<V, E> r) {
+    this.edgeRenderer = r;
+  }
+
+  @Override
+  public void setVertexLabelRenderer(VertexLabel<V, E> r) {}
+
+  @Override
+  public void setEdgeLabelRenderer(Renderer.EdgeLabel<V, E> r) {}
+
+  @Override
+  public VertexLabel<V, E> getVertexLabelRenderer() {
+    return null;
+  }
+
+  @Override
+  public Vertex<V, E> getVertexRenderer() {
+    return vertexRenderer;
+  }
+
+  @Override
+  public Renderer.Edge<V, E> getEdgeRenderer() {
+    return edgeRenderer;
+  }
+
+  @Override
+  public Renderer.EdgeLabel<V, E> getEdgeLabelRenderer() {
+    return null;
+  }
+}
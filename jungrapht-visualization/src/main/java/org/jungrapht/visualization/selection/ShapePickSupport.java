@@ -21,6 +21,7 @@ import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -28,6 +29,7 @@ import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -91,6 +93,12 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
 
   protected int pickSize = Integer.getInteger(PICK_AREA_SIZE, 4);
 
+  /**
+   * the number of intervals along each side of a picking footprint that is sampled when it is
+   * mapped back to the layout coordinate system through a (non affine) {@code LensTransformer}
+   */
+  protected static final int FOOTPRINT_SAMPLES = 4;
+
   /**
    * The <code>VisualizationServer</code> in which the this instance is being used for picking. Used
    * to retrieve properties such as the layout, renderer, vertex and edge shapes, and coordinate
@@ -185,9 +193,9 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
 
     MutableTransformer viewTransformer = multiLayerTransformer.getTransformer(Layer.VIEW);
 
-    // if there is a spatial data structure active, use it
+    // if there is a spatial data structure active, use it (with or without a lens)
     Spatial<V, V> vertexSpatial = vv.getVertexSpatial();
-    if (!(viewTransformer instanceof LensTransformer) && vertexSpatial.isActive()) {
+    if (vertexSpatial != null && vertexSpatial.isActive()) {
       return getVertex(vertexSpatial, layoutModel, pickingFootprint);
     }
 
@@ -270,7 +278,9 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
   }
 
   /**
-   * uses the spatialRTree to find the closest vertex to the points
+   * uses the spatial structure to find the closest vertex to the points. The picking footprint is
+   * mapped back to the layout coordinate system (through any lens) to find the candidate vertices,
+   * and only the candidates have their shapes transformed and tested against the footprint
    *
    * @param spatial
    * @param layoutModel
@@ -283,35 +293,55 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
     MultiLayerTransformer mlt = vv.getRenderContext().getMultiLayerTransformer();
 
     // find the leaf vertex that would contain a point at x,y
-    Point2D pickingCenter =
+    Point2D viewCenter =
         new Point2D.Double(pickingFootprint.getCenterX(), pickingFootprint.getCenterY());
 
     // transform the pickingCenter to the layout coordinates
-    pickingCenter = mlt.inverseTransform(pickingCenter);
+    Point2D pickingCenter = inverseTransformPickPoint(viewCenter);
+
+    // the footprint in layout coordinates. with a magnifying lens this is smaller than the
+    // footprint in the view
+    Rectangle2D searchArea = inverseTransformFootprint(pickingFootprint);
+
+    MutableTransformer viewTransformer = mlt.getTransformer(Layer.VIEW);
+    if (viewTransformer instanceof LensTransformer) {
+      LensTransformer lensTransformer = (LensTransformer) viewTransformer;
+      // the inverse of a lens is not exact, so a footprint in the lens may miss the vertex that
+      // the lens moved under it. Search all of the vertices in the lens
+      if (lensTransformer
+          .getLens()
+          .getLensShape()
+          .intersects(
+              lensTransformer.getDelegate().inverseTransform(pickingFootprint).getBounds2D())) {
+        searchArea = searchArea.createUnion(lensSearchArea(lensTransformer));
+      }
+    }
 
     Collection<? extends TreeNode> containingLeafs = spatial.getContainingLeafs(pickingCenter);
 
-    if (containingLeafs == null || containingLeafs.size() == 0) return null;
-    // make a target circle the same size as the leaf vertex
-    // leaf vertices are small when vertices are close and large when they are sparse
-    // union up all the leafs then make a target
-    Rectangle2D union = null;
-    for (TreeNode r : containingLeafs) {
-      if (union == null) {
-        union = r.getBounds();
-      } else {
-        union = union.createUnion(r.getBounds());
+    if (containingLeafs != null && containingLeafs.size() > 0) {
+      // make a target circle the same size as the leaf vertex
+      // leaf vertices are small when vertices are close and large when they are sparse
+      // union up all the leafs then make a target
+      Rectangle2D union = null;
+      for (TreeNode r : containingLeafs) {
+        if (union == null) {
+          union = r.getBounds();
+        } else {
+          union = union.createUnion(r.getBounds());
+        }
       }
-    }
-    double width = union.getWidth();
-    double height = union.getHeight();
-    double radiusx = width / 2;
-    double radiusy = height / 2;
-    Ellipse2D target =
-        new Ellipse2D.Double(
-            pickingCenter.getX() - radiusx, pickingCenter.getY() - radiusy, width, height);
-    if (log.isTraceEnabled()) {
-      log.trace("target is {}", target);
+      double width = union.getWidth();
+      double height = union.getHeight();
+      double radiusx = width / 2;
+      double radiusy = height / 2;
+      Ellipse2D target =
+          new Ellipse2D.Double(
+              pickingCenter.getX() - radiusx, pickingCenter.getY() - radiusy, width, height);
+      if (log.isTraceEnabled()) {
+        log.trace("target is {}", target);
+      }
+      searchArea = searchArea.createUnion(target.getBounds2D());
     }
 
     double minDistance = Double.MAX_VALUE;
@@ -320,7 +350,7 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
     V closest = null;
 
     // get the all vertices from any leafs that intersect the target
-    Collection<V> vertices = spatial.getVisibleElements(target);
+    Collection<V> vertices = spatial.getVisibleElements(searchArea);
     if (log.isTraceEnabled()) {
       log.trace("instead of checking all vertices: {}", getFilteredVertices());
       log.trace("out of these candidates: {}...", vertices);
@@ -329,6 +359,9 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
     // Check the (smaller) set of eligible vertices
     // to return the one that contains the (x,y)
     for (V v : vertices) {
+      if (!isVertexRendered(v)) {
+        continue;
+      }
 
       // get the shape for the vertex (it is at the origin)
       Shape shape = vv.getRenderContext().getVertexShapeFunction().apply(v);
@@ -349,7 +382,6 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
       // return the transformed vertex shape
       shape = xform.createTransformedShape(shape);
 
-      MutableTransformer viewTransformer = mlt.getTransformer(Layer.VIEW);
       shape = viewTransformer.transform(shape);
       if (viewTransformer instanceof LensTransformer) {
         LensTransformer lensTransformer = (LensTransformer) viewTransformer;
@@ -366,10 +398,10 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
         } else {
 
           // return the vertex closest to the
-          // center of a vertex shape
+          // center of a vertex shape (both are in view coordinates)
           Rectangle2D bounds = shape.getBounds2D();
-          double dx = bounds.getCenterX() - pickingCenter.getX();
-          double dy = bounds.getCenterY() - pickingCenter.getY();
+          double dx = bounds.getCenterX() - viewCenter.getX();
+          double dy = bounds.getCenterY() - viewCenter.getY();
           double dist = dx * dx + dy * dy;
           if (dist < minDistance) {
             minDistance = dist;
@@ -384,6 +416,86 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
     return closest;
   }
 
+  /**
+   * Map a point in the view back to the layout coordinate system, undoing the transforms that are
+   * applied to the vertex and edge shapes before they are tested against a picking footprint
+   *
+   * @param viewPoint a point in the view coordinate system
+   * @return the point in the layout coordinate system
+   */
+  protected Point2D inverseTransformPickPoint(Point2D viewPoint) {
+    Path2D path = new Path2D.Double();
+    path.moveTo(viewPoint.getX(), viewPoint.getY());
+    Rectangle2D layoutPoint = inverseLayoutBounds(inverseViewTransform(path));
+    return new Point2D.Double(layoutPoint.getX(), layoutPoint.getY());
+  }
+
+  /**
+   * Map a picking footprint in the view back to the layout coordinate system. A lens transform is
+   * not affine, so points spaced over the footprint are mapped and their bounds are returned
+   *
+   * @param pickingFootprint a rectangle in the view coordinate system
+   * @return the bounds of the footprint in the layout coordinate system
+   */
+  protected Rectangle2D inverseTransformFootprint(Rectangle2D pickingFootprint) {
+    return inverseLayoutBounds(inverseViewTransform(samples(pickingFootprint)));
+  }
+
+  /**
+   * undo the VIEW layer transforms in the same way that they are applied to the shapes that are
+   * tested against a footprint (the shape transform of the lens, then its delegate)
+   */
+  private Shape inverseViewTransform(Shape viewShape) {
+    MutableTransformer viewTransformer =
+        vv.getRenderContext().getMultiLayerTransformer().getTransformer(Layer.VIEW);
+    if (viewTransformer instanceof LensTransformer) {
+      LensTransformer lensTransformer = (LensTransformer) viewTransformer;
+      viewShape = lensTransformer.getDelegate().inverseTransform(viewShape);
+    }
+    return viewTransformer.inverseTransform(viewShape);
+  }
+
+  /** @return the area of the layout that is under the lens */
+  private Rectangle2D lensSearchArea(LensTransformer lensTransformer) {
+    return inverseLayoutBounds(samples(lensTransformer.getLens().getLensShape().getBounds2D()));
+  }
+
+  /** @return the bounds of the points of the shape, mapped back through the LAYOUT layer */
+  private Rectangle2D inverseLayoutBounds(Shape shape) {
+    MultiLayerTransformer mlt = vv.getRenderContext().getMultiLayerTransformer();
+    Rectangle2D bounds = null;
+    double[] coords = new double[6];
+    for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+      if (iterator.currentSegment(coords) == PathIterator.SEG_CLOSE) {
+        continue;
+      }
+      Point2D p = mlt.inverseTransform(Layer.LAYOUT, coords[0], coords[1]);
+      if (bounds == null) {
+        bounds = new Rectangle2D.Double(p.getX(), p.getY(), 0, 0);
+      } else {
+        bounds.add(p);
+      }
+    }
+    return bounds;
+  }
+
+  /** @return a path through points spaced over the area, for mapping with a shape transform */
+  private Path2D samples(Rectangle2D area) {
+    Path2D path = new Path2D.Double();
+    for (int i = 0; i <= FOOTPRINT_SAMPLES; i++) {
+      double x = area.getX() + area.getWidth() * i / FOOTPRINT_SAMPLES;
+      for (int j = 0; j <= FOOTPRINT_SAMPLES; j++) {
+        double y = area.getY() + area.getHeight() * j / FOOTPRINT_SAMPLES;
+        if (i == 0 && j == 0) {
+          path.moveTo(x, y);
+        } else {
+          path.lineTo(x, y);
+        }
+      }
+    }
+    return path;
+  }
+
   @Override
   public V getVertex(LayoutModel<V> layoutModel, org.jungrapht.visualization.layout.model.Point p) {
     return getVertex(layoutModel, p.x, p.y);
@@ -521,49 +633,44 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
 
   //// Edge selection
 
+  /**
+   * uses the edge spatial structure to find the candidate edges whose bounds intersect the picking
+   * footprint (mapped back to the layout coordinate system through any lens), then tests only the
+   * candidate edge shapes against the footprint
+   *
+   * @param spatial the edge spatial structure
+   * @param layoutModel
+   * @param pickingFootprint a rectangle in the view coordinate system
+   * @return an edge whose shape intersects the pickingFootprint
+   */
   protected E getEdge(
-      SpatialRTree.Edges<E, V> spatial, LayoutModel<V> layoutModel, Rectangle2D pickingFootprint) {
-    MultiLayerTransformer mlt = vv.getRenderContext().getMultiLayerTransformer();
-
-    // find the leaf vertex that would contain a point at x,y
-    Point2D pickingCenter =
-        new Point2D.Double(pickingFootprint.getCenterX(), pickingFootprint.getCenterY());
-
-    // transform the pickingCenter to the layout coordinates
-    pickingCenter = mlt.inverseTransform(pickingCenter);
-
-    // find the leaf vertices that would contain a point at x,y
-    Collection<LeafNode<E>> containingLeafs = spatial.getContainingLeafs(pickingCenter);
-
-    if (containingLeafs == null || containingLeafs.size() == 0) return null;
-    // make a target circle the same size as the leaf vertex area union
-    // leaf vertices are small when vertices are close and large when they are sparse
-    // union up all the leafs then make a target
-    Rectangle2D union = null;
-    for (LeafNode<E> r : containingLeafs) {
-      if (union == null) {
-        union = r.getBounds();
-      } else {
-        union = union.createUnion(r.getBounds());
-      }
-    }
-    double width = union.getWidth();
-    double height = union.getHeight();
-    double radiusx = width / 2;
-    double radiusy = height / 2;
-    Ellipse2D target =
-        new Ellipse2D.Double(
-            pickingCenter.getX() - radiusx, pickingCenter.getY() - radiusy, width, height);
-
+      Spatial<E, V> spatial, LayoutModel<V> layoutModel, Rectangle2D pickingFootprint) {
+    Rectangle2D searchArea = inverseTransformFootprint(pickingFootprint);
     if (log.isTraceEnabled()) {
-      log.trace("target is {}", target);
+      log.trace("search area is {}", searchArea);
     }
 
-    // will be the selected edge
-    E closest = null;
-
-    // get the all vertices from any leafs that intersect the target
-    Collection<E> edges = spatial.getVisibleElements(target);
+    // get the all edges from any leafs that intersect the search area
+    Collection<E> edges = new LinkedHashSet<>(spatial.getVisibleElements(searchArea));
+    MutableTransformer viewTransformer =
+        vv.getRenderContext().getMultiLayerTransformer().getTransformer(Layer.VIEW);
+    if (viewTransformer instanceof LensTransformer) {
+      // a lens moves the ends of an edge but the edge is still a straight line between them, so
+      // the edge may cross the footprint away from where the lens maps the footprint. Add the
+      // edges that the lens does not move, and the edges with an end inside the lens that are
+      // drawn near the footprint
+      LensTransformer lensTransformer = (LensTransformer) viewTransformer;
+      edges.addAll(
+          spatial.getVisibleElements(
+              inverseLayoutBounds(
+                  lensTransformer.getDelegate().inverseTransform(samples(pickingFootprint)))));
+      for (E edge : spatial.getVisibleElements(lensSearchArea(lensTransformer))) {
+        if (!edges.contains(edge)
+            && drawnNear(layoutModel, lensTransformer, edge, pickingFootprint)) {
+          edges.add(edge);
+        }
+      }
+    }
     if (log.isTraceEnabled()) {
       log.trace(
           "instead of checking all {} edges: {}", getFilteredEdges().size(), getFilteredEdges());
@@ -571,62 +678,80 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
     }
 
     // Check the (smaller) set of eligible edges
-    // to return the one that contains the (x,y)
+    // to return the one that intersects the footprint
     for (E edge : edges) {
-
-      // make sure that edgeShape is in view coordinates
-      Shape edgeShape = getTransformedEdgeShape(edge);
-      if (edgeShape == null) {
-        continue;
-      }
-      MutableTransformer viewTransformer = mlt.getTransformer(Layer.VIEW);
-      edgeShape = viewTransformer.transform(edgeShape);
-      if (viewTransformer instanceof LensTransformer) {
-        LensTransformer lensTransformer = (LensTransformer) viewTransformer;
-        edgeShape = lensTransformer.getDelegate().transform(edgeShape);
+      if (isEdgeRendered(edge) && edgeIntersects(layoutModel, edge, pickingFootprint)) {
+        return edge;
       }
+    }
+    return null;
+  }
 
-      Line2D endToEnd = getLineFromShape(edgeShape);
-      // for articulated edges, the edge 'shape' is an area bounded by the zig-zag edge and the
-      // (invisible) line from source to target vertex. The pick footprint is not inside the shape
-      // and is not intersecting the invisible line, but does intersect the zig zag line
-      if (!edgeShape.contains(pickingFootprint)
-          && edgeShape.intersects(pickingFootprint)
-          && !endToEnd.intersects(pickingFootprint)) {
-        closest = edge;
-        break;
-      }
+  /**
+   * @param spatial the edge spatial structure
+   * @param layoutModel
+   * @param pickingFootprint a rectangle in the view coordinate system
+   * @return an edge whose shape intersects the pickingFootprint
+   * @deprecated use {@link #getEdge(Spatial, LayoutModel, Rectangle2D)}
+   */
+  @Deprecated
+  protected E getEdge(
+      SpatialRTree.Edges<E, V> spatial, LayoutModel<V> layoutModel, Rectangle2D pickingFootprint) {
+    return getEdge((Spatial<E, V>) spatial, layoutModel, pickingFootprint);
+  }
+
+  /**
+   * a cheap test before the edge shape is made: the view box of the ends that the lens moved, grown
+   * by half its length for a curved edge. A loop is drawn beside its vertex, so it is always near
+   *
+   * @return whether the edge, as the lens draws it, may intersect the pickFootprint
+   */
+  private boolean drawnNear(
+      LayoutModel<V> layoutModel,
+      LensTransformer lensTransformer,
+      E edge,
+      Rectangle2D pickFootprint) {
+    Graph<V, E> graph = layoutModel.getGraph();
+    V source = graph.getEdgeSource(edge);
+    V target = graph.getEdgeTarget(edge);
+    if (source.equals(target)) {
+      return true;
     }
-    return closest;
+    MultiLayerTransformer mlt = vv.getRenderContext().getMultiLayerTransformer();
+    Point p = layoutModel.apply(source);
+    Point q = layoutModel.apply(target);
+    // the ends go through the same transforms as the edge shape in edgeIntersects
+    Shape ends =
+        lensTransformer
+            .getDelegate()
+            .transform(
+                lensTransformer.transform(
+                    new Line2D.Double(
+                        mlt.transform(Layer.LAYOUT, p.x, p.y),
+                        mlt.transform(Layer.LAYOUT, q.x, q.y))));
+    Rectangle2D bounds = ends.getBounds2D();
+    double margin = Math.max(bounds.getWidth(), bounds.getHeight()) / 2 + pickSize;
+    bounds.setRect(
+        bounds.getX() - margin,
+        bounds.getY() - margin,
+        bounds.getWidth() + 2 * margin,
+        bounds.getHeight() + 2 * margin);
+    return bounds.intersects(pickFootprint);
   }
 
   public E getEdge(LayoutModel<V> layoutModel, Rectangle2D pickFootprint) {
+    // if there is a spatial data structure active, use it (with or without a lens)
+    Spatial<E, V> edgeSpatial = vv.getEdgeSpatial();
+    if (edgeSpatial != null && edgeSpatial.isActive()) {
+      return getEdge(edgeSpatial, layoutModel, pickFootprint);
+    }
     E closest = null;
-    MultiLayerTransformer multiLayerTransformer = vv.getRenderContext().getMultiLayerTransformer();
-    MutableTransformer viewTransformer = multiLayerTransformer.getTransformer(Layer.VIEW);
 
     while (true) {
       try {
         // this checks every edge.
         for (E edge : getFilteredEdges()) {
-          Shape edgeShape = prepareFinalEdgeShape(vv.getRenderContext(), layoutModel, edge);
-          if (edgeShape == null) {
-            continue;
-          }
-
-          edgeShape = viewTransformer.transform(edgeShape);
-          if (viewTransformer instanceof LensTransformer) {
-            LensTransformer lensTransformer = (LensTransformer) viewTransformer;
-            edgeShape = lensTransformer.getDelegate().transform(edgeShape);
-          }
-
-          Line2D endToEnd = getLineFromShape(edgeShape);
-          // for articulated edges, the edge 'shape' is an area bounded by the zig-zag edge and the
-          // (invisible) line from source to target vertex. The pick footprint is not inside the shape
-          // and is not intersecting the invisible line, but does intersect the zig zag line
-          if (!edgeShape.contains(pickFootprint)
-              && edgeShape.intersects(pickFootprint)
-              && !endToEnd.intersects(pickFootprint)) {
+          if (edgeIntersects(layoutModel, edge, pickFootprint)) {
             closest = edge;
             break;
           }
@@ -638,6 +763,34 @@ public class ShapePickSupport<V, E> implements GraphElementAccessor<V, E> {
     return closest;
   }
 
+  /**
+   * @param layoutModel
+   * @param edge the edge to test
+   * @param pickFootprint a rectangle in the view coordinate system
+   * @return whether the shape of the edge, as seen in the view, intersects the pickFootprint
+   */
+  private boolean edgeIntersects(LayoutModel<V> layoutModel, E edge, Rectangle2D pickFootprint) {
+    Shape edgeShape = prepareFinalEdgeShape(vv.getRenderContext(), layoutModel, edge);
+    if (edgeShape == null) {
+      return false;
+    }
+    MutableTransformer viewTransformer =
+        vv.getRenderContext().getMultiLayerTransformer().getTransformer(Layer.VIEW);
+    edgeShape = viewTransformer.transform(edgeShape);
+    if (viewTransformer instanceof LensTransformer) {
+      LensTransformer lensTransformer = (LensTransformer) viewTransformer;
+      edgeShape = lensTransformer.getDelegate().transform(edgeShape);
+    }
+
+    Line2D endToEnd = getLineFromShape(edgeShape);
+    // for articulated edges, the edge 'shape' is an area bounded by the zig-zag edge and the
+    // (invisible) line from source to target vertex. The pick footprint is not inside the shape
+    // and is not intersecting the invisible line, but does intersect the zig zag line
+    return !edgeShape.contains(pickFootprint)
+        && edgeShape.intersects(pickFootprint)
+        && !endToEnd.intersects(pickFootprint);
+  }
+
   /**
    * Returns an edge whose shape intersects the 'pickArea' footprint of the passed x,y, coordinates.
    *
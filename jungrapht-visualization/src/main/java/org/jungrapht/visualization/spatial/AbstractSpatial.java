@@ -1,10 +1,15 @@
 package org.jungrapht.visualization.spatial;
 
+import static org.jungrapht.visualization.layout.util.PropertyLoader.PREFIX;
+
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.jungrapht.visualization.layout.event.LayoutStateChange;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
@@ -19,6 +24,12 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractSpatial<T, NT> implements Spatial<T, NT> {
 
   private static Logger log = LoggerFactory.getLogger(AbstractSpatial.class);
+
+  private static final String LIVE_INDEX = PREFIX + "spatialLiveIndex";
+
+  /** how many times a background rebuild is attempted while the graph is being changed */
+  private static final int MAX_REBUILD_ATTEMPTS = 3;
+
   /** should this model actively update itself */
   boolean active = false;
 
@@ -43,6 +54,28 @@ public abstract class AbstractSpatial<T, NT> implements Spatial<T, NT> {
 
   RadiusVertexAccessor<NT> fallback;
 
+  /**
+   * when a bulk position change moves more than this fraction of the elements, rebuild the whole
+   * structure once instead of updating each element
+   */
+  protected double bulkRecalculateFraction = 0.25;
+
+  /**
+   * when true, the structure stays active while the layout model is relaxing. Instead of being
+   * updated for each vertex move, it is rebuilt in the background and the rebuilt structure is
+   * swapped in when it is complete
+   */
+  protected boolean liveIndex = Boolean.parseBoolean(System.getProperty(LIVE_INDEX, "false"));
+
+  /** true while the layout model is relaxing and the structure is kept live */
+  protected volatile boolean live;
+
+  /** set when a background rebuild has been requested but has not started */
+  private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+  /** set while a background rebuild is running. Only one runs at a time */
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+
   protected AbstractSpatial(LayoutModel<NT> layoutModel) {
     this.layoutModel = layoutModel;
     if (layoutModel != null) {
@@ -67,6 +100,98 @@ public abstract class AbstractSpatial<T, NT> implements Spatial<T, NT> {
     this.active = active;
   }
 
+  public double getBulkRecalculateFraction() {
+    return bulkRecalculateFraction;
+  }
+
+  public void setBulkRecalculateFraction(double bulkRecalculateFraction) {
+    this.bulkRecalculateFraction = bulkRecalculateFraction;
+  }
+
+  @Override
+  public boolean isLiveIndex() {
+    return liveIndex;
+  }
+
+  @Override
+  public void setLiveIndex(boolean liveIndex) {
+    this.liveIndex = liveIndex;
+  }
+
+  /**
+   * Build a replacement for this structure from the current layout model locations, without
+   * changing this structure. Called from a background thread while the structure is live.
+   *
+   * @return an action that swaps the replacement into this structure, or null if this structure
+   *     cannot be rebuilt in the background
+   */
+  protected Runnable buildReplacement() {
+    return null;
+  }
+
+  /**
+   * request a background rebuild of the live structure. Only one rebuild runs at a time. Requests
+   * that arrive while it runs are merged into exactly one more rebuild when it finishes, as that
+   * will see the latest locations
+   */
+  protected void rebuildInBackground() {
+    rebuildRequested.set(true);
+    if (rebuilding.compareAndSet(false, true)) {
+      CompletableFuture.runAsync(this::rebuildWhileRequested);
+    }
+  }
+
+  private void rebuildWhileRequested() {
+    do {
+      while (live && rebuildRequested.getAndSet(false)) {
+        rebuild();
+      }
+      rebuilding.set(false);
+      // a request that came after the last check but before rebuilding was cleared did not start a
+      // rebuild of its own, so pick it up here
+    } while (live && rebuildRequested.get() && rebuilding.compareAndSet(false, true));
+  }
+
+  private void rebuild() {
+    try {
+      Runnable swap;
+      for (int attempt = 1; ; attempt++) {
+        try {
+          swap = buildReplacement();
+          break;
+        } catch (ConcurrentModificationException ex) {
+          // the graph changed, try again a few times. After that, the next request, or
+          // the recalculate when the layout model stops relaxing, will catch up
+          if (attempt == MAX_REBUILD_ATTEMPTS) {
+            log.warn("live rebuild gave up after {} attempts", attempt, ex);
+            return;
+          }
+        }
+      }
+      synchronized (this) {
+        // the layout model may have stopped relaxing while this was built
+        if (live && swap != null) {
+          swap.run();
+          gridCache = null;
+        }
+      }
+    } catch (Exception ex) {
+      log.warn("live rebuild failed", ex);
+    }
+  }
+
+  /**
+   * @return true if the structure is live, in which case a background rebuild was requested instead
+   *     of changing the structure now
+   */
+  protected boolean rebuildIfLive() {
+    if (live) {
+      rebuildInBackground();
+      return true;
+    }
+    return false;
+  }
+
   @Override
   public LayoutModel<NT> getLayoutModel() {
     return this.layoutModel;
@@ -103,6 +228,17 @@ public abstract class AbstractSpatial<T, NT> implements Spatial<T, NT> {
 
   @Override
   public void layoutStateChanged(LayoutStateChange.Event evt) {
+    if (evt.active && isLiveIndex()) {
+      // stay active, and rebuild in the background as the layout model moves the vertices
+      live = true;
+      setActive(true);
+      rebuildInBackground();
+      return;
+    }
+    synchronized (this) {
+      // no background rebuild may be swapped in after this
+      live = false;
+    }
     // if the layoutmodel is not active, then it is safe to activate this
     setActive(!evt.active);
     // if the layout model is finished, then rebuild the spatial data structure
@@ -35,6 +35,17 @@ public interface Spatial<T, NT>
   /** @return a hint about whether the spatial structure should be used */
   boolean isActive();
 
+  /**
+   * @return true if the structure stays active while the layout model is relaxing, being rebuilt in
+   *     the background instead of updated for each vertex move
+   */
+  default boolean isLiveIndex() {
+    return false;
+  }
+
+  /** @param liveIndex whether to keep the structure active while the layout model is relaxing */
+  default void setLiveIndex(boolean liveIndex) {}
+
   /** @return a geometic representation of the spatial structure */
   List<Shape> getGrid();
 
@@ -139,6 +150,12 @@ public interface Spatial<T, NT>
       this.treeVertex = new DegenerateTreeVertex(layoutModel);
     }
 
+    /** there is no structure to keep live */
+    @Override
+    public boolean isLiveIndex() {
+      return false;
+    }
+
     /**
      * return the entire area
      *
@@ -230,6 +247,11 @@ public interface Spatial<T, NT>
       //noop
     }
 
+    @Override
+    public void layoutVertexPositionsChanged(LayoutVertexPositionChange.BulkEvent<NT> evt) {
+      // noop
+    }
+
     /**
      * a TreeNode that is immutable and covers the entire layout area
      *
@@ -39,8 +39,11 @@ public class SpatialGrid<V> extends AbstractSpatial<V, V>
   /** the overall size of the area to be divided into a grid */
   private Dimension size;
 
-  /** A mapping of grid cell identified to a collection of contained vertices */
-  private final Map<Integer, List<V>> map = Collections.synchronizedMap(new HashMap<>());
+  /**
+   * A mapping of grid cell identified to a collection of contained vertices. A live rebuild swaps
+   * in a new map
+   */
+  private volatile Map<Integer, List<V>> map = Collections.synchronizedMap(new HashMap<>());
   //      Multimaps.synchronizedListMultimap(ArrayListMultimap.create());
 
   /** the width of a grid cell */
@@ -265,11 +268,37 @@ public class SpatialGrid<V> extends AbstractSpatial<V, V>
 
   @Override
   public void recalculate() {
+    if (rebuildIfLive()) {
+      return;
+    }
     if (isActive()) {
       recalculate(layoutModel.getGraph().vertexSet());
     }
   }
 
+  /**
+   * fill a new grid over an area that holds every vertex, then swap its area and map into this one
+   *
+   * @return the action that swaps in the new grid
+   */
+  @Override
+  protected Runnable buildReplacement() {
+    Rectangle2D area = new Rectangle2D.Double();
+    area.setRect(this.getLayoutArea());
+    Collection<V> vertices = layoutModel.getGraph().vertexSet();
+    for (V vertex : vertices) {
+      Point location = layoutModel.apply(vertex);
+      area = this.getUnion(area, location.x, location.y);
+    }
+    SpatialGrid<V> replacement =
+        new SpatialGrid<>(layoutModel, area, horizontalCount, verticalCount);
+    replacement.recalculate(vertices);
+    return () -> {
+      this.setBounds(replacement.layoutArea);
+      this.map = replacement.map;
+    };
+  }
+
   @Override
   public void clear() {
     this.map.clear();
@@ -319,7 +348,8 @@ public class SpatialGrid<V> extends AbstractSpatial<V, V>
       int rightBox = this.getBoxNumberFromLocation(layoutModel.apply(vertex));
       // vertex should end up in box 'rightBox'
       // check to see if it is already there
-      if (map.get(rightBox).size() > 0 && map.get(rightBox).contains(vertex)) {
+      List<V> rightList = map.get(rightBox);
+      if (rightList != null && rightList.contains(vertex)) {
         // nothing to do here, just return
         return;
       }
@@ -337,15 +367,10 @@ public class SpatialGrid<V> extends AbstractSpatial<V, V>
         }
       }
       if (wrongBox != null) {
-        map.remove(wrongBox, vertex);
-      }
-      if (map.get(rightBox).size() > 0) {
-        map.get(rightBox).add(vertex);
-      } else {
-        List<V> list = new ArrayList<>();
-        list.add(vertex);
-        map.put(rightBox, list);
+        map.get(wrongBox).remove(vertex);
       }
+      // boxes with no vertices have no list
+      map.computeIfAbsent(rightBox, box -> new ArrayList<>()).add(vertex);
       //      map.put(rightBox, vertex);
     }
   }
@@ -438,13 +463,16 @@ public class SpatialGrid<V> extends AbstractSpatial<V, V>
       log.trace("map is {}", map);
     }
     Set<V> visibleVertices = new HashSet<>();
-    Collection<Integer> tiles = getVisibleTiles(area);
-    for (Integer index : tiles) {
-      Collection<V> toAdd = this.map.get(index);
-      if (toAdd.size() > 0) {
-        visibleVertices.addAll(toAdd);
-        if (log.isTraceEnabled()) {
-          log.trace("added all of: {} from index {} to visibleVertices", toAdd, index);
+    // the tiles and the map must come from the same grid when a live rebuild is swapped in
+    synchronized (this) {
+      Collection<Integer> tiles = getVisibleTiles(area);
+      for (Integer index : tiles) {
+        Collection<V> toAdd = this.map.get(index);
+        if (toAdd != null && toAdd.size() > 0) {
+          visibleVertices.addAll(toAdd);
+          if (log.isTraceEnabled()) {
+            log.trace("added all of: {} from index {} to visibleVertices", toAdd, index);
+          }
         }
       }
     }
@@ -472,11 +500,54 @@ public class SpatialGrid<V> extends AbstractSpatial<V, V>
 
   @Override
   public void layoutVertexPositionChanged(LayoutVertexPositionChange.Event<V> evt) {
+    if (rebuildIfLive()) {
+      return;
+    }
     update(evt.vertex, evt.location);
   }
 
   @Override
   public void layoutVertexPositionChanged(LayoutVertexPositionChange.GraphEvent<V> evt) {
+    if (rebuildIfLive()) {
+      return;
+    }
     update(evt.vertex, evt.location);
   }
+
+  /**
+   * grow the layout area to hold every moved vertex. If it grew, or if more than the bulk
+   * recalculate fraction of the vertices moved, rebuild the map of box number to vertex lists once
+   * for the whole batch. Otherwise move each vertex to its box
+   *
+   * @param evt the vertices that were moved
+   */
+  @Override
+  public void layoutVertexPositionsChanged(LayoutVertexPositionChange.BulkEvent<V> evt) {
+    if (rebuildIfLive()) {
+      return;
+    }
+    if (isActive()) {
+      Rectangle2D area = new Rectangle2D.Double();
+      area.setRect(this.getLayoutArea());
+      boolean grown = false;
+      for (V vertex : evt.vertices) {
+        Point location = evt.locations.apply(vertex);
+        if (!area.contains(location.x, location.y)) {
+          area = this.getUnion(area, location.x, location.y);
+          grown = true;
+        }
+      }
+      if (grown) {
+        this.setBounds(area);
+      }
+      int vertexCount = layoutModel.getGraph().vertexSet().size();
+      if (grown || evt.vertices.size() > vertexCount * bulkRecalculateFraction) {
+        recalculate(layoutModel.getGraph().vertexSet());
+      } else {
+        for (V vertex : evt.vertices) {
+          update(vertex, evt.locations.apply(vertex));
+        }
+      }
+    }
+  }
 }
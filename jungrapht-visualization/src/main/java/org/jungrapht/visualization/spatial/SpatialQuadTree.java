@@ -259,12 +259,12 @@ public class SpatialQuadTree<V> extends AbstractSpatial<V, V>
    * rotated/skewed and the shape edges are no longer parallel to the grid edges.
    */
   protected Set<V> retrieve(Set<V> returnObjects, Shape shape) {
-    if (children == null) {
-      // i am a leaf, add any nodes i have
-      returnObjects.addAll(nodes);
-    } else {
-
-      synchronized (lock) {
+    // a live rebuild may swap in new cells
+    synchronized (lock) {
+      if (children == null) {
+        // i am a leaf, add any nodes i have
+        returnObjects.addAll(nodes);
+      } else {
         for (Map.Entry<Quadrant, SpatialQuadTree<V>> entry : children.entrySet()) {
           if (shape.intersects(entry.getValue().area)) {
             children.get(entry.getKey()).retrieve(returnObjects, shape);
@@ -361,11 +361,44 @@ public class SpatialQuadTree<V> extends AbstractSpatial<V, V>
 
   @Override
   public void recalculate() {
+    if (rebuildIfLive()) {
+      return;
+    }
     if (isActive()) {
       recalculate(layoutModel.getGraph().vertexSet());
     }
   }
 
+  /**
+   * fill a new quadtree over an area that holds every vertex, then swap its area and cells into
+   * this one
+   *
+   * @return the action that swaps in the new quadtree
+   */
+  @Override
+  protected Runnable buildReplacement() {
+    Rectangle2D bounds = new Rectangle2D.Double();
+    bounds.setRect(this.getLayoutArea());
+    Collection<V> vertices = layoutModel.getGraph().vertexSet();
+    for (V vertex : vertices) {
+      Point location = layoutModel.apply(vertex);
+      bounds = this.getUnion(bounds, location.x, location.y);
+    }
+    SpatialQuadTree<V> replacement = new SpatialQuadTree<>(layoutModel, level, bounds);
+    replacement.setMaxObjects(MAX_OBJECTS).setMaxLevels(MAX_LEVELS);
+    for (V vertex : vertices) {
+      replacement.insert(vertex);
+    }
+    return () -> {
+      synchronized (lock) {
+        gridCache = null;
+        area = replacement.area;
+        nodes = replacement.nodes;
+        children = replacement.children;
+      }
+    };
+  }
+
   private void recalculate(Collection<V> nodes) {
 
     this.clear();
@@ -544,14 +577,58 @@ public class SpatialQuadTree<V> extends AbstractSpatial<V, V>
 
   @Override
   public void layoutVertexPositionChanged(LayoutVertexPositionChange.Event<V> evt) {
+    if (rebuildIfLive()) {
+      return;
+    }
     this.update(evt.vertex, evt.location);
   }
 
   @Override
   public void layoutVertexPositionChanged(LayoutVertexPositionChange.GraphEvent<V> evt) {
+    if (rebuildIfLive()) {
+      return;
+    }
     this.update(evt.vertex, evt.location);
   }
 
+  /**
+   * grow the area to hold every moved node. If it grew, or if more than the bulk recalculate
+   * fraction of the nodes moved, rebuild the structure once for the whole batch. Otherwise update
+   * each node
+   *
+   * @param evt the nodes that were moved
+   */
+  @Override
+  public void layoutVertexPositionsChanged(LayoutVertexPositionChange.BulkEvent<V> evt) {
+    if (rebuildIfLive()) {
+      return;
+    }
+    if (isActive()) {
+      gridCache = null;
+      Rectangle2D area = new Rectangle2D.Double();
+      area.setRect(this.getLayoutArea());
+      boolean grown = false;
+      for (V node : evt.vertices) {
+        Point location = evt.locations.apply(node);
+        if (!area.contains(location.x, location.y)) {
+          area = this.getUnion(area, location.x, location.y);
+          grown = true;
+        }
+      }
+      if (grown) {
+        this.setBounds(area);
+      }
+      int vertexCount = layoutModel.getGraph().vertexSet().size();
+      if (grown || evt.vertices.size() > vertexCount * bulkRecalculateFraction) {
+        this.recalculate(layoutModel.getGraph().vertexSet());
+      } else {
+        for (V node : evt.vertices) {
+          update(node, evt.locations.apply(node));
+        }
+      }
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -16,6 +16,7 @@ import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
 import org.jungrapht.visualization.spatial.rtree.LeafNode;
 import org.jungrapht.visualization.spatial.rtree.Node;
+import org.jungrapht.visualization.spatial.rtree.PackedRTree;
 import org.jungrapht.visualization.spatial.rtree.RTree;
 import org.jungrapht.visualization.spatial.rtree.SplitterContext;
 import org.jungrapht.visualization.util.BoundingRectangleCollector;
@@ -37,6 +38,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
     protected BoundingRectangleCollector<T> boundingRectangleCollector;
     protected SplitterContext<T> splitterContext;
     protected boolean reinsert;
+    protected boolean packed;
 
     public Builder<T, NT> boundingRectangleCollector(
         BoundingRectangleCollector<T> boundingRectangleCollector) {
@@ -59,20 +61,46 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
       return this;
     }
 
+    /**
+     * @param packed whether to hold the elements in a read-only {@link PackedRTree} until they are
+     *     moved
+     * @return this builder
+     */
+    public Builder<T, NT> packed(boolean packed) {
+      this.packed = packed;
+      return this;
+    }
+
     public abstract SpatialRTree<T, NT> build();
   }
 
   /** a container for the splitter functions to use, quadratic or R*Tree */
   protected SplitterContext<T> splitterContext;
 
-  /** the RTree to use. Add/Remove methods may change this to a new immutable RTree reference */
-  protected RTree<T> rtree;
+  /**
+   * the RTree to use. Add/Remove methods may change this to a new immutable RTree reference, and a
+   * live rebuild swaps in a new RTree
+   */
+  protected volatile RTree<T> rtree;
+
+  /**
+   * when not null, the elements are held in this read-only tree instead of in the rtree. It is
+   * unpacked into the rtree when an element is moved
+   */
+  protected volatile PackedRTree<T> packedTree;
 
   /** gathers the bounding rectangles of the elements managed by the RTree. Node or Edge shapes */
   protected BoundingRectangleCollector<T> boundingRectangleCollector;
 
+  /**
+   * whether to reinsert some elements after they are all added. The structure is now rebuilt with
+   * {@link RTree#bulkLoad(Collection)}, which packs the nodes without reinsertion
+   */
   protected boolean reinsert;
 
+  /** whether to rebuild the structure as a read-only {@link PackedRTree} */
+  protected boolean packed;
+
   /**
    * create a new instance with the a LayoutModel and a style of splitter to use
    *
@@ -94,6 +122,33 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
     this.reinsert = reinsert;
   }
 
+  public boolean isPacked() {
+    return packed;
+  }
+
+  /**
+   * @param packed whether the next rebuild of the structure makes a read-only {@link PackedRTree},
+   *     which is smaller and faster to search, for layouts that do not move
+   */
+  public void setPacked(boolean packed) {
+    this.packed = packed;
+  }
+
+  /** @return true if there are no elements in the structure */
+  protected boolean isEmpty() {
+    PackedRTree<T> packedTree = this.packedTree;
+    return packedTree != null ? packedTree.count() == 0 : rtree.getRoot().isEmpty();
+  }
+
+  /** move the elements of a packed tree into an rtree, so that they can be updated */
+  protected void unpack() {
+    PackedRTree<T> packedTree = this.packedTree;
+    if (packedTree != null) {
+      rtree = RTree.bulkLoad(packedTree.entries());
+      this.packedTree = null;
+    }
+  }
+
   /**
    * gather the RTree nodes into a list for display as Paintables
    *
@@ -127,7 +182,13 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
       }
       List<Shape> areas = new ArrayList<>();
 
-      gridCache = collectGrids(areas, rtree);
+      PackedRTree<T> packedTree = this.packedTree;
+      if (packedTree != null) {
+        packedTree.collectGrids(areas);
+        gridCache = areas;
+      } else {
+        gridCache = collectGrids(areas, rtree);
+      }
       if (log.isTraceEnabled()) {
         log.trace("getGrid got {} and {}", areas.size(), gridCache.size());
       }
@@ -140,6 +201,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
   @Override
   public void clear() {
     rtree = RTree.create();
+    packedTree = null;
   }
 
   /**
@@ -149,9 +211,13 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
    */
   @Override
   public Set<LeafNode<T>> getContainingLeafs(double x, double y) {
-    if (!isActive() || rtree.getRoot().isEmpty()) {
+    if (!isActive() || isEmpty()) {
       return Collections.emptySet();
     }
+    PackedRTree<T> packedTree = this.packedTree;
+    if (packedTree != null) {
+      return packedTree.getContainingLeafs(new HashSet<>(), x, y);
+    }
 
     Node<T> theRoot = rtree.getRoot().get();
     return theRoot.getContainingLeafs(new HashSet<>(), x, y);
@@ -164,6 +230,10 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
 
   @Override
   public LeafNode<T> getContainingLeaf(Object element) {
+    PackedRTree<T> packedTree = this.packedTree;
+    if (packedTree != null) {
+      return packedTree.getContainingLeaf((T) element);
+    }
     if (rtree.getRoot().isEmpty()) {
       return null; // nothing in this tree
     }
@@ -177,32 +247,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
     }
     try {
       log.trace("start recalculate");
-      clear();
-      if (boundingRectangleCollector != null) {
-        for (T element : elements) {
-          rtree =
-              RTree.add(
-                  rtree,
-                  splitterContext,
-                  element,
-                  boundingRectangleCollector.getForElement(element));
-          if (log.isTraceEnabled()) {
-            log.trace("added {} got {} nodes in {}", element, rtree.count(), rtree);
-          }
-        }
-        if (reinsert) {
-          if (log.isTraceEnabled()) {
-            log.trace("before reinsert node count: {}", rtree.count());
-          }
-
-          rtree = RTree.reinsert(rtree, splitterContext);
-          if (log.isTraceEnabled()) {
-            log.trace("after reinsert node count: {}", rtree.count());
-          }
-        }
-      } else {
-        log.trace("got no rectangles");
-      }
+      load(elements).run();
       log.trace("end recalculate");
 
     } catch (Exception ex) {
@@ -212,21 +257,37 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
 
   protected void bulkInsert(Collection<T> elements) {
     log.trace("start bulk insert");
-    clear();
-    if (boundingRectangleCollector != null) {
-      List<Map.Entry<T, Rectangle2D>> entryList = new ArrayList<>();
+    load(elements).run();
+    log.trace("end recalculate");
+  }
 
+  /**
+   * Pack the passed elements into a new RTree, or a new {@link PackedRTree} if this structure is
+   * packed, without changing the current one
+   *
+   * @param elements the elements to hold in the new tree
+   * @return an action that swaps the new tree into this structure
+   */
+  protected Runnable load(Collection<T> elements) {
+    List<Map.Entry<T, Rectangle2D>> entryList = new ArrayList<>();
+    if (boundingRectangleCollector != null) {
       for (T element : elements) {
         entryList.add(
-            new AbstractMap.SimpleEntry(
+            new AbstractMap.SimpleEntry<>(
                 element, boundingRectangleCollector.getForElement(element)));
       }
-      rtree = RTree.bulkAdd(rtree, splitterContext, entryList);
-
     } else {
       log.trace("got no rectangles");
     }
-    log.trace("end recalculate");
+    if (packed) {
+      PackedRTree<T> replacement = PackedRTree.create(entryList);
+      return () -> packedTree = replacement;
+    }
+    RTree<T> replacement = RTree.bulkLoad(entryList);
+    return () -> {
+      rtree = replacement;
+      packedTree = null;
+    };
   }
 
   public static class Vertices<V> extends SpatialRTree<V, V>
@@ -251,6 +312,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
           builder.boundingRectangleCollector,
           builder.splitterContext,
           builder.reinsert);
+      this.packed = builder.packed;
     }
 
     Vertices(
@@ -269,10 +331,14 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
      */
     @Override
     public Set<V> getVisibleElements(Shape shape) {
-      if (!isActive() || rtree.getRoot().isEmpty()) {
+      if (!isActive() || isEmpty()) {
         return layoutModel.getGraph().vertexSet();
       }
       pickShapes.add(shape);
+      PackedRTree<V> packedTree = this.packedTree;
+      if (packedTree != null) {
+        return packedTree.getVisibleElements(new HashSet<>(), shape);
+      }
 
       Node<V> root = rtree.getRoot().get();
       if (log.isTraceEnabled()) {
@@ -293,8 +359,8 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
       try {
         gridCache = null;
         // do nothing if we are not active
-        if (isActive() && rtree.getRoot().isPresent()) {
-          //        TreeNode root = rtree.getRoot().get();
+        if (isActive() && !isEmpty()) {
+          unpack();
 
           LeafNode<V> containingLeaf = getContainingLeaf(element);
           Rectangle2D itsShape = boundingRectangleCollector.getForElement(element, location);
@@ -340,7 +406,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
      */
     @Override
     public V getClosestElement(double x, double y) {
-      if (!isActive() || rtree.getRoot().isEmpty()) {
+      if (!isActive() || isEmpty()) {
         // use the fallback VertexAccessor
         return fallback.getVertex(layoutModel, x, y);
       }
@@ -372,7 +438,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
 
     @Override
     public V getClosestElement(V v) {
-      if (!isActive() || rtree.getRoot().isEmpty()) {
+      if (!isActive() || isEmpty()) {
         // use the fallback VertexAccessor
         return fallback.getClosestVertex(layoutModel, v);
       }
@@ -422,6 +488,9 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
      */
     @Override
     public void recalculate() {
+      if (rebuildIfLive()) {
+        return;
+      }
       try {
         gridCache = null;
         log.trace(
@@ -443,15 +512,48 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
       log.trace("recalculate tries");
     }
 
+    /** @return an action that swaps in a new RTree loaded with every vertex */
+    @Override
+    protected Runnable buildReplacement() {
+      return load(layoutModel.getGraph().vertexSet());
+    }
+
     @Override
     public void layoutVertexPositionChanged(LayoutVertexPositionChange.GraphEvent<V> evt) {
+      if (rebuildIfLive()) {
+        return;
+      }
       update(evt.vertex, evt.location);
     }
 
     @Override
     public void layoutVertexPositionChanged(LayoutVertexPositionChange.Event<V> evt) {
+      if (rebuildIfLive()) {
+        return;
+      }
       update(evt.vertex, evt.location);
     }
+
+    /**
+     * update every moved vertex, or rebuild the RTree once if a large part of the graph moved
+     *
+     * @param evt the vertices that were moved
+     */
+    @Override
+    public void layoutVertexPositionsChanged(LayoutVertexPositionChange.BulkEvent<V> evt) {
+      if (!isActive() || rebuildIfLive()) {
+        return;
+      }
+      gridCache = null;
+      int vertexCount = layoutModel.getGraph().vertexSet().size();
+      if (evt.vertices.size() > vertexCount * bulkRecalculateFraction) {
+        recalculate();
+      } else {
+        for (V vertex : evt.vertices) {
+          update(vertex, evt.locations.apply(vertex));
+        }
+      }
+    }
   }
 
   public static class Edges<E, V> extends SpatialRTree<E, V>
@@ -481,6 +583,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
           builder.boundingRectangleCollector,
           builder.splitterContext,
           builder.reinsert);
+      this.packed = builder.packed;
     }
 
     GraphElementAccessor<V, E> graphElementAccessor;
@@ -507,11 +610,15 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
      */
     @Override
     public Set<E> getVisibleElements(Shape shape) {
-      if (!isActive() || rtree.getRoot().isEmpty()) {
+      if (!isActive() || isEmpty()) {
         log.trace("not relaxing so getting from the graph");
         return (Set<E>) layoutModel.getGraph().edgeSet();
       }
       pickShapes.add(shape);
+      PackedRTree<E> packedTree = this.packedTree;
+      if (packedTree != null) {
+        return packedTree.getVisibleElements(new HashSet<>(), shape);
+      }
       Node<E> root = rtree.getRoot().get();
       Set<E> visibleElements = new HashSet<>();
       return root.getVisibleElements(visibleElements, shape);
@@ -528,6 +635,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
       try {
         gridCache = null;
         if (isActive()) {
+          unpack();
 
           // get the endpoints for this edge
           // there should be 2
@@ -538,9 +646,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
             n2 = n1;
           }
           if (n1 != null && n2 != null) {
-            Rectangle2D itsShape =
-                boundingRectangleCollector.getForElement(
-                    element, layoutModel.apply(n1), layoutModel.apply(n2));
+            Rectangle2D itsShape = boundsFor(element, n1, n2);
             LeafNode<E> containingLeaf = getContainingLeaf(element);
             // if the shape does not enlarge the containingRTree, then only update what is in elements map
             // otherwise, remove this node and re-insert it
@@ -572,6 +678,9 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
 
     @Override
     public void layoutVertexPositionChanged(LayoutVertexPositionChange.Event<V> evt) {
+      if (rebuildIfLive()) {
+        return;
+      }
       V vertex = evt.vertex;
       org.jungrapht.visualization.layout.model.Point p = evt.location;
       if (layoutModel.getGraph().containsVertex(vertex)) {
@@ -586,6 +695,9 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
 
     @Override
     public void layoutVertexPositionChanged(LayoutVertexPositionChange.GraphEvent<V> evt) {
+      if (rebuildIfLive()) {
+        return;
+      }
       V vertex = evt.vertex;
       org.jungrapht.visualization.layout.model.Point p = evt.location;
       if (layoutModel.getGraph().containsVertex(vertex)) {
@@ -597,6 +709,65 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
       }
     }
 
+    /**
+     * update each edge incident to a moved vertex once, or rebuild the RTree once if a large part
+     * of the graph moved
+     *
+     * @param evt the vertices that were moved
+     */
+    @Override
+    public void layoutVertexPositionsChanged(LayoutVertexPositionChange.BulkEvent<V> evt) {
+      if (!isActive() || rebuildIfLive()) {
+        return;
+      }
+      gridCache = null;
+      Graph<V, E> graph = layoutModel.getGraph();
+      Set<E> dirtyEdges = new LinkedHashSet<>();
+      for (V vertex : evt.vertices) {
+        if (graph.containsVertex(vertex)) {
+          dirtyEdges.addAll(graph.edgesOf(vertex));
+        }
+      }
+      if (dirtyEdges.size() > graph.edgeSet().size() * bulkRecalculateFraction) {
+        recalculate();
+      } else {
+        update(dirtyEdges);
+      }
+    }
+
+    /**
+     * update the bounds of all of the passed edges in one pass over the RTree
+     *
+     * @param edges the edges to update
+     */
+    protected void update(Collection<E> edges) {
+      try {
+        unpack();
+        Graph<V, E> graph = layoutModel.getGraph();
+        Map<E, Rectangle2D> moved = new LinkedHashMap<>();
+        for (E edge : edges) {
+          moved.put(edge, boundsFor(edge, graph.getEdgeSource(edge), graph.getEdgeTarget(edge)));
+        }
+        rtree = RTree.update(rtree, splitterContext, moved);
+      } catch (ConcurrentModificationException cme) {
+        log.debug("ignoring CME");
+      }
+    }
+
+    /**
+     * @return the bounds of the edge between its endpoints, from the cached edge shape bounds when
+     *     the collector has them
+     */
+    protected Rectangle2D boundsFor(E edge, V source, V target) {
+      Point p1 = layoutModel.apply(source);
+      Point p2 = layoutModel.apply(target);
+      if (boundingRectangleCollector instanceof BoundingRectangleCollector.Edges) {
+        return ((BoundingRectangleCollector.Edges<V, E>) boundingRectangleCollector)
+            .getExtentFor(edge, p1, p2);
+      }
+      return boundingRectangleCollector.getForElement(edge, p1, p2);
+    }
+
     /**
      * get the element that is closest to the passed point
      *
@@ -618,7 +789,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
     @Override
     public E getClosestElement(double x, double y) {
 
-      if (!isActive() || rtree.getRoot().isEmpty()) {
+      if (!isActive() || isEmpty()) {
         // not active or empty
         // use the fallback VertexAccessor
         return graphElementAccessor.getEdge(layoutModel, x, y);
@@ -656,7 +827,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
       Point sp = layoutModel.get(graph.getEdgeSource(element));
       Point tp = layoutModel.get(graph.getEdgeSource(element));
       Point p = Point.centroidOf(sp, tp);
-      if (!isActive() || rtree.getRoot().isEmpty()) {
+      if (!isActive() || isEmpty()) {
         // not active or empty
         // use the fallback VertexAccessor
         return graphElementAccessor.getEdge(layoutModel, p);
@@ -731,9 +902,19 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
       return list;
     }
 
+    /** @return an action that swaps in a new RTree loaded with every edge */
+    @Override
+    protected Runnable buildReplacement() {
+      Graph<V, E> graph = layoutModel.getGraph();
+      return load(graph.edgeSet());
+    }
+
     /** rebuild the data structure */
     @Override
     public void recalculate() {
+      if (rebuildIfLive()) {
+        return;
+      }
       gridCache = null;
       log.trace(
           "called recalculate while active:{} layout model relaxing:{}",
@@ -743,6 +924,10 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
         if (log.isTraceEnabled()) {
           log.trace("recalculate for edges: {}", layoutModel.getGraph().edgeSet());
         }
+        if (boundingRectangleCollector instanceof BoundingRectangleCollector.Edges) {
+          // the edge shapes may have changed with the layout
+          ((BoundingRectangleCollector.Edges<V, E>) boundingRectangleCollector).clearExtents();
+        }
         Graph<V, E> graph = layoutModel.getGraph();
         recalculate(graph.edgeSet());
       }
@@ -750,6 +935,7 @@ public abstract class SpatialRTree<T, NT> extends AbstractSpatial<T, NT> impleme
   }
 
   public String toString() {
-    return rtree.toString();
+    PackedRTree<T> packedTree = this.packedTree;
+    return packedTree != null ? packedTree.toString() : rtree.toString();
   }
 }
@@ -4,6 +4,7 @@ import java.awt.Shape;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import javax.swing.*;
@@ -32,6 +33,20 @@ public class SwingThreadSpatial<T, NT> implements Spatial<T, NT> {
 
   @Override
   public void layoutStateChanged(LayoutStateChange.Event evt) {
+    if (isLiveIndex()) {
+      // a live structure is rebuilt off the swing thread while the layout model relaxes, and is
+      // recalculated on the swing thread when the layout model is done
+      if (evt.active) {
+        spatial.layoutStateChanged(evt);
+      } else {
+        SwingUtilities.invokeLater(
+            () -> {
+              spatial.layoutStateChanged(evt);
+              after.run();
+            });
+      }
+      return;
+    }
     // if the layoutmodel is not active, then it is safe to activate this
     setActive(!evt.active);
     // if the layout model is finished, then rebuild the spatial data structure
@@ -56,6 +71,16 @@ public class SwingThreadSpatial<T, NT> implements Spatial<T, NT> {
     return spatial.isActive();
   }
 
+  @Override
+  public boolean isLiveIndex() {
+    return spatial.isLiveIndex();
+  }
+
+  @Override
+  public void setLiveIndex(boolean liveIndex) {
+    spatial.setLiveIndex(liveIndex);
+  }
+
   @Override
   public List<Shape> getGrid() {
     return spatial.getGrid();
@@ -158,4 +183,13 @@ public class SwingThreadSpatial<T, NT> implements Spatial<T, NT> {
   public void layoutVertexPositionChanged(LayoutVertexPositionChange.GraphEvent<NT> evt) {
     SwingUtilities.invokeLater(() -> spatial.layoutVertexPositionChanged(evt));
   }
+
+  @Override
+  public void layoutVertexPositionsChanged(LayoutVertexPositionChange.BulkEvent<NT> evt) {
+    // the layout model reuses the vertex set after the event, so defer a copy of it
+    LayoutVertexPositionChange.BulkEvent<NT> copy =
+        new LayoutVertexPositionChange.BulkEvent<>(
+            new LinkedHashSet<>(evt.vertices), evt.locations);
+    SwingUtilities.invokeLater(() -> spatial.layoutVertexPositionsChanged(copy));
+  }
 }
@@ -0,0 +1,406 @@
+package org.jungrapht.visualization.spatial.rtree;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only R-Tree that is packed into arrays. The entries are sorted along a Hilbert curve
+ * through their centers and grouped, in that order, into full nodes of {@code nodeSize} children.
+ * Each level of nodes is grouped in the same way until one root node remains. The children of a
+ * node are found by their position in the arrays, so the tree holds no node objects, and each entry
+ * costs only its element reference and 4 doubles.
+ *
+ * <p>A PackedRTree is built once from all of its entries in O(n log n) and cannot be changed. It
+ * suits layouts that do not move. Use {@link #entries()} to load an {@link RTree} that can be
+ * changed.
+ *
+ * @param <T> the type of the elements
+ * @author Tom Nelson
+ */
+public class PackedRTree<T> {
+
+  /** the default number of children of each node */
+  public static final int DEFAULT_NODE_SIZE = 16;
+
+  /** the bits per axis of the Hilbert curve grid. 2 * ORDER bits must fit in an int */
+  private static final int ORDER = 15;
+
+  private final int nodeSize;
+
+  /** the entry elements, in packed order */
+  private final Object[] elements;
+
+  /** minX, minY, maxX, maxY for each entry then each node, level by level up to the root */
+  private final double[] boxes;
+
+  /** the start of each level in boxes. level 0 holds the entries, the last level is the root */
+  private final int[] levelStarts;
+
+  /**
+   * the packed position of each element, built when an element's leaf is first asked for. Two
+   * threads may both build it, with the same contents
+   */
+  private volatile Map<Object, Integer> slots;
+
+  /**
+   * create a PackedRTree with nodes of {@link #DEFAULT_NODE_SIZE} children
+   *
+   * @param entries the elements and their bounds
+   * @param <T> the type of the elements
+   * @return a new PackedRTree holding the entries
+   */
+  public static <T> PackedRTree<T> create(Collection<Map.Entry<T, Rectangle2D>> entries) {
+    return new PackedRTree<>(entries, DEFAULT_NODE_SIZE);
+  }
+
+  /**
+   * @param entries the elements and their bounds
+   * @param nodeSize the number of children of each node
+   * @param <T> the type of the elements
+   * @return a new PackedRTree holding the entries
+   */
+  public static <T> PackedRTree<T> create(
+      Collection<Map.Entry<T, Rectangle2D>> entries, int nodeSize) {
+    return new PackedRTree<>(entries, nodeSize);
+  }
+
+  private PackedRTree(Collection<Map.Entry<T, Rectangle2D>> entries, int nodeSize) {
+    if (nodeSize < 2) {
+      throw new IllegalArgumentException("nodeSize must be at least 2");
+    }
+    this.nodeSize = nodeSize;
+    int count = entries.size();
+    List<Map.Entry<T, Rectangle2D>> entryList = new ArrayList<>(entries);
+
+    // count the levels and the total number of items (entries and nodes)
+    List<Integer> starts = new ArrayList<>();
+    starts.add(0);
+    int total = count;
+    int levelSize = count;
+    while (levelSize > 1 || starts.size() == 1) {
+      levelSize = (levelSize + nodeSize - 1) / nodeSize;
+      starts.add(total);
+      total += levelSize;
+      if (count == 0) {
+        break;
+      }
+    }
+    starts.add(total);
+    this.levelStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+    this.elements = new Object[count];
+    this.boxes = new double[4 * total];
+
+    // sort the entries along the Hilbert curve through their centers
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (Map.Entry<T, Rectangle2D> entry : entryList) {
+      Rectangle2D r = entry.getValue();
+      minX = Math.min(minX, r.getCenterX());
+      minY = Math.min(minY, r.getCenterY());
+      maxX = Math.max(maxX, r.getCenterX());
+      maxY = Math.max(maxY, r.getCenterY());
+    }
+    int side = 1 << ORDER;
+    double scaleX = maxX > minX ? (side - 1) / (maxX - minX) : 0;
+    double scaleY = maxY > minY ? (side - 1) / (maxY - minY) : 0;
+    long[] keys = new long[count];
+    for (int i = 0; i < count; i++) {
+      Rectangle2D r = entryList.get(i).getValue();
+      int x = (int) ((r.getCenterX() - minX) * scaleX);
+      int y = (int) ((r.getCenterY() - minY) * scaleY);
+      keys[i] = (long) hilbert(side, x, y) << 32 | i;
+    }
+    Arrays.sort(keys);
+    for (int i = 0; i < count; i++) {
+      Map.Entry<T, Rectangle2D> entry = entryList.get((int) keys[i]);
+      Rectangle2D r = entry.getValue();
+      elements[i] = entry.getKey();
+      setBox(i, r.getMinX(), r.getMinY(), r.getMaxX(), r.getMaxY());
+    }
+
+    // each node is the union of its (up to) nodeSize children in the level below
+    for (int level = 1; level < levelStarts.length - 1; level++) {
+      int childEnd = levelStarts[level];
+      for (int node = levelStarts[level]; node < levelStarts[level + 1]; node++) {
+        int first = firstChild(level, node);
+        int last = Math.min(first + nodeSize, childEnd);
+        double x1 = Double.POSITIVE_INFINITY;
+        double y1 = Double.POSITIVE_INFINITY;
+        double x2 = Double.NEGATIVE_INFINITY;
+        double y2 = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < last; child++) {
+          x1 = Math.min(x1, boxes[4 * child]);
+          y1 = Math.min(y1, boxes[4 * child + 1]);
+          x2 = Math.max(x2, boxes[4 * child + 2]);
+          y2 = Math.max(y2, boxes[4 * child + 3]);
+        }
+        setBox(node, x1, y1, x2, y2);
+      }
+    }
+  }
+
+  /**
+   * the position of a point along a Hilbert curve that fills a square grid
+   *
+   * @param side the side of the grid, a power of 2
+   * @param x the grid column
+   * @param y the grid row
+   * @return the distance along the curve
+   */
+  static int hilbert(int side, int x, int y) {
+    int d = 0;
+    for (int s = side / 2; s > 0; s /= 2) {
+      int rx = (x & s) > 0 ? 1 : 0;
+      int ry = (y & s) > 0 ? 1 : 0;
+      d += s * s * ((3 * rx) ^ ry);
+      // rotate the quadrant
+      if (ry == 0) {
+        if (rx == 1) {
+          x = side - 1 - x;
+          y = side - 1 - y;
+        }
+        int t = x;
+        x = y;
+        y = t;
+      }
+    }
+    return d;
+  }
+
+  private void setBox(int item, double x1, double y1, double x2, double y2) {
+    boxes[4 * item] = x1;
+    boxes[4 * item + 1] = y1;
+    boxes[4 * item + 2] = x2;
+    boxes[4 * item + 3] = y2;
+  }
+
+  /** @return the first child of a node, in the level below */
+  private int firstChild(int level, int node) {
+    return levelStarts[level - 1] + (node - levelStarts[level]) * nodeSize;
+  }
+
+  /** @return one past the last child of a node, in the level below */
+  private int endChild(int level, int node) {
+    return Math.min(firstChild(level, node) + nodeSize, levelStarts[level]);
+  }
+
+  private int rootLevel() {
+    return levelStarts.length - 2;
+  }
+
+  private Rectangle2D box(int item) {
+    return new Rectangle2D.Double(
+        boxes[4 * item],
+        boxes[4 * item + 1],
+        boxes[4 * item + 2] - boxes[4 * item],
+        boxes[4 * item + 3] - boxes[4 * item + 1]);
+  }
+
+  private boolean intersects(Shape shape, int item) {
+    return shape.intersects(
+        boxes[4 * item],
+        boxes[4 * item + 1],
+        boxes[4 * item + 2] - boxes[4 * item],
+        boxes[4 * item + 3] - boxes[4 * item + 1]);
+  }
+
+  private boolean contains(int item, double x, double y) {
+    return x >= boxes[4 * item]
+        && y >= boxes[4 * item + 1]
+        && x <= boxes[4 * item + 2]
+        && y <= boxes[4 * item + 3];
+  }
+
+  /** @return the number of elements in the tree */
+  public int count() {
+    return elements.length;
+  }
+
+  /** @return the number of children of each node */
+  public int getNodeSize() {
+    return nodeSize;
+  }
+
+  /** @return the bounds of all of the elements, or an empty rectangle if there are none */
+  public Rectangle2D getBounds() {
+    return count() == 0 ? new Rectangle2D.Double() : box(levelStarts[rootLevel()]);
+  }
+
+  /**
+   * @param visibleElements the set to add to
+   * @param shape the area of interest
+   * @return the passed set, with the elements whose bounds intersect the shape added
+   */
+  public Set<T> getVisibleElements(Set<T> visibleElements, Shape shape) {
+    if (count() == 0) {
+      return visibleElements;
+    }
+    int[] nodes = new int[64];
+    int[] levels = new int[64];
+    int top = 0;
+    nodes[top] = levelStarts[rootLevel()];
+    levels[top++] = rootLevel();
+    while (top > 0) {
+      int node = nodes[--top];
+      int level = levels[top];
+      if (!intersects(shape, node)) {
+        continue;
+      }
+      int end = endChild(level, node);
+      for (int child = firstChild(level, node); child < end; child++) {
+        if (level == 1) {
+          if (intersects(shape, child)) {
+            visibleElements.add((T) elements[child]);
+          }
+        } else {
+          if (top == nodes.length) {
+            nodes = Arrays.copyOf(nodes, top * 2);
+            levels = Arrays.copyOf(levels, top * 2);
+          }
+          nodes[top] = child;
+          levels[top++] = level - 1;
+        }
+      }
+    }
+    return visibleElements;
+  }
+
+  /**
+   * @param p the point to search for
+   * @return an element whose bounds contain the point, or null
+   */
+  public T getPickedObject(Point2D p) {
+    if (count() == 0) {
+      return null;
+    }
+    double x = p.getX();
+    double y = p.getY();
+    int[] nodes = new int[64];
+    int[] levels = new int[64];
+    int top = 0;
+    nodes[top] = levelStarts[rootLevel()];
+    levels[top++] = rootLevel();
+    while (top > 0) {
+      int node = nodes[--top];
+      int level = levels[top];
+      if (!contains(node, x, y)) {
+        continue;
+      }
+      int first = firstChild(level, node);
+      if (level == 1) {
+        for (int child = first; child < endChild(level, node); child++) {
+          if (contains(child, x, y)) {
+            return (T) elements[child];
+          }
+        }
+      } else {
+        // push the children last to first, so that they are searched in packed order
+        for (int child = endChild(level, node) - 1; child >= first; child--) {
+          if (top == nodes.length) {
+            nodes = Arrays.copyOf(nodes, top * 2);
+            levels = Arrays.copyOf(levels, top * 2);
+          }
+          nodes[top] = child;
+          levels[top++] = level - 1;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The leaf nodes of a PackedRTree are not objects. This creates a {@link LeafNode} copy of each
+   * lowest level node whose bounds contain the point
+   *
+   * @param containingLeafs the set to add to
+   * @param x coordinate of the point to search for
+   * @param y coordinate of the point to search for
+   * @return the passed set, with copies of the lowest level nodes that contain the point
+   */
+  public Set<LeafNode<T>> getContainingLeafs(Set<LeafNode<T>> containingLeafs, double x, double y) {
+    if (count() > 0) {
+      addContainingLeafs(containingLeafs, rootLevel(), levelStarts[rootLevel()], x, y);
+    }
+    return containingLeafs;
+  }
+
+  private void addContainingLeafs(
+      Set<LeafNode<T>> containingLeafs, int level, int node, double x, double y) {
+    if (!contains(node, x, y)) {
+      return;
+    }
+    if (level == 1) {
+      containingLeafs.add(leaf(node));
+    } else {
+      int end = endChild(level, node);
+      for (int child = firstChild(level, node); child < end; child++) {
+        addContainingLeafs(containingLeafs, level - 1, child, x, y);
+      }
+    }
+  }
+
+  /**
+   * @param element the element to search for
+   * @return a {@link LeafNode} copy of the lowest level node that holds the element, or null
+   */
+  public LeafNode<T> getContainingLeaf(T element) {
+    Map<Object, Integer> slots = this.slots;
+    if (slots == null) {
+      slots = new HashMap<>(elements.length * 2);
+      for (int i = elements.length - 1; i >= 0; i--) {
+        // the first slot of an element that is in the tree more than once
+        slots.put(elements[i], i);
+      }
+      this.slots = slots;
+    }
+    Integer slot = slots.get(element);
+    return slot == null ? null : leaf(levelStarts[1] + slot / nodeSize);
+  }
+
+  private LeafNode<T> leaf(int node) {
+    List<Map.Entry<T, Rectangle2D>> entries = new ArrayList<>(nodeSize);
+    int end = endChild(1, node);
+    for (int child = firstChild(1, node); child < end; child++) {
+      entries.add(new AbstractMap.SimpleEntry<>((T) elements[child], box(child)));
+    }
+    return LeafNode.create(entries);
+  }
+
+  /**
+   * gather the bounds of the nodes and the elements
+   *
+   * @param list the collection to add to
+   * @return the passed collection, with the bounds added
+   */
+  public Collection<Shape> collectGrids(Collection<Shape> list) {
+    for (int item = 0; item < levelStarts[levelStarts.length - 1]; item++) {
+      list.add(box(item));
+    }
+    return list;
+  }
+
+  /** @return the elements and their bounds, for loading into an {@link RTree} */
+  public List<Map.Entry<T, Rectangle2D>> entries() {
+    List<Map.Entry<T, Rectangle2D>> entries = new ArrayList<>(elements.length);
+    for (int i = 0; i < elements.length; i++) {
+      entries.add(new AbstractMap.SimpleEntry<>((T) elements[i], box(i)));
+    }
+    return entries;
+  }
+
+  @Override
+  public String toString() {
+    return "PackedRTree{count=" + count() + ", levels=" + (levelStarts.length - 1) + '}';
+  }
+}
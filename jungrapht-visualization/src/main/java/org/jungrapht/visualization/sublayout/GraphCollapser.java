@@ -13,10 +13,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.builder.GraphTypeBuilder;
 import org.slf4j.Logger;
@@ -26,6 +26,12 @@ import org.slf4j.LoggerFactory;
  * Will collapse a selected collection of vertices into one vertex. Uses the vertexSupplier to
  * create the vertex to replace the ones selected.
  *
+ * <p>Each collapsed vertex is indexed to the cluster vertex that holds it, and each cluster vertex
+ * keeps the edges that crossed its boundary when it was collapsed. A collapse or expand only visits
+ * the edges of the cluster vertices, and the owner of a vertex is found by following the index up
+ * through any nested clusters. The original graph is only used to look up the original endpoints of
+ * an edge.
+ *
  * @param <V> vertex type
  * @param <E> edge type
  */
@@ -39,6 +45,12 @@ public class GraphCollapser<V, E> implements Collapser<V, E> {
 
   protected final Map<V, Graph<V, E>> vertexToClusterMap = new HashMap<>();
 
+  /** each collapsed vertex (original or cluster) to the cluster vertex that holds it */
+  protected final Map<V, V> ownerMap = new HashMap<>();
+
+  /** each cluster vertex to the edges that crossed its boundary when it was collapsed */
+  protected final Map<V, Set<E>> boundaryEdgeMap = new HashMap<>();
+
   /**
    * create an instance with a {@code Graph} and a {@code Supplier&lt;V&gt;}
    *
@@ -117,98 +129,42 @@ public class GraphCollapser<V, E> implements Collapser<V, E> {
     vertexToClusterMap.put(clusterVertex, clusterGraph);
 
     // loser vertices
-    Collection<V> clusterVertices = new HashSet<>(clusterGraph.vertexSet());
+    Set<V> clusterVertices = new HashSet<>(clusterGraph.vertexSet());
+    clusterVertices.retainAll(graph.vertexSet());
     // loser edges
-    Collection<E> clusterEdges = new HashSet<>(clusterGraph.edgeSet());
+    Set<E> clusterEdges = clusterGraph.edgeSet();
+
+    // the edges that cross the boundary of the cluster, with their endpoints moved to the
+    // cluster vertex
+    Set<E> boundaryEdges = new LinkedHashSet<>();
+    Map<E, V> sources = new HashMap<>();
+    Map<E, V> targets = new HashMap<>();
+    for (V v : clusterVertices) {
+      for (E e : graph.edgesOf(v)) {
+        if (!clusterEdges.contains(e) && boundaryEdges.add(e)) {
+          V source = graph.getEdgeSource(e);
+          V target = graph.getEdgeTarget(e);
+          remember(e, source, target);
+          sources.put(e, clusterVertices.contains(source) ? clusterVertex : source);
+          targets.put(e, clusterVertices.contains(target) ? clusterVertex : target);
+        }
+      }
+    }
+    clusterEdges.forEach(
+        e -> remember(e, clusterGraph.getEdgeSource(e), clusterGraph.getEdgeTarget(e)));
+    log.trace("boundary edges of {}: {}", clusterVertex, boundaryEdges);
 
     // remove all edges that are in the cluster
-    clusterEdges.stream().forEach(graph::removeEdge);
+    clusterEdges.forEach(graph::removeEdge);
     // remove all vertices that are in the cluster.
-    clusterVertices.stream().forEach(graph::removeVertex);
+    clusterVertices.forEach(graph::removeVertex);
+    clusterVertices.forEach(v -> ownerMap.put(v, clusterVertex));
     // add the clusterGraph as a vertex
     graph.addVertex(clusterVertex);
+    boundaryEdgeMap.put(clusterVertex, boundaryEdges);
 
-    // the graph has lost all the clusterEdges, and also any edges that have
-    // an endpoint that is in the clusterVertex
-    Collection<E> edgesToRestore =
-        originalGraph
-            .edgeSet()
-            .stream()
-            .filter(e -> !edgeInCluster(graph, e))
-            .filter(e -> !clusterEdges.contains(e))
-            .filter(e -> !graph.containsEdge(e))
-            .collect(Collectors.toSet());
-
-    if (log.isTraceEnabled()) {
-      log.trace("originalGraph: {}", originalGraph);
-      log.trace("edgesToRestore: {}", edgesToRestore);
-      log.trace(
-          "edges not to restore: {}",
-          originalGraph
-              .edgeSet()
-              .stream()
-              .filter(clusterEdges::contains)
-              .filter(graph.edgeSet()::contains)
-              .collect(Collectors.toSet()));
-    }
-    // for each of the edges to restore, one endpoint is in the graph
-    // add every edge with the other endpoint on the cluster vertex
-    for (E e : edgesToRestore) {
-      V source = originalGraph.getEdgeSource(e);
-      V target = originalGraph.getEdgeTarget(e);
-
-      if (graph.containsVertex(source)) {
-        if (!graph.containsVertex(target)) {
-          target = clusterVertex;
-          graph.addEdge(source, target, e);
-        } else {
-          for (V v : graph.vertexSet()) {
-            if (vertexToClusterMap.containsKey(v)) {
-              Graph<V, E> clusterGrp = vertexToClusterMap.get(v);
-              if (isVertexContainedInClusterGraph(clusterGrp, target)) {
-                target = v;
-                graph.addEdge(source, target, e);
-              }
-            }
-          }
-        }
-      } else if (graph.containsVertex(target)) {
-        if (!graph.containsVertex(source)) {
-          source = clusterVertex;
-          graph.addEdge(source, target, e);
-        } else {
-          for (V v : graph.vertexSet()) {
-            if (vertexToClusterMap.containsKey(v)) {
-              Graph<V, E> clusterGrp = vertexToClusterMap.get(v);
-              if (isVertexContainedInClusterGraph(clusterGrp, source)) {
-                source = v;
-                graph.addEdge(source, target, e);
-              }
-            }
-          }
-        }
-      } else {
-        // source/target not in graph
-        // source and target are not in the graph, find their cluster vertices
-        boolean foundSource = false;
-        boolean foundTarget = false;
-        for (V v : graph.vertexSet()) {
-          if (vertexToClusterMap.containsKey(v)) {
-            clusterGraph = vertexToClusterMap.get(v);
-            if (isVertexContainedInClusterGraph(clusterGraph, source)) {
-              source = v;
-              foundSource = true;
-            }
-            if (isVertexContainedInClusterGraph(clusterGraph, target)) {
-              target = v;
-              foundTarget = true;
-            }
-          }
-        }
-        if (foundSource && foundTarget) {
-          graph.addEdge(source, target, e);
-        }
-      }
+    for (E e : boundaryEdges) {
+      graph.addEdge(sources.get(e), targets.get(e), e);
     }
     return clusterVertex;
   }
@@ -222,162 +178,82 @@ public class GraphCollapser<V, E> implements Collapser<V, E> {
   public void expand(Collection<V> clusterVertices) {
 
     for (V clusterVertex : clusterVertices) {
-      if (vertexToClusterMap.containsKey(clusterVertex)) {
-        Graph<V, E> subGraph = vertexToClusterMap.get(clusterVertex);
-
-        // remove the clusterGraphVertex from the graph,
-        // then add the subgraph to the graph
-        graph.removeVertex(clusterVertex);
-        subGraph.vertexSet().forEach(graph::addVertex);
-
-        subGraph
-            .edgeSet()
-            .forEach(e -> graph.addEdge(subGraph.getEdgeSource(e), subGraph.getEdgeTarget(e), e));
-
-        // add all edges from the original graph, unless the edge is in a the graph already
-        Collection<E> edgesIWant =
-            originalGraph
-                .edgeSet()
-                .stream()
-                .filter(e -> !graph.containsEdge(e))
-                .filter(e -> !edgeInCluster(graph, e))
-                .collect(Collectors.toSet());
-
-        for (E e : edgesIWant) {
-          V source = originalGraph.getEdgeSource(e);
-          V target = originalGraph.getEdgeTarget(e);
-
-          if (graph.containsVertex(source) && graph.containsVertex(target)) {
-            graph.addEdge(source, target, e);
-          } else if (graph.containsVertex(source)) {
-            // find the target
-            V originalTarget = originalGraph.getEdgeTarget(e);
-            if (graph.containsVertex(originalTarget)) { // source and target are in the graph
-              graph.addEdge(source, originalTarget, e);
-            } else {
-              // target not in graph
-              for (V v : graph.vertexSet()) {
-                if (vertexToClusterMap.containsKey(v)) {
-                  Graph<V, E> clusterGraph = vertexToClusterMap.get(v);
-                  if (isVertexContainedInClusterGraph(clusterGraph, originalTarget)) {
-                    graph.addEdge(source, v, e);
-                    break;
-                  }
-                }
-              }
-            }
-          } else if (graph.containsVertex(target)) {
-            // find the source
-            V originalSource = originalGraph.getEdgeSource(e);
-            if (graph.containsVertex(originalSource)) { // source and target are in the graph
-              graph.addEdge(source, originalSource, e);
-            } else {
-              // source not in graph
-              for (V v : graph.vertexSet()) {
-                if (vertexToClusterMap.containsKey(v)) {
-                  Graph<V, E> clusterGraph = vertexToClusterMap.get(v);
-                  if (isVertexContainedInClusterGraph(clusterGraph, originalSource)) {
-                    graph.addEdge(v, target, e);
-                    break;
-                  }
-                }
-              }
-            }
-          } else {
-            // source and target are not in the graph, find their cluster vertices
-            boolean foundSource = false;
-            boolean foundTarget = false;
-            for (V v : graph.vertexSet()) {
-              if (vertexToClusterMap.containsKey(v)) {
-                Graph<V, E> clusterGraph = vertexToClusterMap.get(v);
-                if (isVertexContainedInClusterGraph(clusterGraph, source)) {
-                  source = v;
-                  foundSource = true;
-                }
-                if (isVertexContainedInClusterGraph(clusterGraph, target)) {
-                  target = v;
-                  foundTarget = true;
-                }
-              }
-            }
-            if (foundSource && foundTarget) {
-              graph.addEdge(source, target, e);
-            }
-          }
+      Graph<V, E> subGraph = vertexToClusterMap.get(clusterVertex);
+      if (subGraph == null || !graph.containsVertex(clusterVertex)) {
+        // not a cluster, or a cluster that is inside another cluster
+        continue;
+      }
+      Set<E> boundaryEdges = boundaryEdgeMap.getOrDefault(clusterVertex, Collections.emptySet());
+
+      // remove the clusterGraphVertex from the graph,
+      // then add the subgraph to the graph
+      graph.removeVertex(clusterVertex);
+      for (V v : subGraph.vertexSet()) {
+        ownerMap.remove(v);
+        graph.addVertex(v);
+      }
+      subGraph
+          .edgeSet()
+          .forEach(e -> graph.addEdge(subGraph.getEdgeSource(e), subGraph.getEdgeTarget(e), e));
+
+      // return the boundary edges to the vertices that now hold their original endpoints.
+      // An edge that could not be added to the graph when it was moved to a cluster vertex
+      // is also tried again
+      for (E e : boundaryEdges) {
+        if (graph.containsEdge(e)) {
+          continue;
+        }
+        V source = findVertexOf(originalGraph.getEdgeSource(e));
+        V target = findVertexOf(originalGraph.getEdgeTarget(e));
+        if (source != null && target != null) {
+          graph.addEdge(source, target, e);
         }
       }
       vertexToClusterMap.remove(clusterVertex);
+      boundaryEdgeMap.remove(clusterVertex);
     }
   }
 
   /**
-   * look for edge in the graph. If a vertex is a cluster vertex, recursively look in that cluster
-   * graph
-   *
-   * @param graph to look in, including any vertices that represent collapsed vertex graphs
-   * @param edge to look for
-   * @return true if the edge is found in a graph or contained cluster
+   * add an edge that was not in the original graph, so that its endpoints can be found when it is
+   * restored
    */
-  private boolean edgeInCluster(Graph<V, E> graph, E edge) {
-    if (graph.containsEdge(edge)) {
-      return true;
-    }
-    for (V v : graph.vertexSet()) {
-      if (vertexToClusterMap.containsKey(v)) { // this is a cluster vertex
-        Graph<V, E> collapsedGraph = vertexToClusterMap.get(v);
-        if (edgeInCluster(collapsedGraph, edge)) {
-          return true;
-        }
-      }
-    }
-    return false;
-  }
-
-  private String printGraph(StringBuilder buf, Graph<V, E> graph) {
-    buf.append(graph.toString());
-    buf.append("\n");
-    for (V v : graph.vertexSet()) {
-      Graph<V, E> sub = vertexToClusterMap.get(v);
-      if (sub != null) {
-        printGraph(buf, sub);
-      }
+  private void remember(E edge, V source, V target) {
+    if (!originalGraph.containsEdge(edge)) {
+      originalGraph.addVertex(source);
+      originalGraph.addVertex(target);
+      originalGraph.addEdge(source, target, edge);
     }
-    return buf.toString();
   }
 
   /**
-   * Determine if the passed vertex is contained in the passed clusterGraph If the clusterGraph
-   * contains vertices that are clusterGraphs, check them.
+   * follow the owner index up from the passed vertex to the vertex that is in the graph
    *
-   * @param clusterGraph
-   * @param vertex
-   * @return true if the vertex is contained in the depths of the clusterGraph
+   * @param vertex an original vertex or a cluster vertex
+   * @return the passed vertex, or the cluster vertex in the graph that holds it, or null
    */
-  private boolean isVertexContainedInClusterGraph(Graph<V, E> clusterGraph, V vertex) {
-
-    if (clusterGraph.containsVertex(vertex)) {
-      return true;
-    }
-
-    for (V v : clusterGraph.vertexSet()) {
-      if (vertexToClusterMap.containsKey(v)) {
-        Graph<V, E> subGraph = vertexToClusterMap.get(v);
-        if (isVertexContainedInClusterGraph(subGraph, vertex)) {
-          return true;
-        }
-      }
+  protected V findVertexOf(V vertex) {
+    V v = vertex;
+    while (v != null && !graph.containsVertex(v)) {
+      v = ownerMap.get(v);
     }
-    return false;
+    return v;
   }
 
+  /**
+   * @param vertex an original vertex or a cluster vertex
+   * @return the outermost cluster vertex that holds the passed vertex, or null if it is not in a
+   *     cluster
+   */
   public V findOwnerOf(V vertex) {
-    // look in all the cluster graphs
-    for (Map.Entry<V, Graph<V, E>> entry : vertexToClusterMap.entrySet()) {
-      if (isVertexContainedInClusterGraph(entry.getValue(), vertex)) {
-        return entry.getKey();
-      }
+    V owner = ownerMap.get(vertex);
+    if (owner == null) {
+      return null;
+    }
+    for (V next = ownerMap.get(owner); next != null; next = ownerMap.get(next)) {
+      owner = next;
     }
-    return null;
+    return owner;
   }
 
   public Graph<V, E> getClusterGraph(Collection<V> picked) {
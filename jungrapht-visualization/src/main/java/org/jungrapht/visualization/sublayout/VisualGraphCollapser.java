@@ -1,7 +1,10 @@
 package org.jungrapht.visualization.sublayout;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import org.jgrapht.Graph;
@@ -47,7 +50,9 @@ public class VisualGraphCollapser<V, E> extends GraphCollapser<V, E> {
       layoutModel.set(clusterVertex, cp);
       layoutModel.lock(clusterVertex, true);
       vv.getRenderContext().getParallelEdgeIndexFunction().reset();
-      layoutModel.accept(vv.getVisualizationModel().getLayoutAlgorithm());
+      // relax only the neighborhood of the new cluster vertex
+      layoutModel.acceptIncremental(
+          vv.getVisualizationModel().getLayoutAlgorithm(), Collections.singleton(clusterVertex));
       vv.getSelectedVertexState().deselect(selected);
       vv.getSelectedVertexState().select(clusterVertex);
       vv.repaint();
@@ -63,18 +68,42 @@ public class VisualGraphCollapser<V, E> extends GraphCollapser<V, E> {
     LayoutModel<V> layoutModel = vv.getVisualizationModel().getLayoutModel();
 
     Set<V> selected = new HashSet<>();
+    Map<V, Set<V>> clusterMembers = new HashMap<>();
+    Map<V, Point> clusterLocations = new HashMap<>();
     picked.forEach(
         v -> {
           Graph<V, E> subGraph = vertexToClusterMap.get(v);
           if (subGraph != null) {
             selected.addAll(subGraph.vertexSet());
+            if (graph.containsVertex(v)) {
+              clusterMembers.put(v, new HashSet<>(subGraph.vertexSet()));
+              clusterLocations.put(v, layoutModel.apply(v));
+            }
           }
         });
     super.expand(picked);
 
     layoutModel.lock(false);
+    // the cluster vertex may have moved since it was collapsed. Move its members with it
+    clusterMembers.forEach(
+        (v, members) -> {
+          Point p = clusterLocations.get(v);
+          double sumx = 0;
+          double sumy = 0;
+          for (V member : members) {
+            Point mp = layoutModel.apply(member);
+            sumx += mp.x;
+            sumy += mp.y;
+          }
+          double dx = p.x - sumx / members.size();
+          double dy = p.y - sumy / members.size();
+          for (V member : members) {
+            layoutModel.set(member, layoutModel.apply(member).add(dx, dy));
+          }
+        });
     vv.getRenderContext().getParallelEdgeIndexFunction().reset();
-    layoutModel.accept(vv.getVisualizationModel().getLayoutAlgorithm());
+    // relax only the neighborhood of the expanded vertices
+    layoutModel.acceptIncremental(vv.getVisualizationModel().getLayoutAlgorithm(), selected);
     vv.getSelectedVertexState().clear();
     vv.getSelectedVertexState().select(selected);
     vv.repaint();
@@ -6,8 +6,11 @@ import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import org.jgrapht.Graph;
 import org.jungrapht.visualization.decorators.ExpandXY;
 import org.jungrapht.visualization.layout.model.LayoutModel;
@@ -103,7 +106,9 @@ public abstract class BoundingRectangleCollector<T> {
   }
 
   /**
-   * collects the {@link Rectangle2D}s that bound all of the vertices of a {@code Graph}
+   * collects the {@link Rectangle2D}s that bound all of the vertices of a {@code Graph}. The bounds
+   * of each vertex shape are kept until the vertex shape function returns a different shape, and
+   * are moved to the vertex location without creating a transformed shape.
    *
    * @param <V> the vertex type
    */
@@ -112,20 +117,34 @@ public abstract class BoundingRectangleCollector<T> {
 
     protected Function<V, Shape> vertexShapeFunction;
 
+    /** a transform to apply to each vertex shape before it is moved to the vertex location */
+    protected Supplier<AffineTransform> shapeTransformSupplier;
+
+    /** the bounds of each vertex shape, before it is moved to the vertex location */
+    protected Map<V, ShapeBounds> shapeBounds = new ConcurrentHashMap<>();
+
     public Vertices(Function<V, Shape> vertexShapeFunction, LayoutModel layoutModel) {
+      this(vertexShapeFunction, null, layoutModel);
+    }
+
+    /**
+     * @param vertexShapeFunction provides the vertex shapes
+     * @param shapeTransformSupplier provides a transform to apply to the vertex shapes, or null
+     * @param layoutModel provides the vertex locations
+     */
+    public Vertices(
+        Function<V, Shape> vertexShapeFunction,
+        Supplier<AffineTransform> shapeTransformSupplier,
+        LayoutModel layoutModel) {
       super(layoutModel);
       this.vertexShapeFunction = vertexShapeFunction;
+      this.shapeTransformSupplier = shapeTransformSupplier;
       compute();
     }
 
     public Rectangle2D getForElement(V vertex) {
-      Shape shape = vertexShapeFunction.apply(vertex);
       Point p = (Point) layoutModel.apply(vertex);
-
-      double x = p.x;
-      double y = p.y;
-      AffineTransform xform = AffineTransform.getTranslateInstance(x, y);
-      Rectangle2D xfs = xform.createTransformedShape(shape).getBounds2D();
+      Rectangle2D xfs = getForElement(vertex, p);
       log.trace("vertex {} with shape bounds {} is at {}", vertex, xfs, p);
       return xfs;
     }
@@ -141,40 +160,28 @@ public abstract class BoundingRectangleCollector<T> {
     }
 
     public Rectangle2D getForElement(V vertex, Point p) {
-      Shape shape = vertexShapeFunction.apply(vertex);
       log.trace("vertex is at {}", p);
-
-      double x = p.x;
-      double y = p.y;
-      AffineTransform xform = AffineTransform.getTranslateInstance(x, y);
-      return xform.createTransformedShape(shape).getBounds2D();
+      Rectangle2D r = shapeBoundsFor(shapeBounds, vertex, vertexShapeFunction.apply(vertex)).bounds;
+      if (shapeTransformSupplier != null) {
+        r = transform(shapeTransformSupplier.get(), r);
+      }
+      return new Rectangle2D.Double(p.x + r.getX(), p.y + r.getY(), r.getWidth(), r.getHeight());
     }
 
     public void compute(Collection<V> vertices) {
       super.compute();
 
       for (V v : vertices) {
-        Shape shape = vertexShapeFunction.apply(v);
-        Point p = (Point) layoutModel.apply(v);
-        double x = p.x;
-        double y = p.y;
-        AffineTransform xform = AffineTransform.getTranslateInstance(x, y);
-        shape = xform.createTransformedShape(shape);
-        rectangles.add(shape.getBounds2D());
+        rectangles.add(getForElement(v));
       }
     }
 
     public void compute() {
       super.compute();
-
-      for (Object v : layoutModel.getGraph().vertexSet()) {
-        Shape shape = vertexShapeFunction.apply((V) v);
-        Point p = (Point) layoutModel.apply(v);
-        double x = p.x;
-        double y = p.y;
-        AffineTransform xform = AffineTransform.getTranslateInstance(x, y);
-        shape = xform.createTransformedShape(shape);
-        rectangles.add(shape.getBounds2D());
+      Collection<V> vertices = layoutModel.getGraph().vertexSet();
+      shapeBounds.keySet().retainAll(vertices);
+      for (V v : vertices) {
+        rectangles.add(getForElement(v));
       }
     }
   }
@@ -190,6 +197,9 @@ public abstract class BoundingRectangleCollector<T> {
     protected Function<V, Shape> vertexShapeFunction;
     protected BiFunction<Graph<V, E>, E, Shape> edgeShapeFunction;
 
+    /** the bounds of each edge shape before it is placed between its endpoints */
+    protected Map<E, ShapeBounds> extents = new ConcurrentHashMap<>();
+
     public Edges(
         Function<V, Shape> vertexShapeFunction,
         BiFunction<Graph<V, E>, E, Shape> edgeShapeFunction,
@@ -202,39 +212,9 @@ public abstract class BoundingRectangleCollector<T> {
 
     public Rectangle2D getForElement(E edge) {
       Graph<V, E> graph = layoutModel.getGraph();
-      V v1 = graph.getEdgeSource(edge);
-      V v2 = graph.getEdgeTarget(edge);
-      Point p1 = (Point) layoutModel.apply(v1);
-      Point p2 = (Point) layoutModel.apply(v2);
-      double x1 = p1.x;
-      double y1 = p1.y;
-      double x2 = p2.x;
-      double y2 = p2.y;
-
-      boolean isLoop = v1.equals(v2);
-      Shape s2 = vertexShapeFunction.apply(v2);
-      Shape edgeShape = edgeShapeFunction.apply(layoutModel.getGraph(), edge);
-
-      AffineTransform xform = AffineTransform.getTranslateInstance(x1, y1);
-
-      if (isLoop) {
-        Rectangle2D s2Bounds = s2.getBounds2D();
-        xform.scale(s2Bounds.getWidth(), s2Bounds.getHeight());
-        xform.translate(0, -edgeShape.getBounds2D().getWidth() / 2);
-      } else {
-        double dx = x2 - x1;
-        double dy = y2 - y1;
-        double theta = Math.atan2(dy, dx);
-        xform.rotate(theta);
-        double dist = p1.distance(p2);
-        if (edgeShape instanceof ExpandXY) {
-          xform.scale(dist, dist);
-        } else {
-          xform.scale(dist, 1.0);
-        }
-      }
-      edgeShape = xform.createTransformedShape(edgeShape);
-      return nonEmpty(edgeShape.getBounds2D(), NON_EMPTY_DELTA);
+      Point p1 = (Point) layoutModel.apply(graph.getEdgeSource(edge));
+      Point p2 = (Point) layoutModel.apply(graph.getEdgeTarget(edge));
+      return getForElement(edge, p1, p2);
     }
 
     @Override
@@ -244,77 +224,82 @@ public abstract class BoundingRectangleCollector<T> {
 
     public Rectangle2D getForElement(E edge, Point p1, Point p2) {
       Graph<V, E> graph = layoutModel.getGraph();
-      V v1 = graph.getEdgeSource(edge);
-      V v2 = graph.getEdgeTarget(edge);
-      double x1 = p1.x;
-      double y1 = p1.y;
-      double x2 = p2.x;
-      double y2 = p2.y;
-
-      boolean isLoop = v1.equals(v2);
-      Shape s2 = vertexShapeFunction.apply(v2);
-      Shape edgeShape = edgeShapeFunction.apply(layoutModel.getGraph(), edge);
+      return place(
+          edge, shapeBoundsFor(extents, edge, edgeShapeFunction.apply(graph, edge)), p1, p2);
+    }
 
-      AffineTransform xform = AffineTransform.getTranslateInstance(x1, y1);
+    /**
+     * Bounds for the edge with its endpoints at p1 and p2. Unlike {@link #getForElement(Object,
+     * Point, Point)}, the edge shape function is not called again once the bounds of the edge shape
+     * are cached.
+     *
+     * @param edge the edge to get bounds for
+     * @param p1 the location of the edge source
+     * @param p2 the location of the edge target
+     * @return bounds that contain the edge shape
+     */
+    public Rectangle2D getExtentFor(E edge, Point p1, Point p2) {
+      ShapeBounds extent = extents.get(edge);
+      if (extent == null) {
+        Graph<V, E> graph = layoutModel.getGraph();
+        extent = shapeBoundsFor(extents, edge, edgeShapeFunction.apply(graph, edge));
+      }
+      return place(edge, extent, p1, p2);
+    }
 
-      if (isLoop) {
-        Rectangle2D s2Bounds = s2.getBounds2D();
-        xform.scale(s2Bounds.getWidth(), s2Bounds.getHeight());
-        xform.translate(0, -edgeShape.getBounds2D().getWidth() / 2);
+    /**
+     * Move the bounds of the edge shape between the endpoints, the way the edge renderer transforms
+     * the edge shape. For a curved edge the result may be a little larger than the bounds of the
+     * transformed shape, never smaller.
+     */
+    private Rectangle2D place(E edge, ShapeBounds extent, Point p1, Point p2) {
+      Graph<V, E> graph = layoutModel.getGraph();
+      Rectangle2D r = extent.bounds;
+      V v1 = graph.getEdgeSource(edge);
+      V v2 = graph.getEdgeTarget(edge);
+      double minX;
+      double minY;
+      double maxX;
+      double maxY;
+      if (v1.equals(v2)) {
+        Rectangle2D s2Bounds = vertexShapeFunction.apply(v2).getBounds2D();
+        double sx = s2Bounds.getWidth();
+        double sy = s2Bounds.getHeight();
+        double dy = -r.getWidth() / 2;
+        minX = p1.x + sx * r.getMinX();
+        maxX = p1.x + sx * r.getMaxX();
+        minY = p1.y + sy * (r.getMinY() + dy);
+        maxY = p1.y + sy * (r.getMaxY() + dy);
       } else {
-        double dx = x2 - x1;
-        double dy = y2 - y1;
-        double theta = Math.atan2(dy, dx);
-        xform.rotate(theta);
+        // the corners of the extent, scaled and rotated onto the line from p1 to p2
         double dist = p1.distance(p2);
-        if (edgeShape instanceof ExpandXY) {
-          xform.scale(dist, dist);
-        } else {
-          xform.scale(dist, 1.0);
-        }
+        double sy = extent.shape instanceof ExpandXY ? dist : 1.0;
+        double cos = dist == 0 ? 1 : (p2.x - p1.x) / dist;
+        double sin = dist == 0 ? 0 : (p2.y - p1.y) / dist;
+        double x0 = dist * r.getMinX();
+        double x1 = dist * r.getMaxX();
+        double y0 = sy * r.getMinY();
+        double y1 = sy * r.getMaxY();
+        minX = p1.x + Math.min(cos * x0, cos * x1) + Math.min(-sin * y0, -sin * y1);
+        maxX = p1.x + Math.max(cos * x0, cos * x1) + Math.max(-sin * y0, -sin * y1);
+        minY = p1.y + Math.min(sin * x0, sin * x1) + Math.min(cos * y0, cos * y1);
+        maxY = p1.y + Math.max(sin * x0, sin * x1) + Math.max(cos * y0, cos * y1);
       }
-      edgeShape = xform.createTransformedShape(edgeShape);
-      return nonEmpty(edgeShape.getBounds2D(), NON_EMPTY_DELTA);
+      return nonEmpty(
+          new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY), NON_EMPTY_DELTA);
+    }
+
+    /** forget the cached edge shape bounds, for when the edge shapes have changed */
+    public void clearExtents() {
+      extents.clear();
     }
 
     public void compute() {
       super.compute();
-      Graph<V, E> graph = layoutModel.getGraph();
-
-      for (E e : graph.edgeSet()) {
-        V v1 = graph.getEdgeSource(e);
-        V v2 = graph.getEdgeTarget(e);
-        Point p1 = (Point) layoutModel.apply(v1);
-        Point p2 = (Point) layoutModel.apply(v2);
-        double x1 = p1.x;
-        double y1 = p1.y;
-        double x2 = p2.x;
-        double y2 = p2.y;
-
-        boolean isLoop = v1.equals(v2);
-        Shape s2 = vertexShapeFunction.apply(v2);
-        Shape edgeShape = edgeShapeFunction.apply(layoutModel.getGraph(), e);
-
-        AffineTransform xform = AffineTransform.getTranslateInstance(x1, y1);
-
-        if (isLoop) {
-          Rectangle2D s2Bounds = s2.getBounds2D();
-          xform.scale(s2Bounds.getWidth(), s2Bounds.getHeight());
-          xform.translate(0, -edgeShape.getBounds2D().getWidth() / 2);
-        } else {
-          double dx = x2 - x1;
-          double dy = y2 - y1;
-          double theta = Math.atan2(dy, dx);
-          xform.rotate(theta);
-          double dist = p1.distance(p2);
-          if (edgeShape instanceof ExpandXY) {
-            xform.scale(dist, dist);
-          } else {
-            xform.scale(dist, 1.0);
-          }
-        }
-        edgeShape = xform.createTransformedShape(edgeShape);
-        rectangles.add(nonEmpty(edgeShape.getBounds2D(), NON_EMPTY_DELTA));
+      Collection<E> edges = layoutModel.getGraph().edgeSet();
+      extents.keySet().retainAll(edges);
+      for (E e : edges) {
+        rectangles.add(getForElement(e));
       }
     }
 
@@ -338,6 +323,55 @@ public abstract class BoundingRectangleCollector<T> {
     }
   }
 
+  /** the bounds of a shape in its own coordinates, and the shape they were taken from */
+  protected static class ShapeBounds {
+    final Shape shape;
+    final Rectangle2D bounds;
+
+    ShapeBounds(Shape shape) {
+      this.shape = shape;
+      this.bounds = shape.getBounds2D();
+    }
+  }
+
+  /**
+   * @param cache the shape bounds by element
+   * @param element the element that has the shape
+   * @param shape the current shape for the element
+   * @return the cached bounds of the shape, or new bounds if the element has a different shape
+   */
+  protected static <K> ShapeBounds shapeBoundsFor(
+      Map<K, ShapeBounds> cache, K element, Shape shape) {
+    ShapeBounds shapeBounds = cache.get(element);
+    if (shapeBounds == null || shapeBounds.shape != shape) {
+      shapeBounds = new ShapeBounds(shape);
+      cache.put(element, shapeBounds);
+    }
+    return shapeBounds;
+  }
+
+  /**
+   * @param transform the transform to apply
+   * @param r the rectangle to transform
+   * @return the bounds of the transformed rectangle
+   */
+  protected static Rectangle2D transform(AffineTransform transform, Rectangle2D r) {
+    int moves =
+        AffineTransform.TYPE_TRANSLATION
+            | AffineTransform.TYPE_MASK_SCALE
+            | AffineTransform.TYPE_FLIP;
+    if ((transform.getType() & ~moves) == 0) {
+      // no rotation or shear, so move the corners
+      double x0 = transform.getScaleX() * r.getMinX() + transform.getTranslateX();
+      double x1 = transform.getScaleX() * r.getMaxX() + transform.getTranslateX();
+      double y0 = transform.getScaleY() * r.getMinY() + transform.getTranslateY();
+      double y1 = transform.getScaleY() * r.getMaxY() + transform.getTranslateY();
+      return new Rectangle2D.Double(
+          Math.min(x0, x1), Math.min(y0, y1), Math.abs(x1 - x0), Math.abs(y1 - y0));
+    }
+    return transform.createTransformedShape(r).getBounds2D();
+  }
+
   public abstract Rectangle2D getForElement(T element);
 
   public abstract Rectangle2D getForElement(T element, Point p);
@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.awt.*;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.IntStream;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.Pseudograph;
@@ -67,6 +69,21 @@ public class SpatialRTreeTest {
     }
   }
 
+  /** move every vertex in one batch and confirm that the RTree leafs follow the new locations */
+  @Test
+  public void testBulkPositionChange() {
+    Map<String, Point> moved = new HashMap<>();
+    for (String node : graph.vertexSet()) {
+      Point location = layoutModel.apply(node);
+      moved.put(node, Point.of(layoutModel.getWidth() - location.x, location.y));
+    }
+    layoutModel.set(moved);
+    for (String node : graph.vertexSet()) {
+      assertEquals(moved.get(node), layoutModel.apply(node));
+    }
+    testRandomPointsAndLocations();
+  }
+
   /**
    * test that the closest node for a random point is the same one returned for the
    * RadiusVertexAccessor and for the SpatialQuadTree Test with 1000 randomly generated points
@@ -0,0 +1,238 @@
+package org.jungrapht.visualization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.MultiLayerTransformer.Layer;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that the graph drawn from cached tiles is the graph that is rendered directly, after a pan,
+ * a zoom, a moved vertex and a selection, and that a pan renders only the tiles that it exposes
+ *
+ * @author Tom Nelson
+ */
+public class TileCacheTest {
+
+  Random random = new Random(3);
+  DefaultVisualizationServer<Integer, Integer> server;
+  LayoutModel<Integer> layoutModel;
+
+  @BeforeEach
+  public void setup() {
+    // recalculate the spatial structures on this thread, so that they are current when rendered
+    System.setProperty("jungrapht.spatialSupportOnSwingThread", "false");
+    // keep the renderer lightweight at every scale in these tests, so the mode timer that follows a
+    // view change cannot switch to antialiased rendering between the tiled and the direct image
+    System.setProperty("jungrapht.lightweightScaleThreshold", "4");
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    for (int i = 0; i < 300; i++) {
+      graph.addVertex();
+    }
+    for (int i = 1; i < 300; i++) {
+      graph.addEdge(i, random.nextInt(i));
+    }
+    server =
+        (DefaultVisualizationServer<Integer, Integer>)
+            VisualizationServer.builder(graph)
+                .layoutSize(new Dimension(1000, 1000))
+                .viewSize(new Dimension(600, 500))
+                .build();
+    server.setSize(600, 500);
+    layoutModel = server.getVisualizationModel().getLayoutModel();
+    graph
+        .vertexSet()
+        .forEach(v -> layoutModel.set(v, random.nextDouble() * 1000, random.nextDouble() * 1000));
+    server.reset();
+    server.getVertexSpatial().recalculate();
+    server.getEdgeSpatial().recalculate();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    System.clearProperty("jungrapht.spatialSupportOnSwingThread");
+    System.clearProperty("jungrapht.lightweightScaleThreshold");
+  }
+
+  private BufferedImage render(boolean tileCached) {
+    server.tileCached = tileCached;
+    BufferedImage image = new BufferedImage(600, 500, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g2d = image.createGraphics();
+    server.renderGraph(g2d);
+    g2d.dispose();
+    return image;
+  }
+
+  /**
+   * lines that are not antialiased may be drawn one pixel to the side when they are started in a
+   * different tile, so each pixel may match any pixel next to it
+   */
+  private void assertTilesMatch() {
+    BufferedImage tiled = render(true);
+    BufferedImage direct = render(false);
+    int different = 0;
+    for (int x = 0; x < 600; x++) {
+      for (int y = 0; y < 500; y++) {
+        if (!matches(tiled, direct, x, y) || !matches(direct, tiled, x, y)) {
+          different++;
+        }
+      }
+    }
+    assertTrue(different < 600 * 500 / 1000, different + " pixels are different");
+  }
+
+  private static boolean matches(BufferedImage image, BufferedImage other, int x, int y) {
+    int rgb = image.getRGB(x, y);
+    for (int i = Math.max(0, x - 1); i <= Math.min(599, x + 1); i++) {
+      for (int j = Math.max(0, y - 1); j <= Math.min(499, y + 1); j++) {
+        if (other.getRGB(i, j) == rgb) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** @return the view bounds of the two vertices */
+  private Rectangle2D viewBounds(Integer v, Integer w) {
+    MultiLayerTransformer multiLayerTransformer =
+        server.getRenderContext().getMultiLayerTransformer();
+    AffineTransform layoutToView =
+        new AffineTransform(multiLayerTransformer.getTransformer(Layer.VIEW).getTransform());
+    layoutToView.concatenate(multiLayerTransformer.getTransformer(Layer.LAYOUT).getTransform());
+    Point2D p =
+        layoutToView.transform(
+            new Point2D.Double(layoutModel.apply(v).x, layoutModel.apply(v).y), null);
+    Point2D q =
+        layoutToView.transform(
+            new Point2D.Double(layoutModel.apply(w).x, layoutModel.apply(w).y), null);
+    Rectangle2D bounds = new Rectangle2D.Double(p.getX(), p.getY(), 0, 0);
+    bounds.add(q);
+    return bounds;
+  }
+
+  @Test
+  public void testPan() {
+    assertTilesMatch();
+    // 600 x 500 needs 3 x 2 tiles of 256 pixels
+    assertEquals(6, server.tileCache.size());
+
+    // a pan of one tile exposes one more column
+    server
+        .getRenderContext()
+        .getMultiLayerTransformer()
+        .getTransformer(Layer.VIEW)
+        .translate(-256, 0);
+    assertTilesMatch();
+    assertEquals(8, server.tileCache.size());
+
+    // a pan that is not a whole number of tiles
+    server
+        .getRenderContext()
+        .getMultiLayerTransformer()
+        .getTransformer(Layer.VIEW)
+        .translate(100, 37);
+    assertTilesMatch();
+  }
+
+  @Test
+  public void testZoom() {
+    assertTilesMatch();
+    server
+        .getRenderContext()
+        .getMultiLayerTransformer()
+        .getTransformer(Layer.VIEW)
+        .scale(1.5, 1.5, server.getCenter());
+    assertTilesMatch();
+    // the tiles at the old scale are gone. The zoom about the center moved the tile grid, so
+    // 3 x 3 tiles are visible
+    assertEquals(9, server.tileCache.size());
+  }
+
+  @Test
+  public void testMoveAndSelect() {
+    assertTilesMatch();
+    int size = server.tileCache.size();
+    List<Rectangle2D> tiles = server.tileCache.tileBounds();
+
+    // a short move of the vertex with the shortest single edge discards only the tiles around
+    // the vertex and its edge
+    Graph<Integer, Integer> graph = layoutModel.getGraph();
+    Integer v =
+        graph
+            .vertexSet()
+            .stream()
+            .filter(u -> graph.degreeOf(u) == 1)
+            .min(
+                Comparator.comparingDouble(
+                    u ->
+                        layoutModel
+                            .apply(u)
+                            .distance(layoutModel.apply(Graphs.neighborListOf(graph, u).get(0)))))
+            .get();
+    Integer neighbor = Graphs.neighborListOf(graph, v).get(0);
+    Rectangle2D touched = viewBounds(v, neighbor);
+    layoutModel.set(v, layoutModel.apply(v).add(2, 2));
+    touched.add(viewBounds(v, neighbor));
+    // the tiles away from the vertex, its edge and the margin for their decorations are kept
+    touched.setRect(
+        touched.getX() - 128,
+        touched.getY() - 128,
+        touched.getWidth() + 256,
+        touched.getHeight() + 256);
+    assertTrue(server.tileCache.size() < size);
+    List<Rectangle2D> kept = server.tileCache.tileBounds();
+    int away = 0;
+    for (Rectangle2D tile : tiles) {
+      if (!tile.intersects(touched)) {
+        away++;
+        assertTrue(kept.contains(tile), "the tile at " + tile + " was discarded");
+      }
+    }
+    assertTrue(away > 0);
+    assertTilesMatch();
+
+    server.getSelectedVertexState().select(v);
+    assertTilesMatch();
+    server.getSelectedVertexState().deselect(v);
+    assertTilesMatch();
+  }
+
+  @Test
+  public void testReplacedLayoutModel() {
+    assertTilesMatch();
+    LayoutModel<Integer> replacement =
+        LayoutModel.<Integer>builder().graph(layoutModel.getGraph()).size(1000, 1000).build();
+    layoutModel.getLocations().forEach(replacement::set);
+    server.getVisualizationModel().setLayoutModel(replacement);
+    layoutModel = replacement;
+    server.getVertexSpatial().recalculate();
+    server.getEdgeSpatial().recalculate();
+    assertTilesMatch();
+
+    // a vertex moved in the new layout model is drawn where it was moved to
+    Integer v = layoutModel.getGraph().vertexSet().iterator().next();
+    layoutModel.set(v, layoutModel.apply(v).add(40, 40));
+    server.getVertexSpatial().recalculate();
+    server.getEdgeSpatial().recalculate();
+    assertTilesMatch();
+  }
+}
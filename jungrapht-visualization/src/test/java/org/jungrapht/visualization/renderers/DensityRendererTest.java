@@ -0,0 +1,173 @@
+package org.jungrapht.visualization.renderers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.*;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.MultiLayerTransformer.Layer;
+import org.jungrapht.visualization.RenderContext;
+import org.jungrapht.visualization.VisualizationServer;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.transform.shape.GraphicsDecorator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that the cells crossed by an edge are counted, and that a dense graph is drawn by the
+ * {@link DensityRenderer} while a sparse one is not
+ *
+ * @author Tom Nelson
+ */
+public class DensityRendererTest {
+
+  @Test
+  public void testCountLine() {
+    int[] counts = new int[10 * 10];
+    // a diagonal that starts and ends outside of the cells
+    DensityRenderer.countLine(counts, 10, 10, -5, -5, 15, 15);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(counts[i * 10 + i] > 0);
+    }
+    // a line that misses the cells
+    int[] missed = new int[10 * 10];
+    DensityRenderer.countLine(missed, 10, 10, -5, 20, 20, 12);
+    assertEquals(0, Arrays.stream(missed).sum());
+    // a horizontal line along row 3
+    int[] row = new int[10 * 10];
+    DensityRenderer.countLine(row, 10, 10, 0.5, 3.5, 9.5, 3.5);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(1, row[3 * 10 + i]);
+    }
+    assertEquals(10, Arrays.stream(row).sum());
+  }
+
+  private VisualizationServer<Integer, Integer> server(int vertexCount) {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    Random random = new Random(2);
+    for (int i = 0; i < vertexCount; i++) {
+      graph.addVertex();
+    }
+    for (int i = 1; i < vertexCount; i++) {
+      graph.addEdge(i, random.nextInt(i));
+    }
+    VisualizationServer<Integer, Integer> server =
+        VisualizationServer.builder(graph)
+            .layoutSize(new Dimension(100, 100))
+            .viewSize(new Dimension(100, 100))
+            .build();
+    ((JComponent) server).setSize(100, 100);
+    LayoutModel<Integer> layoutModel = server.getVisualizationModel().getLayoutModel();
+    graph
+        .vertexSet()
+        .forEach(v -> layoutModel.set(v, random.nextDouble() * 100, random.nextDouble() * 100));
+    return server;
+  }
+
+  private BufferedImage render(VisualizationServer<Integer, Integer> server) {
+    BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    RenderContext<Integer, Integer> renderContext = server.getRenderContext();
+    renderContext.setGraphicsContext(new GraphicsDecorator(g));
+    renderContext.setScreenDevice((JComponent) server);
+    BiModalRenderer<Integer, Integer> renderer =
+        (BiModalRenderer<Integer, Integer>) server.getRenderer();
+    renderer.render(renderContext, server.getVisualizationModel().getLayoutModel(), null, null);
+    g.dispose();
+    return image;
+  }
+
+  @Test
+  public void testDenseGraph() {
+    VisualizationServer<Integer, Integer> server = server(10000);
+    BiModalRenderer<Integer, Integer> renderer =
+        (BiModalRenderer<Integer, Integer>) server.getRenderer();
+    renderer.setCountSupplier(() -> 10000);
+    LayoutModel<Integer> layoutModel = server.getVisualizationModel().getLayoutModel();
+    // off unless asked for
+    assertFalse(renderer.isDense(server.getRenderContext(), layoutModel));
+    renderer.setDensityThreshold(1.0);
+    // 10000 vertices in 50 x 50 cells of 2 pixels
+    assertTrue(renderer.isDense(server.getRenderContext(), layoutModel));
+
+    BufferedImage image = render(server);
+    int red = 0;
+    for (int x = 0; x < 100; x++) {
+      for (int y = 0; y < 100; y++) {
+        int argb = image.getRGB(x, y);
+        if ((argb >>> 24) > 0 && (argb & 0xFFFFFF) == 0xFF0000) {
+          red++;
+        }
+      }
+    }
+    // nearly every cell has a vertex in it
+    assertTrue(red > 9000, "only " + red + " vertex pixels");
+
+    renderer.setDensityThreshold(0);
+    assertFalse(renderer.isDense(server.getRenderContext(), layoutModel));
+  }
+
+  @Test
+  public void testSparseGraph() {
+    VisualizationServer<Integer, Integer> server = server(100);
+    BiModalRenderer<Integer, Integer> renderer =
+        (BiModalRenderer<Integer, Integer>) server.getRenderer();
+    renderer.setCountSupplier(() -> 100);
+    renderer.setDensityThreshold(1.0);
+    assertFalse(
+        renderer.isDense(
+            server.getRenderContext(), server.getVisualizationModel().getLayoutModel()));
+  }
+
+  /** the counts are kept until the vertices or the transform change */
+  @Test
+  public void testCachedCounts() {
+    VisualizationServer<Integer, Integer> server = server(1000);
+    AtomicInteger counts = new AtomicInteger();
+    DensityRenderer<Integer, Integer> renderer =
+        new DensityRenderer<>() {
+          @Override
+          protected void paint(
+              RenderContext<Integer, Integer> renderContext,
+              LayoutModel<Integer> layoutModel,
+              Iterable<Integer> vertices,
+              Iterable<Integer> edges) {
+            counts.incrementAndGet();
+            super.paint(renderContext, layoutModel, vertices, edges);
+          }
+        };
+    RenderContext<Integer, Integer> renderContext = server.getRenderContext();
+    LayoutModel<Integer> layoutModel = server.getVisualizationModel().getLayoutModel();
+    BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    renderContext.setGraphicsContext(new GraphicsDecorator(g));
+    renderContext.setScreenDevice((JComponent) server);
+
+    renderer.render(renderContext, layoutModel);
+    renderer.render(renderContext, layoutModel);
+    assertEquals(1, counts.get());
+
+    layoutModel.set(0, 50, 50);
+    renderer.render(renderContext, layoutModel);
+    renderer.render(renderContext, layoutModel);
+    assertEquals(2, counts.get());
+
+    renderContext.getMultiLayerTransformer().getTransformer(Layer.VIEW).translate(10, 0);
+    renderer.render(renderContext, layoutModel);
+    assertEquals(3, counts.get());
+
+    renderer.setCellSize(4);
+    renderer.render(renderContext, layoutModel);
+    assertEquals(4, counts.get());
+    g.dispose();
+  }
+}
@@ -0,0 +1,177 @@
+package org.jungrapht.visualization.selection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Dimension;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.MultiLayerTransformer;
+import org.jungrapht.visualization.VisualizationModel;
+import org.jungrapht.visualization.VisualizationServer;
+import org.jungrapht.visualization.layout.algorithms.StaticLayoutAlgorithm;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.transform.Lens;
+import org.jungrapht.visualization.transform.LensTransformer;
+import org.jungrapht.visualization.transform.MutableTransformer;
+import org.jungrapht.visualization.transform.shape.HyperbolicShapeTransformer;
+import org.jungrapht.visualization.transform.shape.MagnifyShapeTransformer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that picking with the spatial structures finds the same vertices and edges as checking
+ * every vertex and edge, with and without a lens
+ *
+ * @author Tom Nelson
+ */
+public class ShapePickSupportTest {
+
+  private VisualizationServer<Integer, Integer> server;
+  private ShapePickSupport<Integer, Integer> pickSupport;
+  private LayoutModel<Integer> layoutModel;
+  private final Map<String, String> savedProperties = new HashMap<>();
+
+  private void setProperty(String key, String value) {
+    savedProperties.put(key, System.getProperty(key));
+    System.setProperty(key, value);
+  }
+
+  @BeforeEach
+  public void setup() {
+    setProperty("jungrapht.spatialSupportOnSwingThread", "false");
+    setProperty("jungrapht.vertexSpatialSupport", "RTREE");
+    setProperty("jungrapht.edgeSpatialSupport", "RTREE");
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    int side = 20;
+    for (int i = 0; i < side * side; i++) {
+      graph.addVertex();
+    }
+    for (int i = 0; i < side * side; i++) {
+      if (i % side < side - 1) {
+        graph.addEdge(i, i + 1);
+      }
+      if (i + side < side * side) {
+        graph.addEdge(i, i + side);
+      }
+    }
+    Random random = new Random(3);
+    double[] x = new double[side * side];
+    double[] y = new double[side * side];
+    for (int i = 0; i < side * side; i++) {
+      x[i] = 15 + 30 * (i % side) + random.nextDouble() * 10;
+      y[i] = 15 + 30 * (i / side) + random.nextDouble() * 10;
+    }
+    layoutModel =
+        LayoutModel.<Integer>builder()
+            .graph(graph)
+            .size(600, 600)
+            .initializer(v -> Point.of(x[v], y[v]))
+            .build();
+    server =
+        VisualizationServer.builder(
+                VisualizationModel.<Integer, Integer>builder(layoutModel)
+                    .layoutAlgorithm(new StaticLayoutAlgorithm<>())
+                    .build())
+            .viewSize(new Dimension(600, 600))
+            .build();
+    server.getVertexSpatial().setActive(true);
+    server.getVertexSpatial().recalculate();
+    server.getEdgeSpatial().setActive(true);
+    server.getEdgeSpatial().recalculate();
+    pickSupport = new ShapePickSupport<>(server);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    savedProperties.forEach(
+        (key, value) -> {
+          if (value == null) {
+            System.clearProperty(key);
+          } else {
+            System.setProperty(key, value);
+          }
+        });
+    savedProperties.clear();
+  }
+
+  private MutableTransformer viewTransformer() {
+    return server
+        .getRenderContext()
+        .getMultiLayerTransformer()
+        .getTransformer(MultiLayerTransformer.Layer.VIEW);
+  }
+
+  private void setLens(LensTransformer lensTransformer) {
+    MultiLayerTransformer multiLayerTransformer =
+        server.getRenderContext().getMultiLayerTransformer();
+    lensTransformer.getLens().setCenter(new Point2D.Double(280, 320));
+    lensTransformer.getLens().setRadius(160);
+    multiLayerTransformer.setTransformer(MultiLayerTransformer.Layer.VIEW, lensTransformer);
+  }
+
+  private void assertSamePicks() {
+    int vertexPicks = 0;
+    int edgePicks = 0;
+    // a fixed random sample of footprints, the same for every run
+    Random random = new Random(11);
+    for (int i = 0; i < 400; i++) {
+      int x = 2 + random.nextInt(596);
+      int y = 2 + random.nextInt(596);
+      Rectangle2D footprint = new Rectangle2D.Double(x - 2, y - 2, 4, 4);
+      server.getVertexSpatial().setActive(true);
+      server.getEdgeSpatial().setActive(true);
+      Integer vertex = pickSupport.getVertex(layoutModel, footprint);
+      Integer edge = pickSupport.getEdge(layoutModel, footprint);
+      server.getVertexSpatial().setActive(false);
+      server.getEdgeSpatial().setActive(false);
+      Integer expectedVertex = pickSupport.getVertex(layoutModel, footprint);
+      Integer expectedEdge = pickSupport.getEdge(layoutModel, footprint);
+      assertEquals(expectedVertex, vertex, "vertex at " + x + "," + y);
+      // more than one edge may cross the footprint, so only check that one was found
+      assertEquals(expectedEdge == null, edge == null, "edge at " + x + "," + y);
+      if (vertex != null) {
+        vertexPicks++;
+      }
+      if (edge != null) {
+        edgePicks++;
+      }
+    }
+    assertTrue(vertexPicks > 0);
+    assertTrue(edgePicks > 0);
+  }
+
+  @Test
+  public void testNoLens() {
+    assertSamePicks();
+  }
+
+  @Test
+  public void testMagnifyLens() {
+    setLens(
+        MagnifyShapeTransformer.builder(Lens.builder().magnification(2.5).build())
+            .delegate(viewTransformer())
+            .build());
+    assertSamePicks();
+  }
+
+  @Test
+  public void testHyperbolicLens() {
+    setLens(
+        HyperbolicShapeTransformer.builder(Lens.builder().magnification(2.5).build())
+            .delegate(viewTransformer())
+            .build());
+    assertSamePicks();
+  }
+}
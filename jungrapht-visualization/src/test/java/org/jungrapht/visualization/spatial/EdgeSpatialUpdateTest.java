@@ -0,0 +1,139 @@
+package org.jungrapht.visualization.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.QuadCurve2D;
+import java.awt.geom.Rectangle2D;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.event.LayoutVertexPositionChange;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.spatial.rtree.QuadraticLeafSplitter;
+import org.jungrapht.visualization.spatial.rtree.QuadraticSplitter;
+import org.jungrapht.visualization.spatial.rtree.SplitterContext;
+import org.jungrapht.visualization.util.BoundingRectangleCollector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that the edge bounds made from the cached edge shape extents contain the exact edge bounds,
+ * and that a batch of moved vertices updates the edge RTree so that every edge is still found,
+ * once, where it was moved
+ *
+ * @author Tom Nelson
+ */
+public class EdgeSpatialUpdateTest {
+
+  Random random = new Random(5);
+  Graph<Integer, Integer> graph;
+  LayoutModel<Integer> layoutModel;
+  BoundingRectangleCollector.Edges<Integer, Integer> collector;
+
+  @BeforeEach
+  public void setup() {
+    graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .allowingSelfLoops(true)
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    for (int i = 0; i < 300; i++) {
+      graph.addVertex();
+    }
+    for (int i = 0; i < 600; i++) {
+      graph.addEdge(random.nextInt(300), random.nextInt(300));
+    }
+    graph.addEdge(7, 7);
+    layoutModel = LayoutModel.<Integer>builder().graph(graph).size(1000, 1000).build();
+    graph
+        .vertexSet()
+        .forEach(v -> layoutModel.set(v, random.nextDouble() * 1000, random.nextDouble() * 1000));
+    // alternate straight and curved edges
+    BiFunction<Graph<Integer, Integer>, Integer, Shape> edgeShapeFunction =
+        (g, e) ->
+            e % 2 == 0
+                ? new Line2D.Double(0, 0, 1, 0)
+                : new QuadCurve2D.Double(0, 0, .5, 20 - e % 40, 1, 0);
+    collector =
+        new BoundingRectangleCollector.Edges<>(
+            v -> new Ellipse2D.Double(-10, -10, 20, 20), edgeShapeFunction, layoutModel);
+  }
+
+  @Test
+  public void testExtentContainsBounds() {
+    for (Integer e : graph.edgeSet()) {
+      Point p1 = layoutModel.apply(graph.getEdgeSource(e));
+      Point p2 = layoutModel.apply(graph.getEdgeTarget(e));
+      Rectangle2D exact = collector.getForElement(e, p1, p2);
+      Rectangle2D extent = collector.getExtentFor(e, p1, p2);
+      assertTrue(
+          extent.getMinX() <= exact.getMinX() + 1.0e-9
+              && extent.getMinY() <= exact.getMinY() + 1.0e-9
+              && extent.getMaxX() >= exact.getMaxX() - 1.0e-9
+              && extent.getMaxY() >= exact.getMaxY() - 1.0e-9,
+          e + ": " + extent + " does not contain " + exact);
+    }
+  }
+
+  @Test
+  public void testBatchUpdate() {
+    SpatialRTree.Edges<Integer, Integer> spatial =
+        (SpatialRTree.Edges<Integer, Integer>)
+            SpatialRTree.Edges.builder()
+                .layoutModel(layoutModel)
+                .boundingRectangleCollector(collector)
+                .splitterContext(
+                    SplitterContext.of(new QuadraticLeafSplitter(), new QuadraticSplitter()))
+                .build();
+    spatial.setActive(true);
+    spatial.recalculate();
+
+    // move a few vertices, most of them a long way
+    Set<Integer> moved = new HashSet<>();
+    Map<Integer, Point> locations = new HashMap<>();
+    while (moved.size() < 12) {
+      Integer v = random.nextInt(300);
+      if (moved.add(v)) {
+        locations.put(
+            v,
+            moved.size() % 3 == 0
+                ? layoutModel.apply(v).add(1, 1)
+                : Point.of(random.nextDouble() * 1000, random.nextDouble() * 1000));
+      }
+    }
+    locations.forEach(layoutModel::set);
+    spatial.layoutVertexPositionsChanged(
+        new LayoutVertexPositionChange.BulkEvent<>(moved, layoutModel));
+
+    assertEquals(graph.edgeSet().size(), spatial.rtree.count());
+    for (int i = 0; i < 100; i++) {
+      Rectangle2D query =
+          new Rectangle2D.Double(random.nextDouble() * 900, random.nextDouble() * 900, 100, 100);
+      Set<Integer> expected =
+          graph
+              .edgeSet()
+              .stream()
+              .filter(
+                  e ->
+                      query.intersects(
+                          collector.getForElement(
+                              e,
+                              layoutModel.apply(graph.getEdgeSource(e)),
+                              layoutModel.apply(graph.getEdgeTarget(e)))))
+              .collect(Collectors.toSet());
+      assertTrue(spatial.getVisibleElements(query).containsAll(expected), "" + query);
+    }
+  }
+}
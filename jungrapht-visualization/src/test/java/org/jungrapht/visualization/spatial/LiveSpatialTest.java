@@ -0,0 +1,200 @@
+package org.jungrapht.visualization.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ConcurrentModificationException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.event.LayoutStateChange;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.spatial.rtree.RStarLeafSplitter;
+import org.jungrapht.visualization.spatial.rtree.RStarSplitter;
+import org.jungrapht.visualization.spatial.rtree.SplitterContext;
+import org.jungrapht.visualization.util.BoundingRectangleCollector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that a live spatial structure stays active while the layout model is relaxing and that the
+ * structures rebuilt in the background find the vertices where they were moved
+ *
+ * @author Tom Nelson
+ */
+public class LiveSpatialTest {
+
+  LayoutModel<Integer> layoutModel;
+  Random random = new Random(3);
+
+  @BeforeEach
+  public void setup() {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    for (int i = 0; i < 300; i++) {
+      graph.addVertex();
+    }
+    layoutModel = LayoutModel.<Integer>builder().graph(graph).size(600, 600).build();
+    // start with every vertex in the left half
+    graph
+        .vertexSet()
+        .forEach(v -> layoutModel.set(v, random.nextDouble() * 290, 600 * random.nextDouble()));
+  }
+
+  private Set<Integer> inside(Rectangle2D area) {
+    return layoutModel
+        .getGraph()
+        .vertexSet()
+        .stream()
+        .filter(v -> area.contains(layoutModel.apply(v).x, layoutModel.apply(v).y))
+        .collect(Collectors.toSet());
+  }
+
+  private boolean finds(Spatial<Integer, Integer> spatial, Rectangle2D area) {
+    return spatial.getVisibleElements(area).containsAll(inside(area));
+  }
+
+  private void testLive(Spatial<Integer, Integer> spatial) throws Exception {
+    spatial.setLiveIndex(true);
+    spatial.setActive(true);
+    spatial.recalculate();
+    Rectangle2D right = new Rectangle2D.Double(300, 0, 300, 600);
+    assertTrue(inside(right).isEmpty());
+
+    // the layout model starts to relax
+    spatial.layoutStateChanged(new LayoutStateChange.Event(layoutModel, true));
+    assertTrue(spatial.isActive());
+
+    // move half of the vertices to the right half, then let the spatial know
+    for (Integer v : layoutModel.getGraph().vertexSet()) {
+      if (v % 2 == 0) {
+        Point p = layoutModel.apply(v);
+        layoutModel.set(v, p.x + 300, p.y);
+      }
+    }
+    spatial.recalculate();
+    assertTrue(spatial.isActive());
+    long end = System.currentTimeMillis() + 10000;
+    while (!finds(spatial, right) && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(150, inside(right).size());
+    assertTrue(finds(spatial, right));
+
+    // the layout model is done relaxing
+    spatial.layoutStateChanged(new LayoutStateChange.Event(layoutModel, false));
+    assertTrue(spatial.isActive());
+    assertTrue(finds(spatial, right));
+    assertTrue(finds(spatial, new Rectangle2D.Double(0, 0, 300, 600)));
+  }
+
+  @Test
+  public void testRTree() throws Exception {
+    Spatial<Integer, Integer> spatial =
+        SpatialRTree.Vertices.builder()
+            .layoutModel(layoutModel)
+            .boundingRectangleCollector(
+                new BoundingRectangleCollector.Vertices<Integer>(
+                    v -> new Rectangle2D.Double(-5, -5, 10, 10), layoutModel))
+            .splitterContext(SplitterContext.of(new RStarLeafSplitter<>(), new RStarSplitter<>()))
+            .build();
+    testLive(spatial);
+  }
+
+  @Test
+  public void testGrid() throws Exception {
+    testLive(new SpatialGrid<>(layoutModel));
+  }
+
+  @Test
+  public void testQuadTree() throws Exception {
+    testLive(new SpatialQuadTree<>(layoutModel));
+  }
+
+  @Test
+  public void testNotLive() {
+    Spatial<Integer, Integer> spatial = new SpatialGrid<>(layoutModel);
+    spatial.setActive(true);
+    spatial.layoutStateChanged(new LayoutStateChange.Event(layoutModel, true));
+    assertFalse(spatial.isActive());
+  }
+
+  @Test
+  public void testRebuildGivesUp() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    Spatial<Integer, Integer> spatial =
+        new SpatialGrid<>(layoutModel) {
+          @Override
+          protected Runnable buildReplacement() {
+            attempts.incrementAndGet();
+            // the graph is always changing under this rebuild
+            throw new ConcurrentModificationException();
+          }
+        };
+    spatial.setLiveIndex(true);
+    spatial.setActive(true);
+    spatial.layoutStateChanged(new LayoutStateChange.Event(layoutModel, true));
+    long end = System.currentTimeMillis() + 10000;
+    while (attempts.get() < 3 && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(100);
+    assertEquals(3, attempts.get());
+    assertTrue(spatial.isActive());
+  }
+
+  /** requests made while a rebuild runs are merged into one more rebuild, never a concurrent one */
+  @Test
+  public void testSingleRebuild() throws Exception {
+    AtomicInteger builds = new AtomicInteger();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger mostRunning = new AtomicInteger();
+    SpatialGrid<Integer> spatial =
+        new SpatialGrid<>(layoutModel) {
+          @Override
+          protected Runnable buildReplacement() {
+            builds.incrementAndGet();
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+              Thread.sleep(200);
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return super.buildReplacement();
+          }
+        };
+    spatial.setLiveIndex(true);
+    spatial.setActive(true);
+    spatial.layoutStateChanged(new LayoutStateChange.Event(layoutModel, true));
+    long end = System.currentTimeMillis() + 10000;
+    while (builds.get() == 0 && System.currentTimeMillis() < end) {
+      Thread.sleep(5);
+    }
+    Thread[] requesters = new Thread[4];
+    for (int i = 0; i < requesters.length; i++) {
+      requesters[i] =
+          new Thread(
+              () -> {
+                for (int j = 0; j < 10; j++) {
+                  spatial.rebuildInBackground();
+                }
+              });
+      requesters[i].start();
+    }
+    for (Thread requester : requesters) {
+      requester.join();
+    }
+    Thread.sleep(1000);
+    assertEquals(1, mostRunning.get());
+    assertEquals(2, builds.get());
+  }
+}
@@ -0,0 +1,183 @@
+package org.jungrapht.visualization.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.jungrapht.visualization.spatial.rtree.PackedRTree;
+import org.jungrapht.visualization.spatial.rtree.RStarLeafSplitter;
+import org.jungrapht.visualization.spatial.rtree.RStarSplitter;
+import org.jungrapht.visualization.spatial.rtree.RTree;
+import org.jungrapht.visualization.spatial.rtree.SplitterContext;
+import org.jungrapht.visualization.util.BoundingRectangleCollector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that the bulk loaded {@link RTree} and the {@link PackedRTree} find the same elements as a
+ * scan of every element, and that a packed {@link SpatialRTree} unpacks when a vertex is moved
+ *
+ * @author Tom Nelson
+ */
+public class PackedRTreeTest {
+
+  Random random = new Random(7);
+  List<Map.Entry<Integer, Rectangle2D>> entries = new ArrayList<>();
+  List<Rectangle2D> queries = new ArrayList<>();
+
+  @BeforeEach
+  public void setup() {
+    for (int i = 0; i < 2000; i++) {
+      entries.add(
+          new AbstractMap.SimpleEntry<>(
+              i,
+              new Rectangle2D.Double(
+                  random.nextDouble() * 1000,
+                  random.nextDouble() * 1000,
+                  1 + random.nextDouble() * 20,
+                  1 + random.nextDouble() * 20)));
+    }
+    for (int i = 0; i < 50; i++) {
+      queries.add(
+          new Rectangle2D.Double(
+              random.nextDouble() * 900,
+              random.nextDouble() * 900,
+              random.nextDouble() * 200,
+              random.nextDouble() * 200));
+    }
+  }
+
+  private Set<Integer> scan(Rectangle2D query) {
+    return entries
+        .stream()
+        .filter(entry -> query.intersects(entry.getValue()))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
+  }
+
+  @Test
+  public void testBulkLoad() {
+    RTree<Integer> rtree = RTree.bulkLoad(entries);
+    assertEquals(entries.size(), rtree.count());
+    for (Rectangle2D query : queries) {
+      assertEquals(
+          scan(query),
+          rtree.getRoot().get().getVisibleElements(new HashSet<>(), query),
+          "" + query);
+    }
+    assertTrue(
+        RTree.bulkLoad(new ArrayList<Map.Entry<Integer, Rectangle2D>>()).getRoot().isEmpty());
+  }
+
+  @Test
+  public void testPackedRTree() {
+    PackedRTree<Integer> packedRTree = PackedRTree.create(entries);
+    assertEquals(entries.size(), packedRTree.count());
+    for (Rectangle2D query : queries) {
+      assertEquals(scan(query), packedRTree.getVisibleElements(new HashSet<>(), query), "" + query);
+    }
+    for (Map.Entry<Integer, Rectangle2D> entry : entries) {
+      assertTrue(packedRTree.getContainingLeaf(entry.getKey()).contains(entry.getKey()));
+    }
+    Map<Integer, Rectangle2D> unpacked =
+        packedRTree
+            .entries()
+            .stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    assertEquals(entries.size(), unpacked.size());
+    for (Map.Entry<Integer, Rectangle2D> entry : entries) {
+      Rectangle2D r = unpacked.get(entry.getKey());
+      assertEquals(entry.getValue().getMinX(), r.getMinX(), 1.0e-9);
+      assertEquals(entry.getValue().getMaxY(), r.getMaxY(), 1.0e-9);
+    }
+  }
+
+  /** a picked element contains the point, and there is one whenever the scan finds one */
+  @Test
+  public void testPickedObject() {
+    PackedRTree<Integer> packedRTree = PackedRTree.create(entries);
+    Map<Integer, Rectangle2D> bounds =
+        entries.stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    for (int i = 0; i < 500; i++) {
+      Point2D p = new Point2D.Double(random.nextDouble() * 1020, random.nextDouble() * 1020);
+      boolean any = entries.stream().anyMatch(entry -> entry.getValue().contains(p));
+      Integer picked = packedRTree.getPickedObject(p);
+      if (any) {
+        assertNotNull(picked, "nothing picked at " + p);
+        Rectangle2D r = bounds.get(picked);
+        assertTrue(
+            p.getX() >= r.getMinX()
+                && p.getX() <= r.getMaxX()
+                && p.getY() >= r.getMinY()
+                && p.getY() <= r.getMaxY());
+      } else {
+        assertNull(picked, picked + " picked at " + p);
+      }
+    }
+    assertNull(packedRTree.getContainingLeaf(-1));
+  }
+
+  @Test
+  public void testPackedSpatial() {
+    Graph<Integer, Integer> graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    for (int i = 0; i < 500; i++) {
+      graph.addVertex();
+    }
+    LayoutModel<Integer> layoutModel =
+        LayoutModel.<Integer>builder().graph(graph).size(600, 600).build();
+    graph
+        .vertexSet()
+        .forEach(v -> layoutModel.set(v, random.nextDouble() * 600, random.nextDouble() * 600));
+
+    SpatialRTree<Integer, Integer> spatial =
+        SpatialRTree.Vertices.builder()
+            .layoutModel(layoutModel)
+            .boundingRectangleCollector(
+                new BoundingRectangleCollector.Vertices<Integer>(
+                    v -> new Rectangle2D.Double(-5, -5, 10, 10), layoutModel))
+            .splitterContext(SplitterContext.of(new RStarLeafSplitter<>(), new RStarSplitter<>()))
+            .packed(true)
+            .build();
+    spatial.setActive(true);
+    spatial.recalculate();
+    assertTrue(spatial.toString().startsWith("PackedRTree"));
+
+    Rectangle2D area = new Rectangle2D.Double(100, 100, 200, 200);
+    assertTrue(spatial.getVisibleElements(area).containsAll(inside(layoutModel, area)));
+
+    // moving a vertex unpacks the structure into an rtree that is updated in place
+    Point p = layoutModel.apply(0);
+    layoutModel.set(0, 200, 200);
+    spatial.update(0, layoutModel.apply(0));
+    assertNull(spatial.packedTree);
+    assertTrue(spatial.getVisibleElements(area).contains(0));
+    assertTrue(spatial.getVisibleElements(area).containsAll(inside(layoutModel, area)));
+    assertNotEquals(p, layoutModel.apply(0));
+  }
+
+  private static Set<Integer> inside(LayoutModel<Integer> layoutModel, Rectangle2D area) {
+    return layoutModel
+        .getGraph()
+        .vertexSet()
+        .stream()
+        .filter(v -> area.contains(layoutModel.apply(v).x, layoutModel.apply(v).y))
+        .collect(Collectors.toSet());
+  }
+}
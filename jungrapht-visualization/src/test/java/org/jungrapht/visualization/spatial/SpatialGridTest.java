@@ -1,7 +1,15 @@
 package org.jungrapht.visualization.spatial;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import java.awt.Rectangle;
 import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.Pseudograph;
+import org.jungrapht.visualization.layout.event.LayoutVertexPositionChange;
+import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +36,25 @@ public class SpatialGridTest {
     showVisibleTiles(spatial, new Rectangle(99, 99, 30, 30));
   }
 
+  /** a batch of a few moved vertices moves each one to its new box */
+  @Test
+  public void testBulkMoveBelowFraction() {
+    Graph<String, Object> graph = Pseudograph.<String, Object>createBuilder(Object::new).build();
+    IntStream.range(0, 100).mapToObj(i -> "N" + i).forEach(graph::addVertex);
+    LayoutModel<String> layoutModel =
+        LayoutModel.<String>builder().graph(graph).size(600, 600).build();
+    graph.vertexSet().forEach(v -> layoutModel.set(v, 300, 300));
+    SpatialGrid<String> spatial = new SpatialGrid<>(layoutModel);
+    spatial.setActive(true);
+    spatial.recalculate();
+    layoutModel.set("N1", 10, 10);
+    layoutModel.set("N2", 590, 10);
+    spatial.layoutVertexPositionsChanged(
+        new LayoutVertexPositionChange.BulkEvent<>(Set.of("N1", "N2"), layoutModel));
+    assertEquals("N1", spatial.getClosestElement(12, 12));
+    assertEquals("N2", spatial.getClosestElement(588, 12));
+  }
+
   private void showBoxIndex(SpatialGrid spatial, int x, int y) {
     log.info(
         "spatial.getBoxIndex(" + x + "," + y + "):" + Arrays.toString(spatial.getBoxIndex(x, y)));
@@ -2,9 +2,11 @@ package org.jungrapht.visualization.spatial;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Set;
 import java.util.stream.IntStream;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.Pseudograph;
+import org.jungrapht.visualization.layout.event.LayoutVertexPositionChange;
 import org.jungrapht.visualization.layout.model.LayoutModel;
 import org.jungrapht.visualization.layout.model.Point;
 import org.jungrapht.visualization.layout.util.RadiusVertexAccessor;
@@ -70,6 +72,24 @@ public class SpatialQuadTreeTest {
     }
   }
 
+  /** a batch of a few moved vertices updates each one, without a rebuild of the whole tree */
+  @Test
+  public void testBulkMoveBelowFraction() {
+    tree.setActive(true);
+    Set<String> moved = Set.of("N1", "N2", "N3");
+    layoutModel.set("N1", 10, 10);
+    layoutModel.set("N2", 590, 10);
+    layoutModel.set("N3", 300, 590);
+    tree.layoutVertexPositionsChanged(
+        new LayoutVertexPositionChange.BulkEvent<>(moved, layoutModel));
+    for (String vertex : moved) {
+      Point location = layoutModel.apply(vertex);
+      assertEquals(
+          tree.getContainingQuadTreeLeaf(location.x, location.y),
+          tree.getContainingQuadTreeLeaf(vertex));
+    }
+  }
+
   /**
    * test that the closest vertex for a random point is the same one returned for the
    * RadiusVertexAccessor and for the SpatialQuadTree Test with 1000 randomly generated points
@@ -3,10 +3,14 @@ package org.jungrapht.visualization.sublayout;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
 import org.jgrapht.graph.DefaultGraphType;
 import org.jgrapht.graph.builder.GraphTypeBuilder;
 import org.jgrapht.util.SupplierUtil;
@@ -177,6 +181,79 @@ public class GraphCollapserTest {
     assertEquals(getDemoGraph2(), graph);
   }
 
+  @Test
+  public void testNestedClustersInRandomOrder() {
+    Random random = new Random(11);
+    Graph<String, Integer> graph =
+        GraphTypeBuilder.<String, Integer>forGraphType(DefaultGraphType.multigraph())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .allowingSelfLoops(true)
+            .allowingMultipleEdges(true)
+            .buildGraph();
+    for (int i = 0; i < 60; i++) {
+      graph.addVertex("V" + i);
+    }
+    for (int i = 0; i < 150; i++) {
+      graph.addEdge("V" + random.nextInt(60), "V" + random.nextInt(60));
+    }
+    Graph<String, Integer> original =
+        GraphTypeBuilder.<String, Integer>forGraphType(DefaultGraphType.multigraph())
+            .allowingSelfLoops(true)
+            .allowingMultipleEdges(true)
+            .buildGraph();
+    Graphs.addGraph(original, graph);
+
+    GraphCollapser<String, Integer> collapser = new GraphCollapser<>(graph);
+    int[] count = new int[1];
+    for (int i = 0; i < 20; i++) {
+      List<String> vertices = new ArrayList<>(graph.vertexSet());
+      Collections.shuffle(vertices, random);
+      List<String> picked = vertices.subList(0, Math.min(vertices.size(), 2 + random.nextInt(5)));
+      String clusterVertex = collapser.collapse(picked, s -> "C" + count[0]++);
+      assertTrue(graph.containsVertex(clusterVertex));
+      picked.forEach(v -> assertEquals(clusterVertex, collapser.findOwnerOf(v)));
+      assertEdgesFollowOwners(original, graph, collapser);
+    }
+
+    // expand the clusters that are in the graph until none are left
+    while (!collapser.getCollapsedGraphMap().isEmpty()) {
+      List<String> clusters =
+          graph
+              .vertexSet()
+              .stream()
+              .filter(collapser.getCollapsedGraphMap()::containsKey)
+              .collect(Collectors.toList());
+      collapser.expand(clusters.get(random.nextInt(clusters.size())));
+      assertEdgesFollowOwners(original, graph, collapser);
+    }
+    assertEquals(original.vertexSet(), graph.vertexSet());
+    assertEquals(original.edgeSet(), graph.edgeSet());
+    for (Integer e : original.edgeSet()) {
+      assertEquals(original.getEdgeSource(e), graph.getEdgeSource(e));
+      assertEquals(original.getEdgeTarget(e), graph.getEdgeTarget(e));
+    }
+  }
+
+  /**
+   * every original edge is either in the graph, between the vertices that hold its endpoints, or
+   * inside the cluster that holds both of its endpoints
+   */
+  private static void assertEdgesFollowOwners(
+      Graph<String, Integer> original,
+      Graph<String, Integer> graph,
+      GraphCollapser<String, Integer> collapser) {
+    for (Integer e : original.edgeSet()) {
+      String source = collapser.findVertexOf(original.getEdgeSource(e));
+      String target = collapser.findVertexOf(original.getEdgeTarget(e));
+      if (graph.containsEdge(e)) {
+        assertEquals(source, graph.getEdgeSource(e));
+        assertEquals(target, graph.getEdgeTarget(e));
+      } else {
+        assertEquals(source, target, "edge " + e + " is missing");
+      }
+    }
+  }
+
   private static void createEdge(Graph<String, Integer> g, String v1Label, String v2Label) {
     g.addVertex(v1Label);
     g.addVertex(v2Label);
@@ -0,0 +1,125 @@
+package org.jungrapht.visualization.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.jgrapht.util.SupplierUtil;
+import org.jungrapht.visualization.layout.model.LayoutModel;
+import org.jungrapht.visualization.layout.model.Point;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that the cached shape bounds give the same rectangles as transforming each shape, and that
+ * a shape's bounds are only taken again when the shape function returns a different shape
+ *
+ * @author Tom Nelson
+ */
+public class BoundingRectangleCollectorTest {
+
+  Graph<Integer, Integer> graph;
+  LayoutModel<Integer> layoutModel;
+
+  @BeforeEach
+  public void setup() {
+    graph =
+        GraphTypeBuilder.<Integer, Integer>undirected()
+            .vertexSupplier(SupplierUtil.createIntegerSupplier())
+            .edgeSupplier(SupplierUtil.createIntegerSupplier())
+            .buildGraph();
+    Random random = new Random(1);
+    for (int i = 0; i < 50; i++) {
+      graph.addVertex();
+    }
+    for (int i = 0; i < 100; i++) {
+      int v1 = random.nextInt(50);
+      int v2 = random.nextInt(50);
+      if (v1 != v2) {
+        graph.addEdge(v1, v2);
+      }
+    }
+    layoutModel = LayoutModel.<Integer>builder().graph(graph).size(500, 500).build();
+    graph
+        .vertexSet()
+        .forEach(v -> layoutModel.set(v, random.nextDouble() * 500, random.nextDouble() * 500));
+  }
+
+  private static Rectangle2D transformed(AffineTransform transform, Shape shape) {
+    return transform.createTransformedShape(shape).getBounds2D();
+  }
+
+  private static void assertClose(Rectangle2D expected, Rectangle2D actual) {
+    assertEquals(expected.getMinX(), actual.getMinX(), 1.0e-9);
+    assertEquals(expected.getMinY(), actual.getMinY(), 1.0e-9);
+    assertEquals(expected.getMaxX(), actual.getMaxX(), 1.0e-9);
+    assertEquals(expected.getMaxY(), actual.getMaxY(), 1.0e-9);
+  }
+
+  @Test
+  public void testVertexBounds() {
+    Shape shape = new Ellipse2D.Double(-10, -6, 20, 12);
+    AffineTransform scale = AffineTransform.getScaleInstance(.5, 2);
+    BoundingRectangleCollector.Vertices<Integer> collector =
+        new BoundingRectangleCollector.Vertices<>(v -> shape, () -> scale, layoutModel);
+    for (Integer v : graph.vertexSet()) {
+      Point p = layoutModel.apply(v);
+      AffineTransform xform = AffineTransform.getTranslateInstance(p.x, p.y);
+      xform.concatenate(scale);
+      assertClose(transformed(xform, shape), collector.getForElement(v));
+    }
+    assertEquals(graph.vertexSet().size(), collector.getRectangles().size());
+  }
+
+  @Test
+  public void testVertexShapeCache() {
+    AtomicInteger boundsCount = new AtomicInteger();
+    Shape shared =
+        new Rectangle2D.Double(-5, -5, 10, 10) {
+          @Override
+          public Rectangle2D getBounds2D() {
+            boundsCount.incrementAndGet();
+            return super.getBounds2D();
+          }
+        };
+    Shape big = new Rectangle2D.Double(-50, -50, 100, 100);
+    BoundingRectangleCollector.Vertices<Integer> collector =
+        new BoundingRectangleCollector.Vertices<>(
+            v -> v == 0 && boundsCount.get() > 100 ? big : shared, layoutModel);
+    int count = boundsCount.get();
+    assertEquals(graph.vertexSet().size(), count);
+    collector.compute();
+    collector.compute();
+    assertEquals(count, boundsCount.get());
+
+    // a new shape for vertex 0 replaces its cached bounds
+    boundsCount.set(101);
+    Point p = layoutModel.apply(0);
+    assertClose(new Rectangle2D.Double(p.x - 50, p.y - 50, 100, 100), collector.getForElement(0));
+  }
+
+  @Test
+  public void testEdgeBounds() {
+    Shape line = new Line2D.Double(0, 0, 1, 0);
+    BoundingRectangleCollector.Edges<Integer, Integer> collector =
+        new BoundingRectangleCollector.Edges<>(
+            v -> new Ellipse2D.Double(-5, -5, 10, 10), (g, e) -> line, layoutModel);
+    for (Integer e : graph.edgeSet()) {
+      Point p1 = layoutModel.apply(graph.getEdgeSource(e));
+      Point p2 = layoutModel.apply(graph.getEdgeTarget(e));
+      Rectangle2D expected = new Line2D.Double(p1.x, p1.y, p2.x, p2.y).getBounds2D();
+      Rectangle2D actual = collector.getForElement(e);
+      assertEquals(expected.getMinX(), actual.getMinX(), 1.0e-9);
+      assertEquals(expected.getMinY(), actual.getMinY(), 1.0e-9);
+      assertEquals(Math.max(expected.getWidth(), .001), actual.getWidth(), 1.0e-9);
+      assertEquals(Math.max(expected.getHeight(), .001), actual.getHeight(), 1.0e-9);
+    }
+  }
+}